@@ -0,0 +1,36 @@
+package com.todo.app.archive;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * 归档任务状态：GET /actuator/archive；POST /actuator/archive 立即运行一次
+ *
+ * skippedTrees 为根节点满足条件、但子树中有节点最近才完成而暂不归档的树；
+ * failures / lastError 记录按用户处理时的失败（死锁等），下次运行会重试。
+ */
+@Endpoint(id = "archive")
+public class ArchiveEndpoint {
+
+    private final TodoArchiver archiver;
+
+    public ArchiveEndpoint(TodoArchiver archiver) {
+        this.archiver = archiver;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return archiver.stats();
+    }
+
+    @WriteOperation
+    public Map<String, Object> run() {
+        boolean started = archiver.runNow();
+        Map<String, Object> stats = archiver.stats();
+        stats.put("started", started);
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+package com.todo.app.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 已完成 Todo 自动归档配置（app.archive.*）
+ */
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = true;
+
+    /** 完成时间早于这个时长的 Todo（连同整棵子树、子任务）才会归档 */
+    private Duration olderThan = Duration.ofDays(90);
+
+    /** 每个事务搬运的根节点数，事务越小持锁时间越短 */
+    private int chunkSize = 100;
+
+    /** 两个事务之间的停顿，给在线请求让出连接和行锁 */
+    private Duration pauseBetweenChunks = Duration.ofMillis(200);
+
+    /** 单次运行最多搬运的根节点数，剩余的留到下一次 */
+    private int maxPerRun = 10000;
+
+    /** 启动后第一次运行的延迟和之后的运行间隔 */
+    private Duration initialDelay = Duration.ofMinutes(5);
+    private Duration interval = Duration.ofHours(6);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Duration getOlderThan() { return olderThan; }
+    public void setOlderThan(Duration olderThan) { this.olderThan = olderThan; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public Duration getPauseBetweenChunks() { return pauseBetweenChunks; }
+    public void setPauseBetweenChunks(Duration pauseBetweenChunks) { this.pauseBetweenChunks = pauseBetweenChunks; }
+    public int getMaxPerRun() { return maxPerRun; }
+    public void setMaxPerRun(int maxPerRun) { this.maxPerRun = maxPerRun; }
+    public Duration getInitialDelay() { return initialDelay; }
+    public void setInitialDelay(Duration initialDelay) { this.initialDelay = initialDelay; }
+    public Duration getInterval() { return interval; }
+    public void setInterval(Duration interval) { this.interval = interval; }
+}
@@ -0,0 +1,332 @@
+package com.todo.app.archive;
+
+import com.todo.app.entity.ArchivedSubTask;
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.ArchivedSubTaskRepository;
+import com.todo.app.repository.ArchivedTodoRepository;
+import com.todo.app.repository.SubTaskRepository;
+import com.todo.app.repository.TodoOccurrenceRepository;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.UserRepository;
+import com.todo.app.service.CategoryService;
+import com.todo.app.service.SuggestService;
+import com.todo.app.service.TagIndexService;
+import com.todo.app.sharding.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 把完成已久的 Todo 从 todos / subtasks 搬到 todos_archive / subtasks_archive
+ *
+ * - 只归档整棵树：根节点已完成、整棵子树都已完成（descendantsCompleted == descendantCount），
+ *   且树中每个节点的完成时间都早于 cutoff。这样搬走后不需要修改任何祖先计数
+ * - 逐个用户处理（分片部署时绑定 ShardContext），每个用户内按根节点 ID 做键集分页，
+ *   每页一个短事务：锁住根节点 -> 复制到归档表 -> 删除原行，页与页之间停顿 pauseBetweenChunks
+ * - 不调用 StatisticsRollupService.recordDeleted：归档不是删除，按天汇总和趋势图保持不变
+ * - 已结束的重复 Todo 按完成的普通 Todo 归档，各次的例外记录（todo_occurrences）直接删除
+ *
+ * 后台线程按 interval 定时运行（enabled = false 时不定时运行），也可以通过 /actuator/archive 手动触发。
+ */
+public class TodoArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiver.class);
+
+    private static final int USER_PAGE = 500;
+
+    private final ArchiveProperties properties;
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final SubTaskRepository subTaskRepository;
+    private final TodoOccurrenceRepository occurrenceRepository;
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final ArchivedSubTaskRepository archivedSubTaskRepository;
+    private final CategoryService categoryService;
+    private final SuggestService suggestService;
+    private final TagIndexService tagIndexService;
+    private final TransactionTemplate transaction;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean closed;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedTodos = new AtomicLong();
+    private final AtomicLong archivedSubtasks = new AtomicLong();
+    private final AtomicLong skippedTrees = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile long lastArchived;
+    private volatile String lastError;
+
+    public TodoArchiver(ArchiveProperties properties, UserRepository userRepository, TodoRepository todoRepository,
+                        SubTaskRepository subTaskRepository, TodoOccurrenceRepository occurrenceRepository,
+                        ArchivedTodoRepository archivedTodoRepository,
+                        ArchivedSubTaskRepository archivedSubTaskRepository, CategoryService categoryService,
+                        SuggestService suggestService, TagIndexService tagIndexService,
+                        PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.todoRepository = todoRepository;
+        this.subTaskRepository = subTaskRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.archivedTodoRepository = archivedTodoRepository;
+        this.archivedSubTaskRepository = archivedSubTaskRepository;
+        this.categoryService = categoryService;
+        this.suggestService = suggestService;
+        this.tagIndexService = tagIndexService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /** 一页的处理结果：scanned 为本页候选根节点数，lastId 为下一页的起点 */
+    private record Chunk(int scanned, long lastId, int trees, int todos, int subtasks, int skipped) {
+    }
+
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Todo archival schedule disabled (app.archive.enabled=false)");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "todo-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, properties.getInitialDelay().toMillis(),
+                properties.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 等待正在进行的一页提交后退出，剩余的留到下次启动
+     */
+    public void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 立即运行一次（同步），已有运行在进行时直接返回 false
+     */
+    public boolean runNow() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            run();
+        } finally {
+            running.set(false);
+        }
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scheduled", properties.isEnabled());
+        stats.put("olderThan", properties.getOlderThan().toString());
+        stats.put("running", running.get());
+        stats.put("runs", runs.get());
+        stats.put("lastStartedAt", lastStartedAt);
+        stats.put("lastFinishedAt", lastFinishedAt);
+        stats.put("lastArchived", lastArchived);
+        stats.put("archivedTodos", archivedTodos.get());
+        stats.put("archivedSubtasks", archivedSubtasks.get());
+        stats.put("skippedTrees", skippedTrees.get());
+        stats.put("failures", failures.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private void runQuietly() {
+        try {
+            runNow();
+        } catch (RuntimeException e) {
+            // 异常逃出 scheduleWithFixedDelay 会取消后续所有运行
+            log.error("Todo archival run failed", e);
+        }
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        lastStartedAt = LocalDateTime.now();
+        LocalDateTime cutoff = lastStartedAt.minus(properties.getOlderThan());
+        int budget = properties.getMaxPerRun();
+        long archived = 0;
+
+        // users 表只在默认分片上，翻页查询时不绑定用户
+        long afterUser = 0;
+        while (budget > 0 && !closed) {
+            List<Long> userIds = userRepository.findIdsAfter(afterUser, PageRequest.of(0, USER_PAGE));
+            for (Long userId : userIds) {
+                if (budget <= 0 || closed) {
+                    break;
+                }
+                ShardContext.bind(userId);
+                try {
+                    int trees = archiveUser(userId, cutoff, budget);
+                    budget -= trees;
+                    archived += trees;
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    lastError = "user " + userId + ": " + e.getMessage();
+                    log.warn("Archiving todos of user {} failed, continuing with the next user", userId, e);
+                } finally {
+                    ShardContext.clear();
+                }
+            }
+            if (userIds.size() < USER_PAGE) {
+                break;
+            }
+            afterUser = userIds.get(userIds.size() - 1);
+        }
+
+        runs.incrementAndGet();
+        lastArchived = archived;
+        lastFinishedAt = LocalDateTime.now();
+        log.info("Archived {} completed todo trees finished before {} in {} ms",
+                archived, cutoff, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 按根节点 ID 键集分页处理一个用户，返回归档的树数
+     */
+    private int archiveUser(Long userId, LocalDateTime cutoff, int budget) {
+        long afterId = 0;
+        int archived = 0;
+        while (archived < budget && !closed) {
+            int limit = Math.min(properties.getChunkSize(), budget - archived);
+            long from = afterId;
+            Chunk chunk = transaction.execute(status -> moveChunk(userId, cutoff, from, limit));
+            if (chunk == null || chunk.scanned() == 0) {
+                break;
+            }
+            archived += chunk.trees();
+            archivedTodos.addAndGet(chunk.todos());
+            archivedSubtasks.addAndGet(chunk.subtasks());
+            skippedTrees.addAndGet(chunk.skipped());
+            afterId = chunk.lastId();
+            if (chunk.scanned() < limit) {
+                break;
+            }
+            pause();
+        }
+        return archived;
+    }
+
+    private Chunk moveChunk(Long userId, LocalDateTime cutoff, long afterId, int limit) {
+        List<Todo> roots = todoRepository.findArchivableRoots(userId, cutoff, afterId, PageRequest.of(0, limit));
+        if (roots.isEmpty()) {
+            return new Chunk(0, afterId, 0, 0, 0, 0);
+        }
+
+        List<Todo> moving = new ArrayList<>();
+        int trees = 0;
+        int skipped = 0;
+        for (Todo root : roots) {
+            List<Todo> tree = root.getDescendantCount() > 0
+                    ? todoRepository.findSubtree(root.getId(), userId)
+                    : List.of(root);
+            // 根节点早已完成、但子节点最近才完成的树留到以后
+            if (tree.stream().allMatch(todo -> finishedBefore(todo, cutoff))) {
+                moving.addAll(tree);
+                trees++;
+            } else {
+                skipped++;
+            }
+        }
+        long lastId = roots.get(roots.size() - 1).getId();
+        if (moving.isEmpty()) {
+            return new Chunk(roots.size(), lastId, 0, 0, 0, skipped);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = moving.stream().map(Todo::getId).toList();
+        List<SubTask> subtasks = subTaskRepository.findByTodoIdIn(ids);
+        archivedTodoRepository.saveAll(moving.stream().map(todo -> toArchived(todo, now)).toList());
+        archivedSubTaskRepository.saveAll(subtasks.stream().map(subTask -> toArchived(subTask, now)).toList());
+
+        subTaskRepository.deleteByTodoIdIn(ids);
+        occurrenceRepository.deleteByTodoIdIn(ids);
+        todoRepository.detachFromParents(ids);
+        todoRepository.deleteAllByIdInBatch(ids);
+
+        for (Long id : ids) {
+            suggestService.onTodoDeleted(userId, id);
+            tagIndexService.onTodoDeleted(userId, id);
+        }
+        categoryService.evictTodoCounts(userId);
+        return new Chunk(roots.size(), lastId, trees, ids.size(), subtasks.size(), skipped);
+    }
+
+    private void pause() {
+        long millis = properties.getPauseBetweenChunks().toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+    }
+
+    private static boolean finishedBefore(Todo todo, LocalDateTime cutoff) {
+        LocalDateTime finished = todo.getCompletedAt() != null ? todo.getCompletedAt() : todo.getUpdatedAt();
+        return Boolean.TRUE.equals(todo.getIsCompleted()) && finished != null && finished.isBefore(cutoff);
+    }
+
+    private static ArchivedTodo toArchived(Todo todo, LocalDateTime archivedAt) {
+        ArchivedTodo archived = new ArchivedTodo();
+        archived.setId(todo.getId());
+        archived.setTitle(todo.getTitle());
+        archived.setDescription(todo.getDescription());
+        archived.setIsCompleted(todo.getIsCompleted());
+        archived.setPriority(todo.getPriority());
+        archived.setDueDate(todo.getDueDate());
+        archived.setHasReminder(todo.getHasReminder());
+        archived.setUserId(todo.getUserId());
+        archived.setCategoryId(todo.getCategoryId());
+        archived.setParentId(todo.getParentId());
+        archived.setProgress(todo.getProgress());
+        archived.setCreatedAt(todo.getCreatedAt());
+        archived.setUpdatedAt(todo.getUpdatedAt());
+        archived.setCompletedAt(todo.getCompletedAt());
+        archived.setTags(todo.getTags());
+        archived.setArchivedAt(archivedAt);
+        return archived;
+    }
+
+    private static ArchivedSubTask toArchived(SubTask subTask, LocalDateTime archivedAt) {
+        ArchivedSubTask archived = new ArchivedSubTask();
+        archived.setId(subTask.getId());
+        archived.setTitle(subTask.getTitle());
+        archived.setIsCompleted(subTask.getIsCompleted());
+        archived.setTodoId(subTask.getTodoId());
+        archived.setCreatedAt(subTask.getCreatedAt());
+        archived.setArchivedAt(archivedAt);
+        return archived;
+    }
+}
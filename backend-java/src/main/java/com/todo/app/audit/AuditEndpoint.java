@@ -0,0 +1,27 @@
+package com.todo.app.audit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * 审计队列状态：/actuator/audit
+ *
+ * depth 为缓冲区中尚未写出的事件数，lagMillis 为其中最早事件已等待的时间；
+ * dropped / spilled 持续增长说明写入跟不上，需要调大 capacity / batchSize 或检查 sink。
+ */
+@Endpoint(id = "audit")
+public class AuditEndpoint {
+
+    private final AuditLog auditLog;
+
+    public AuditEndpoint(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return auditLog.stats();
+    }
+}
@@ -0,0 +1,30 @@
+package com.todo.app.audit;
+
+import java.util.Map;
+
+/**
+ * 环形缓冲区中的一个槽位，启动时预先分配，之后反复复用，发布事件不产生新的槽对象
+ *
+ * 字段由生产者在 claim 之后、publish 之前写入，消费者在看到 publish 之后读取。
+ */
+final class AuditEvent {
+
+    long timestamp;
+    Long userId;
+    Long actorId;
+    String entityType;
+    Long entityId;
+    String action;
+    Map<String, Object> before;
+    Map<String, Object> after;
+
+    void clear() {
+        userId = null;
+        actorId = null;
+        entityType = null;
+        entityId = null;
+        action = null;
+        before = null;
+        after = null;
+    }
+}
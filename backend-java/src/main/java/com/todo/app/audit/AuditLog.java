@@ -0,0 +1,185 @@
+package com.todo.app.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作审计入口：service 在修改实体时调用 record，事务提交后事件进入环形缓冲区，
+ * 由 AuditWriter 的单个线程批量写入 AuditSink，请求线程不访问数据库。
+ *
+ * 回滚的修改不会记录。缓冲区满时按 app.audit.backpressure 处理。
+ */
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    public static final String TODO = "todo";
+    public static final String SUBTASK = "subtask";
+    public static final String CATEGORY = "category";
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    private final AuditProperties properties;
+    private final AuditRingBuffer buffer;
+    private final AuditSpill spill;
+    private final AuditWriter writer;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+
+    public AuditLog(AuditProperties properties, AuditSink sink, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.buffer = new AuditRingBuffer(properties.getCapacity());
+        this.spill = new AuditSpill(properties, objectMapper);
+        this.writer = new AuditWriter(properties, buffer, sink, spill, objectMapper);
+        if (properties.isEnabled()) {
+            writer.start();
+        }
+    }
+
+    public void created(String entityType, Long entityId, Long userId, Map<String, Object> after) {
+        record(entityType, entityId, CREATE, userId, null, after);
+    }
+
+    public void updated(String entityType, Long entityId, Long userId,
+                        Map<String, Object> before, Map<String, Object> after) {
+        if (!before.equals(after)) {
+            record(entityType, entityId, UPDATE, userId, before, after);
+        }
+    }
+
+    public void deleted(String entityType, Long entityId, Long userId, Map<String, Object> before) {
+        record(entityType, entityId, DELETE, userId, before, null);
+    }
+
+    /**
+     * 在事务中调用时推迟到提交之后发布；操作人取自当前请求的登录用户
+     */
+    public void record(String entityType, Long entityId, String action, Long userId,
+                       Map<String, Object> before, Map<String, Object> after) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Long actorId = SecurityUtils.getCurrentUserId(SecurityContextHolder.getContext().getAuthentication());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(entityType, entityId, action, userId, actorId, before, after);
+                }
+            });
+        } else {
+            publish(entityType, entityId, action, userId, actorId, before, after);
+        }
+    }
+
+    private void publish(String entityType, Long entityId, String action, Long userId, Long actorId,
+                         Map<String, Object> before, Map<String, Object> after) {
+        long timestamp = System.currentTimeMillis();
+        long sequence = buffer.tryClaim();
+        if (sequence < 0) {
+            sequence = onFull();
+            if (sequence < 0) {
+                if (properties.getBackpressure() == AuditProperties.Backpressure.SPILL) {
+                    spill(new AuditRecord(userId, actorId, entityType, entityId, action,
+                            writer.serialize(before), writer.serialize(after), toDateTime(timestamp)));
+                } else {
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+        }
+
+        AuditEvent event = buffer.slot(sequence);
+        event.timestamp = timestamp;
+        event.userId = userId;
+        event.actorId = actorId;
+        event.entityType = entityType;
+        event.entityId = entityId;
+        event.action = action;
+        event.before = before;
+        event.after = after;
+        buffer.publish(sequence);
+        published.incrementAndGet();
+    }
+
+    /**
+     * 缓冲区已满：BLOCK 模式下等待到 blockTimeout，其余模式直接返回 -1
+     */
+    private long onFull() {
+        if (properties.getBackpressure() != AuditProperties.Backpressure.BLOCK) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.getBlockTimeout().toNanos();
+        long sequence;
+        while ((sequence = buffer.tryClaim()) < 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(50_000);
+        }
+        blockedNanos.addAndGet(System.nanoTime() - start);
+        return sequence;
+    }
+
+    private void spill(AuditRecord record) {
+        try {
+            spill.append(record);
+            spilled.incrementAndGet();
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            log.warn("Failed to spill audit record, dropping it: {}", e.getMessage());
+        }
+    }
+
+    public List<AuditRecord> history(Long userId, String entityType, Long entityId, int limit) {
+        return writer.sink().history(userId, entityType, entityId, limit);
+    }
+
+    /**
+     * 队列深度、延迟和各类计数，供 /actuator/audit 使用
+     */
+    public Map<String, Object> stats() {
+        long oldest = buffer.oldestTimestamp();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("sink", properties.getSink());
+        stats.put("backpressure", properties.getBackpressure());
+        stats.put("capacity", buffer.capacity());
+        stats.put("depth", buffer.depth());
+        stats.put("lagMillis", oldest > 0 ? Math.max(0, System.currentTimeMillis() - oldest) : 0);
+        stats.put("published", published.get());
+        stats.put("written", writer.written());
+        stats.put("dropped", dropped.get());
+        stats.put("spilled", spilled.get());
+        stats.put("spillPending", spill.pending());
+        stats.put("failedBatches", writer.failedBatches());
+        stats.put("blockedMillis", blockedNanos.get() / 1_000_000);
+        return stats;
+    }
+
+    public void close() {
+        writer.stop();
+    }
+
+    static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,70 @@
+package com.todo.app.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 操作审计配置（app.audit.*）
+ */
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    public enum Sink { JDBC, FILE }
+
+    /**
+     * 环形缓冲区写满时的处理方式
+     * - BLOCK：等待写入线程腾出空间，最多等 blockTimeout，超时后丢弃
+     * - DROP：直接丢弃并计数
+     * - SPILL：追加到磁盘溢出文件，写入线程空闲时补写
+     */
+    public enum Backpressure { BLOCK, DROP, SPILL }
+
+    private boolean enabled = true;
+
+    /** JDBC 写入 activity_log 表；FILE 写入 directory 下的追加式段文件 */
+    private Sink sink = Sink.JDBC;
+
+    /** 环形缓冲区槽位数，向上取整到 2 的幂 */
+    private int capacity = 8192;
+
+    /** 单次写入的最大条数（JDBC 下为一条多行 INSERT） */
+    private int batchSize = 256;
+
+    private Backpressure backpressure = Backpressure.BLOCK;
+
+    private Duration blockTimeout = Duration.ofMillis(100);
+
+    /** 写入线程没有事件时的轮询间隔 */
+    private Duration idleWait = Duration.ofMillis(20);
+
+    /** 写入失败后的重试间隔 */
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    /** FILE 写入的段文件和 SPILL 溢出文件所在目录 */
+    private String directory = "./data/audit";
+
+    /** FILE 写入的单个段文件大小（MB） */
+    private int segmentSizeMb = 64;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Sink getSink() { return sink; }
+    public void setSink(Sink sink) { this.sink = sink; }
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public Backpressure getBackpressure() { return backpressure; }
+    public void setBackpressure(Backpressure backpressure) { this.backpressure = backpressure; }
+    public Duration getBlockTimeout() { return blockTimeout; }
+    public void setBlockTimeout(Duration blockTimeout) { this.blockTimeout = blockTimeout; }
+    public Duration getIdleWait() { return idleWait; }
+    public void setIdleWait(Duration idleWait) { this.idleWait = idleWait; }
+    public Duration getRetryDelay() { return retryDelay; }
+    public void setRetryDelay(Duration retryDelay) { this.retryDelay = retryDelay; }
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+    public int getSegmentSizeMb() { return segmentSizeMb; }
+    public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+}
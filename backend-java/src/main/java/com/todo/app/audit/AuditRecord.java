@@ -0,0 +1,13 @@
+package com.todo.app.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一条审计记录，before / after 为实体字段的 JSON（新建时 before 为空，删除时 after 为空）
+ *
+ * @param userId  数据所属用户（分片键）
+ * @param actorId 发起操作的登录用户，后台任务为空
+ */
+public record AuditRecord(Long userId, Long actorId, String entityType, Long entityId, String action,
+                          String before, String after, LocalDateTime createdAt) {
+}
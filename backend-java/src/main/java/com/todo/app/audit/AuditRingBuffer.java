@@ -0,0 +1,96 @@
+package com.todo.app.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 多生产者、单消费者的无锁环形缓冲区（Disruptor 式序号协议）
+ *
+ * - 生产者 CAS 递增 claimed 取得序号，写槽位，再把序号写入 published[槽位] 表示可读
+ * - 消费者按序号顺序读取已发布的槽位，处理完一批后推进 consumed，释放这些槽位
+ * - claimed - consumed 达到容量时视为写满，tryClaim 返回 -1，由调用方决定等待、丢弃还是溢出
+ */
+final class AuditRingBuffer {
+
+    private final AuditEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+    /** 只由消费者线程写 */
+    private volatile long consumed = -1;
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AuditEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * 取得一个空闲序号；缓冲区已满时返回 -1
+     */
+    long tryClaim() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - consumed > slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    AuditEvent slot(long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    void publish(long sequence) {
+        published.set((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * 按顺序处理最多 max 个已发布事件，处理完后统一释放槽位；返回处理的个数
+     */
+    int drain(int max, Consumer<AuditEvent> handler) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < max && published.get((int) (next & mask)) == next) {
+            AuditEvent event = slot(next);
+            handler.accept(event);
+            event.clear();
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumed = next - 1;
+        }
+        return count;
+    }
+
+    /**
+     * 已申请但尚未被消费的事件数
+     */
+    long depth() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    /**
+     * 最早一个未消费事件的时间戳，没有时返回 0
+     */
+    long oldestTimestamp() {
+        long next = consumed + 1;
+        return published.get((int) (next & mask)) == next ? slot(next).timestamp : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.todo.app.audit;
+
+import java.util.List;
+
+/**
+ * 审计记录的持久化目标，只由 AuditWriter 的单个线程调用
+ */
+public interface AuditSink {
+
+    /**
+     * 写入一批记录；抛出异常时整批稍后重试
+     */
+    void write(List<AuditRecord> batch) throws Exception;
+
+    /**
+     * 用户最近的审计记录，按时间倒序；entityType / entityId 为空时不过滤
+     */
+    List<AuditRecord> history(Long userId, String entityType, Long entityId, int limit);
+}
@@ -0,0 +1,53 @@
+package com.todo.app.audit;
+
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 审计用的实体快照：在请求线程上只复制标量字段（不触发懒加载），JSON 序列化留给写入线程
+ */
+public final class AuditSnapshots {
+
+    private AuditSnapshots() {
+    }
+
+    public static Map<String, Object> of(Todo todo) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("title", todo.getTitle());
+        map.put("description", todo.getDescription());
+        map.put("isCompleted", todo.getIsCompleted());
+        map.put("priority", todo.getPriority());
+        map.put("dueDate", todo.getDueDate());
+        map.put("categoryId", todo.getCategoryId());
+        map.put("parentId", todo.getParentId());
+        map.put("progress", todo.getProgress());
+        map.put("completedAt", todo.getCompletedAt());
+        map.put("recurrence", todo.getRecurrence());
+        map.put("tags", todo.getTags());
+        return map;
+    }
+
+    public static Map<String, Object> of(SubTask subTask) {
+        return subTask(subTask.getTitle(), subTask.getIsCompleted(), subTask.getTodoId());
+    }
+
+    public static Map<String, Object> subTask(String title, Boolean isCompleted, Long todoId) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("title", title);
+        map.put("isCompleted", isCompleted);
+        map.put("todoId", todoId);
+        return map;
+    }
+
+    public static Map<String, Object> of(Category category) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", category.getName());
+        map.put("color", category.getColor());
+        map.put("icon", category.getIcon());
+        return map;
+    }
+}
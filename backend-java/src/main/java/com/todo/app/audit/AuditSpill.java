@@ -0,0 +1,108 @@
+package com.todo.app.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * SPILL 模式的磁盘溢出文件
+ *
+ * 缓冲区满时生产者把记录追加到 spill.jsonl；写入线程空闲时先把文件改名为 spill-*.drain
+ * （之后的溢出写到新的 spill.jsonl），再分批补写，全部成功后删除。
+ * 进程重启后遗留的文件同样会被补写，溢出的记录不会丢失，但与缓冲区中的记录不保证顺序。
+ */
+class AuditSpill {
+
+    private static final String ACTIVE = "spill.jsonl";
+    private static final String DRAIN_PREFIX = "spill-";
+    private static final String DRAIN_SUFFIX = ".drain";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong pending = new AtomicLong();
+    private BufferedWriter writer;
+
+    AuditSpill(AuditProperties properties, ObjectMapper objectMapper) {
+        this.directory = Paths.get(properties.getDirectory());
+        this.objectMapper = objectMapper;
+    }
+
+    long pending() {
+        return pending.get();
+    }
+
+    synchronized void append(AuditRecord record) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(directory);
+            writer = Files.newBufferedWriter(directory.resolve(ACTIVE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(objectMapper.writeValueAsString(record));
+        writer.newLine();
+        writer.flush();
+        pending.incrementAndGet();
+    }
+
+    /**
+     * 有待补写的溢出记录时（包括上次进程遗留的），返回需要补写的文件
+     */
+    List<Path> takeFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        synchronized (this) {
+            Path active = directory.resolve(ACTIVE);
+            if (Files.exists(active) && Files.size(active) > 0) {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+                Files.move(active, directory.resolve(DRAIN_PREFIX + System.nanoTime() + DRAIN_SUFFIX),
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(DRAIN_PREFIX)
+                            && p.getFileName().toString().endsWith(DRAIN_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    List<AuditRecord> read(Path file) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    records.add(objectMapper.readValue(line, AuditRecord.class));
+                }
+            }
+        }
+        return records;
+    }
+
+    void done(Path file, int records) throws IOException {
+        Files.deleteIfExists(file);
+        pending.updateAndGet(n -> Math.max(0, n - records));
+    }
+
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.todo.app.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计缓冲区的唯一消费者
+ *
+ * 每轮最多取 batchSize 个事件，转换成 AuditRecord 后整批写入 sink；写入失败时保留这一批，
+ * 按 retryDelay 重试（期间缓冲区会逐渐写满，由生产者一侧的背压策略处理）。
+ * 缓冲区为空时补写 SPILL 溢出文件，再没有则休眠 idleWait。
+ */
+class AuditWriter implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private final AuditProperties properties;
+    private final AuditRingBuffer buffer;
+    private final AuditSink sink;
+    private final AuditSpill spill;
+    private final ObjectMapper objectMapper;
+    private final Thread thread;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile boolean running = true;
+
+    AuditWriter(AuditProperties properties, AuditRingBuffer buffer, AuditSink sink, AuditSpill spill,
+                ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.buffer = buffer;
+        this.sink = sink;
+        this.spill = spill;
+        this.objectMapper = objectMapper;
+        this.thread = new Thread(this, "audit-writer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * 停止前写完缓冲区中剩余的事件
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            spill.close();
+            if (sink instanceof FileAuditSink file) {
+                file.close();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to close audit files", e);
+        }
+    }
+
+    AuditSink sink() {
+        return sink;
+    }
+
+    long written() {
+        return written.get();
+    }
+
+    long failedBatches() {
+        return failedBatches.get();
+    }
+
+    @Override
+    public void run() {
+        List<AuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || buffer.depth() > 0) {
+            batch.clear();
+            buffer.drain(properties.getBatchSize(), event -> batch.add(toRecord(event)));
+            if (!batch.isEmpty()) {
+                write(batch);
+            } else if (!drainSpill() && running) {
+                LockSupport.parkNanos(properties.getIdleWait().toNanos());
+            }
+        }
+    }
+
+    String serialize(Map<String, Object> snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(snapshot);
+        }
+    }
+
+    private AuditRecord toRecord(AuditEvent event) {
+        return new AuditRecord(event.userId, event.actorId, event.entityType, event.entityId, event.action,
+                serialize(event.before), serialize(event.after), AuditLog.toDateTime(event.timestamp));
+    }
+
+    /**
+     * 写入直到成功；停止过程中连续失败时放弃这一批，避免关闭被无限期阻塞
+     */
+    private void write(List<AuditRecord> batch) {
+        int attempts = 0;
+        while (true) {
+            try {
+                sink.write(batch);
+                written.addAndGet(batch.size());
+                return;
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                attempts++;
+                if (!running && attempts >= 3) {
+                    log.error("Dropping {} audit records after {} failed attempts during shutdown", batch.size(), attempts, e);
+                    return;
+                }
+                log.warn("Failed to write {} audit records (attempt {}), retrying: {}", batch.size(), attempts, e.getMessage());
+                LockSupport.parkNanos(properties.getRetryDelay().toNanos());
+            }
+        }
+    }
+
+    private boolean drainSpill() {
+        try {
+            List<Path> files = spill.takeFiles();
+            for (Path file : files) {
+                List<AuditRecord> records = spill.read(file);
+                for (int from = 0; from < records.size(); from += properties.getBatchSize()) {
+                    write(records.subList(from, Math.min(records.size(), from + properties.getBatchSize())));
+                }
+                spill.done(file, records.size());
+            }
+            return !files.isEmpty();
+        } catch (Exception e) {
+            log.warn("Failed to replay audit spill files: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.todo.app.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 追加式段文件：每行一条 JSON，写满 segmentSize 后切换到新段（audit-{创建时间}.log）
+ *
+ * 每批写完调用一次 force，之后的查询只用于客服排查，按段从新到旧顺序扫描。
+ */
+public class FileAuditSink implements AuditSink {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ObjectMapper objectMapper;
+
+    private FileChannel channel;
+    private long segmentBytes;
+
+    public FileAuditSink(AuditProperties properties, ObjectMapper objectMapper) {
+        this.directory = Paths.get(properties.getDirectory());
+        this.segmentSize = (long) properties.getSegmentSizeMb() * 1024 * 1024;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void write(List<AuditRecord> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 256);
+        for (AuditRecord record : batch) {
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+
+        if (channel == null || segmentBytes + bytes.remaining() > segmentSize) {
+            rotate();
+        }
+        while (bytes.hasRemaining()) {
+            segmentBytes += channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized List<AuditRecord> history(Long userId, String entityType, Long entityId, int limit) {
+        List<AuditRecord> result = new ArrayList<>();
+        try {
+            List<Path> segments = segments();
+            for (int i = segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+                // 段内按写入顺序，先收集再倒序
+                Deque<AuditRecord> matches = new ArrayDeque<>();
+                try (BufferedReader reader = Files.newBufferedReader(segments.get(i), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        AuditRecord record = objectMapper.readValue(line, AuditRecord.class);
+                        if (userId.equals(record.userId())
+                                && (entityType == null || entityType.equals(record.entityType()))
+                                && (entityId == null || entityId.equals(record.entityId()))) {
+                            matches.push(record);
+                        }
+                    }
+                }
+                while (!matches.isEmpty() && result.size() < limit) {
+                    result.add(matches.pop());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read audit segments", e);
+        }
+        return result;
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Files.createDirectories(directory);
+        Path segment = directory.resolve(String.format("%s%020d%s", PREFIX, System.currentTimeMillis(), SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = channel.size();
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
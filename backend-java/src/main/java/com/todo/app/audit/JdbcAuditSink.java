@@ -0,0 +1,99 @@
+package com.todo.app.audit;
+
+import com.todo.app.sharding.ShardContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 写入 activity_log 表：每个用户的记录合并成一条多行 INSERT
+ *
+ * 按用户分组后在 ShardContext 中绑定该用户，开启分片时每组落到用户所在的分片。
+ */
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT_PREFIX = "INSERT INTO activity_log " +
+            "(user_id, actor_id, entity_type, entity_id, action, before_data, after_data, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        Map<Long, List<AuditRecord>> byUser = new LinkedHashMap<>();
+        for (AuditRecord record : batch) {
+            byUser.computeIfAbsent(record.userId(), k -> new ArrayList<>()).add(record);
+        }
+        byUser.forEach((userId, records) -> {
+            ShardContext.bind(userId);
+            try {
+                insert(records);
+            } finally {
+                ShardContext.clear();
+            }
+        });
+    }
+
+    private void insert(List<AuditRecord> records) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + records.size() * (ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[records.size() * 8];
+        int i = 0;
+        for (AuditRecord record : records) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            args[i++] = record.userId();
+            args[i++] = record.actorId();
+            args[i++] = record.entityType();
+            args[i++] = record.entityId();
+            args[i++] = record.action();
+            args[i++] = record.before();
+            args[i++] = record.after();
+            args[i++] = Timestamp.valueOf(record.createdAt());
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * entityType / entityId 为空时不作为条件
+     */
+    @Override
+    public List<AuditRecord> history(Long userId, String entityType, Long entityId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, actor_id, entity_type, entity_id, action, before_data, after_data, created_at " +
+                "FROM activity_log WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (entityType != null) {
+            sql.append(" AND entity_type = ?");
+            args.add(entityType);
+        }
+        if (entityId != null) {
+            sql.append(" AND entity_id = ?");
+            args.add(entityId);
+        }
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new AuditRecord(
+                        rs.getLong("user_id"),
+                        rs.getObject("actor_id", Long.class),
+                        rs.getString("entity_type"),
+                        rs.getLong("entity_id"),
+                        rs.getString("action"),
+                        rs.getString("before_data"),
+                        rs.getString("after_data"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                args.toArray());
+    }
+}
@@ -0,0 +1,46 @@
+package com.todo.app.config;
+
+import com.todo.app.archive.ArchiveEndpoint;
+import com.todo.app.archive.ArchiveProperties;
+import com.todo.app.archive.TodoArchiver;
+import com.todo.app.repository.ArchivedSubTaskRepository;
+import com.todo.app.repository.ArchivedTodoRepository;
+import com.todo.app.repository.SubTaskRepository;
+import com.todo.app.repository.TodoOccurrenceRepository;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.UserRepository;
+import com.todo.app.service.CategoryService;
+import com.todo.app.service.SuggestService;
+import com.todo.app.service.TagIndexService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 已完成 Todo 的自动归档：todo-archiver 线程定时把完成超过 app.archive.older-than 的整棵树
+ * 搬到 todos_archive / subtasks_archive，列表接口通过 includeArchived 参数一并查询
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TodoArchiver todoArchiver(ArchiveProperties properties, UserRepository userRepository,
+                                     TodoRepository todoRepository, SubTaskRepository subTaskRepository,
+                                     TodoOccurrenceRepository occurrenceRepository,
+                                     ArchivedTodoRepository archivedTodoRepository,
+                                     ArchivedSubTaskRepository archivedSubTaskRepository,
+                                     CategoryService categoryService, SuggestService suggestService,
+                                     TagIndexService tagIndexService,
+                                     PlatformTransactionManager transactionManager) {
+        return new TodoArchiver(properties, userRepository, todoRepository, subTaskRepository, occurrenceRepository,
+                archivedTodoRepository, archivedSubTaskRepository, categoryService, suggestService, tagIndexService,
+                transactionManager);
+    }
+
+    @Bean
+    public ArchiveEndpoint archiveEndpoint(TodoArchiver todoArchiver) {
+        return new ArchiveEndpoint(todoArchiver);
+    }
+}
@@ -0,0 +1,48 @@
+package com.todo.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.audit.AuditEndpoint;
+import com.todo.app.audit.AuditLog;
+import com.todo.app.audit.AuditProperties;
+import com.todo.app.audit.AuditSink;
+import com.todo.app.audit.FileAuditSink;
+import com.todo.app.audit.JdbcAuditSink;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 异步操作审计：service -> AuditLog（环形缓冲区）-> audit-writer 线程 -> AuditSink
+ *
+ * app.audit.sink=jdbc 写 activity_log 表（分片时写入用户所在分片），
+ * file 写本地段文件（embedded profile 下没有 DataSource，只能用 file）。
+ */
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean
+    public AuditSink auditSink(AuditProperties properties, ObjectProvider<JdbcTemplate> jdbcTemplate,
+                               ObjectMapper objectMapper) {
+        if (properties.getSink() == AuditProperties.Sink.FILE) {
+            return new FileAuditSink(properties, objectMapper);
+        }
+        JdbcTemplate template = jdbcTemplate.getIfAvailable();
+        if (template == null) {
+            throw new IllegalStateException("app.audit.sink=jdbc requires a DataSource; use app.audit.sink=file");
+        }
+        return new JdbcAuditSink(template);
+    }
+
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(AuditProperties properties, AuditSink auditSink, ObjectMapper objectMapper) {
+        return new AuditLog(properties, auditSink, objectMapper);
+    }
+
+    @Bean
+    public AuditEndpoint auditEndpoint(AuditLog auditLog) {
+        return new AuditEndpoint(auditLog);
+    }
+}
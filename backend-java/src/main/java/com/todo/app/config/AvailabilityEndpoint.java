@@ -0,0 +1,30 @@
+package com.todo.app.config;
+
+import com.todo.app.service.AvailabilityService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 用户名 / 邮箱可用性过滤器的状态：/actuator/availability
+ *
+ * expectedFalsePositiveRate 为按当前装载率计算的理论值，
+ * observedFalsePositiveRate 为过滤器判定"可能存在"而数据库中不存在的比例。
+ */
+@Component
+@Endpoint(id = "availability")
+public class AvailabilityEndpoint {
+
+    private final AvailabilityService availabilityService;
+
+    public AvailabilityEndpoint(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> availability() {
+        return availabilityService.stats();
+    }
+}
@@ -0,0 +1,60 @@
+package com.todo.app.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存命中率：/actuator/cachestats
+ *
+ * 按缓存区域返回命中 / 未命中 / 写入次数和命中率，另附查询缓存的汇总。
+ * 需要 hibernate.generate_statistics=true；embedded profile 下没有 Hibernate，不注册。
+ */
+@Component
+@Profile("!embedded")
+@Endpoint(id = "cachestats")
+public class CacheStatisticsEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                regions.put(region, summary(stats.getHitCount(), stats.getMissCount(), stats.getPutCount()));
+            }
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", statistics.isStatisticsEnabled());
+        response.put("regions", regions);
+        response.put("queryCache", summary(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        return response;
+    }
+
+    private static Map<String, Object> summary(long hits, long misses, long puts) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("hits", hits);
+        summary.put("misses", misses);
+        summary.put("puts", puts);
+        summary.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return summary;
+    }
+}
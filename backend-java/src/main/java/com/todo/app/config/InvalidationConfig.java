@@ -0,0 +1,100 @@
+package com.todo.app.config;
+
+import com.todo.app.entity.Category;
+import com.todo.app.entity.User;
+import com.todo.app.invalidation.InvalidationBus;
+import com.todo.app.invalidation.InvalidationEndpoint;
+import com.todo.app.invalidation.InvalidationProperties;
+import com.todo.app.invalidation.InvalidationTransport;
+import com.todo.app.invalidation.JdbcInvalidationTransport;
+import com.todo.app.invalidation.MulticastInvalidationTransport;
+import com.todo.app.service.AvailabilityService;
+import com.todo.app.service.CategoryService;
+import com.todo.app.service.SuggestService;
+import com.todo.app.service.TagIndexService;
+import com.todo.app.sharding.ShardDirectory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 多实例部署的缓存失效广播：写路径提交后 publish，其他实例收到后清除对应的进程内缓存
+ *
+ * app.invalidation.transport=jdbc 轮询 cache_invalidations 表（embedded profile 下没有 DataSource），
+ * multicast 走 UDP 组播，none（默认）为单实例部署。
+ * 订阅在所有单例创建完成后注册，InvalidationBus 本身不依赖任何 service，避免循环依赖。
+ */
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public InvalidationBus invalidationBus(InvalidationProperties properties,
+                                           ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        InvalidationTransport transport = switch (properties.getTransport()) {
+            case NONE -> null;
+            case MULTICAST -> new MulticastInvalidationTransport(properties);
+            case JDBC -> {
+                JdbcTemplate template = jdbcTemplate.getIfAvailable();
+                if (template == null) {
+                    throw new IllegalStateException(
+                            "app.invalidation.transport=jdbc requires a DataSource; use multicast or none");
+                }
+                yield new JdbcInvalidationTransport(properties, template);
+            }
+        };
+        return new InvalidationBus(properties, transport);
+    }
+
+    @Bean
+    public InvalidationEndpoint invalidationEndpoint(InvalidationBus invalidationBus) {
+        return new InvalidationEndpoint(invalidationBus);
+    }
+
+    /**
+     * 分类 / 用户：清除二级缓存中的实体和默认查询缓存区域（分类列表、findByEmail，包括缓存的空结果）；
+     * 计数和补全索引：按用户清除；用户名 / 邮箱可用性过滤器：加入其他实例新注册或修改后的值
+     */
+    @Bean
+    public SmartInitializingSingleton invalidationSubscriptions(InvalidationBus invalidationBus,
+                                                                CategoryService categoryService,
+                                                                SuggestService suggestService,
+                                                                TagIndexService tagIndexService,
+                                                                AvailabilityService availabilityService,
+                                                                ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                                                ObjectProvider<ShardDirectory> shardDirectory) {
+        return () -> {
+            EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+            // 分片时缓存键里带着分片名（ShardCacheKeysFactory），广播只有 ID，不知道是哪个分片，整个区域清掉
+            boolean sharded = shardDirectory.getIfAvailable() != null;
+            if (emf != null) {
+                SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+                invalidationBus.subscribe(InvalidationBus.CATEGORY, key -> {
+                    if (sharded) {
+                        sessionFactory.getCache().evictEntityData(Category.class);
+                    } else {
+                        sessionFactory.getCache().evictEntityData(Category.class, Long.valueOf(key));
+                    }
+                    sessionFactory.getCache().evictDefaultQueryRegion();
+                });
+                invalidationBus.subscribe(InvalidationBus.USER, key -> {
+                    sessionFactory.getCache().evictEntityData(User.class, Long.valueOf(key));
+                    sessionFactory.getCache().evictDefaultQueryRegion();
+                });
+            }
+            invalidationBus.subscribe(InvalidationBus.TODO_COUNTS,
+                    key -> categoryService.evictLocalTodoCounts(Long.valueOf(key)));
+            invalidationBus.subscribe(InvalidationBus.SUGGEST,
+                    key -> suggestService.evictLocalIndex(Long.valueOf(key)));
+            invalidationBus.subscribe(InvalidationBus.TAGS,
+                    key -> tagIndexService.evictLocalIndex(Long.valueOf(key)));
+            invalidationBus.subscribe(InvalidationBus.USER,
+                    key -> availabilityService.onRemoteUserChanged(Long.valueOf(key)));
+        };
+    }
+}
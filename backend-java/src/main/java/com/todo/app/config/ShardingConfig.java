@@ -0,0 +1,183 @@
+package com.todo.app.config;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.sharding.ConsistentHashRing;
+import com.todo.app.sharding.ShardCacheKeysFactory;
+import com.todo.app.sharding.ShardDirectory;
+import com.todo.app.sharding.ShardEndpoint;
+import com.todo.app.sharding.ShardMigrationService;
+import com.todo.app.sharding.ShardRoutingDataSource;
+import com.todo.app.sharding.ShardRoutingFilter;
+import com.todo.app.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按用户 ID 水平分片的配置，仅在 app.sharding.enabled=true 时生效
+ *
+ * 所有用户数据（todos / subtasks / categories）按一致性哈希分布到多个 MySQL 实例，
+ * users 表和分片目录留在 defaultShard。关闭时应用仍然使用 spring.datasource 单库。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+    private final ShardingProperties properties;
+    private final Map<String, DataSource> shardDataSources = new LinkedHashMap<>();
+
+    public ShardingConfig(ShardingProperties properties) {
+        this.properties = properties;
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.shards must not be empty when sharding is enabled");
+        }
+        if (properties.getDefaultShard() == null) {
+            properties.setDefaultShard(properties.getShards().keySet().iterator().next());
+        }
+        Set<Integer> offsets = new HashSet<>();
+        int position = 0;
+        for (Map.Entry<String, ShardingProperties.Shard> entry : properties.getShards().entrySet()) {
+            String name = entry.getKey();
+            ShardingProperties.Shard shard = entry.getValue();
+            int idOffset = shard.getIdOffset() != null ? shard.getIdOffset() : position + 1;
+            position++;
+            if (idOffset < 1 || idOffset > properties.getIdIncrement() || !offsets.add(idOffset)) {
+                throw new IllegalStateException("app.sharding.shards." + name + ".id-offset must be unique and between 1 and "
+                        + properties.getIdIncrement());
+            }
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            if (shard.getUrl().startsWith("jdbc:mysql:")) {
+                // 插入指定 ID（迁入的行）后，MySQL 取大于现有最大值、且仍在本分片序列里的下一个值；
+                // 其他数据库（本地用 H2 试分片）不设置，只靠迁移时的冲突检查
+                dataSource.setConnectionInitSql("SET SESSION auto_increment_increment = " + properties.getIdIncrement()
+                        + ", auto_increment_offset = " + idOffset);
+            }
+            shardDataSources.put(name, dataSource);
+        }
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory() {
+        ConsistentHashRing ring = new ConsistentHashRing(shardDataSources.keySet(), properties.getVirtualNodes());
+        JdbcTemplate directoryJdbc = new JdbcTemplate(shardDataSources.get(properties.getDefaultShard()));
+        return new ShardDirectory(ring, properties.getDefaultShard(), directoryJdbc);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDirectory shardDirectory) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardDirectory);
+        routing.setTargetDataSources(new HashMap<>(shardDataSources));
+        routing.setDefaultTargetDataSource(shardDataSources.get(properties.getDefaultShard()));
+        return routing;
+    }
+
+    /**
+     * 二级缓存键带上分片名（见 ShardCacheKeysFactory）；JCache 的 provider / uri 仍按 spring.jpa.properties 读取
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardCacheKeysCustomizer(ShardDirectory shardDirectory) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY,
+                new JCacheRegionFactory(new ShardCacheKeysFactory(shardDirectory)));
+    }
+
+    @Bean
+    public ShardMigrationService shardMigrationService(ShardDirectory shardDirectory) {
+        return new ShardMigrationService(shardDataSources, shardDirectory);
+    }
+
+    @Bean
+    public ShardEndpoint shardEndpoint(ShardDirectory shardDirectory, ShardMigrationService shardMigrationService) {
+        return new ShardEndpoint(properties, shardDirectory, shardMigrationService);
+    }
+
+    @Bean
+    public ShardRoutingFilter shardRoutingFilter(ShardDirectory shardDirectory) {
+        return new ShardRoutingFilter(shardDirectory);
+    }
+
+    /**
+     * 过滤器只挂在 Security 过滤器链里（需要先完成 JWT 认证），不再注册为普通 Servlet 过滤器
+     */
+    @Bean
+    public FilterRegistrationBean<ShardRoutingFilter> shardRoutingFilterRegistration(ShardRoutingFilter filter) {
+        FilterRegistrationBean<ShardRoutingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * 启动时：
+     * 1. ddl-auto 只作用于默认分片，这里对其余分片执行同样的 schema update
+     * 2. 加载分片目录，并把数据不在哈希环指定分片上的用户固定到数据所在分片
+     */
+    @Bean
+    public SmartInitializingSingleton shardInitializer(EntityManagerFactoryBuilder builder,
+                                                       ShardDirectory shardDirectory,
+                                                       ShardMigrationService shardMigrationService) {
+        return () -> {
+            shardDataSources.forEach((name, dataSource) -> {
+                if (!name.equals(properties.getDefaultShard())) {
+                    updateSchema(builder, name, dataSource);
+                }
+            });
+            shardDirectory.load();
+            int misplaced = shardMigrationService.reconcile();
+            if (misplaced > 0) {
+                log.warn("{} users are not on their ring shard; POST /actuator/shards to rebalance", misplaced);
+            }
+        };
+    }
+
+    private void updateSchema(EntityManagerFactoryBuilder builder, String name, DataSource dataSource) {
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.hbm2ddl.auto", "update");
+        // 只用来建表，不能打开二级缓存：同一个 JCache CacheManager，关闭时会把主 EntityManagerFactory 的缓存一起关掉
+        jpaProperties.put("hibernate.cache.use_second_level_cache", "false");
+        jpaProperties.put("hibernate.cache.use_query_cache", "false");
+        jpaProperties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+        jpaProperties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+
+        LocalContainerEntityManagerFactoryBean factory = builder
+                .dataSource(dataSource)
+                .packages(Todo.class)
+                .persistenceUnit("shard-" + name)
+                .properties(jpaProperties)
+                .build();
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+}
@@ -0,0 +1,54 @@
+package com.todo.app.config;
+
+import com.todo.app.timing.RepositoryTimingInterceptor;
+import com.todo.app.timing.ServerTimingFilter;
+import com.todo.app.timing.TimingProperties;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * 请求分阶段计时（Server-Timing 头 + 慢请求日志），app.timing.enabled=false 时整体关闭
+ *
+ * 埋点：
+ * - auth：JwtAuthenticationFilter 校验 token
+ * - db-wait / sql：TimingSessionEventListener（hibernate.session.events.auto）
+ * - hydrate：所有 Spring Data 仓库代理上的 RepositoryTimingInterceptor
+ * - serialize：SerializationTimingAdvice
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(TimingProperties.class)
+public class TimingConfig {
+
+    /**
+     * 排在最前（包括 Security 过滤器链之前），总耗时覆盖整个请求
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(TimingProperties properties) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        RepositoryTimingInterceptor interceptor = new RepositoryTimingInterceptor();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(interceptor)));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.todo.app.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Todo / SubTask 的手写序列化器
+ *
+ * 列表接口一次返回上百个 Todo，默认的 BeanSerializer 要通过反射逐个读取属性，
+ * 还会顺着 user、parent 等懒加载关联继续序列化。这里按固定字段顺序直接写出，
+ * 输出与前端 Todo / SubTask 类型一致，JSON、Smile、CBOR 共用。
+ */
+@JsonComponent
+public class TodoJsonSerializers {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    public static class TodoSerializer extends StdSerializer<Todo> {
+
+        public TodoSerializer() {
+            super(Todo.class);
+        }
+
+        @Override
+        public void serialize(Todo todo, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumber(gen, "id", todo.getId());
+            gen.writeStringField("title", todo.getTitle());
+            gen.writeStringField("description", todo.getDescription());
+            writeBoolean(gen, "isCompleted", todo.getIsCompleted());
+            gen.writeStringField("priority", todo.getPriority() != null ? todo.getPriority().name() : null);
+            writeDate(gen, "dueDate", todo.getDueDate());
+            writeBoolean(gen, "hasReminder", todo.getHasReminder());
+            writeNumber(gen, "userId", todo.getUserId());
+            writeNumber(gen, "categoryId", todo.getCategoryId());
+            gen.writeFieldName("category");
+            writeCategory(gen, todo.getCategory());
+            writeNumber(gen, "parentId", todo.getParentId());
+
+            gen.writeArrayFieldStart("subtasks");
+            if (todo.getSubtasks() != null) {
+                for (SubTask subTask : todo.getSubtasks()) {
+                    writeSubTask(gen, subTask);
+                }
+            }
+            gen.writeEndArray();
+
+            gen.writeNumberField("progress", todo.getProgress() != null ? todo.getProgress() : 0);
+            writeDateTime(gen, "createdAt", todo.getCreatedAt());
+            writeDateTime(gen, "updatedAt", todo.getUpdatedAt());
+            writeDateTime(gen, "completedAt", todo.getCompletedAt());
+            gen.writeArrayFieldStart("tags");
+            if (todo.getTags() != null && !todo.getTags().isEmpty()) {
+                for (String tag : todo.getTags().split(",")) {
+                    gen.writeString(tag);
+                }
+            }
+            gen.writeEndArray();
+            if (todo.isArchived()) {
+                gen.writeBooleanField("archived", true);
+            }
+            // 只有重复的 Todo 才输出规则；展开出的某一次另外带上这一次的日期
+            if (todo.getRecurrence() != null) {
+                gen.writeStringField("recurrence", todo.getRecurrence());
+                writeDate(gen, "recurrenceUntil", todo.getRecurrenceUntil());
+            }
+            if (todo.getOccurrenceDate() != null) {
+                writeDate(gen, "occurrenceDate", todo.getOccurrenceDate());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class SubTaskSerializer extends StdSerializer<SubTask> {
+
+        public SubTaskSerializer() {
+            super(SubTask.class);
+        }
+
+        @Override
+        public void serialize(SubTask subTask, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeSubTask(gen, subTask);
+        }
+    }
+
+    private static void writeSubTask(JsonGenerator gen, SubTask subTask) throws IOException {
+        gen.writeStartObject();
+        writeNumber(gen, "id", subTask.getId());
+        gen.writeStringField("title", subTask.getTitle());
+        writeBoolean(gen, "isCompleted", subTask.getIsCompleted());
+        writeNumber(gen, "todoId", subTask.getTodoId());
+        writeDateTime(gen, "createdAt", subTask.getCreatedAt());
+        gen.writeEndObject();
+    }
+
+    private static void writeCategory(JsonGenerator gen, Category category) throws IOException {
+        if (category == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeNumber(gen, "id", category.getId());
+        gen.writeStringField("name", category.getName());
+        gen.writeStringField("color", category.getColor());
+        gen.writeStringField("icon", category.getIcon());
+        writeNumber(gen, "userId", category.getUserId());
+        writeDateTime(gen, "createdAt", category.getCreatedAt());
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, Long value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(field, value);
+        } else {
+            gen.writeNullField(field);
+        }
+    }
+
+    private static void writeBoolean(JsonGenerator gen, String field, Boolean value) throws IOException {
+        gen.writeBooleanField(field, Boolean.TRUE.equals(value));
+    }
+
+    private static void writeDate(JsonGenerator gen, String field, LocalDate value) throws IOException {
+        gen.writeStringField(field, value != null ? value.toString() : null);
+    }
+
+    private static void writeDateTime(JsonGenerator gen, String field, LocalDateTime value) throws IOException {
+        gen.writeStringField(field, value != null ? DATE_TIME.format(value) : null);
+    }
+}
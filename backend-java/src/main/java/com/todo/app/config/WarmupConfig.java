@@ -0,0 +1,40 @@
+package com.todo.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.controller.TodoController;
+import com.todo.app.repository.UserRepository;
+import com.todo.app.security.JwtUtil;
+import com.todo.app.service.CategoryService;
+import com.todo.app.service.SuggestService;
+import com.todo.app.service.TagIndexService;
+import com.todo.app.warmup.WarmupEndpoint;
+import com.todo.app.warmup.WarmupProperties;
+import com.todo.app.warmup.WarmupRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 启动预热（app.warmup.enabled=true 时开启），预热结束前 readiness 不会变为 UP
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    public WarmupRunner warmupRunner(WarmupProperties properties, TodoController todoController,
+                                     UserRepository userRepository, JwtUtil jwtUtil, ObjectMapper objectMapper,
+                                     SuggestService suggestService, TagIndexService tagIndexService,
+                                     CategoryService categoryService, PlatformTransactionManager transactionManager) {
+        return new WarmupRunner(properties, todoController, userRepository, jwtUtil, objectMapper, suggestService,
+                tagIndexService, categoryService, transactionManager);
+    }
+
+    @Bean
+    public WarmupEndpoint warmupEndpoint(WarmupRunner warmupRunner) {
+        return new WarmupEndpoint(warmupRunner);
+    }
+}
@@ -1,6 +1,12 @@
 package com.todo.app.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -9,9 +15,27 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * 注意：CORS 配置已移至 WebSecurityConfig 类中，
  * 通过 Spring Security 的 CorsConfigurationSource 统一管理。
  * 这样可以确保 CORS 配置在安全过滤器链中正确应用。
+ *
+ * 内容协商：除默认的 JSON 外，客户端可以通过 Accept / Content-Type 选择
+ * 二进制格式，体积更小、解析更快：
+ * - application/x-jackson-smile
+ * - application/cbor
+ * Spring MVC 在 classpath 上发现这两个库时会自动注册对应的转换器（排在 JSON 之后，
+ * 所以客户端不指定格式时仍然返回 JSON）。这里用同类型的 Bean 替换默认转换器，
+ * 让二进制格式使用与 JSON 相同的 ObjectMapper 配置（包括 TodoJsonSerializers）。
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     // CORS configuration is now handled by WebSecurityConfig
     // through Spring Security's CorsConfigurationSource
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
 }
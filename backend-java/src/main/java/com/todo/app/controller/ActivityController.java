@@ -0,0 +1,31 @@
+package com.todo.app.controller;
+
+import com.todo.app.dto.ActivityLogDTO;
+import com.todo.app.service.ActivityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/activity")
+@RequiredArgsConstructor
+@Tag(name = "Activity", description = "Audit trail of todo / subtask / category changes")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+public class ActivityController {
+
+    private final ActivityService activityService;
+
+    @GetMapping
+    @Operation(summary = "Get recent changes, newest first, optionally for a single entity")
+    public ResponseEntity<List<ActivityLogDTO>> getActivity(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(activityService.getActivity(entityType, entityId, limit));
+    }
+}
@@ -1,5 +1,6 @@
 package com.todo.app.controller;
 
+import com.todo.app.dto.AvailabilityDTO;
 import com.todo.app.dto.LoginDTO;
 import com.todo.app.dto.RegisterDTO;
 import com.todo.app.dto.TokenDTO;
@@ -28,6 +29,16 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(user);
     }
 
+    /**
+     * 注册表单实时检查用户名 / 邮箱是否可用（两者都可选）
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityDTO> availability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
+
     @PostMapping("/login")
     public ResponseEntity<TokenDTO> login(@Valid @RequestBody LoginDTO loginDTO) {
         TokenDTO token = authService.login(loginDTO);
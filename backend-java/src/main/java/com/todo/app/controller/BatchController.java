@@ -0,0 +1,39 @@
+package com.todo.app.controller;
+
+import com.todo.app.dto.BatchRequestDTO;
+import com.todo.app.dto.BatchResponseDTO;
+import com.todo.app.dto.BatchResultDTO;
+import com.todo.app.service.BatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@Tag(name = "Batch", description = "Run several todo / subtask / category operations in one transaction")
+public class BatchController {
+
+    private final BatchService batchService;
+
+    @PostMapping
+    @Operation(summary = "Execute an ordered list of operations atomically; create ops may declare a $ref used by later ops")
+    public ResponseEntity<BatchResponseDTO> execute(@Valid @RequestBody BatchRequestDTO request) {
+        BatchResponseDTO response = batchService.execute(request.getOperations());
+        if (response.getCommitted()) {
+            return ResponseEntity.ok(response);
+        }
+        // 整批回滚时以失败操作的状态码作为响应状态
+        int status = response.getResults().stream()
+                .map(BatchResultDTO::getStatus)
+                .filter(s -> s != HttpStatus.FAILED_DEPENDENCY.value())
+                .filter(s -> s >= 400)
+                .findFirst()
+                .orElse(HttpStatus.BAD_REQUEST.value());
+        return ResponseEntity.status(status).body(response);
+    }
+}
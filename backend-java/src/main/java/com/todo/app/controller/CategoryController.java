@@ -30,8 +30,13 @@ public class CategoryController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all categories")
-    public ResponseEntity<List<Category>> getAllCategories() {
+    @Operation(summary = "Get all categories, optionally with total / completed / overdue todo counts")
+    public ResponseEntity<List<?>> getAllCategories(
+            @RequestParam(defaultValue = "false") boolean includeCounts
+    ) {
+        if (includeCounts) {
+            return ResponseEntity.ok(categoryService.getAllCategoriesWithCounts());
+        }
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
@@ -1,8 +1,16 @@
 package com.todo.app.controller;
 
+import com.todo.app.dto.CalendarDTO;
+import com.todo.app.dto.FacetedTodosDTO;
+import com.todo.app.dto.NextActionDTO;
+import com.todo.app.dto.OccurrenceUpdateDTO;
 import com.todo.app.dto.StatisticsDTO;
 import com.todo.app.dto.SubTaskCreateDTO;
+import com.todo.app.dto.SuggestionsDTO;
+import com.todo.app.dto.TagCountDTO;
+import com.todo.app.dto.TimeSeriesDTO;
 import com.todo.app.dto.TodoCreateDTO;
+import com.todo.app.dto.TodoTreeDTO;
 import com.todo.app.dto.TodoUpdateDTO;
 import com.todo.app.entity.SubTask;
 import com.todo.app.entity.Todo;
@@ -11,10 +19,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -37,9 +47,36 @@ public class TodoController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String priority,
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Boolean isCompleted
+            @RequestParam(required = false) Boolean isCompleted,
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) String anyTags,
+            @RequestParam(required = false) String excludeTags,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(todoService.getAllTodos(search, priority, categoryId, isCompleted,
+                tags, anyTags, excludeTags, includeArchived, from, to));
+    }
+
+    @GetMapping(params = "facets=true")
+    @Operation(summary = "Get one page of filtered todos with per-priority, per-category and completion facet counts")
+    public ResponseEntity<FacetedTodosDTO> getFacetedTodos(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean isCompleted,
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) String anyTags,
+            @RequestParam(required = false) String excludeTags,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
     ) {
-        return ResponseEntity.ok(todoService.getAllTodos(search, priority, categoryId, isCompleted));
+        return ResponseEntity.ok(todoService.getFacetedTodos(search, priority, categoryId, isCompleted,
+                tags, anyTags, excludeTags, includeArchived, from, to, page, size));
     }
 
     @GetMapping("/statistics")
@@ -48,6 +85,47 @@ public class TodoController {
         return ResponseEntity.ok(todoService.getStatistics());
     }
 
+    @GetMapping("/statistics/timeseries")
+    @Operation(summary = "Get daily / weekly / monthly completion trends")
+    public ResponseEntity<TimeSeriesDTO> getStatisticsTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity
+    ) {
+        return ResponseEntity.ok(todoService.getStatisticsTimeSeries(from, to, granularity));
+    }
+
+    @GetMapping("/calendar")
+    @Operation(summary = "Get todos grouped by due date (defaults to the current month)")
+    public ResponseEntity<CalendarDTO> getCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "3") int perDay
+    ) {
+        return ResponseEntity.ok(todoService.getCalendar(from, to, perDay));
+    }
+
+    @GetMapping("/next")
+    @Operation(summary = "Get the top-k incomplete todos ranked by priority, due date and progress")
+    public ResponseEntity<List<NextActionDTO>> getNextActions(@RequestParam(defaultValue = "20") int k) {
+        return ResponseEntity.ok(todoService.getNextActions(k));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete todo titles and category names by prefix")
+    public ResponseEntity<SuggestionsDTO> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(todoService.suggest(prefix, limit));
+    }
+
+    @GetMapping("/tags")
+    @Operation(summary = "Get the tags in use with the number of todos carrying each")
+    public ResponseEntity<List<TagCountDTO>> getTags() {
+        return ResponseEntity.ok(todoService.getTags());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get todo by ID")
     public ResponseEntity<Todo> getTodoById(@PathVariable Long id) {
@@ -63,6 +141,51 @@ public class TodoController {
         return ResponseEntity.ok(todoService.updateTodo(id, dto));
     }
 
+    @GetMapping("/{id}/tree")
+    @Operation(summary = "Get a todo and all of its nested child todos")
+    public ResponseEntity<TodoTreeDTO> getTodoTree(@PathVariable Long id) {
+        return ResponseEntity.ok(todoService.getTodoTree(id));
+    }
+
+    @GetMapping("/{id}/occurrences")
+    @Operation(summary = "Expand a recurring todo into its occurrences within a date window")
+    public ResponseEntity<List<Todo>> getOccurrences(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(todoService.getOccurrences(id, from, to));
+    }
+
+    @PatchMapping("/{id}/occurrences/{date}")
+    @Operation(summary = "Edit or complete a single occurrence of a recurring todo")
+    public ResponseEntity<Todo> updateOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody OccurrenceUpdateDTO dto
+    ) {
+        return ResponseEntity.ok(todoService.updateOccurrence(id, date, dto));
+    }
+
+    @DeleteMapping("/{id}/occurrences/{date}")
+    @Operation(summary = "Skip a single occurrence of a recurring todo")
+    public ResponseEntity<Void> cancelOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        todoService.cancelOccurrence(id, date);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/{id}/move")
+    @Operation(summary = "Move a todo under another parent (omit parentId to make it a root)")
+    public ResponseEntity<Todo> moveTodo(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long parentId
+    ) {
+        return ResponseEntity.ok(todoService.moveTodo(id, parentId));
+    }
+
     @PatchMapping("/{id}/toggle")
     @Operation(summary = "Toggle todo completion status")
     public ResponseEntity<Todo> toggleTodo(@PathVariable Long id) {
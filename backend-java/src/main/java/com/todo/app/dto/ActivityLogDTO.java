@@ -0,0 +1,36 @@
+package com.todo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一条操作记录；before / after 原样输出为 JSON 对象
+ */
+public class ActivityLogDTO {
+
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private Long actorId;
+    @JsonRawValue
+    private String before;
+    @JsonRawValue
+    private String after;
+    private LocalDateTime createdAt;
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+    public String getBefore() { return before; }
+    public void setBefore(String before) { this.before = before; }
+    public String getAfter() { return after; }
+    public void setAfter(String after) { this.after = after; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,24 @@
+package com.todo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 用户名 / 邮箱是否可用；只返回请求中给出的字段
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityDTO {
+
+    private String username;
+    private Boolean usernameAvailable;
+    private String email;
+    private Boolean emailAvailable;
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public Boolean getUsernameAvailable() { return usernameAvailable; }
+    public void setUsernameAvailable(Boolean usernameAvailable) { this.usernameAvailable = usernameAvailable; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public Boolean getEmailAvailable() { return emailAvailable; }
+    public void setEmailAvailable(Boolean emailAvailable) { this.emailAvailable = emailAvailable; }
+}
@@ -0,0 +1,40 @@
+package com.todo.app.dto;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * 批量请求中的单个操作
+ *
+ * op 取值：todo.create / todo.update / todo.toggle / todo.move / todo.delete、
+ * subtask.create / subtask.toggle / subtask.delete、category.create / category.update / category.delete。
+ * id、todoId 以及 body 中的 categoryId、parentId 可以写成 "$xxx"，引用前面某个 create 操作声明的 ref。
+ */
+public class BatchOperationDTO {
+
+    @NotBlank(message = "op is required")
+    private String op;
+
+    /** create 操作的临时 ID（以 $ 开头），供后续操作引用 */
+    private String ref;
+
+    /** 目标实体 ID，数字或临时 ID */
+    private String id;
+
+    /** subtask.create 所属的 Todo，数字或临时 ID */
+    private String todoId;
+
+    /** 与对应单个接口相同的请求体 */
+    private ObjectNode body;
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    public String getRef() { return ref; }
+    public void setRef(String ref) { this.ref = ref; }
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTodoId() { return todoId; }
+    public void setTodoId(String todoId) { this.todoId = todoId; }
+    public ObjectNode getBody() { return body; }
+    public void setBody(ObjectNode body) { this.body = body; }
+}
@@ -0,0 +1,15 @@
+package com.todo.app.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BatchRequestDTO {
+
+    @NotEmpty(message = "operations must not be empty")
+    private List<@Valid BatchOperationDTO> operations;
+
+    public List<BatchOperationDTO> getOperations() { return operations; }
+    public void setOperations(List<BatchOperationDTO> operations) { this.operations = operations; }
+}
@@ -0,0 +1,17 @@
+package com.todo.app.dto;
+
+import java.util.List;
+
+/**
+ * 批量响应：committed 为 false 时整批已回滚，失败操作之后的操作状态为 424（未执行）
+ */
+public class BatchResponseDTO {
+
+    private Boolean committed;
+    private List<BatchResultDTO> results;
+
+    public Boolean getCommitted() { return committed; }
+    public void setCommitted(Boolean committed) { this.committed = committed; }
+    public List<BatchResultDTO> getResults() { return results; }
+    public void setResults(List<BatchResultDTO> results) { this.results = results; }
+}
@@ -0,0 +1,42 @@
+package com.todo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 单个操作的执行结果，status 与对应单个接口的 HTTP 状态码一致
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResultDTO {
+
+    private Integer index;
+    private String op;
+    private Integer status;
+    private String ref;
+    private Long id;
+    private Object data;
+    private String error;
+
+    public static BatchResultDTO of(int index, BatchOperationDTO operation, int status) {
+        BatchResultDTO result = new BatchResultDTO();
+        result.setIndex(index);
+        result.setOp(operation.getOp());
+        result.setRef(operation.getRef());
+        result.setStatus(status);
+        return result;
+    }
+
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    public Integer getStatus() { return status; }
+    public void setStatus(Integer status) { this.status = status; }
+    public String getRef() { return ref; }
+    public void setRef(String ref) { this.ref = ref; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Object getData() { return data; }
+    public void setData(Object data) { this.data = data; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
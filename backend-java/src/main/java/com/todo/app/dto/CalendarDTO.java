@@ -0,0 +1,24 @@
+package com.todo.app.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 日历视图：只包含窗口内有 Todo 截止的日期，按日期升序
+ */
+public class CalendarDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private Integer perDay;
+    private List<CalendarDayDTO> days;
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public Integer getPerDay() { return perDay; }
+    public void setPerDay(Integer perDay) { this.perDay = perDay; }
+    public List<CalendarDayDTO> getDays() { return days; }
+    public void setDays(List<CalendarDayDTO> days) { this.days = days; }
+}
@@ -0,0 +1,28 @@
+package com.todo.app.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日历中的一天：total / completed 为当天全部 Todo 的计数，todos 最多 perDay 条，more 为未返回的条数
+ */
+public class CalendarDayDTO {
+
+    private LocalDate date;
+    private Integer total = 0;
+    private Integer completed = 0;
+    private Integer more = 0;
+    private List<CalendarTodoDTO> todos = new ArrayList<>();
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+    public Integer getCompleted() { return completed; }
+    public void setCompleted(Integer completed) { this.completed = completed; }
+    public Integer getMore() { return more; }
+    public void setMore(Integer more) { this.more = more; }
+    public List<CalendarTodoDTO> getTodos() { return todos; }
+    public void setTodos(List<CalendarTodoDTO> todos) { this.todos = todos; }
+}
@@ -0,0 +1,32 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Todo;
+
+/**
+ * 日历格子里的精简 Todo
+ *
+ * recurring 为 true 时是重复 Todo 展开出的一次，id 为所属 Todo 的 ID，
+ * 单独修改这一次用 /api/todos/{id}/occurrences/{date}
+ */
+public class CalendarTodoDTO {
+
+    private Long id;
+    private String title;
+    private Todo.Priority priority;
+    private Boolean isCompleted;
+    private Long categoryId;
+    private Boolean recurring = false;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public Boolean getRecurring() { return recurring; }
+    public void setRecurring(Boolean recurring) { this.recurring = recurring; }
+}
@@ -0,0 +1,53 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Category;
+
+import java.time.LocalDateTime;
+
+public class CategoryWithCountsDTO {
+
+    private Long id;
+    private String name;
+    private String color;
+    private String icon;
+    private Long userId;
+    private LocalDateTime createdAt;
+    private Long todoCount = 0L;
+    private Long completedCount = 0L;
+    private Long overdueCount = 0L;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getColor() { return color; }
+    public void setColor(String color) { this.color = color; }
+    public String getIcon() { return icon; }
+    public void setIcon(String icon) { this.icon = icon; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Long getTodoCount() { return todoCount; }
+    public void setTodoCount(Long todoCount) { this.todoCount = todoCount; }
+    public Long getCompletedCount() { return completedCount; }
+    public void setCompletedCount(Long completedCount) { this.completedCount = completedCount; }
+    public Long getOverdueCount() { return overdueCount; }
+    public void setOverdueCount(Long overdueCount) { this.overdueCount = overdueCount; }
+
+    public static CategoryWithCountsDTO fromEntity(Category category, long[] counts) {
+        CategoryWithCountsDTO dto = new CategoryWithCountsDTO();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setColor(category.getColor());
+        dto.setIcon(category.getIcon());
+        dto.setUserId(category.getUserId());
+        dto.setCreatedAt(category.getCreatedAt());
+        if (counts != null) {
+            dto.setTodoCount(counts[0]);
+            dto.setCompletedCount(counts[1]);
+            dto.setOverdueCount(counts[2]);
+        }
+        return dto;
+    }
+}
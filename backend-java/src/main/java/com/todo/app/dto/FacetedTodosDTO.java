@@ -0,0 +1,28 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Todo;
+
+import java.util.List;
+
+/**
+ * GET /api/todos?facets=true：一页结果 + 满足全部条件的总数 + 分面计数
+ */
+public class FacetedTodosDTO {
+
+    private List<Todo> todos;
+    private long total;
+    private int page;
+    private int size;
+    private TodoFacetsDTO facets;
+
+    public List<Todo> getTodos() { return todos; }
+    public void setTodos(List<Todo> todos) { this.todos = todos; }
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public TodoFacetsDTO getFacets() { return facets; }
+    public void setFacets(TodoFacetsDTO facets) { this.facets = facets; }
+}
@@ -0,0 +1,22 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Todo;
+
+/**
+ * "下一步做什么"排行中的一项：完整的 Todo + 排序得分
+ *
+ * dueInDays 为距截止日期的天数（逾期为负数，没有截止日期为空）。
+ */
+public class NextActionDTO {
+
+    private Todo todo;
+    private int score;
+    private Integer dueInDays;
+
+    public Todo getTodo() { return todo; }
+    public void setTodo(Todo todo) { this.todo = todo; }
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    public Integer getDueInDays() { return dueInDays; }
+    public void setDueInDays(Integer dueInDays) { this.dueInDays = dueInDays; }
+}
@@ -0,0 +1,22 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Todo;
+
+/**
+ * 修改重复 Todo 的某一次：只覆盖这一次，字段为空表示不修改，title 为空串表示恢复为所属 Todo 的标题
+ */
+public class OccurrenceUpdateDTO {
+
+    private String title;
+
+    private Todo.Priority priority;
+
+    private Boolean isCompleted;
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+}
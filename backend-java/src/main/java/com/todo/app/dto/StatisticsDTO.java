@@ -10,6 +10,8 @@ public class StatisticsDTO {
     private Integer completionRate;
     private Map<String, Integer> priorityStats;
     private Integer overdueCount;
+    /** 其中已归档的数量（已计入 total / completed / priorityStats） */
+    private Integer archived;
 
     public Integer getTotal() { return total; }
     public void setTotal(Integer total) { this.total = total; }
@@ -23,4 +25,6 @@ public class StatisticsDTO {
     public void setPriorityStats(Map<String, Integer> priorityStats) { this.priorityStats = priorityStats; }
     public Integer getOverdueCount() { return overdueCount; }
     public void setOverdueCount(Integer overdueCount) { this.overdueCount = overdueCount; }
+    public Integer getArchived() { return archived; }
+    public void setArchived(Integer archived) { this.archived = archived; }
 }
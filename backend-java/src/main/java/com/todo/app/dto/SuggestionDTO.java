@@ -0,0 +1,25 @@
+package com.todo.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.todo.app.entity.Todo;
+
+/**
+ * 一条补全建议（priority / isCompleted 只对 Todo 返回）
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestionDTO {
+
+    private Long id;
+    private String text;
+    private Todo.Priority priority;
+    private Boolean isCompleted;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+}
@@ -0,0 +1,18 @@
+package com.todo.app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SuggestionsDTO {
+
+    private String prefix;
+    private List<SuggestionDTO> todos = new ArrayList<>();
+    private List<SuggestionDTO> categories = new ArrayList<>();
+
+    public String getPrefix() { return prefix; }
+    public void setPrefix(String prefix) { this.prefix = prefix; }
+    public List<SuggestionDTO> getTodos() { return todos; }
+    public void setTodos(List<SuggestionDTO> todos) { this.todos = todos; }
+    public List<SuggestionDTO> getCategories() { return categories; }
+    public void setCategories(List<SuggestionDTO> categories) { this.categories = categories; }
+}
@@ -0,0 +1,13 @@
+package com.todo.app.dto;
+
+public class TagCountDTO {
+
+    private String tag;
+
+    private long count;
+
+    public String getTag() { return tag; }
+    public void setTag(String tag) { this.tag = tag; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
@@ -0,0 +1,21 @@
+package com.todo.app.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class TimeSeriesDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private String granularity;
+    private List<TimeSeriesPointDTO> points;
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public List<TimeSeriesPointDTO> getPoints() { return points; }
+    public void setPoints(List<TimeSeriesPointDTO> points) { this.points = points; }
+}
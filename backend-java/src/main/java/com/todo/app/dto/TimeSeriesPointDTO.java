@@ -0,0 +1,37 @@
+package com.todo.app.dto;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TimeSeriesPointDTO {
+
+    private LocalDate start;
+    private LocalDate end;
+    private Integer created = 0;
+    private Integer completed = 0;
+    private Integer overdue = 0;
+    private Map<String, Integer> createdByPriority = new HashMap<>();
+    private Map<String, Integer> completedByPriority = new HashMap<>();
+    private Map<String, Integer> createdByCategory = new HashMap<>();
+    private Map<String, Integer> completedByCategory = new HashMap<>();
+
+    public LocalDate getStart() { return start; }
+    public void setStart(LocalDate start) { this.start = start; }
+    public LocalDate getEnd() { return end; }
+    public void setEnd(LocalDate end) { this.end = end; }
+    public Integer getCreated() { return created; }
+    public void setCreated(Integer created) { this.created = created; }
+    public Integer getCompleted() { return completed; }
+    public void setCompleted(Integer completed) { this.completed = completed; }
+    public Integer getOverdue() { return overdue; }
+    public void setOverdue(Integer overdue) { this.overdue = overdue; }
+    public Map<String, Integer> getCreatedByPriority() { return createdByPriority; }
+    public void setCreatedByPriority(Map<String, Integer> createdByPriority) { this.createdByPriority = createdByPriority; }
+    public Map<String, Integer> getCompletedByPriority() { return completedByPriority; }
+    public void setCompletedByPriority(Map<String, Integer> completedByPriority) { this.completedByPriority = completedByPriority; }
+    public Map<String, Integer> getCreatedByCategory() { return createdByCategory; }
+    public void setCreatedByCategory(Map<String, Integer> createdByCategory) { this.createdByCategory = createdByCategory; }
+    public Map<String, Integer> getCompletedByCategory() { return completedByCategory; }
+    public void setCompletedByCategory(Map<String, Integer> completedByCategory) { this.completedByCategory = completedByCategory; }
+}
@@ -19,8 +19,16 @@ public class TodoCreateDTO {
 
     private Long categoryId;
 
+    private Long parentId;
+
     private List<SubTaskCreateDTO> subtasks;
 
+    // 重复规则（RRULE 子集，如 "FREQ=WEEKLY;BYDAY=MO,WE"），从 dueDate 开始重复
+    private String recurrence;
+
+    // 标签，保存时去掉首尾空白、转小写并去重
+    private List<String> tags;
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
@@ -31,6 +39,12 @@ public class TodoCreateDTO {
     public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
     public Long getCategoryId() { return categoryId; }
     public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
     public List<SubTaskCreateDTO> getSubtasks() { return subtasks; }
     public void setSubtasks(List<SubTaskCreateDTO> subtasks) { this.subtasks = subtasks; }
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
 }
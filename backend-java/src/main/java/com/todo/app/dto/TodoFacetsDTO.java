@@ -0,0 +1,26 @@
+package com.todo.app.dto;
+
+import java.util.Map;
+
+/**
+ * 列表侧栏的分面计数：每一组只忽略自身的条件，按其余条件统计，
+ * 即"再选上这一项会有多少条结果"
+ *
+ * priority 的键为小写的优先级（三项都有），categories 的键为分类 ID（未分类为 "none"，按数量降序）。
+ */
+public class TodoFacetsDTO {
+
+    private Map<String, Long> priority;
+    private Map<String, Long> categories;
+    private long completed;
+    private long pending;
+
+    public Map<String, Long> getPriority() { return priority; }
+    public void setPriority(Map<String, Long> priority) { this.priority = priority; }
+    public Map<String, Long> getCategories() { return categories; }
+    public void setCategories(Map<String, Long> categories) { this.categories = categories; }
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+    public long getPending() { return pending; }
+    public void setPending(long pending) { this.pending = pending; }
+}
@@ -0,0 +1,21 @@
+package com.todo.app.dto;
+
+import java.util.List;
+
+/**
+ * 子树响应：节点按深度优先先序排列，通过 parentId / depth 还原层级
+ * （扁平列表避免数千层嵌套时序列化递归过深）
+ */
+public class TodoTreeDTO {
+
+    private Long rootId;
+    private Integer size;
+    private List<TodoTreeNodeDTO> nodes;
+
+    public Long getRootId() { return rootId; }
+    public void setRootId(Long rootId) { this.rootId = rootId; }
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+    public List<TodoTreeNodeDTO> getNodes() { return nodes; }
+    public void setNodes(List<TodoTreeNodeDTO> nodes) { this.nodes = nodes; }
+}
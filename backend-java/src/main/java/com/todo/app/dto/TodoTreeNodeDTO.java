@@ -0,0 +1,63 @@
+package com.todo.app.dto;
+
+import com.todo.app.entity.Todo;
+
+import java.time.LocalDate;
+
+public class TodoTreeNodeDTO {
+
+    private Long id;
+    private Long parentId;
+    private Integer depth;
+    private String title;
+    private Boolean isCompleted;
+    private Todo.Priority priority;
+    private LocalDate dueDate;
+    private Integer progress;
+    private Integer descendantCount;
+    private Integer descendantsCompleted;
+    private Integer treeProgress;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+    public Integer getDescendantCount() { return descendantCount; }
+    public void setDescendantCount(Integer descendantCount) { this.descendantCount = descendantCount; }
+    public Integer getDescendantsCompleted() { return descendantsCompleted; }
+    public void setDescendantsCompleted(Integer descendantsCompleted) { this.descendantsCompleted = descendantsCompleted; }
+    public Integer getTreeProgress() { return treeProgress; }
+    public void setTreeProgress(Integer treeProgress) { this.treeProgress = treeProgress; }
+
+    public static TodoTreeNodeDTO fromEntity(Todo todo, int depth) {
+        TodoTreeNodeDTO dto = new TodoTreeNodeDTO();
+        dto.setId(todo.getId());
+        dto.setParentId(todo.getParentId());
+        dto.setDepth(depth);
+        dto.setTitle(todo.getTitle());
+        dto.setIsCompleted(todo.getIsCompleted());
+        dto.setPriority(todo.getPriority());
+        dto.setDueDate(todo.getDueDate());
+        dto.setProgress(todo.getProgress());
+        dto.setDescendantCount(todo.getDescendantCount());
+        dto.setDescendantsCompleted(todo.getDescendantsCompleted());
+
+        // 整棵子树的完成比例：自身 + 所有后代
+        int total = 1 + todo.getDescendantCount();
+        int completed = (Boolean.TRUE.equals(todo.getIsCompleted()) ? 1 : 0) + todo.getDescendantsCompleted();
+        dto.setTreeProgress(completed * 100 / total);
+        return dto;
+    }
+}
@@ -3,6 +3,7 @@ package com.todo.app.dto;
 import com.todo.app.entity.Todo;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class TodoUpdateDTO {
 
@@ -20,6 +21,12 @@ public class TodoUpdateDTO {
 
     private Integer progress;
 
+    // 重复规则（RRULE 子集，如 "FREQ=WEEKLY;BYDAY=MO,WE"），从 dueDate 开始重复;空串表示取消重复
+    private String recurrence;
+
+    // 标签，给出时整体替换（空数组表示清除）
+    private List<String> tags;
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
@@ -34,4 +41,8 @@ public class TodoUpdateDTO {
     public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
     public Integer getProgress() { return progress; }
     public void setProgress(Integer progress) { this.progress = progress; }
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
 }
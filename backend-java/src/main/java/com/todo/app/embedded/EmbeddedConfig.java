@@ -0,0 +1,24 @@
+package com.todo.app.embedded;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * embedded profile：用内存表 + WAL 代替 MySQL / JPA
+ *
+ * DataSource、Hibernate 和 Spring Data JPA 的自动配置在 application-embedded.yml 中排除，
+ * 各 Repository 接口由本包中的 InMemory*Repository 实现。
+ */
+@Configuration
+@Profile("embedded")
+@EnableConfigurationProperties(EmbeddedProperties.class)
+public class EmbeddedConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EmbeddedStore store) {
+        return new EmbeddedTransactionManager(store);
+    }
+}
@@ -0,0 +1,48 @@
+package com.todo.app.embedded;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 嵌入式存储配置（app.embedded.*，仅 embedded profile 使用）
+ */
+@ConfigurationProperties(prefix = "app.embedded")
+public class EmbeddedProperties {
+
+    /** WAL 段文件和快照所在目录 */
+    private String dataDir = "./data/embedded";
+
+    /** 单个 WAL 段文件大小（MB），写满后切换到新段 */
+    private int segmentSizeMb = 64;
+
+    /** 事务提交时是否等待 WAL 落盘；关闭后进程崩溃不丢数据，但掉电可能丢失最近的提交 */
+    private boolean fsync = true;
+
+    /** 组提交窗口：收到第一个落盘请求后再等这么久，把同一时间段内的提交合并成一次 force */
+    private Duration groupCommitDelay = Duration.ofMillis(1);
+
+    /** 距上次快照写入这么多条 WAL 记录后生成新快照 */
+    private long snapshotEveryRecords = 100_000;
+
+    /** 定时快照间隔（有新写入时才生成） */
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+
+    /** 写入等待其他事务释放行锁的最长时间，超时抛 CannotAcquireLockException（也用来打破死锁） */
+    private Duration lockTimeout = Duration.ofSeconds(10);
+
+    public String getDataDir() { return dataDir; }
+    public void setDataDir(String dataDir) { this.dataDir = dataDir; }
+    public int getSegmentSizeMb() { return segmentSizeMb; }
+    public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+    public boolean isFsync() { return fsync; }
+    public void setFsync(boolean fsync) { this.fsync = fsync; }
+    public Duration getGroupCommitDelay() { return groupCommitDelay; }
+    public void setGroupCommitDelay(Duration groupCommitDelay) { this.groupCommitDelay = groupCommitDelay; }
+    public long getSnapshotEveryRecords() { return snapshotEveryRecords; }
+    public void setSnapshotEveryRecords(long snapshotEveryRecords) { this.snapshotEveryRecords = snapshotEveryRecords; }
+    public Duration getSnapshotInterval() { return snapshotInterval; }
+    public void setSnapshotInterval(Duration snapshotInterval) { this.snapshotInterval = snapshotInterval; }
+    public Duration getLockTimeout() { return lockTimeout; }
+    public void setLockTimeout(Duration lockTimeout) { this.lockTimeout = lockTimeout; }
+}
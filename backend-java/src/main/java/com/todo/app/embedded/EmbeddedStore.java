@@ -0,0 +1,602 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.ArchivedSubTask;
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoDailyStat;
+import com.todo.app.entity.TodoOccurrence;
+import com.todo.app.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 嵌入式存储引擎：内存表 + 内存映射 WAL + 定期压缩快照
+ *
+ * - 写入：在写锁内更新内存表并追加 WAL 记录，两者顺序一致；读取完全无锁
+ * - 事务：第一次写入时追加 BEGIN 记录（其 LSN 即事务号），之后的记录都带事务号；
+ *   改动的行在事务结束前被锁住，其他写入等待（超过 lockTimeout 抛 CannotAcquireLockException），
+ *   其他读取看到的是已提交值（读已提交，见 Table）
+ * - 提交：追加 COMMIT 记录并等待落盘（组提交），然后释放行锁
+ * - 回滚：把锁住的行写回已提交值并追加 ROLLBACK 记录；行锁保证期间没有别人的写入被覆盖
+ * - 恢复：只重放有 COMMIT 的事务，崩溃时未完成的事务整体丢弃
+ * - 快照：只包含已提交的行；写入快照后删除被覆盖的 WAL 段，启动时加载最新快照再重放其后的 WAL。
+ *   有未完成的事务时，快照的重放起点退到其中最早的 BEGIN 之前，这些事务提交后仍能完整重放
+ */
+@Slf4j
+@Component
+@Profile("embedded")
+public class EmbeddedStore {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_BEGIN = 3;
+    private static final byte OP_TX_PUT = 4;
+    private static final byte OP_TX_DELETE = 5;
+    private static final byte OP_COMMIT = 6;
+    private static final byte OP_ROLLBACK = 7;
+    private static final long SNAPSHOT_MAGIC = 0x54_4F_44_4F_53_4E_41_50L; // "TODOSNAP"
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOTS_TO_KEEP = 2;
+
+    private final EmbeddedProperties properties;
+    private final Path dataDir;
+    private final Map<String, Table<?>> tables = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+    private final ThreadLocal<UndoLog> currentTransaction = new ThreadLocal<>();
+    // 已写入 BEGIN、尚未结束的事务，由 writeLock 保护
+    private final Set<UndoLog> activeTransactions = new HashSet<>();
+    // 恢复时已 BEGIN、还没遇到 COMMIT / ROLLBACK 的事务：事务号 -> 缓冲的记录
+    private final Map<Long, List<byte[]>> recovering = new HashMap<>();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+    private WriteAheadLog wal;
+    private ScheduledExecutorService snapshotter;
+    private volatile long snapshotLsn;
+
+    public EmbeddedStore(EmbeddedProperties properties) {
+        this.properties = properties;
+        this.dataDir = Paths.get(properties.getDataDir());
+
+        register(new Table<>("users", EntityCodecs.USER, User::getId, User::setId)
+                .index("email", User::getEmail)
+                .index("username", User::getUsername));
+        register(new Table<>("categories", EntityCodecs.CATEGORY, Category::getId, Category::setId)
+                .index("userId", Category::getUserId));
+        register(new Table<>("todos", EntityCodecs.TODO, Todo::getId, Todo::setId)
+                .index("userId", Todo::getUserId)
+                .index("parentId", Todo::getParentId)
+                .index("categoryId", Todo::getCategoryId)
+                .index("userDue", todo -> todo.getDueDate() != null ? new UserDueKey(todo.getUserId(), todo.getDueDate()) : null)
+                .index("userSeries", todo -> todo.getRecurrenceStart() != null ? todo.getUserId() : null));
+        register(new Table<>("subtasks", EntityCodecs.SUBTASK, SubTask::getId, SubTask::setId)
+                .index("todoId", SubTask::getTodoId));
+        register(new Table<>("todo_occurrences", EntityCodecs.TODO_OCCURRENCE, TodoOccurrence::getId, TodoOccurrence::setId)
+                .index("todoId", TodoOccurrence::getTodoId));
+        register(new Table<>("todo_daily_stats", EntityCodecs.DAILY_STAT, TodoDailyStat::getId, TodoDailyStat::setId)
+                .index("userId", TodoDailyStat::getUserId)
+                .index("key", stat -> new DailyStatKey(stat.getUserId(), stat.getStatDate(),
+                        stat.getCategoryId(), stat.getPriority())));
+        register(new Table<>("todos_archive", EntityCodecs.ARCHIVED_TODO, ArchivedTodo::getId, ArchivedTodo::setId)
+                .index("userId", ArchivedTodo::getUserId));
+        register(new Table<>("subtasks_archive", EntityCodecs.ARCHIVED_SUBTASK, ArchivedSubTask::getId, ArchivedSubTask::setId)
+                .index("todoId", ArchivedSubTask::getTodoId));
+    }
+
+    /** todos 的 (userId, dueDate) 索引键，日历视图按天逐个查找 */
+    record UserDueKey(Long userId, LocalDate dueDate) {
+    }
+
+    /** todo_daily_stats 的唯一键 */
+    record DailyStatKey(Long userId, LocalDate statDate, Long categoryId, Todo.Priority priority) {
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(dataDir);
+        snapshotLsn = loadLatestSnapshot();
+
+        long[] replayed = {0};
+        wal = new WriteAheadLog(dataDir.resolve("wal"), properties.getSegmentSizeMb() * 1024 * 1024,
+                properties.getGroupCommitDelay());
+        wal.open(snapshotLsn, (lsn, payload) -> {
+            replay(lsn, payload);
+            replayed[0]++;
+        });
+        int discarded = recovering.size();
+        recovering.clear();
+
+        log.info("Embedded store recovered {} rows (snapshot LSN {}, {} WAL records replayed, "
+                        + "{} unfinished transactions discarded) in {} ms",
+                tables.values().stream().mapToInt(Table::size).sum(), snapshotLsn, replayed[0], discarded,
+                System.currentTimeMillis() - start);
+
+        long intervalMillis = properties.getSnapshotInterval().toMillis();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embedded-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotIfDirty, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        snapshotter.shutdown();
+        snapshotIfDirty();
+        wal.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Table<T> table(String name) {
+        Table<T> table = (Table<T>) tables.get(name);
+        if (table == null) {
+            throw new IllegalArgumentException("Unknown table: " + name);
+        }
+        return table;
+    }
+
+    /**
+     * 插入或更新一行；id 为空时分配新 id 并回填到 row
+     */
+    public <T> long put(Table<T> table, T row) {
+        long rowId;
+        long lsn;
+        synchronized (writeLock) {
+            Long id = table.idOf(row);
+            if (id == null) {
+                id = table.nextId();
+                table.assignId(row, id);
+            } else {
+                awaitRowLock(table, id);
+            }
+            rowId = id;
+            lsn = write(table, rowId, table.codec().encode(row));
+        }
+        sync(lsn);
+        return rowId;
+    }
+
+    public <T> boolean delete(Table<T> table, Long id) {
+        long lsn;
+        synchronized (writeLock) {
+            awaitRowLock(table, id);
+            if (!table.contains(id)) {
+                return false;
+            }
+            lsn = write(table, id, null);
+        }
+        sync(lsn);
+        return true;
+    }
+
+    /**
+     * 读取-修改-写入在写锁内完成（计数器累加等场景）；行不存在时返回 false
+     */
+    public <T> boolean update(Table<T> table, Long id, UnaryOperator<T> change) {
+        long lsn;
+        synchronized (writeLock) {
+            awaitRowLock(table, id);
+            T row = table.get(id);
+            if (row == null) {
+                return false;
+            }
+            lsn = write(table, id, table.codec().encode(change.apply(row)));
+        }
+        sync(lsn);
+        return true;
+    }
+
+    /**
+     * 在写锁内执行一组写操作（例如先查唯一键再插入）。
+     * 其中的写入遇到其他事务的行锁时会让出写锁等待，等待前后之间不再是原子的
+     */
+    public void atomically(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+        }
+    }
+
+    /**
+     * 等待其他事务释放这一行的行锁（在写锁内调用，wait 期间让出写锁）
+     */
+    private void awaitRowLock(Table<?> table, Long id) {
+        UndoLog tx = currentTransaction.get();
+        Object owner = table.lockOwner(id);
+        if (owner == null || owner == tx) {
+            return;
+        }
+        long deadline = System.nanoTime() + properties.getLockTimeout().toNanos();
+        while (owner != null && owner != tx) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new CannotAcquireLockException("Timed out waiting for row lock on "
+                        + table.getName() + " #" + id);
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(writeLock, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted while waiting for row lock on "
+                        + table.getName() + " #" + id, e);
+            }
+            owner = table.lockOwner(id);
+        }
+    }
+
+    /**
+     * 追加 WAL 并更新内存表；返回需要在锁外等待落盘的 LSN（事务内的写入返回 0，提交时统一等待）
+     */
+    private long write(Table<?> table, Long id, byte[] row) {
+        UndoLog tx = currentTransaction.get();
+        long lsn;
+        if (tx == null) {
+            // 不在事务中：每次写入单独提交
+            lsn = wal.append(walRecord(row != null ? OP_PUT : OP_DELETE, 0, table.getName(), id, row));
+            table.apply(id, row);
+        } else {
+            if (tx.txId == 0) {
+                tx.txId = wal.append(new byte[]{OP_BEGIN});
+                activeTransactions.add(tx);
+            }
+            lsn = wal.append(walRecord(row != null ? OP_TX_PUT : OP_TX_DELETE, tx.txId, table.getName(), id, row));
+            if (table.applyPending(tx, id, row)) {
+                tx.locked.add(new UndoLog.Entry(table, id));
+            }
+        }
+
+        if (lsn - snapshotLsn >= properties.getSnapshotEveryRecords() && snapshotRunning.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                try {
+                    snapshot();
+                } finally {
+                    snapshotRunning.set(false);
+                }
+            });
+        }
+        return tx == null ? lsn : 0;
+    }
+
+    // ---- 事务支持（EmbeddedTransactionManager 调用） ----
+
+    UndoLog currentTransaction() {
+        return currentTransaction.get();
+    }
+
+    UndoLog begin() {
+        UndoLog undo = new UndoLog();
+        currentTransaction.set(undo);
+        return undo;
+    }
+
+    void resume(UndoLog undo) {
+        if (undo != null) {
+            currentTransaction.set(undo);
+        } else {
+            currentTransaction.remove();
+        }
+    }
+
+    /**
+     * COMMIT 记录落盘后才释放行锁，其他请求不会读到掉电后可能丢失的提交
+     */
+    void commit(UndoLog undo) {
+        if (undo.txId == 0) {
+            return;
+        }
+        long lsn;
+        synchronized (writeLock) {
+            lsn = wal.append(txRecord(OP_COMMIT, undo.txId));
+        }
+        try {
+            sync(lsn);
+        } finally {
+            synchronized (writeLock) {
+                undo.locked.forEach(entry -> entry.table().release(entry.id()));
+                finish(undo);
+            }
+        }
+    }
+
+    void rollback(UndoLog undo) {
+        if (undo.txId == 0) {
+            return;
+        }
+        synchronized (writeLock) {
+            for (int i = undo.locked.size() - 1; i >= 0; i--) {
+                UndoLog.Entry entry = undo.locked.get(i);
+                entry.table().restore(entry.id());
+            }
+            // 不需要等待落盘：丢失的 ROLLBACK 与没有 COMMIT 的效果相同
+            wal.append(txRecord(OP_ROLLBACK, undo.txId));
+            finish(undo);
+        }
+    }
+
+    private void finish(UndoLog undo) {
+        undo.locked.clear();
+        undo.txId = 0;
+        activeTransactions.remove(undo);
+        writeLock.notifyAll();
+    }
+
+    void end() {
+        currentTransaction.remove();
+    }
+
+    private void sync(long lsn) {
+        if (properties.isFsync() && lsn > 0) {
+            wal.sync(lsn);
+        }
+    }
+
+    /**
+     * 一个事务：事务号（BEGIN 记录的 LSN，还没有写入时为 0）和锁住的行，回滚时按相反顺序写回已提交值
+     */
+    static final class UndoLog {
+
+        record Entry(Table<?> table, Long id) {
+        }
+
+        private final List<Entry> locked = new ArrayList<>();
+        private long txId;
+        boolean rollbackOnly;
+    }
+
+    // ---- WAL 记录与快照 ----
+
+    private static byte[] walRecord(byte op, long txId, String table, Long id, byte[] row) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(40 + (row != null ? row.length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            if (op == OP_TX_PUT || op == OP_TX_DELETE) {
+                out.writeLong(txId);
+            }
+            out.writeUTF(table);
+            out.writeLong(id);
+            if (row != null) {
+                out.writeInt(row.length);
+                out.write(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] txRecord(byte op, long txId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(9);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            out.writeLong(txId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 事务内的记录先缓冲，遇到 COMMIT 才按顺序应用；ROLLBACK 或日志结束时仍未提交的直接丢弃
+     */
+    private void replay(long lsn, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte op = in.readByte();
+            switch (op) {
+                case OP_BEGIN -> recovering.put(lsn, new ArrayList<>());
+                case OP_TX_PUT, OP_TX_DELETE -> {
+                    List<byte[]> records = recovering.get(in.readLong());
+                    if (records != null) {
+                        records.add(payload);
+                    }
+                }
+                case OP_COMMIT -> {
+                    List<byte[]> records = recovering.remove(in.readLong());
+                    if (records != null) {
+                        for (byte[] record : records) {
+                            applyRecord(record);
+                        }
+                    }
+                }
+                case OP_ROLLBACK -> recovering.remove(in.readLong());
+                default -> applyRecord(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt WAL record", e);
+        }
+    }
+
+    private void applyRecord(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte op = in.readByte();
+            if (op == OP_TX_PUT || op == OP_TX_DELETE) {
+                in.readLong();
+            }
+            Table<?> table = table(in.readUTF());
+            long id = in.readLong();
+            if (op == OP_PUT || op == OP_TX_PUT) {
+                byte[] row = new byte[in.readInt()];
+                in.readFully(row);
+                table.apply(id, row);
+            } else {
+                table.apply(id, null);
+            }
+        }
+    }
+
+    private void snapshotIfDirty() {
+        if (wal.lastLsn() > snapshotLsn && snapshotRunning.compareAndSet(false, true)) {
+            try {
+                snapshot();
+            } finally {
+                snapshotRunning.set(false);
+            }
+        }
+    }
+
+    /**
+     * 在写锁内复制各表已提交的行引用（行是不可变的 byte[]，复制很快），之后在锁外写文件。
+     * 文件头记录的是重放起点：有未完成的事务时是其中最早的 BEGIN 之前，否则是当前 WAL 末尾
+     */
+    private void snapshot() {
+        long lsn;
+        long replayFrom;
+        Map<String, long[]> sequences = new LinkedHashMap<>();
+        Map<String, List<byte[]>> rows = new LinkedHashMap<>();
+        synchronized (writeLock) {
+            lsn = wal.lastLsn();
+            replayFrom = activeTransactions.stream().mapToLong(tx -> tx.txId - 1).min().orElse(lsn);
+            for (Table<?> table : tables.values()) {
+                sequences.put(table.getName(), new long[]{table.sequence()});
+                rows.put(table.getName(), new ArrayList<>(table.visibleRows(null)));
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        Path target = dataDir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+        Path tmp = dataDir.resolve(target.getFileName() + ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+                out.writeLong(SNAPSHOT_MAGIC);
+                out.writeLong(replayFrom);
+                out.writeInt(rows.size());
+                for (Map.Entry<String, List<byte[]>> entry : rows.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(sequences.get(entry.getKey())[0]);
+                    out.writeInt(entry.getValue().size());
+                    for (byte[] row : entry.getValue()) {
+                        out.writeInt(row.length);
+                        out.write(row);
+                    }
+                }
+                out.flush();
+                // 校验和本身不参与计算
+                new DataOutputStream(file).writeInt((int) crc.getValue());
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+            snapshotLsn = lsn;
+            wal.truncateThrough(replayFrom);
+            deleteOldSnapshots();
+            log.info("Embedded store snapshot at LSN {} written in {} ms", lsn, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("Failed to write embedded store snapshot", e);
+        }
+    }
+
+    /**
+     * 从新到旧尝试加载快照，校验失败时退回上一个快照
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path snapshot = snapshots.get(i);
+            try {
+                return loadSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable snapshot {}: {}", snapshot.getFileName(), e.getMessage());
+                tables.values().forEach(Table::clear);
+            }
+        }
+        return 0;
+    }
+
+    private long loadSnapshot(Path snapshot) throws IOException {
+        long size = Files.size(snapshot);
+        CRC32C crc = new CRC32C();
+        try (InputStream file = Files.newInputStream(snapshot);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(file, 1 << 16), crc))) {
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("Bad snapshot header");
+            }
+            long lsn = in.readLong();
+            int tableCount = in.readInt();
+            for (int t = 0; t < tableCount; t++) {
+                Table<?> table = table(in.readUTF());
+                table.advanceSequence(in.readLong());
+                int rowCount = in.readInt();
+                for (int r = 0; r < rowCount; r++) {
+                    byte[] row = new byte[in.readInt()];
+                    in.readFully(row);
+                    table.apply(idOf(table, row), row);
+                }
+            }
+            int expected = (int) crc.getValue();
+            byte[] trailer = in.readNBytes(4);
+            if (trailer.length != 4 || new DataInputStream(new ByteArrayInputStream(trailer)).readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch (" + size + " bytes)");
+            }
+            return lsn;
+        }
+    }
+
+    private static <T> Long idOf(Table<T> table, byte[] row) {
+        return table.idOf(table.codec().decode(row));
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_TO_KEEP; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(dataDir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && p.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void register(Table<?> table) {
+        table.ownedBy(currentTransaction::get);
+        tables.put(table.getName(), table);
+    }
+}
@@ -0,0 +1,92 @@
+package com.todo.app.embedded;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+
+/**
+ * 嵌入式存储的事务管理器
+ *
+ * 事务期间的写入立即应用到内存表并追加到 WAL，改动的行被锁住，其他请求读到的是已提交值；
+ * 提交时写 COMMIT 记录并等待落盘（组提交），回滚时写回已提交值。事务同步（afterCompletion 等回调）照常触发。
+ */
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final EmbeddedStore store;
+
+    public EmbeddedTransactionManager(EmbeddedStore store) {
+        this.store = store;
+        setNestedTransactionAllowed(false);
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject(store.currentTransaction());
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).undo != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ((TransactionObject) transaction).undo = store.begin();
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        TransactionObject tx = (TransactionObject) transaction;
+        EmbeddedStore.UndoLog suspended = tx.undo;
+        tx.undo = null;
+        store.end();
+        return suspended;
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        store.resume((EmbeddedStore.UndoLog) suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).undo);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((TransactionObject) status.getTransaction()).undo);
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).undo.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        store.end();
+    }
+
+    /**
+     * 外层事务与加入它的内层事务共用同一个 UndoLog，内层标记的 rollback-only 对外层可见
+     */
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private EmbeddedStore.UndoLog undo;
+
+        private TransactionObject(EmbeddedStore.UndoLog undo) {
+            this.undo = undo;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return undo != null && undo.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.ArchivedSubTask;
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoDailyStat;
+import com.todo.app.entity.TodoOccurrence;
+import com.todo.app.entity.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.todo.app.embedded.RowCodec.*;
+
+/**
+ * 各实体的行格式。只保存列字段，关联对象（category、subtasks 等）由仓库在读取时填充。
+ *
+ * 每行以格式版本号开头：实体新增字段时提高版本号，并在 read 中按版本兼容旧的 WAL / 快照。
+ */
+final class EntityCodecs {
+
+    private EntityCodecs() {
+    }
+
+    static final RowCodec<Todo> TODO = new RowCodec<>() {
+        private static final int VERSION = 3;
+
+        @Override
+        public void write(DataOutput out, Todo todo) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, todo.getId());
+            writeString(out, todo.getTitle());
+            writeString(out, todo.getDescription());
+            writeBoolean(out, todo.getIsCompleted());
+            writeString(out, todo.getPriority() != null ? todo.getPriority().name() : null);
+            writeDate(out, todo.getDueDate());
+            writeBoolean(out, todo.getHasReminder());
+            writeLong(out, todo.getUserId());
+            writeLong(out, todo.getCategoryId());
+            writeLong(out, todo.getParentId());
+            writeInt(out, todo.getProgress());
+            writeInt(out, todo.getDescendantCount());
+            writeInt(out, todo.getDescendantsCompleted());
+            writeDateTime(out, todo.getCreatedAt());
+            writeDateTime(out, todo.getUpdatedAt());
+            writeDateTime(out, todo.getCompletedAt());
+            writeString(out, todo.getRecurrence());
+            writeDate(out, todo.getRecurrenceStart());
+            writeDate(out, todo.getRecurrenceUntil());
+            writeString(out, todo.getTags());
+        }
+
+        @Override
+        public Todo read(DataInput in) throws IOException {
+            int version = in.readByte();
+            Todo todo = new Todo();
+            todo.setId(readLong(in));
+            todo.setTitle(readString(in));
+            todo.setDescription(readString(in));
+            todo.setIsCompleted(readBoolean(in));
+            String priority = readString(in);
+            todo.setPriority(priority != null ? Todo.Priority.valueOf(priority) : null);
+            todo.setDueDate(readDate(in));
+            todo.setHasReminder(readBoolean(in));
+            todo.setUserId(readLong(in));
+            todo.setCategoryId(readLong(in));
+            todo.setParentId(readLong(in));
+            todo.setProgress(readInt(in));
+            todo.setDescendantCount(readInt(in));
+            todo.setDescendantsCompleted(readInt(in));
+            todo.setCreatedAt(readDateTime(in));
+            todo.setUpdatedAt(readDateTime(in));
+            todo.setCompletedAt(readDateTime(in));
+            // 版本 1 没有重复规则
+            if (version >= 2) {
+                todo.setRecurrence(readString(in));
+                todo.setRecurrenceStart(readDate(in));
+                todo.setRecurrenceUntil(readDate(in));
+            }
+            // 版本 3 起有标签
+            if (version >= 3) {
+                todo.setTags(readString(in));
+            }
+            return todo;
+        }
+    };
+
+    static final RowCodec<SubTask> SUBTASK = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, SubTask subTask) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, subTask.getId());
+            writeString(out, subTask.getTitle());
+            writeBoolean(out, subTask.getIsCompleted());
+            writeLong(out, subTask.getTodoId());
+            writeDateTime(out, subTask.getCreatedAt());
+        }
+
+        @Override
+        public SubTask read(DataInput in) throws IOException {
+            in.readByte();
+            SubTask subTask = new SubTask();
+            subTask.setId(readLong(in));
+            subTask.setTitle(readString(in));
+            subTask.setIsCompleted(readBoolean(in));
+            subTask.setTodoId(readLong(in));
+            subTask.setCreatedAt(readDateTime(in));
+            return subTask;
+        }
+    };
+
+    static final RowCodec<TodoOccurrence> TODO_OCCURRENCE = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, TodoOccurrence occurrence) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, occurrence.getId());
+            writeLong(out, occurrence.getTodoId());
+            writeLong(out, occurrence.getUserId());
+            writeDate(out, occurrence.getOccurrenceDate());
+            writeString(out, occurrence.getTitle());
+            writeString(out, occurrence.getPriority() != null ? occurrence.getPriority().name() : null);
+            writeBoolean(out, occurrence.getIsCompleted());
+            writeDateTime(out, occurrence.getCompletedAt());
+            writeBoolean(out, occurrence.getCancelled());
+            writeDateTime(out, occurrence.getCreatedAt());
+            writeDateTime(out, occurrence.getUpdatedAt());
+        }
+
+        @Override
+        public TodoOccurrence read(DataInput in) throws IOException {
+            in.readByte();
+            TodoOccurrence occurrence = new TodoOccurrence();
+            occurrence.setId(readLong(in));
+            occurrence.setTodoId(readLong(in));
+            occurrence.setUserId(readLong(in));
+            occurrence.setOccurrenceDate(readDate(in));
+            occurrence.setTitle(readString(in));
+            String priority = readString(in);
+            occurrence.setPriority(priority != null ? Todo.Priority.valueOf(priority) : null);
+            occurrence.setIsCompleted(readBoolean(in));
+            occurrence.setCompletedAt(readDateTime(in));
+            occurrence.setCancelled(readBoolean(in));
+            occurrence.setCreatedAt(readDateTime(in));
+            occurrence.setUpdatedAt(readDateTime(in));
+            return occurrence;
+        }
+    };
+
+    static final RowCodec<Category> CATEGORY = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, Category category) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, category.getId());
+            writeString(out, category.getName());
+            writeString(out, category.getColor());
+            writeString(out, category.getIcon());
+            writeLong(out, category.getUserId());
+            writeDateTime(out, category.getCreatedAt());
+        }
+
+        @Override
+        public Category read(DataInput in) throws IOException {
+            in.readByte();
+            Category category = new Category();
+            category.setId(readLong(in));
+            category.setName(readString(in));
+            category.setColor(readString(in));
+            category.setIcon(readString(in));
+            category.setUserId(readLong(in));
+            category.setCreatedAt(readDateTime(in));
+            return category;
+        }
+    };
+
+    static final RowCodec<User> USER = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, user.getId());
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getEmail());
+            writeString(out, user.getAvatar());
+            writeDateTime(out, user.getCreatedAt());
+        }
+
+        @Override
+        public User read(DataInput in) throws IOException {
+            in.readByte();
+            User user = new User();
+            user.setId(readLong(in));
+            user.setUsername(readString(in));
+            user.setPassword(readString(in));
+            user.setEmail(readString(in));
+            user.setAvatar(readString(in));
+            user.setCreatedAt(readDateTime(in));
+            return user;
+        }
+    };
+
+    static final RowCodec<TodoDailyStat> DAILY_STAT = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, TodoDailyStat stat) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, stat.getId());
+            writeLong(out, stat.getUserId());
+            writeDate(out, stat.getStatDate());
+            writeLong(out, stat.getCategoryId());
+            writeString(out, stat.getPriority() != null ? stat.getPriority().name() : null);
+            writeInt(out, stat.getCreated());
+            writeInt(out, stat.getCompleted());
+            writeInt(out, stat.getDueOpen());
+        }
+
+        @Override
+        public TodoDailyStat read(DataInput in) throws IOException {
+            in.readByte();
+            TodoDailyStat stat = new TodoDailyStat();
+            stat.setId(readLong(in));
+            stat.setUserId(readLong(in));
+            stat.setStatDate(readDate(in));
+            stat.setCategoryId(readLong(in));
+            String priority = readString(in);
+            stat.setPriority(priority != null ? Todo.Priority.valueOf(priority) : null);
+            stat.setCreated(readInt(in));
+            stat.setCompleted(readInt(in));
+            stat.setDueOpen(readInt(in));
+            return stat;
+        }
+    };
+
+    static final RowCodec<ArchivedTodo> ARCHIVED_TODO = new RowCodec<>() {
+        private static final int VERSION = 2;
+
+        @Override
+        public void write(DataOutput out, ArchivedTodo todo) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, todo.getId());
+            writeString(out, todo.getTitle());
+            writeString(out, todo.getDescription());
+            writeBoolean(out, todo.getIsCompleted());
+            writeString(out, todo.getPriority() != null ? todo.getPriority().name() : null);
+            writeDate(out, todo.getDueDate());
+            writeBoolean(out, todo.getHasReminder());
+            writeLong(out, todo.getUserId());
+            writeLong(out, todo.getCategoryId());
+            writeLong(out, todo.getParentId());
+            writeInt(out, todo.getProgress());
+            writeDateTime(out, todo.getCreatedAt());
+            writeDateTime(out, todo.getUpdatedAt());
+            writeDateTime(out, todo.getCompletedAt());
+            writeDateTime(out, todo.getArchivedAt());
+            writeString(out, todo.getTags());
+        }
+
+        @Override
+        public ArchivedTodo read(DataInput in) throws IOException {
+            int version = in.readByte();
+            ArchivedTodo todo = new ArchivedTodo();
+            todo.setId(readLong(in));
+            todo.setTitle(readString(in));
+            todo.setDescription(readString(in));
+            todo.setIsCompleted(readBoolean(in));
+            String priority = readString(in);
+            todo.setPriority(priority != null ? Todo.Priority.valueOf(priority) : null);
+            todo.setDueDate(readDate(in));
+            todo.setHasReminder(readBoolean(in));
+            todo.setUserId(readLong(in));
+            todo.setCategoryId(readLong(in));
+            todo.setParentId(readLong(in));
+            todo.setProgress(readInt(in));
+            todo.setCreatedAt(readDateTime(in));
+            todo.setUpdatedAt(readDateTime(in));
+            todo.setCompletedAt(readDateTime(in));
+            todo.setArchivedAt(readDateTime(in));
+            // 版本 1 没有标签
+            if (version >= 2) {
+                todo.setTags(readString(in));
+            }
+            return todo;
+        }
+    };
+
+    static final RowCodec<ArchivedSubTask> ARCHIVED_SUBTASK = new RowCodec<>() {
+        private static final int VERSION = 1;
+
+        @Override
+        public void write(DataOutput out, ArchivedSubTask subTask) throws IOException {
+            out.writeByte(VERSION);
+            writeLong(out, subTask.getId());
+            writeString(out, subTask.getTitle());
+            writeBoolean(out, subTask.getIsCompleted());
+            writeLong(out, subTask.getTodoId());
+            writeDateTime(out, subTask.getCreatedAt());
+            writeDateTime(out, subTask.getArchivedAt());
+        }
+
+        @Override
+        public ArchivedSubTask read(DataInput in) throws IOException {
+            in.readByte();
+            ArchivedSubTask subTask = new ArchivedSubTask();
+            subTask.setId(readLong(in));
+            subTask.setTitle(readString(in));
+            subTask.setIsCompleted(readBoolean(in));
+            subTask.setTodoId(readLong(in));
+            subTask.setCreatedAt(readDateTime(in));
+            subTask.setArchivedAt(readDateTime(in));
+            return subTask;
+        }
+    };
+}
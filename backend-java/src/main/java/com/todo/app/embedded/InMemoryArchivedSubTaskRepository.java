@@ -0,0 +1,31 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.ArchivedSubTask;
+import com.todo.app.repository.ArchivedSubTaskRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@Profile("embedded")
+public class InMemoryArchivedSubTaskRepository extends InMemoryJpaRepository<ArchivedSubTask>
+        implements ArchivedSubTaskRepository {
+
+    public InMemoryArchivedSubTaskRepository(EmbeddedStore store) {
+        super(store, "subtasks_archive");
+    }
+
+    @Override
+    public List<ArchivedSubTask> findByTodoIdIn(Collection<Long> todoIds) {
+        List<ArchivedSubTask> rows = new ArrayList<>();
+        for (Long todoId : todoIds) {
+            rows.addAll(table.lookup("todoId", todoId));
+        }
+        rows.sort(Comparator.comparing(ArchivedSubTask::getId));
+        return rows;
+    }
+}
@@ -0,0 +1,101 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.ArchivedTodoRepository;
+import com.todo.app.repository.TodoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Repository
+@Profile("embedded")
+public class InMemoryArchivedTodoRepository extends InMemoryJpaRepository<ArchivedTodo> implements ArchivedTodoRepository {
+
+    private static final Comparator<ArchivedTodo> NEWEST_FIRST =
+            Comparator.comparing(ArchivedTodo::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())).reversed();
+
+    public InMemoryArchivedTodoRepository(EmbeddedStore store) {
+        super(store, "todos_archive");
+    }
+
+    @Override
+    public List<ArchivedTodo> findAllWithFilters(Long userId, String search, Todo.Priority priority,
+                                                 Long categoryId, Boolean isCompleted) {
+        String needle = search != null ? search.toLowerCase(Locale.ROOT) : null;
+        List<ArchivedTodo> rows = new ArrayList<>();
+        for (ArchivedTodo todo : table.lookup("userId", userId)) {
+            if (needle != null && !contains(todo.getTitle(), needle) && !contains(todo.getDescription(), needle)) {
+                continue;
+            }
+            if (priority != null && todo.getPriority() != priority) {
+                continue;
+            }
+            if (categoryId != null && !categoryId.equals(todo.getCategoryId())) {
+                continue;
+            }
+            if (isCompleted != null && !isCompleted.equals(todo.getIsCompleted())) {
+                continue;
+            }
+            rows.add(todo);
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows;
+    }
+
+    @Override
+    public List<TodoRepository.FacetRow> findFacetRows(Long userId, String search) {
+        String needle = search != null ? search.toLowerCase(Locale.ROOT) : null;
+        List<TodoRepository.FacetRow> rows = new ArrayList<>();
+        for (ArchivedTodo todo : table.lookup("userId", userId)) {
+            if (needle == null || contains(todo.getTitle(), needle) || contains(todo.getDescription(), needle)) {
+                rows.add(new InMemoryTodoRepository.FacetEntry(todo.getId(), todo.getTags(), todo.getPriority(),
+                        todo.getCategoryId(), todo.getIsCompleted(), todo.getCreatedAt()));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<PriorityCount> countByPriority(Long userId) {
+        Map<Todo.Priority, long[]> counts = new EnumMap<>(Todo.Priority.class);
+        for (ArchivedTodo todo : table.lookup("userId", userId)) {
+            long[] c = counts.computeIfAbsent(todo.getPriority(), k -> new long[2]);
+            c[0]++;
+            if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+                c[1]++;
+            }
+        }
+        List<PriorityCount> result = new ArrayList<>(counts.size());
+        counts.forEach((priority, c) -> result.add(new Count(priority, c[0], c[1])));
+        return result;
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private record Count(Todo.Priority priority, Long total, Long completed) implements PriorityCount {
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Long getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getCompleted() {
+            return completed;
+        }
+    }
+}
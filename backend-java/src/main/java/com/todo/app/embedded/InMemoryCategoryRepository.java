@@ -0,0 +1,40 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.Category;
+import com.todo.app.repository.CategoryRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@Profile("embedded")
+public class InMemoryCategoryRepository extends InMemoryJpaRepository<Category> implements CategoryRepository {
+
+    public InMemoryCategoryRepository(EmbeddedStore store) {
+        super(store, "categories");
+    }
+
+    @Override
+    protected void preserve(Category category, Category stored) {
+        category.setCreatedAt(stored.getCreatedAt());
+    }
+
+    @Override
+    public List<Category> findByUserIdOrderByCreatedAtDesc(Long userId) {
+        List<Category> rows = table.lookup("userId", userId);
+        rows.sort(Comparator.comparing(Category::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+        return rows;
+    }
+
+    @Override
+    public int deleteOwned(Long id, Long userId) {
+        Category category = table.get(id);
+        if (category == null || !category.getUserId().equals(userId)) {
+            return 0;
+        }
+        deleteById(id);
+        return 1;
+    }
+}
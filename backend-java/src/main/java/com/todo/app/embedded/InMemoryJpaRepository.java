@@ -0,0 +1,280 @@
+package com.todo.app.embedded;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 基于 EmbeddedStore 内存表的 JpaRepository 实现，供各 InMemory*Repository 继承
+ *
+ * 与 SimpleJpaRepository 的差异：
+ * - 实体不受托管，修改后必须显式 save（现有 service 都是这样写的）
+ * - save 会把分配的 id 回填到传入的实体并返回同一个对象
+ * - 不支持 Query by Example
+ */
+public abstract class InMemoryJpaRepository<T> implements JpaRepository<T, Long> {
+
+    protected final EmbeddedStore store;
+    protected final Table<T> table;
+
+    protected InMemoryJpaRepository(EmbeddedStore store, String tableName) {
+        this.store = store;
+        this.table = store.table(tableName);
+    }
+
+    /**
+     * 保存前把 updatable = false 的列恢复为库中的值（stored 为空表示插入）
+     */
+    protected void preserve(T entity, T stored) {
+    }
+
+    /**
+     * 读出的行补齐关联对象（对应 JPA 的 EAGER 关联 / 序列化时的懒加载）
+     */
+    protected T hydrate(T row) {
+        return row;
+    }
+
+    /**
+     * 删除一行之前的级联处理
+     */
+    protected void beforeDelete(Long id) {
+    }
+
+    protected List<T> hydrateAll(List<T> rows) {
+        rows.replaceAll(this::hydrate);
+        return rows;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        Long id = table.idOf(entity);
+        if (id != null) {
+            T stored = table.get(id);
+            if (stored != null) {
+                preserve(entity, stored);
+            }
+        }
+        store.put(table, entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(table.get(id)).map(this::hydrate);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return table.contains(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return hydrateAll(table.all());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        List<T> rows = new ArrayList<>();
+        for (Long id : ids) {
+            T row = table.get(id);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> rows = table.all();
+        Comparator<T> comparator = comparator(sort);
+        if (comparator != null) {
+            rows.sort(comparator);
+        }
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> rows = table.all();
+        Comparator<T> comparator = comparator(pageable.getSort());
+        if (comparator != null) {
+            rows.sort(comparator);
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(hydrateAll(rows), pageable, rows.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(hydrateAll(new ArrayList<>(rows.subList(from, to))), pageable, rows.size());
+    }
+
+    @Override
+    public long count() {
+        return table.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        beforeDelete(id);
+        store.delete(table, id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        Long id = table.idOf(entity);
+        if (id != null) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for (T entity : entities) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        for (T row : table.all()) {
+            delete(row);
+        }
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public T getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException(
+                "Unable to find row with id " + id + " in " + table.getName()));
+    }
+
+    @Override
+    @Deprecated
+    public T getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    // ---- Query by Example：内存表没有对应实现 ----
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw queryByExampleUnsupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleUnsupported();
+    }
+
+    private static UnsupportedOperationException queryByExampleUnsupported() {
+        return new UnsupportedOperationException("Query by Example is not supported by the embedded store");
+    }
+
+    /**
+     * 按属性名排序，null 排在最前（与 MySQL 升序一致）
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = Comparator.comparing(
+                    row -> (Comparable) new BeanWrapperImpl(row).getPropertyValue(order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.SubTask;
+import com.todo.app.repository.SubTaskRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@Profile("embedded")
+public class InMemorySubTaskRepository extends InMemoryJpaRepository<SubTask> implements SubTaskRepository {
+
+    public InMemorySubTaskRepository(EmbeddedStore store) {
+        super(store, "subtasks");
+    }
+
+    @Override
+    protected void preserve(SubTask subTask, SubTask stored) {
+        subTask.setCreatedAt(stored.getCreatedAt());
+    }
+
+    @Override
+    public List<SubTask> findByTodoId(Long todoId) {
+        List<SubTask> rows = table.lookup("todoId", todoId);
+        rows.sort(Comparator.comparing(SubTask::getId));
+        return rows;
+    }
+
+    @Override
+    public List<SubTask> findByTodoIdIn(Collection<Long> todoIds) {
+        List<SubTask> rows = new ArrayList<>();
+        for (Long todoId : todoIds) {
+            rows.addAll(table.lookup("todoId", todoId));
+        }
+        rows.sort(Comparator.comparing(SubTask::getId));
+        return rows;
+    }
+
+    @Override
+    public List<AuditRow> findAuditRowsByTodoIdIn(Collection<Long> todoIds) {
+        return findByTodoIdIn(todoIds).stream().<AuditRow>map(AuditView::new).toList();
+    }
+
+    @Override
+    public void deleteByTodoIdIn(Collection<Long> todoIds) {
+        for (Long todoId : todoIds) {
+            for (Long id : List.copyOf(table.idsFor("todoId", todoId))) {
+                store.delete(table, id);
+            }
+        }
+    }
+
+    private record AuditView(SubTask subTask) implements AuditRow {
+
+        @Override
+        public Long getId() {
+            return subTask.getId();
+        }
+
+        @Override
+        public Long getTodoId() {
+            return subTask.getTodoId();
+        }
+
+        @Override
+        public String getTitle() {
+            return subTask.getTitle();
+        }
+
+        @Override
+        public Boolean getIsCompleted() {
+            return subTask.getIsCompleted();
+        }
+    }
+}
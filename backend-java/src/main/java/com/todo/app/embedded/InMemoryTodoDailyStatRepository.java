@@ -0,0 +1,66 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoDailyStat;
+import com.todo.app.repository.TodoDailyStatRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@Profile("embedded")
+public class InMemoryTodoDailyStatRepository extends InMemoryJpaRepository<TodoDailyStat>
+        implements TodoDailyStatRepository {
+
+    public InMemoryTodoDailyStatRepository(EmbeddedStore store) {
+        super(store, "todo_daily_stats");
+    }
+
+    @Override
+    public List<TodoDailyStat> findByUserIdAndStatDateBetween(Long userId, LocalDate from, LocalDate to) {
+        return table.lookup("userId", userId).stream()
+                .filter(stat -> !stat.getStatDate().isBefore(from) && !stat.getStatDate().isAfter(to))
+                .toList();
+    }
+
+    /**
+     * 对应 INSERT ... ON DUPLICATE KEY UPDATE：在写锁内按唯一键查找，存在则累加，否则插入。
+     * 索引里可能是其他事务未提交的行：update 等它结束，回滚后行不存在时改为插入
+     */
+    @Override
+    public void increment(Long userId, LocalDate statDate, Long categoryId, String priority,
+                          int created, int completed, int dueOpen) {
+        Todo.Priority priorityEnum = Todo.Priority.valueOf(priority);
+        EmbeddedStore.DailyStatKey key = new EmbeddedStore.DailyStatKey(userId, statDate, categoryId, priorityEnum);
+        store.atomically(() -> {
+            Set<Long> ids = table.idsFor("key", key);
+            boolean updated = !ids.isEmpty() && store.update(table, ids.iterator().next(), stat -> {
+                stat.setCreated(stat.getCreated() + created);
+                stat.setCompleted(stat.getCompleted() + completed);
+                stat.setDueOpen(stat.getDueOpen() + dueOpen);
+                return stat;
+            });
+            if (!updated) {
+                TodoDailyStat stat = new TodoDailyStat();
+                stat.setUserId(userId);
+                stat.setStatDate(statDate);
+                stat.setCategoryId(categoryId);
+                stat.setPriority(priorityEnum);
+                stat.setCreated(created);
+                stat.setCompleted(completed);
+                stat.setDueOpen(dueOpen);
+                store.put(table, stat);
+            }
+        });
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        for (Long id : List.copyOf(table.idsFor("userId", userId))) {
+            store.delete(table, id);
+        }
+    }
+}
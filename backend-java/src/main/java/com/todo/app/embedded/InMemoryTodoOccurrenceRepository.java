@@ -0,0 +1,128 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoOccurrence;
+import com.todo.app.repository.TodoOccurrenceRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 例外记录只按 todoId 建索引，每个 Todo 的行数就是它被完成 / 修改过的次数
+ */
+@Repository
+@Profile("embedded")
+public class InMemoryTodoOccurrenceRepository extends InMemoryJpaRepository<TodoOccurrence>
+        implements TodoOccurrenceRepository {
+
+    public InMemoryTodoOccurrenceRepository(EmbeddedStore store) {
+        super(store, "todo_occurrences");
+    }
+
+    @Override
+    protected void preserve(TodoOccurrence occurrence, TodoOccurrence stored) {
+        occurrence.setCreatedAt(stored.getCreatedAt());
+    }
+
+    @Override
+    public Optional<TodoOccurrence> findByTodoIdAndOccurrenceDate(Long todoId, LocalDate occurrenceDate) {
+        for (TodoOccurrence occurrence : table.lookup("todoId", todoId)) {
+            if (occurrence.getOccurrenceDate().equals(occurrenceDate)) {
+                return Optional.of(occurrence);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<TodoOccurrence> findInWindow(Collection<Long> todoIds, LocalDate from, LocalDate to) {
+        List<TodoOccurrence> rows = new ArrayList<>();
+        for (Long todoId : todoIds) {
+            for (TodoOccurrence occurrence : table.lookup("todoId", todoId)) {
+                if (!occurrence.getOccurrenceDate().isBefore(from) && !occurrence.getOccurrenceDate().isAfter(to)) {
+                    rows.add(occurrence);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<LocalDate> findClosedDatesAfter(Long todoId, LocalDate after) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (TodoOccurrence occurrence : table.lookup("todoId", todoId)) {
+            if (occurrence.getOccurrenceDate().isAfter(after)
+                    && (Boolean.TRUE.equals(occurrence.getIsCompleted()) || Boolean.TRUE.equals(occurrence.getCancelled()))) {
+                dates.add(occurrence.getOccurrenceDate());
+            }
+        }
+        dates.sort(Comparator.naturalOrder());
+        return dates;
+    }
+
+    @Override
+    public Optional<TodoOccurrence> findFirstByTodoIdAndIsCompletedTrueOrderByOccurrenceDateDesc(Long todoId) {
+        return table.lookup("todoId", todoId).stream()
+                .filter(occurrence -> Boolean.TRUE.equals(occurrence.getIsCompleted()))
+                .max(Comparator.comparing(TodoOccurrence::getOccurrenceDate));
+    }
+
+    @Override
+    public List<CompletedRow> findCompletedAfter(Long afterId, Pageable page) {
+        List<CompletedRow> rows = new ArrayList<>();
+        for (TodoOccurrence occurrence : table.all()) {
+            if (Boolean.TRUE.equals(occurrence.getIsCompleted()) && occurrence.getId() > afterId) {
+                rows.add(new Completed(occurrence.getId(), occurrence.getTodoId(), occurrence.getOccurrenceDate(),
+                        occurrence.getPriority(), occurrence.getCompletedAt()));
+            }
+        }
+        rows.sort(Comparator.comparing(CompletedRow::getId));
+        return rows.subList(0, Math.min(page.getPageSize(), rows.size()));
+    }
+
+    @Override
+    public void deleteByTodoIdIn(Collection<Long> todoIds) {
+        for (Long todoId : todoIds) {
+            for (Long id : List.copyOf(table.idsFor("todoId", todoId))) {
+                store.delete(table, id);
+            }
+        }
+    }
+
+    private record Completed(Long id, Long todoId, LocalDate occurrenceDate, Todo.Priority priority,
+                             LocalDateTime completedAt) implements CompletedRow {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getTodoId() {
+            return todoId;
+        }
+
+        @Override
+        public LocalDate getOccurrenceDate() {
+            return occurrenceDate;
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public LocalDateTime getCompletedAt() {
+            return completedAt;
+        }
+    }
+}
@@ -0,0 +1,649 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.TodoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@Profile("embedded")
+public class InMemoryTodoRepository extends InMemoryJpaRepository<Todo> implements TodoRepository {
+
+    private static final Comparator<Todo> NEWEST_FIRST =
+            Comparator.comparing(Todo::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())).reversed();
+
+    /** 与 TodoRepository.findCalendar 的 ROW_NUMBER 排序一致：未完成在前，再按优先级、ID */
+    private static final Comparator<Todo> CALENDAR_ORDER = Comparator
+            .comparing((Todo todo) -> Boolean.TRUE.equals(todo.getIsCompleted()))
+            .thenComparing(Todo::getPriority, Comparator.comparingInt(InMemoryTodoRepository::priorityRank))
+            .thenComparing(Todo::getId);
+
+    private final Table<Category> categories;
+    private final Table<SubTask> subtasks;
+
+    public InMemoryTodoRepository(EmbeddedStore store) {
+        super(store, "todos");
+        this.categories = store.table("categories");
+        this.subtasks = store.table("subtasks");
+    }
+
+    /**
+     * createdAt 与两个子树计数在实体上是 updatable = false，计数只由 adjustDescendantCounts 修改
+     */
+    @Override
+    protected void preserve(Todo todo, Todo stored) {
+        todo.setCreatedAt(stored.getCreatedAt());
+        todo.setDescendantCount(stored.getDescendantCount());
+        todo.setDescendantsCompleted(stored.getDescendantsCompleted());
+    }
+
+    @Override
+    protected Todo hydrate(Todo todo) {
+        todo.setCategory(categories.get(todo.getCategoryId()));
+        List<SubTask> rows = subtasks.lookup("todoId", todo.getId());
+        rows.sort(Comparator.comparing(SubTask::getId));
+        todo.setSubtasks(rows);
+        return todo;
+    }
+
+    /**
+     * 子任务随 Todo 一起删除（对应实体上的 cascade = ALL）
+     */
+    @Override
+    protected void beforeDelete(Long id) {
+        for (Long subTaskId : List.copyOf(subtasks.idsFor("todoId", id))) {
+            store.delete(subtasks, subTaskId);
+        }
+    }
+
+    @Override
+    public Optional<Todo> findWithSubtasksById(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public List<Todo> findWithSubtasksByIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Todo> findAllWithFilters(Long userId, String search, Todo.Priority priority,
+                                         Long categoryId, Boolean isCompleted) {
+        // MySQL 默认排序规则下 LIKE 不区分大小写
+        String needle = search != null ? search.toLowerCase(Locale.ROOT) : null;
+        List<Todo> rows = new ArrayList<>();
+        for (Todo todo : table.lookup("userId", userId)) {
+            if (needle != null && !contains(todo.getTitle(), needle) && !contains(todo.getDescription(), needle)) {
+                continue;
+            }
+            if (priority != null && todo.getPriority() != priority) {
+                continue;
+            }
+            if (categoryId != null && !categoryId.equals(todo.getCategoryId())) {
+                continue;
+            }
+            if (isCompleted != null && !isCompleted.equals(todo.getIsCompleted())) {
+                continue;
+            }
+            rows.add(todo);
+        }
+        rows.sort(NEWEST_FIRST);
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public List<Todo> findByUserIdOrderByCreatedAtDesc(Long userId) {
+        List<Todo> rows = table.lookup("userId", userId);
+        rows.sort(NEWEST_FIRST);
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public List<CategoryCount> countByCategory(Long userId, LocalDate today) {
+        Map<Long, long[]> counts = new LinkedHashMap<>();
+        for (Todo todo : table.lookup("userId", userId)) {
+            if (todo.getCategoryId() == null) {
+                continue;
+            }
+            long[] c = counts.computeIfAbsent(todo.getCategoryId(), k -> new long[3]);
+            c[0]++;
+            if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+                c[1]++;
+            } else if (todo.getDueDate() != null && todo.getDueDate().isBefore(today)) {
+                c[2]++;
+            }
+        }
+        List<CategoryCount> result = new ArrayList<>(counts.size());
+        counts.forEach((categoryId, c) -> result.add(new Count(categoryId, c[0], c[1], c[2])));
+        return result;
+    }
+
+    /**
+     * 沿 parentId 索引做广度优先遍历，取出整棵子树（包括根节点）
+     */
+    @Override
+    public List<Todo> findSubtree(Long id, Long userId) {
+        Todo root = table.get(id);
+        if (root == null || !root.getUserId().equals(userId)) {
+            return new ArrayList<>();
+        }
+        List<Todo> rows = new ArrayList<>();
+        Deque<Todo> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Todo todo = queue.poll();
+            rows.add(todo);
+            queue.addAll(table.lookup("parentId", todo.getId()));
+        }
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public List<Long> findSubtreeIds(Long id, Long userId) {
+        Todo root = table.get(id);
+        if (root == null || !root.getUserId().equals(userId)) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(id);
+        while (!queue.isEmpty()) {
+            Long current = queue.poll();
+            ids.add(current);
+            queue.addAll(table.idsFor("parentId", current));
+        }
+        return ids;
+    }
+
+    @Override
+    public List<SnapshotRow> findSnapshotRows(List<Long> ids) {
+        List<SnapshotRow> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Todo todo = table.get(id);
+            if (todo != null) {
+                rows.add(new Snapshot(todo));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public List<SnapshotRow> findSnapshotRowsAfter(Long afterId, Pageable page) {
+        List<SnapshotRow> rows = new ArrayList<>(page.getPageSize());
+        for (Todo todo : table.all()) {
+            if (todo.getId() > afterId) {
+                rows.add(new Snapshot(todo));
+            }
+        }
+        rows.sort(Comparator.comparing(SnapshotRow::getId));
+        return rows.subList(0, Math.min(page.getPageSize(), rows.size()));
+    }
+
+    @Override
+    public int deleteOwned(List<Long> ids, Long userId) {
+        int deleted = 0;
+        for (Long id : ids) {
+            Todo todo = table.get(id);
+            if (todo != null && todo.getUserId().equals(userId)) {
+                deleteById(id);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Long> findIdsByCategory(Long categoryId, Long userId) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : table.idsFor("categoryId", categoryId)) {
+            Todo todo = table.get(id);
+            if (todo != null && todo.getUserId().equals(userId)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public int clearCategory(Long categoryId, Long userId) {
+        int updated = 0;
+        for (Long id : List.copyOf(table.idsFor("categoryId", categoryId))) {
+            Todo todo = table.get(id);
+            if (todo != null && todo.getUserId().equals(userId)) {
+                store.update(table, id, row -> {
+                    row.setCategoryId(null);
+                    return row;
+                });
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Long> findAncestorIds(Long id) {
+        List<Long> ids = new ArrayList<>();
+        Todo current = table.get(id);
+        while (current != null) {
+            ids.add(current.getId());
+            current = table.get(current.getParentId());
+        }
+        return ids;
+    }
+
+    @Override
+    public void adjustDescendantCounts(List<Long> ids, int count, int completed) {
+        for (Long id : ids) {
+            store.update(table, id, todo -> {
+                todo.setDescendantCount(todo.getDescendantCount() + count);
+                todo.setDescendantsCompleted(todo.getDescendantsCompleted() + completed);
+                return todo;
+            });
+        }
+    }
+
+    /**
+     * 读取不加锁，@Lock 的 SKIP LOCKED 在这里不生效：被其他事务锁住的行读到的是已提交值，归档写入时等待行锁
+     */
+    @Override
+    public List<Todo> findArchivableRoots(Long userId, LocalDateTime cutoff, Long afterId, Pageable page) {
+        List<Todo> rows = new ArrayList<>();
+        for (Todo todo : table.lookup("userId", userId)) {
+            LocalDateTime finished = todo.getCompletedAt() != null ? todo.getCompletedAt() : todo.getUpdatedAt();
+            if (todo.getId() > afterId && todo.getParentId() == null && Boolean.TRUE.equals(todo.getIsCompleted())
+                    && finished != null && finished.isBefore(cutoff)
+                    && todo.getDescendantsCompleted().equals(todo.getDescendantCount())) {
+                rows.add(todo);
+            }
+        }
+        rows.sort(Comparator.comparing(Todo::getId));
+        return hydrateAll(new ArrayList<>(rows.subList(0, Math.min(page.getPageSize(), rows.size()))));
+    }
+
+    @Override
+    public void detachFromParents(List<Long> ids) {
+        for (Long id : ids) {
+            store.update(table, id, todo -> {
+                todo.setParentId(null);
+                return todo;
+            });
+        }
+    }
+
+    /**
+     * 窗口内逐天查 (userId, dueDate) 索引，开销与窗口天数和命中行数成正比
+     */
+    @Override
+    public List<CalendarRow> findCalendar(Long userId, LocalDate from, LocalDate to, int perDay) {
+        List<CalendarRow> result = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<Todo> rows = table.lookup("userDue", new EmbeddedStore.UserDueKey(userId, day));
+            rows.removeIf(todo -> todo.getRecurrenceStart() != null);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            rows.sort(CALENDAR_ORDER);
+            long total = rows.size();
+            long completed = rows.stream().filter(todo -> Boolean.TRUE.equals(todo.getIsCompleted())).count();
+            for (Todo todo : rows.subList(0, Math.min(perDay, rows.size()))) {
+                result.add(new CalendarEntry(todo.getId(), todo.getTitle(), todo.getPriority(), todo.getIsCompleted(),
+                        todo.getDueDate(), todo.getCategoryId(), total, completed));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Todo> findSeriesBetween(Long userId, LocalDate from, LocalDate to) {
+        List<Todo> rows = new ArrayList<>();
+        for (Todo todo : table.lookup("userSeries", userId)) {
+            if (!todo.getRecurrenceStart().isAfter(to)
+                    && (todo.getRecurrenceUntil() == null || !todo.getRecurrenceUntil().isBefore(from))) {
+                rows.add(todo);
+            }
+        }
+        return hydrateAll(rows);
+    }
+
+    @Override
+    public List<TagRow> findTagRows(Long userId) {
+        List<TagRow> rows = new ArrayList<>();
+        for (Todo todo : table.lookup("userId", userId)) {
+            rows.add(new TagEntry(todo.getId(), todo.getTags(), todo.getPriority(), todo.getCategoryId(),
+                    todo.getIsCompleted()));
+        }
+        return rows;
+    }
+
+    @Override
+    public List<FacetRow> findFacetRows(Long userId, String search) {
+        return facetRows(table.lookup("userId", userId), search);
+    }
+
+    @Override
+    public List<FacetRow> findFacetRowsByIdIn(Collection<Long> ids, String search) {
+        List<Todo> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Todo todo = table.get(id);
+            if (todo != null) {
+                rows.add(todo);
+            }
+        }
+        return facetRows(rows, search);
+    }
+
+    private static List<FacetRow> facetRows(List<Todo> todos, String search) {
+        String needle = search != null ? search.toLowerCase(Locale.ROOT) : null;
+        List<FacetRow> rows = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            if (needle == null || contains(todo.getTitle(), needle) || contains(todo.getDescription(), needle)) {
+                rows.add(new FacetEntry(todo.getId(), todo.getTags(), todo.getPriority(), todo.getCategoryId(),
+                        todo.getIsCompleted(), todo.getCreatedAt()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 没有按优先级、截止日期排序的二级索引，扫描该用户的全部 Todo 后排序分页
+     */
+    @Override
+    public List<NextCandidate> findNextDated(Long userId, Todo.Priority priority, Pageable page) {
+        return nextCandidates(userId, priority, true, Comparator.comparing(Todo::getDueDate)
+                .thenComparing(Todo::getProgress).thenComparing(Todo::getId), page);
+    }
+
+    @Override
+    public List<NextCandidate> findNextUndated(Long userId, Todo.Priority priority, Pageable page) {
+        return nextCandidates(userId, priority, false, Comparator.comparing(Todo::getProgress)
+                .thenComparing(Todo::getId).reversed(), page);
+    }
+
+    private List<NextCandidate> nextCandidates(Long userId, Todo.Priority priority, boolean dated,
+                                               Comparator<Todo> order, Pageable page) {
+        List<Todo> rows = new ArrayList<>();
+        for (Todo todo : table.lookup("userId", userId)) {
+            if (!Boolean.TRUE.equals(todo.getIsCompleted()) && todo.getPriority() == priority
+                    && (todo.getDueDate() != null) == dated) {
+                rows.add(todo);
+            }
+        }
+        rows.sort(order);
+        int from = (int) Math.min(page.getOffset(), rows.size());
+        int to = Math.min(from + page.getPageSize(), rows.size());
+        List<NextCandidate> result = new ArrayList<>(to - from);
+        for (Todo todo : rows.subList(from, to)) {
+            result.add(new Candidate(todo.getId(), todo.getPriority(), todo.getDueDate(), todo.getProgress()));
+        }
+        return result;
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static int priorityRank(Todo.Priority priority) {
+        return switch (priority) {
+            case HIGH -> 0;
+            case MEDIUM -> 1;
+            default -> 2;
+        };
+    }
+
+    private record CalendarEntry(Long id, String title, Todo.Priority priority, Boolean isCompleted,
+                                 LocalDate dueDate, Long categoryId, Long dayTotal, Long dayCompleted)
+            implements CalendarRow {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Boolean getIsCompleted() {
+            return isCompleted;
+        }
+
+        @Override
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Long getDayTotal() {
+            return dayTotal;
+        }
+
+        @Override
+        public Long getDayCompleted() {
+            return dayCompleted;
+        }
+    }
+
+    private record Candidate(Long id, Todo.Priority priority, LocalDate dueDate, Integer progress)
+            implements NextCandidate {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        @Override
+        public Integer getProgress() {
+            return progress;
+        }
+    }
+
+    private record TagEntry(Long id, String tags, Todo.Priority priority, Long categoryId, Boolean isCompleted)
+            implements TagRow {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getTags() {
+            return tags;
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Boolean getIsCompleted() {
+            return isCompleted;
+        }
+    }
+
+    /**
+     * 归档表的分面投影（InMemoryArchivedTodoRepository）也用这个记录
+     */
+    record FacetEntry(Long id, String tags, Todo.Priority priority, Long categoryId, Boolean isCompleted,
+                      LocalDateTime createdAt) implements FacetRow {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getTags() {
+            return tags;
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Boolean getIsCompleted() {
+            return isCompleted;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    private record Snapshot(Todo todo) implements SnapshotRow {
+
+        @Override
+        public Long getId() {
+            return todo.getId();
+        }
+
+        @Override
+        public Long getUserId() {
+            return todo.getUserId();
+        }
+
+        @Override
+        public Long getParentId() {
+            return todo.getParentId();
+        }
+
+        @Override
+        public String getTitle() {
+            return todo.getTitle();
+        }
+
+        @Override
+        public String getDescription() {
+            return todo.getDescription();
+        }
+
+        @Override
+        public Boolean getIsCompleted() {
+            return todo.getIsCompleted();
+        }
+
+        @Override
+        public Todo.Priority getPriority() {
+            return todo.getPriority();
+        }
+
+        @Override
+        public LocalDate getDueDate() {
+            return todo.getDueDate();
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return todo.getCategoryId();
+        }
+
+        @Override
+        public Integer getProgress() {
+            return todo.getProgress();
+        }
+
+        @Override
+        public Integer getDescendantCount() {
+            return todo.getDescendantCount();
+        }
+
+        @Override
+        public Integer getDescendantsCompleted() {
+            return todo.getDescendantsCompleted();
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return todo.getCreatedAt();
+        }
+
+        @Override
+        public LocalDateTime getUpdatedAt() {
+            return todo.getUpdatedAt();
+        }
+
+        @Override
+        public LocalDateTime getCompletedAt() {
+            return todo.getCompletedAt();
+        }
+
+        @Override
+        public String getRecurrence() {
+            return todo.getRecurrence();
+        }
+    }
+
+    private record Count(Long categoryId, Long total, Long completed, Long overdue) implements CategoryCount {
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Long getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getCompleted() {
+            return completed;
+        }
+
+        @Override
+        public Long getOverdue() {
+            return overdue;
+        }
+    }
+}
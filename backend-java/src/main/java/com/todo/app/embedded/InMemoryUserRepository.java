@@ -0,0 +1,74 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.User;
+import com.todo.app.repository.UserRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("embedded")
+public class InMemoryUserRepository extends InMemoryJpaRepository<User> implements UserRepository {
+
+    public InMemoryUserRepository(EmbeddedStore store) {
+        super(store, "users");
+    }
+
+    @Override
+    protected void preserve(User user, User stored) {
+        user.setCreatedAt(stored.getCreatedAt());
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return table.lookup("email", email).stream().findFirst();
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return !table.idsFor("username", username).isEmpty();
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return !table.idsFor("email", email).isEmpty();
+    }
+
+    @Override
+    public Stream<Identity> streamIdentities() {
+        return table.all().stream().map(user -> new IdentityEntry(user.getUsername(), user.getEmail()));
+    }
+
+    @Override
+    public Optional<Identity> findIdentityById(Long id) {
+        return Optional.ofNullable(table.get(id)).map(user -> new IdentityEntry(user.getUsername(), user.getEmail()));
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Long afterId, Pageable page) {
+        return table.all().stream()
+                .map(User::getId)
+                .filter(id -> id > afterId)
+                .sorted(Comparator.naturalOrder())
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    private record IdentityEntry(String username, String email) implements Identity {
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.todo.app.embedded;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 一张内存表：id -> 编码后的行，外加若干二级索引（索引键 -> id 集合）
+ *
+ * 读操作无锁（ConcurrentHashMap），写操作只能经由 EmbeddedStore 在写锁内进行，
+ * 以保证内存状态与 WAL 中的记录顺序一致。
+ *
+ * 事务内的写入直接改 rows 和索引，同时在 pending 中记下该行的已提交值和所属事务（相当于行锁）。
+ * 读取时，被其他事务改动的行返回已提交值，因此隔离级别是读已提交（单次读取不是一致性快照）。
+ * idsFor 直接返回索引内容，包含其他事务未提交的行，供唯一键检查和"先取 id 再写入"的场景使用，
+ * 写入时会等待行锁（见 EmbeddedStore）。
+ */
+public final class Table<T> {
+
+    private final String name;
+    private final RowCodec<T> codec;
+    private final Function<T, Long> idOf;
+    private final BiConsumer<T, Long> assignId;
+    private final Map<Long, byte[]> rows = new ConcurrentHashMap<>();
+    private final Map<String, Index<T>> indexes = new LinkedHashMap<>();
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private Supplier<Object> currentOwner = () -> null;
+
+    /**
+     * 未提交的行：owner 是持有行锁的事务，committed 是事务开始改动前的值（插入时为 null）
+     */
+    private record Pending(Object owner, byte[] committed) {
+    }
+
+    Table(String name, RowCodec<T> codec, Function<T, Long> idOf, BiConsumer<T, Long> assignId) {
+        this.name = name;
+        this.codec = codec;
+        this.idOf = idOf;
+        this.assignId = assignId;
+    }
+
+    /**
+     * 声明二级索引，键函数返回 null 的行不进入索引
+     */
+    Table<T> index(String indexName, Function<T, Object> keyOf) {
+        indexes.put(indexName, new Index<>(keyOf));
+        return this;
+    }
+
+    /**
+     * 当前线程所在的事务，由 EmbeddedStore 注册表时设置
+     */
+    void ownedBy(Supplier<Object> currentOwner) {
+        this.currentOwner = currentOwner;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    RowCodec<T> codec() {
+        return codec;
+    }
+
+    public T get(Long id) {
+        byte[] row = id != null ? visible(id, currentOwner.get()) : null;
+        return row != null ? codec.decode(row) : null;
+    }
+
+    public boolean contains(Long id) {
+        return id != null && visible(id, currentOwner.get()) != null;
+    }
+
+    public int size() {
+        if (pending.isEmpty()) {
+            return rows.size();
+        }
+        Object owner = currentOwner.get();
+        int size = rows.size();
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending p = entry.getValue();
+            if (p.owner() != owner) {
+                size += (p.committed() != null ? 1 : 0) - (rows.containsKey(entry.getKey()) ? 1 : 0);
+            }
+        }
+        return size;
+    }
+
+    public List<T> all() {
+        Collection<byte[]> visible = visibleRows(currentOwner.get());
+        List<T> result = new ArrayList<>(visible.size());
+        for (byte[] row : visible) {
+            result.add(codec.decode(row));
+        }
+        return result;
+    }
+
+    /**
+     * 按索引键取行；并发写入时索引可能先于行更新，已删除的 id 直接跳过。
+     * 索引反映的是最新写入，被其他事务改动的行要按已提交值重新判断是否匹配
+     */
+    public List<T> lookup(String indexName, Object key) {
+        Set<Long> ids = idsFor(indexName, key);
+        List<T> result = new ArrayList<>(ids.size());
+        if (pending.isEmpty()) {
+            for (Long id : ids) {
+                T row = get(id);
+                if (row != null) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        Object owner = currentOwner.get();
+        Function<T, Object> keyOf = indexes.get(indexName).keyOf;
+        Set<Long> seen = new HashSet<>();
+        for (Long id : ids) {
+            Pending p = pending.get(id);
+            byte[] row = p != null && p.owner() != owner ? p.committed() : rows.get(id);
+            T decoded = row != null ? codec.decode(row) : null;
+            if (decoded != null && (p == null || p.owner() == owner || key.equals(keyOf.apply(decoded)))) {
+                result.add(decoded);
+                seen.add(id);
+            }
+        }
+        // 其他事务把行从这个键下移走（或删除）时，已提交值仍然属于这个键
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending p = entry.getValue();
+            if (p.owner() != owner && p.committed() != null && !seen.contains(entry.getKey())) {
+                T committed = codec.decode(p.committed());
+                if (key.equals(keyOf.apply(committed))) {
+                    result.add(committed);
+                }
+            }
+        }
+        return result;
+    }
+
+    public Set<Long> idsFor(String indexName, Object key) {
+        Index<T> index = indexes.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("No index " + indexName + " on table " + name);
+        }
+        Set<Long> ids = key != null ? index.entries.get(key) : null;
+        return ids != null ? ids : Set.of();
+    }
+
+    long nextId() {
+        return sequence.incrementAndGet();
+    }
+
+    long sequence() {
+        return sequence.get();
+    }
+
+    void advanceSequence(long id) {
+        sequence.accumulateAndGet(id, Math::max);
+    }
+
+    Long idOf(T row) {
+        return idOf.apply(row);
+    }
+
+    void assignId(T row, Long id) {
+        assignId.accept(row, id);
+    }
+
+    /**
+     * owner 能看到的行：其他事务未提交的改动替换为已提交值；owner 为 null 时只有已提交的行（快照用）
+     */
+    Collection<byte[]> visibleRows(Object owner) {
+        if (pending.isEmpty()) {
+            return new ArrayList<>(rows.values());
+        }
+        List<byte[]> result = new ArrayList<>(rows.size());
+        rows.forEach((id, row) -> {
+            Pending p = pending.get(id);
+            if (p == null || p.owner() == owner) {
+                result.add(row);
+            }
+        });
+        pending.forEach((id, p) -> {
+            if (p.owner() != owner && p.committed() != null) {
+                result.add(p.committed());
+            }
+        });
+        return result;
+    }
+
+    private byte[] visible(Long id, Object owner) {
+        Pending p = pending.get(id);
+        return p != null && p.owner() != owner ? p.committed() : rows.get(id);
+    }
+
+    /**
+     * 持有这一行行锁的事务，没有则为 null
+     */
+    Object lockOwner(Long id) {
+        Pending p = pending.get(id);
+        return p != null ? p.owner() : null;
+    }
+
+    /**
+     * 事务内写入一行：第一次改动时记下已提交值并加行锁，返回 true 表示这一行是本事务新锁住的
+     */
+    boolean applyPending(Object owner, Long id, byte[] row) {
+        boolean locked = false;
+        if (!pending.containsKey(id)) {
+            // 先登记再改 rows，并发读取不会看到未提交的值
+            pending.put(id, new Pending(owner, rows.get(id)));
+            locked = true;
+        }
+        apply(id, row);
+        return locked;
+    }
+
+    /**
+     * 提交：未提交的值成为已提交值，释放行锁
+     */
+    void release(Long id) {
+        pending.remove(id);
+    }
+
+    /**
+     * 回滚：写回已提交值再释放行锁。持锁期间没有其他写入，不会覆盖别人的提交
+     */
+    void restore(Long id) {
+        Pending p = pending.get(id);
+        if (p != null) {
+            apply(id, p.committed());
+            pending.remove(id);
+        }
+    }
+
+    /**
+     * 写入一行（已编码），返回旧值；只由 EmbeddedStore 调用
+     */
+    byte[] apply(Long id, byte[] row) {
+        byte[] previous = row != null ? rows.put(id, row) : rows.remove(id);
+        if (!indexes.isEmpty()) {
+            T before = previous != null ? codec.decode(previous) : null;
+            T after = row != null ? codec.decode(row) : null;
+            for (Index<T> index : indexes.values()) {
+                index.update(id, before, after);
+            }
+        }
+        if (row != null) {
+            advanceSequence(id);
+        }
+        return previous;
+    }
+
+    void clear() {
+        rows.clear();
+        pending.clear();
+        indexes.values().forEach(index -> index.entries.clear());
+    }
+
+    private static final class Index<T> {
+
+        private final Function<T, Object> keyOf;
+        private final Map<Object, Set<Long>> entries = new ConcurrentHashMap<>();
+
+        private Index(Function<T, Object> keyOf) {
+            this.keyOf = keyOf;
+        }
+
+        private void update(Long id, T before, T after) {
+            Object oldKey = before != null ? keyOf.apply(before) : null;
+            Object newKey = after != null ? keyOf.apply(after) : null;
+            if (oldKey != null && oldKey.equals(newKey)) {
+                return;
+            }
+            if (oldKey != null) {
+                entries.computeIfPresent(oldKey, (key, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            if (newKey != null) {
+                entries.computeIfAbsent(newKey, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.todo.app.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 基于内存映射文件的追加写 WAL
+ *
+ * 记录格式：[长度 int][CRC32C int][LSN long][内容]，长度为 0 表示段内没有更多记录。
+ * 段文件预先分配 segmentSize 字节，命名为 wal-{首条记录 LSN}.log，写满后切换到新段。
+ *
+ * 写入只是内存拷贝（进程崩溃后由操作系统写回页缓存，不会丢失）；
+ * sync(lsn) 由后台线程做组提交：一次 force() 让窗口内所有等待者的记录一起落盘。
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final long groupCommitNanos;
+
+    // 以下字段由 this 保护
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextLsn = 1;
+
+    // 组提交状态由 flushMonitor 保护
+    private final Object flushMonitor = new Object();
+    private long requestedLsn;
+    private volatile long durableLsn;
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    WriteAheadLog(Path dir, int segmentSize, Duration groupCommitDelay) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.groupCommitNanos = groupCommitDelay.toNanos();
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * 从 afterLsn 之后开始重放所有完整记录，然后定位到日志末尾准备追加
+     * 遇到长度为 0、越界或校验失败（写到一半时崩溃）的记录即视为日志结束。
+     */
+    synchronized void open(long afterLsn, BiConsumer<Long, byte[]> replay) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> segments = segments();
+        long lastLsn = afterLsn;
+        Path tail = null;
+        int tailPosition = 0;
+
+        for (Path segment : segments) {
+            try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                int position = 0;
+                while (position + HEADER_SIZE <= map.limit()) {
+                    int length = map.getInt(position);
+                    if (length <= 0 || position + HEADER_SIZE + length > map.limit()) {
+                        break;
+                    }
+                    int crc = map.getInt(position + 4);
+                    long lsn = map.getLong(position + 8);
+                    byte[] payload = new byte[length];
+                    map.get(position + HEADER_SIZE, payload);
+                    if (crc != checksum(lsn, payload)) {
+                        log.warn("WAL {} has a torn record at offset {}, truncating", segment.getFileName(), position);
+                        break;
+                    }
+                    if (lsn > afterLsn) {
+                        replay.accept(lsn, payload);
+                    }
+                    lastLsn = Math.max(lastLsn, lsn);
+                    position += HEADER_SIZE + length;
+                }
+                tail = segment;
+                tailPosition = position;
+            }
+        }
+
+        nextLsn = lastLsn + 1;
+        durableLsn = lastLsn;
+        requestedLsn = lastLsn;
+        if (tail != null && Files.size(tail) == segmentSize) {
+            map(tail, tailPosition);
+            // 清掉尾部可能残留的半条记录，避免下次恢复时被误读
+            for (int i = tailPosition; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        } else {
+            map(segmentPath(nextLsn), 0);
+        }
+        flusher.start();
+    }
+
+    /**
+     * 追加一条记录，返回它的 LSN
+     */
+    synchronized long append(byte[] payload) {
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("WAL record of " + payload.length + " bytes exceeds segment size");
+        }
+        if (buffer.remaining() < size) {
+            rotate();
+        }
+        long lsn = nextLsn++;
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(lsn, payload));
+        buffer.putLong(lsn);
+        buffer.put(payload);
+        return lsn;
+    }
+
+    synchronized long lastLsn() {
+        return nextLsn - 1;
+    }
+
+    /**
+     * 等待 lsn 及之前的记录落盘
+     */
+    void sync(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (flushMonitor) {
+            if (lsn > requestedLsn) {
+                requestedLsn = lsn;
+                flushMonitor.notifyAll();
+            }
+            while (durableLsn < lsn && running) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for WAL sync", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除所有记录都不晚于 lsn 的段（已被快照覆盖）
+     */
+    synchronized void truncateThrough(long lsn) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextFirstLsn = firstLsn(segments.get(i + 1));
+            if (nextFirstLsn <= lsn + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        long last;
+        synchronized (this) {
+            last = nextLsn - 1;
+        }
+        sync(last);
+        running = false;
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+        synchronized (this) {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close WAL segment", e);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                synchronized (flushMonitor) {
+                    while (running && requestedLsn <= durableLsn) {
+                        flushMonitor.wait();
+                    }
+                }
+                if (groupCommitNanos > 0) {
+                    // 组提交窗口：让同一时间段的其他提交也追加进来，一次 force 全部落盘
+                    Thread.sleep(groupCommitNanos / 1_000_000, (int) (groupCommitNanos % 1_000_000));
+                }
+
+                MappedByteBuffer current;
+                long target;
+                synchronized (this) {
+                    current = buffer;
+                    target = nextLsn - 1;
+                }
+                current.force();
+
+                synchronized (flushMonitor) {
+                    durableLsn = Math.max(durableLsn, target);
+                    flushMonitor.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("WAL flush failed", e);
+            }
+        }
+    }
+
+    /**
+     * 当前段写满：先落盘再切换，切换后旧段不再需要 force
+     */
+    private void rotate() {
+        try {
+            buffer.force();
+            channel.close();
+            map(segmentPath(nextLsn), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate WAL segment", e);
+        }
+    }
+
+    private void map(Path segment, int position) throws IOException {
+        channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.position(position);
+    }
+
+    private Path segmentPath(long firstLsn) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList());
+            return segments;
+        }
+    }
+
+    private static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static int checksum(long lsn, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (lsn >>> (i * 8)));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
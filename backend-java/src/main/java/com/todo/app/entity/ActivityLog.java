@@ -0,0 +1,73 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 操作审计记录（只追加）
+ *
+ * 由 audit.JdbcAuditSink 用 JDBC 批量写入，这里只用于建表；
+ * beforeData / afterData 为修改前后实体标量字段的 JSON，新建时 before 为空，删除时 after 为空。
+ */
+@Entity
+@Table(name = "activity_log",
+        indexes = @Index(name = "idx_activity_entity", columnList = "userId, entityType, entityId"))
+public class ActivityLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 数据所属用户（分片键） */
+    @Column(name = "userId", nullable = false)
+    private Long userId;
+
+    /** 执行操作的登录用户，后台任务等无登录上下文时为空 */
+    @Column(name = "actorId")
+    private Long actorId;
+
+    @Column(name = "entityType", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entityId", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 32)
+    private String action;
+
+    @Column(name = "beforeData", columnDefinition = "TEXT")
+    private String beforeData;
+
+    @Column(name = "afterData", columnDefinition = "TEXT")
+    private String afterData;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getBeforeData() { return beforeData; }
+    public void setBeforeData(String beforeData) { this.beforeData = beforeData; }
+
+    public String getAfterData() { return afterData; }
+    public void setAfterData(String afterData) { this.afterData = afterData; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
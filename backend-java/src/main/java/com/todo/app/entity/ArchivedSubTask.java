@@ -0,0 +1,59 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的子任务，随所属 Todo 一起搬到 subtasks_archive，保留原 ID
+ */
+@Entity
+@Table(name = "subtasks_archive",
+        indexes = @Index(name = "idx_subtasks_archive_todo", columnList = "todoId"))
+public class ArchivedSubTask implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private Boolean isCompleted = false;
+
+    @Column(name = "todoId", nullable = false)
+    private Long todoId;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archivedAt", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public Long getTodoId() { return todoId; }
+    public void setTodoId(Long todoId) { this.todoId = todoId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -0,0 +1,115 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的 Todo（由 TodoArchiver 从 todos 整棵树搬过来）
+ *
+ * 保留原 ID，方便按 ID 关联审计记录和归档子任务；categoryId / parentId 只是普通列，
+ * 不建外键，分类被删除后归档行依然保留。
+ */
+@Entity
+@Table(name = "todos_archive",
+        indexes = @Index(name = "idx_todos_archive_user_created", columnList = "userId, createdAt"))
+public class ArchivedTodo implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(nullable = false)
+    private Boolean isCompleted = true;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Todo.Priority priority = Todo.Priority.MEDIUM;
+
+    @Column(name = "dueDate")
+    private LocalDate dueDate;
+
+    @Column(nullable = false)
+    private Boolean hasReminder = false;
+
+    @Column(name = "userId", nullable = false)
+    private Long userId;
+
+    @Column(name = "categoryId")
+    private Long categoryId;
+
+    @Column(name = "parentId")
+    private Long parentId;
+
+    @Column(nullable = false)
+    private Integer progress = 0;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updatedAt")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completedAt")
+    private LocalDateTime completedAt;
+
+    @Column(length = 700)
+    private String tags;
+
+    @Column(name = "archivedAt", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // ID 由调用方指定，save 时直接 INSERT，不先 SELECT 判断是否存在
+    @Transient
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public Boolean getHasReminder() { return hasReminder; }
+    public void setHasReminder(Boolean hasReminder) { this.hasReminder = hasReminder; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public String getTags() { return tags; }
+    public void setTags(String tags) { this.tags = tags; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -0,0 +1,42 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 缓存失效消息（只追加，过期后删除）
+ *
+ * 由 invalidation.JdbcInvalidationTransport 用 JDBC 读写，这里只用于建表；
+ * 每行为一个实例发出的一批失效，payload 为 InvalidationBatch 的文本编码。
+ * 开启分片时只在默认分片上（与 users 表相同），不加入 ShardMigrationService.TABLES。
+ */
+@Entity
+@Table(name = "cache_invalidations",
+        indexes = @Index(name = "idx_cache_invalidations_created", columnList = "createdAt"))
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String origin;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
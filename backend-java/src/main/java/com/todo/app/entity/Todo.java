@@ -1,15 +1,31 @@
 package com.todo.app.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "todos")
+// 返回给前端的 Todo 都会序列化 category 和 subtasks（见 TodoJsonSerializers），
+// 关闭 open-in-view 后必须在查询时一起取出，序列化期间不再访问数据库
+@NamedEntityGraph(name = Todo.WITH_SUBTASKS, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("subtasks")
+})
+@Table(name = "todos", indexes = {
+        // 日历视图按 (userId, dueDate) 做范围查询
+        @Index(name = "idx_todos_user_due", columnList = "userId, dueDate"),
+        // "下一步"排行：按优先级分组、截止日期 / 进度有序读取未完成的 Todo，只读索引列
+        @Index(name = "idx_todos_user_next", columnList = "userId, isCompleted, priority, dueDate, progress"),
+        // 日历 / 统计按窗口找重复的 Todo：非重复的 Todo recurrenceStart 为空，不在范围扫描内
+        @Index(name = "idx_todos_user_series", columnList = "userId, recurrenceStart")
+})
 public class Todo {
 
+    public static final String WITH_SUBTASKS = "Todo.withSubtasks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -56,16 +72,57 @@ public class Todo {
     @Column(nullable = false)
     private Integer progress = 0;
 
+    // 子树聚合计数（不含自身），只通过 TodoRepository.adjustDescendantCounts 批量更新，
+    // 所以这里 updatable = false，避免保存实体时用旧值覆盖
+    @ColumnDefault("0")
+    @Column(name = "descendantCount", nullable = false, updatable = false)
+    private Integer descendantCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "descendantsCompleted", nullable = false, updatable = false)
+    private Integer descendantsCompleted = 0;
+
     @Column(name = "createdAt", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "updatedAt")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    @Column(name = "completedAt")
+    private LocalDateTime completedAt;
+
+    // 标签，规范化（小写、去重）后逗号分隔存在 Todo 行上，随行读出，不需要关联表；
+    // 按标签过滤走 TagIndexService 的内存位图索引，不在 SQL 里匹配这一列
+    @Column(length = 700)
+    private String tags;
+
+    // 重复规则（规范化的 RRULE 子集，见 RecurrenceRule），为空表示不重复。
+    // 重复的 Todo 只存这一行：dueDate 为当前最早一次未完成的日期，全部完成后 isCompleted 才为 true；
+    // 各次按规则展开，完成 / 修改过的那一次存到 todo_occurrences
+    @Column(length = 200)
+    private String recurrence;
+
+    @Column(name = "recurrenceStart")
+    private LocalDate recurrenceStart;
+
+    // 序列最后一天，保存规则时由 UNTIL / COUNT 算出，不结束时为空
+    @Column(name = "recurrenceUntil")
+    private LocalDate recurrenceUntil;
+
+    // 不建立到 users 的外键：分片部署时 users 表只在默认分片上
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "userId", insertable = false, updatable = false)
+    @JoinColumn(name = "userId", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
+    // 来自 todos_archive 的只读副本（includeArchived 查询），不对应任何列
+    @Transient
+    private boolean archived;
+
+    // 重复 Todo 展开出的某一次（只读副本），不对应任何列
+    @Transient
+    private LocalDate occurrenceDate;
+
     public enum Priority {
         LOW, MEDIUM, HIGH
     }
@@ -98,10 +155,28 @@ public class Todo {
     public void setSubtasks(List<SubTask> subtasks) { this.subtasks = subtasks; }
     public Integer getProgress() { return progress; }
     public void setProgress(Integer progress) { this.progress = progress; }
+    public Integer getDescendantCount() { return descendantCount; }
+    public void setDescendantCount(Integer descendantCount) { this.descendantCount = descendantCount; }
+    public Integer getDescendantsCompleted() { return descendantsCompleted; }
+    public void setDescendantsCompleted(Integer descendantsCompleted) { this.descendantsCompleted = descendantsCompleted; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public String getTags() { return tags; }
+    public void setTags(String tags) { this.tags = tags; }
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+    public LocalDate getRecurrenceStart() { return recurrenceStart; }
+    public void setRecurrenceStart(LocalDate recurrenceStart) { this.recurrenceStart = recurrenceStart; }
+    public LocalDate getRecurrenceUntil() { return recurrenceUntil; }
+    public void setRecurrenceUntil(LocalDate recurrenceUntil) { this.recurrenceUntil = recurrenceUntil; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+    public LocalDate getOccurrenceDate() { return occurrenceDate; }
+    public void setOccurrenceDate(LocalDate occurrenceDate) { this.occurrenceDate = occurrenceDate; }
 }
@@ -0,0 +1,66 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 按天预聚合的 Todo 统计（每个用户 / 日期 / 分类 / 优先级一行）
+ *
+ * - created：当天创建的数量
+ * - completed：当天完成的数量
+ * - dueOpen：截止日期为当天、目前仍未完成的数量；日期早于今天时即为逾期数
+ *
+ * 由 TodoService 的每次修改增量维护，趋势图只读这张表，不扫描 todos。
+ * userId = 0 的一行是 StatisticsRollupService 重建时插入的锁行，不属于任何用户。
+ */
+@Entity
+@Table(name = "todo_daily_stats",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "statDate", "categoryId", "priority"}))
+public class TodoDailyStat {
+
+    /** 未分类的 Todo 记在 categoryId = 0 上（唯一索引中的 NULL 不参与去重） */
+    public static final long NO_CATEGORY = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "userId", nullable = false)
+    private Long userId;
+
+    @Column(name = "statDate", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "categoryId", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Todo.Priority priority;
+
+    @Column(nullable = false)
+    private Integer created = 0;
+
+    @Column(nullable = false)
+    private Integer completed = 0;
+
+    @Column(name = "dueOpen", nullable = false)
+    private Integer dueOpen = 0;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public Integer getCreated() { return created; }
+    public void setCreated(Integer created) { this.created = created; }
+    public Integer getCompleted() { return completed; }
+    public void setCompleted(Integer completed) { this.completed = completed; }
+    public Integer getDueOpen() { return dueOpen; }
+    public void setDueOpen(Integer dueOpen) { this.dueOpen = dueOpen; }
+}
@@ -0,0 +1,76 @@
+package com.todo.app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 重复 Todo 中某一次的例外记录
+ *
+ * 重复 Todo 的各次出现不落库，查询时按规则展开；只有完成、修改过或取消的那一次在这里存一行，
+ * 展开时覆盖对应日期的默认值（标题 / 优先级为空表示沿用所属 Todo 的）。
+ */
+@Entity
+@Table(name = "todo_occurrences",
+        uniqueConstraints = @UniqueConstraint(name = "uk_todo_occurrences_todo_date",
+                columnNames = {"todoId", "occurrenceDate"}))
+public class TodoOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 不建立到 todos 的外键：删除 / 归档 Todo 时由 service 先删除这里的行
+    @Column(name = "todoId", nullable = false)
+    private Long todoId;
+
+    @Column(name = "userId", nullable = false)
+    private Long userId;
+
+    @Column(name = "occurrenceDate", nullable = false)
+    private LocalDate occurrenceDate;
+
+    private String title;
+
+    @Enumerated(EnumType.STRING)
+    private Todo.Priority priority;
+
+    @Column(nullable = false)
+    private Boolean isCompleted = false;
+
+    @Column(name = "completedAt")
+    private LocalDateTime completedAt;
+
+    // 跳过这一次：展开时不再出现
+    @Column(nullable = false)
+    private Boolean cancelled = false;
+
+    @Column(name = "createdAt", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updatedAt")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getTodoId() { return todoId; }
+    public void setTodoId(Long todoId) { this.todoId = todoId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public LocalDate getOccurrenceDate() { return occurrenceDate; }
+    public void setOccurrenceDate(LocalDate occurrenceDate) { this.occurrenceDate = occurrenceDate; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Todo.Priority getPriority() { return priority; }
+    public void setPriority(Todo.Priority priority) { this.priority = priority; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public Boolean getCancelled() { return cancelled; }
+    public void setCancelled(Boolean cancelled) { this.cancelled = cancelled; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
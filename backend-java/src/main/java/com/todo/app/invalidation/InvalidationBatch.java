@@ -0,0 +1,42 @@
+package com.todo.app.invalidation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一批失效消息：发送实例 + 若干 (region, key, version)
+ *
+ * 文本编码，第一行为发送实例，之后每行一个键：region \t key \t version。
+ * version 由发送实例单调递增地分配，接收方据此丢弃重复和乱序到达的旧消息。
+ */
+public record InvalidationBatch(String origin, List<Entry> entries) {
+
+    public record Entry(String region, String key, long version) {
+    }
+
+    public String encode() {
+        StringBuilder text = new StringBuilder(origin.length() + entries.size() * 32);
+        text.append(origin).append('\n');
+        for (Entry entry : entries) {
+            text.append(entry.region()).append('\t').append(entry.key()).append('\t').append(entry.version()).append('\n');
+        }
+        return text.toString();
+    }
+
+    public static InvalidationBatch decode(String text) {
+        String[] lines = text.split("\n");
+        List<Entry> entries = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            String[] parts = lines[i].split("\t");
+            if (parts.length == 3) {
+                entries.add(new Entry(parts[0], parts[1], Long.parseLong(parts[2])));
+            }
+        }
+        return new InvalidationBatch(lines[0], entries);
+    }
+
+    public static InvalidationBatch decode(byte[] data, int length) {
+        return decode(new String(data, 0, length, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,301 @@
+package com.todo.app.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 多实例部署下的进程内缓存失效广播
+ *
+ * 写路径（TodoService / CategoryService / AuthService）在事务提交后 publish(region, key)：
+ * - 本实例：立即提升该键的本地版本号
+ * - 其他实例：放入待发送表，同一个键在 flushInterval 内的多次失效合并为一条，
+ *   由 invalidation-flusher 线程攒批后交给 InvalidationTransport 发送
+ *
+ * 收到其他实例的消息后，按 (发送实例, region, key) 比较版本号，丢弃重复 / 乱序到达的旧消息，
+ * 提升本地版本号并通知该 region 的订阅者清除缓存。
+ *
+ * 本地版本号用于防止"加载期间发生失效"：缓存方在查库前取 version(region, key)，
+ * 放入缓存时一并保存，读取时用 isCurrent 判断，期间收到过失效的缓存项视为过期。
+ */
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    /** 分类实体 + 分类列表查询缓存，key 为 categoryId */
+    public static final String CATEGORY = "category";
+    /** 用户实体 + findByEmail 查询缓存，key 为 userId */
+    public static final String USER = "user";
+    /** CategoryService 的分类 Todo 计数，key 为 userId */
+    public static final String TODO_COUNTS = "todo-counts";
+    /** SuggestService 的补全索引，key 为 userId */
+    public static final String SUGGEST = "suggest";
+    /** TagIndexService 的标签位图索引，key 为 userId */
+    public static final String TAGS = "tags";
+
+    private final InvalidationProperties properties;
+    private final InvalidationTransport transport;
+    private final String nodeId;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    /** 待发送：region \t key -> 最新一条失效 */
+    private final Map<String, InvalidationBatch.Entry> pending = new LinkedHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    /** 本地版本号：region \t key -> stamp；清空后未记录的键返回 floor */
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    private final AtomicLong stamp = new AtomicLong();
+    private volatile long floor;
+
+    /** 已应用的远端版本：origin \t region \t key -> version，按访问顺序淘汰 */
+    private final Map<String, Long> applied;
+
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong batchesReceived = new AtomicLong();
+    private final AtomicLong invalidationsApplied = new AtomicLong();
+    private final AtomicLong staleDropped = new AtomicLong();
+
+    /**
+     * transport 为 null 时只维护本地版本号（单实例部署）
+     */
+    public InvalidationBus(InvalidationProperties properties, InvalidationTransport transport) {
+        this.properties = properties;
+        this.transport = transport;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId() : defaultNodeId();
+        int trackedKeys = properties.getTrackedKeys();
+        this.applied = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > trackedKeys;
+            }
+        };
+    }
+
+    public void start() throws Exception {
+        if (transport == null) {
+            return;
+        }
+        transport.start(this::receive);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "invalidation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Cache invalidation bus started: node={}, transport={}", nodeId, transport.name());
+    }
+
+    /**
+     * 停止前发出剩余的消息
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 订阅其他实例发来的失效，listener 收到 key，在传输层的接收线程上调用
+     */
+    public void subscribe(String region, Consumer<String> listener) {
+        listeners.computeIfAbsent(region, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 事务提交后广播失效（没有事务时立即广播）；回滚的修改不广播
+     */
+    public void publish(String region, Object key) {
+        String k = String.valueOf(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(region, k);
+                }
+            });
+        } else {
+            enqueue(region, k);
+        }
+    }
+
+    /**
+     * 当前版本号，加载缓存项之前读取
+     */
+    public long version(String region, Object key) {
+        Long version = epochs.get(region + '\t' + key);
+        return version != null ? version : floor;
+    }
+
+    /**
+     * 缓存项加载之后是否收到过该键的失效
+     */
+    public boolean isCurrent(String region, Object key, long loadedVersion) {
+        return loadedVersion >= version(region, key);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("node", nodeId);
+        stats.put("transport", transport != null ? transport.name() : "none");
+        stats.put("published", published.get());
+        stats.put("coalesced", coalesced.get());
+        synchronized (pending) {
+            stats.put("pending", pending.size());
+        }
+        stats.put("batchesSent", batchesSent.get());
+        stats.put("sendFailures", sendFailures.get());
+        stats.put("batchesReceived", batchesReceived.get());
+        stats.put("invalidationsApplied", invalidationsApplied.get());
+        stats.put("staleDropped", staleDropped.get());
+        stats.put("trackedKeys", epochs.size());
+        return stats;
+    }
+
+    private void enqueue(String region, String key) {
+        published.incrementAndGet();
+        bump(region, key);
+        if (transport == null) {
+            return;
+        }
+        InvalidationBatch.Entry entry = new InvalidationBatch.Entry(region, key, nextVersion());
+        synchronized (pending) {
+            if (pending.put(region + '\t' + key, entry) != null) {
+                coalesced.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 以 maxBatchSize 为单位发送待发送表；发送失败时放回（已有同一个键的更新消息时保留更新的）
+     */
+    void flush() {
+        while (true) {
+            List<InvalidationBatch.Entry> entries = new ArrayList<>();
+            synchronized (pending) {
+                Iterator<InvalidationBatch.Entry> it = pending.values().iterator();
+                while (it.hasNext() && entries.size() < properties.getMaxBatchSize()) {
+                    entries.add(it.next());
+                    it.remove();
+                }
+            }
+            if (entries.isEmpty()) {
+                return;
+            }
+            try {
+                transport.send(new InvalidationBatch(nodeId, entries));
+                batchesSent.incrementAndGet();
+            } catch (Exception e) {
+                sendFailures.incrementAndGet();
+                log.warn("Failed to send {} cache invalidations via {}, will retry: {}",
+                        entries.size(), transport.name(), e.toString());
+                synchronized (pending) {
+                    for (InvalidationBatch.Entry entry : entries) {
+                        pending.putIfAbsent(entry.region() + '\t' + entry.key(), entry);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    void receive(InvalidationBatch batch) {
+        if (nodeId.equals(batch.origin())) {
+            return;
+        }
+        batchesReceived.incrementAndGet();
+        for (InvalidationBatch.Entry entry : batch.entries()) {
+            if (!advance(batch.origin(), entry)) {
+                staleDropped.incrementAndGet();
+                continue;
+            }
+            bump(entry.region(), entry.key());
+            for (Consumer<String> listener : listeners.getOrDefault(entry.region(), List.of())) {
+                try {
+                    listener.accept(entry.key());
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation listener failed for {} {}", entry.region(), entry.key(), e);
+                }
+            }
+            invalidationsApplied.incrementAndGet();
+        }
+    }
+
+    /**
+     * 同一发送实例同一个键的消息只应用版本号更大的
+     */
+    private boolean advance(String origin, InvalidationBatch.Entry entry) {
+        String key = origin + '\t' + entry.region() + '\t' + entry.key();
+        synchronized (applied) {
+            Long last = applied.get(key);
+            if (last != null && last >= entry.version()) {
+                return false;
+            }
+            applied.put(key, entry.version());
+            return true;
+        }
+    }
+
+    /**
+     * 超出 trackedKeys 时先把 floor 提到当前 stamp 再清空，清空前加载的缓存项都会被判定为过期
+     */
+    private synchronized void bump(String region, String key) {
+        if (epochs.size() >= properties.getTrackedKeys()) {
+            floor = stamp.get();
+            epochs.clear();
+        }
+        epochs.put(region + '\t' + key, stamp.incrementAndGet());
+    }
+
+    /**
+     * 毫秒时间戳 * 1000 与上一个版本号 + 1 取大：同一实例内严格递增，重启后也不会回退
+     */
+    private long nextVersion() {
+        return clock.updateAndGet(prev -> Math.max(prev + 1, System.currentTimeMillis() * 1000));
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
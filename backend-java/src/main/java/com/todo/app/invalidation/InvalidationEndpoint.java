@@ -0,0 +1,26 @@
+package com.todo.app.invalidation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * 缓存失效广播状态：/actuator/invalidation
+ *
+ * coalesced 为发送前被合并掉的重复失效，staleDropped 为收到后按版本号丢弃的重复 / 乱序消息。
+ */
+@Endpoint(id = "invalidation")
+public class InvalidationEndpoint {
+
+    private final InvalidationBus bus;
+
+    public InvalidationEndpoint(InvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return bus.stats();
+    }
+}
@@ -0,0 +1,66 @@
+package com.todo.app.invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 多实例缓存失效广播配置（app.invalidation.*）
+ */
+@ConfigurationProperties(prefix = "app.invalidation")
+public class InvalidationProperties {
+
+    /**
+     * - NONE：单实例部署，不广播（本地缓存仍按版本号判断是否过期）
+     * - JDBC：写入 cache_invalidations 表，各实例轮询，不需要额外的基础设施
+     * - MULTICAST：UDP 组播，默认走本机回环接口（同一台机器上的多个实例）
+     */
+    public enum Transport { NONE, JDBC, MULTICAST }
+
+    private Transport transport = Transport.NONE;
+
+    /** 实例标识，收到自己发出的消息时忽略；为空时使用 主机名-进程号 */
+    private String nodeId;
+
+    /** 待发送的失效消息攒批间隔，同一个键在一个间隔内的多次失效合并为一条 */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /** 单批最多的键数，超出的留到下一批 */
+    private int maxBatchSize = 500;
+
+    /** 记住的键版本数上限，超出后整体清空（之后加载的缓存项一律视为需要重新加载） */
+    private int trackedKeys = 100_000;
+
+    /** JDBC：轮询间隔、消息保留时长；ID 空洞（未提交的并发 INSERT）最多等待 gapTimeout */
+    private Duration pollInterval = Duration.ofMillis(500);
+    private Duration retention = Duration.ofMinutes(10);
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    /** MULTICAST：组播地址、端口、网卡名（为空时使用回环接口，跨主机部署时改为内网网卡） */
+    private String multicastGroup = "239.255.27.1";
+    private int multicastPort = 45588;
+    private String multicastInterface;
+
+    public Transport getTransport() { return transport; }
+    public void setTransport(Transport transport) { this.transport = transport; }
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+    public int getTrackedKeys() { return trackedKeys; }
+    public void setTrackedKeys(int trackedKeys) { this.trackedKeys = trackedKeys; }
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration pollInterval) { this.pollInterval = pollInterval; }
+    public Duration getRetention() { return retention; }
+    public void setRetention(Duration retention) { this.retention = retention; }
+    public Duration getGapTimeout() { return gapTimeout; }
+    public void setGapTimeout(Duration gapTimeout) { this.gapTimeout = gapTimeout; }
+    public String getMulticastGroup() { return multicastGroup; }
+    public void setMulticastGroup(String multicastGroup) { this.multicastGroup = multicastGroup; }
+    public int getMulticastPort() { return multicastPort; }
+    public void setMulticastPort(int multicastPort) { this.multicastPort = multicastPort; }
+    public String getMulticastInterface() { return multicastInterface; }
+    public void setMulticastInterface(String multicastInterface) { this.multicastInterface = multicastInterface; }
+}
@@ -0,0 +1,23 @@
+package com.todo.app.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * 失效消息在实例之间的传输方式，由 InvalidationBus 的 invalidation-flusher 线程调用 send
+ */
+public interface InvalidationTransport {
+
+    /**
+     * 开始接收其他实例的消息（包括自己发出的，由 InvalidationBus 过滤）
+     */
+    void start(Consumer<InvalidationBatch> receiver) throws Exception;
+
+    /**
+     * 发送一批；抛出异常时整批放回待发送队列，下次重试
+     */
+    void send(InvalidationBatch batch) throws Exception;
+
+    void close();
+
+    String name();
+}
@@ -0,0 +1,151 @@
+package com.todo.app.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 通过 cache_invalidations 表广播：每批一行 INSERT，各实例按 ID 轮询新行
+ *
+ * 不依赖消息中间件，只需要共享的数据库。自增 ID 按分配顺序而不是提交顺序可见，
+ * 并发 INSERT 时可能先看到较大的 ID：中间缺失的 ID 记为空洞，之后每次轮询单独查一次，
+ * 超过 gapTimeout 仍未出现（回滚或已被清理）时放弃。重复读到的行由 InvalidationBus 按版本号丢弃。
+ *
+ * 过期的行由各实例定时删除（retention），启动时从当前最大 ID 开始读，不回放历史消息。
+ */
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private static final int POLL_LIMIT = 1000;
+    private static final int MAX_GAPS = 1000;
+
+    private final InvalidationProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private ScheduledExecutorService poller;
+    private Consumer<InvalidationBatch> receiver;
+
+    /** 已读到的最大 ID */
+    private long maxSeen;
+    /** 空洞 ID -> 发现时间（nanoTime） */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long lastPurge;
+
+    public JdbcInvalidationTransport(InvalidationProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) {
+        this.receiver = receiver;
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+        maxSeen = max != null ? max : 0;
+        lastPurge = System.nanoTime();
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (origin, payload, created_at) VALUES (?, ?, ?)",
+                batch.origin(), batch.encode(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdown();
+            try {
+                poller.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+            if (System.nanoTime() - lastPurge > properties.getRetention().toNanos() / 2) {
+                purge();
+                lastPurge = System.nanoTime();
+            }
+        } catch (Exception e) {
+            log.warn("Cache invalidation poll failed: {}", e.toString());
+        }
+    }
+
+    private void poll() {
+        if (!gaps.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(gaps.size(), "?"));
+            List<Row> filled = jdbcTemplate.query(
+                    "SELECT id, payload FROM cache_invalidations WHERE id IN (" + placeholders + ")",
+                    (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("payload")),
+                    gaps.keySet().toArray());
+            for (Row row : filled) {
+                gaps.remove(row.id());
+                deliver(row);
+            }
+            long expiredBefore = System.nanoTime() - properties.getGapTimeout().toNanos();
+            gaps.values().removeIf(noticed -> noticed < expiredBefore);
+        }
+
+        List<Row> rows;
+        do {
+            rows = jdbcTemplate.query(
+                    "SELECT id, payload FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT " + POLL_LIMIT,
+                    (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("payload")),
+                    maxSeen);
+            long now = System.nanoTime();
+            for (Row row : rows) {
+                for (long missing = maxSeen + 1; missing < row.id() && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                maxSeen = row.id();
+                deliver(row);
+            }
+        } while (rows.size() == POLL_LIMIT);
+    }
+
+    private void deliver(Row row) {
+        try {
+            receiver.accept(InvalidationBatch.decode(row.payload()));
+        } catch (RuntimeException e) {
+            log.warn("Skipping malformed cache invalidation row {}: {}", row.id(), e.toString());
+        }
+    }
+
+    private void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getRetention());
+        int deleted = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                Timestamp.valueOf(before));
+        if (deleted > 0) {
+            log.debug("Purged {} expired cache invalidation rows", deleted);
+        }
+    }
+
+    private record Row(long id, String payload) {
+    }
+}
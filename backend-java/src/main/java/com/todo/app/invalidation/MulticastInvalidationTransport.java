@@ -0,0 +1,140 @@
+package com.todo.app.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 通过 UDP 组播广播，默认绑定本机回环接口：同一台机器上的多个实例（或本地多实例测试）无需任何中间件
+ *
+ * UDP 不保证送达和顺序：丢包时其他实例的缓存只能等 TTL 过期，重复和乱序由 InvalidationBus 按版本号处理。
+ * 一批超过 MAX_DATAGRAM 字节时按行拆成多个数据报，每个数据报都是完整的 InvalidationBatch。
+ */
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationTransport.class);
+
+    /** 留出 IP / UDP 头，跨主机时避免 IP 分片 */
+    private static final int MAX_DATAGRAM = 1400;
+
+    private final InvalidationProperties properties;
+
+    private DatagramChannel channel;
+    private MembershipKey membership;
+    private InetSocketAddress target;
+    private Thread receiverThread;
+    private volatile boolean running;
+
+    public MulticastInvalidationTransport(InvalidationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> receiver) throws IOException {
+        NetworkInterface networkInterface = networkInterface();
+        InetAddress group = InetAddress.getByName(properties.getMulticastGroup());
+        target = new InetSocketAddress(group, properties.getMulticastPort());
+
+        channel = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(properties.getMulticastPort()))
+                .setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface)
+                .setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true)
+                .setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+        membership = channel.join(group, networkInterface);
+
+        running = true;
+        receiverThread = new Thread(() -> receive(receiver), "invalidation-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        log.info("Joined cache invalidation group {} on {}", target, networkInterface.getName());
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) throws IOException {
+        for (InvalidationBatch datagram : split(batch)) {
+            channel.send(ByteBuffer.wrap(datagram.encode().getBytes(StandardCharsets.UTF_8)), target);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (membership != null) {
+                membership.drop();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close cache invalidation channel", e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "multicast";
+    }
+
+    private void receive(Consumer<InvalidationBatch> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        while (running) {
+            try {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+                receiver.accept(InvalidationBatch.decode(buffer.array(), buffer.limit()));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Dropping malformed cache invalidation datagram: {}", e.toString());
+            }
+        }
+    }
+
+    private static List<InvalidationBatch> split(InvalidationBatch batch) {
+        List<InvalidationBatch> datagrams = new ArrayList<>();
+        List<InvalidationBatch.Entry> current = new ArrayList<>();
+        int size = batch.origin().length() + 1;
+        for (InvalidationBatch.Entry entry : batch.entries()) {
+            int line = entry.region().length() + entry.key().length() + 24;
+            if (!current.isEmpty() && size + line > MAX_DATAGRAM) {
+                datagrams.add(new InvalidationBatch(batch.origin(), current));
+                current = new ArrayList<>();
+                size = batch.origin().length() + 1;
+            }
+            current.add(entry);
+            size += line;
+        }
+        if (!current.isEmpty()) {
+            datagrams.add(new InvalidationBatch(batch.origin(), current));
+        }
+        return datagrams;
+    }
+
+    private NetworkInterface networkInterface() throws IOException {
+        String name = properties.getMulticastInterface();
+        NetworkInterface networkInterface = name != null && !name.isBlank()
+                ? NetworkInterface.getByName(name)
+                : NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (networkInterface == null) {
+            throw new IOException("Network interface not found: " + (name != null ? name : "loopback"));
+        }
+        return networkInterface;
+    }
+}
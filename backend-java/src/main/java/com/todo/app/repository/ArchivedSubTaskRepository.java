@@ -0,0 +1,14 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.ArchivedSubTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedSubTaskRepository extends JpaRepository<ArchivedSubTask, Long> {
+
+    List<ArchivedSubTask> findByTodoIdIn(Collection<Long> todoIds);
+}
@@ -0,0 +1,53 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.Todo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoRepository extends JpaRepository<ArchivedTodo, Long> {
+
+    /**
+     * 与 TodoRepository.findAllWithFilters 相同的筛选条件，供 includeArchived 合并结果
+     */
+    @Query("SELECT t FROM ArchivedTodo t WHERE t.userId = :userId " +
+           "AND (:search IS NULL OR t.title LIKE %:search% OR t.description LIKE %:search%) " +
+           "AND (:priority IS NULL OR t.priority = :priority) " +
+           "AND (:categoryId IS NULL OR t.categoryId = :categoryId) " +
+           "AND (:isCompleted IS NULL OR t.isCompleted = :isCompleted) " +
+           "ORDER BY t.createdAt DESC")
+    List<ArchivedTodo> findAllWithFilters(
+            @Param("userId") Long userId,
+            @Param("search") String search,
+            @Param("priority") Todo.Priority priority,
+            @Param("categoryId") Long categoryId,
+            @Param("isCompleted") Boolean isCompleted
+    );
+
+    /**
+     * 分面模式的窄投影，列与 TodoRepository.findFacetRows 相同
+     */
+    @Query("SELECT t.id AS id, t.tags AS tags, t.priority AS priority, t.categoryId AS categoryId, " +
+           "t.isCompleted AS isCompleted, t.createdAt AS createdAt FROM ArchivedTodo t WHERE t.userId = :userId " +
+           "AND (:search IS NULL OR t.title LIKE %:search% OR t.description LIKE %:search%)")
+    List<TodoRepository.FacetRow> findFacetRows(@Param("userId") Long userId, @Param("search") String search);
+
+    /**
+     * 统计接口用的归档计数，按优先级分组
+     */
+    @Query("SELECT t.priority AS priority, COUNT(t) AS total, " +
+           "SUM(CASE WHEN t.isCompleted = true THEN 1 ELSE 0 END) AS completed " +
+           "FROM ArchivedTodo t WHERE t.userId = :userId GROUP BY t.priority")
+    List<PriorityCount> countByPriority(@Param("userId") Long userId);
+
+    interface PriorityCount {
+        Todo.Priority getPriority();
+        Long getTotal();
+        Long getCompleted();
+    }
+}
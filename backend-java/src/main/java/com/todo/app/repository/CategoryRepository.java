@@ -1,7 +1,13 @@
 package com.todo.app.repository;
 
 import com.todo.app.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +15,13 @@ import java.util.List;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /**
+     * 只删除属于 userId 的分类，返回删除的行数（0 表示不存在或不属于该用户）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Category c WHERE c.id = :id AND c.userId = :userId")
+    int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
 }
@@ -2,12 +2,36 @@ package com.todo.app.repository;
 
 import com.todo.app.entity.SubTask;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SubTaskRepository extends JpaRepository<SubTask, Long> {
 
     List<SubTask> findByTodoId(Long todoId);
+
+    List<SubTask> findByTodoIdIn(Collection<Long> todoIds);
+
+    /**
+     * 删除前审计需要的列，投影查询不进入持久化上下文
+     */
+    @Query("SELECT s.id AS id, s.todoId AS todoId, s.title AS title, s.isCompleted AS isCompleted " +
+           "FROM SubTask s WHERE s.todoId IN :todoIds")
+    List<AuditRow> findAuditRowsByTodoIdIn(@Param("todoIds") Collection<Long> todoIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM SubTask s WHERE s.todoId IN :todoIds")
+    void deleteByTodoIdIn(@Param("todoIds") Collection<Long> todoIds);
+
+    interface AuditRow {
+        Long getId();
+        Long getTodoId();
+        String getTitle();
+        Boolean getIsCompleted();
+    }
 }
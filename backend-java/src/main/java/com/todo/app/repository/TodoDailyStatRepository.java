@@ -0,0 +1,42 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.TodoDailyStat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TodoDailyStatRepository extends JpaRepository<TodoDailyStat, Long> {
+
+    List<TodoDailyStat> findByUserIdAndStatDateBetween(Long userId, LocalDate from, LocalDate to);
+
+    // 声明只影响 todo_daily_stats，否则原生 SQL 写操作会清空整个二级缓存
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todo_daily_stats"))
+    @Query(value = "INSERT INTO todo_daily_stats (user_id, stat_date, category_id, priority, created, completed, due_open) " +
+                   "VALUES (:userId, :statDate, :categoryId, :priority, :created, :completed, :dueOpen) " +
+                   "ON DUPLICATE KEY UPDATE created = created + VALUES(created), " +
+                   "completed = completed + VALUES(completed), due_open = due_open + VALUES(due_open)",
+           nativeQuery = true)
+    void increment(
+            @Param("userId") Long userId,
+            @Param("statDate") LocalDate statDate,
+            @Param("categoryId") Long categoryId,
+            @Param("priority") String priority,
+            @Param("created") int created,
+            @Param("completed") int completed,
+            @Param("dueOpen") int dueOpen
+    );
+
+    @Modifying
+    @Query("DELETE FROM TodoDailyStat s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,61 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoOccurrence;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoOccurrenceRepository extends JpaRepository<TodoOccurrence, Long> {
+
+    Optional<TodoOccurrence> findByTodoIdAndOccurrenceDate(Long todoId, LocalDate occurrenceDate);
+
+    /**
+     * 展开窗口内的例外记录，走 (todoId, occurrenceDate) 唯一索引
+     */
+    @Query("SELECT o FROM TodoOccurrence o WHERE o.todoId IN :todoIds " +
+           "AND o.occurrenceDate BETWEEN :from AND :to")
+    List<TodoOccurrence> findInWindow(@Param("todoIds") Collection<Long> todoIds,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * after 之后已经完成或取消的各次（找下一个未完成的那次时跳过），通常只有提前完成的几行
+     */
+    @Query("SELECT o.occurrenceDate FROM TodoOccurrence o WHERE o.todoId = :todoId " +
+           "AND o.occurrenceDate > :after AND (o.isCompleted = true OR o.cancelled = true) " +
+           "ORDER BY o.occurrenceDate")
+    List<LocalDate> findClosedDatesAfter(@Param("todoId") Long todoId, @Param("after") LocalDate after);
+
+    Optional<TodoOccurrence> findFirstByTodoIdAndIsCompletedTrueOrderByOccurrenceDateDesc(Long todoId);
+
+    /**
+     * 统计表重建时补上各次的完成事件，按 ID 做键集分页
+     */
+    @Query("SELECT o.id AS id, o.todoId AS todoId, o.occurrenceDate AS occurrenceDate, " +
+           "o.priority AS priority, o.completedAt AS completedAt FROM TodoOccurrence o " +
+           "WHERE o.isCompleted = true AND o.id > :afterId ORDER BY o.id")
+    List<CompletedRow> findCompletedAfter(@Param("afterId") Long afterId, Pageable page);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TodoOccurrence o WHERE o.todoId IN :todoIds")
+    void deleteByTodoIdIn(@Param("todoIds") Collection<Long> todoIds);
+
+    interface CompletedRow {
+        Long getId();
+        Long getTodoId();
+        LocalDate getOccurrenceDate();
+        Todo.Priority getPriority();
+        LocalDateTime getCompletedAt();
+    }
+}
@@ -1,20 +1,44 @@
 package com.todo.app.repository;
 
 import com.todo.app.entity.Todo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
 
-    @Query("SELECT t FROM Todo t LEFT JOIN FETCH t.category c LEFT JOIN FETCH t.subtasks s WHERE t.id = :id")
-    Todo findByIdWithRelations(@Param("id") Long id);
+    // ---- 接口响应的取数计划：返回 Todo 实体的接口（列表、详情、修改后的响应）都用 Todo.WITH_SUBTASKS
+    //      一次取出分类和子任务，事务结束即归还连接，序列化时不会再触发懒加载 ----
 
+    /**
+     * 详情 / 修改类接口：单条查询带出分类和子任务
+     */
+    @EntityGraph(Todo.WITH_SUBTASKS)
+    Optional<Todo> findWithSubtasksById(Long id);
+
+    /**
+     * 批量修改接口
+     */
+    @EntityGraph(Todo.WITH_SUBTASKS)
+    List<Todo> findWithSubtasksByIdIn(Collection<Long> ids);
+
+    /**
+     * 列表接口
+     */
+    @EntityGraph(Todo.WITH_SUBTASKS)
     @Query("SELECT t FROM Todo t WHERE t.userId = :userId " +
            "AND (:search IS NULL OR t.title LIKE %:search% OR t.description LIKE %:search%) " +
            "AND (:priority IS NULL OR t.priority = :priority) " +
@@ -30,4 +54,255 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     );
 
     List<Todo> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Query("SELECT t.categoryId AS categoryId, COUNT(t) AS total, " +
+           "SUM(CASE WHEN t.isCompleted = true THEN 1 ELSE 0 END) AS completed, " +
+           "SUM(CASE WHEN t.isCompleted = false AND t.dueDate < :today THEN 1 ELSE 0 END) AS overdue " +
+           "FROM Todo t WHERE t.userId = :userId AND t.categoryId IS NOT NULL " +
+           "GROUP BY t.categoryId")
+    List<CategoryCount> countByCategory(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    /**
+     * 一次递归 CTE 取出整棵子树（包括根节点）
+     * MySQL 默认递归深度上限为 1000，这里用 SET_VAR 提高到 100000
+     */
+    @Query(value = "WITH RECURSIVE subtree (id) AS (" +
+                   "  SELECT id FROM todos WHERE id = :id AND user_id = :userId" +
+                   "  UNION ALL" +
+                   "  SELECT t.id FROM todos t JOIN subtree s ON t.parent_id = s.id" +
+                   ") SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ t.* " +
+                   "FROM todos t JOIN subtree s ON t.id = s.id",
+           nativeQuery = true)
+    List<Todo> findSubtree(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 整棵子树的 ID（包括根节点），根节点不属于 userId 时为空；删除时只需要 ID，不加载实体
+     */
+    @Query(value = "WITH RECURSIVE subtree (id) AS (" +
+                   "  SELECT id FROM todos WHERE id = :id AND user_id = :userId" +
+                   "  UNION ALL" +
+                   "  SELECT t.id FROM todos t JOIN subtree s ON t.parent_id = s.id" +
+                   ") SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ id FROM subtree",
+           nativeQuery = true)
+    List<Long> findSubtreeIds(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 删除前需要的列（祖先计数、汇总统计、审计快照），投影查询不进入持久化上下文
+     */
+    @Query("SELECT t.id AS id, t.userId AS userId, t.parentId AS parentId, t.title AS title, " +
+           "t.description AS description, t.isCompleted AS isCompleted, t.priority AS priority, " +
+           "t.dueDate AS dueDate, t.categoryId AS categoryId, t.progress AS progress, " +
+           "t.descendantCount AS descendantCount, t.descendantsCompleted AS descendantsCompleted, " +
+           "t.createdAt AS createdAt, t.updatedAt AS updatedAt, t.completedAt AS completedAt, " +
+           "t.recurrence AS recurrence " +
+           "FROM Todo t WHERE t.id IN :ids")
+    List<SnapshotRow> findSnapshotRows(@Param("ids") List<Long> ids);
+
+    /**
+     * 统计表重建：按 ID 做键集分页读取同样的列，每页只占一页的内存
+     */
+    @Query("SELECT t.id AS id, t.userId AS userId, t.parentId AS parentId, t.title AS title, " +
+           "t.description AS description, t.isCompleted AS isCompleted, t.priority AS priority, " +
+           "t.dueDate AS dueDate, t.categoryId AS categoryId, t.progress AS progress, " +
+           "t.descendantCount AS descendantCount, t.descendantsCompleted AS descendantsCompleted, " +
+           "t.createdAt AS createdAt, t.updatedAt AS updatedAt, t.completedAt AS completedAt, " +
+           "t.recurrence AS recurrence " +
+           "FROM Todo t WHERE t.id > :afterId ORDER BY t.id")
+    List<SnapshotRow> findSnapshotRowsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    @Query("SELECT t.id FROM Todo t WHERE t.categoryId = :categoryId AND t.userId = :userId")
+    List<Long> findIdsByCategory(@Param("categoryId") Long categoryId, @Param("userId") Long userId);
+
+    /**
+     * 按 ID 批量删除，只删除属于 userId 的行；子任务需要先用 SubTaskRepository.deleteByTodoIdIn 删除
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Todo t WHERE t.id IN :ids AND t.userId = :userId")
+    int deleteOwned(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * 删除分类前把其下的 Todo 改为未分类（相当于外键 ON DELETE SET NULL）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Todo t SET t.categoryId = NULL WHERE t.categoryId = :categoryId AND t.userId = :userId")
+    int clearCategory(@Param("categoryId") Long categoryId, @Param("userId") Long userId);
+
+    /**
+     * 从 id 开始沿 parentId 向上的所有节点 ID（包括 id 本身）
+     */
+    @Query(value = "WITH RECURSIVE ancestors (id, parent_id) AS (" +
+                   "  SELECT id, parent_id FROM todos WHERE id = :id" +
+                   "  UNION ALL" +
+                   "  SELECT t.id, t.parent_id FROM todos t JOIN ancestors a ON t.id = a.parent_id" +
+                   ") SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ id FROM ancestors",
+           nativeQuery = true)
+    List<Long> findAncestorIds(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Todo t SET t.descendantCount = t.descendantCount + :count, " +
+           "t.descendantsCompleted = t.descendantsCompleted + :completed WHERE t.id IN :ids")
+    void adjustDescendantCounts(@Param("ids") List<Long> ids,
+                                @Param("count") int count,
+                                @Param("completed") int completed);
+
+    /**
+     * 归档候选：完成时间早于 cutoff、整棵子树都已完成的根节点，按 ID 做键集分页
+     * 加写锁，搬运期间子节点的状态变更（要回写根节点计数）会等待本事务结束
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.id > :afterId " +
+           "AND t.parentId IS NULL AND t.isCompleted = true " +
+           "AND COALESCE(t.completedAt, t.updatedAt) < :cutoff " +
+           "AND t.descendantsCompleted = t.descendantCount " +
+           "ORDER BY t.id")
+    List<Todo> findArchivableRoots(@Param("userId") Long userId,
+                                   @Param("cutoff") LocalDateTime cutoff,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+    /**
+     * 批量删除整棵树之前先断开父子关系：MySQL 逐行检查外键，
+     * 同一条 DELETE 里父节点排在子节点前面也会失败
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Todo t SET t.parentId = NULL WHERE t.id IN :ids")
+    void detachFromParents(@Param("ids") List<Long> ids);
+
+    /**
+     * 日历视图：一次范围查询取出窗口内有截止日期的 Todo，每天只返回前 perDay 条
+     * （未完成在前，再按优先级、ID），同时用窗口函数带出当天的总数和已完成数。
+     * 走 (user_id, due_date) 索引，开销只与窗口内的行数有关。
+     * 重复的 Todo 不在这里返回，由 RecurrenceService 按窗口展开后合并。
+     */
+    @Query(value = "SELECT id, title, priority, isCompleted, dueDate, categoryId, dayTotal, dayCompleted FROM (" +
+                   "  SELECT t.id AS id, t.title AS title, t.priority AS priority, t.is_completed AS isCompleted," +
+                   "    t.due_date AS dueDate, t.category_id AS categoryId," +
+                   "    ROW_NUMBER() OVER (PARTITION BY t.due_date ORDER BY t.is_completed," +
+                   "      CASE t.priority WHEN 'HIGH' THEN 0 WHEN 'MEDIUM' THEN 1 ELSE 2 END, t.id) AS rn," +
+                   "    COUNT(*) OVER (PARTITION BY t.due_date) AS dayTotal," +
+                   "    SUM(CASE WHEN t.is_completed THEN 1 ELSE 0 END) OVER (PARTITION BY t.due_date) AS dayCompleted" +
+                   "  FROM todos t WHERE t.user_id = :userId AND t.due_date BETWEEN :from AND :to" +
+                   "    AND t.recurrence_start IS NULL" +
+                   ") ranked WHERE rn <= :perDay ORDER BY dueDate, rn",
+           nativeQuery = true)
+    List<CalendarRow> findCalendar(@Param("userId") Long userId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   @Param("perDay") int perDay);
+
+    /**
+     * "下一步"排行的候选流：某个优先级下未完成、有截止日期的 Todo，按截止日期升序分页读取。
+     * 排序与 (userId, isCompleted, priority, dueDate, progress) 索引顺序一致，不排序、不回表
+     */
+    @Query("SELECT t.id AS id, t.priority AS priority, t.dueDate AS dueDate, t.progress AS progress " +
+           "FROM Todo t WHERE t.userId = :userId AND t.isCompleted = false AND t.priority = :priority " +
+           "AND t.dueDate IS NOT NULL ORDER BY t.dueDate, t.progress, t.id")
+    List<NextCandidate> findNextDated(@Param("userId") Long userId,
+                                      @Param("priority") Todo.Priority priority,
+                                      Pageable page);
+
+    /**
+     * 同上，没有截止日期的 Todo，按进度降序（同一索引反向扫描）
+     */
+    @Query("SELECT t.id AS id, t.priority AS priority, t.dueDate AS dueDate, t.progress AS progress " +
+           "FROM Todo t WHERE t.userId = :userId AND t.isCompleted = false AND t.priority = :priority " +
+           "AND t.dueDate IS NULL ORDER BY t.progress DESC, t.id DESC")
+    List<NextCandidate> findNextUndated(@Param("userId") Long userId,
+                                        @Param("priority") Todo.Priority priority,
+                                        Pageable page);
+
+    /**
+     * 在 [from, to] 内可能有出现的重复 Todo（起始日不晚于 to、没有结束或结束日不早于 from），
+     * 走 (userId, recurrenceStart) 索引，只扫描重复的 Todo
+     */
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.recurrenceStart IS NOT NULL " +
+           "AND t.recurrenceStart <= :to AND (t.recurrenceUntil IS NULL OR t.recurrenceUntil >= :from)")
+    List<Todo> findSeriesBetween(@Param("userId") Long userId,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to);
+
+    /**
+     * 构建标签位图索引用的窄投影，每个用户只在第一次按标签过滤时读一次
+     */
+    @Query("SELECT t.id AS id, t.tags AS tags, t.priority AS priority, t.categoryId AS categoryId, " +
+           "t.isCompleted AS isCompleted FROM Todo t WHERE t.userId = :userId")
+    List<TagRow> findTagRows(@Param("userId") Long userId);
+
+    /**
+     * 分面模式的窄投影：只取计数、标签复核和排序要用的列，不加载实体和子任务；
+     * 按页取出的 ID 再用 findWithSubtasksByIdIn 取行
+     */
+    @Query("SELECT t.id AS id, t.tags AS tags, t.priority AS priority, t.categoryId AS categoryId, " +
+           "t.isCompleted AS isCompleted, t.createdAt AS createdAt FROM Todo t WHERE t.userId = :userId " +
+           "AND (:search IS NULL OR t.title LIKE %:search% OR t.description LIKE %:search%)")
+    List<FacetRow> findFacetRows(@Param("userId") Long userId, @Param("search") String search);
+
+    /**
+     * 同上，限定在标签位图算出的候选 ID 内
+     */
+    @Query("SELECT t.id AS id, t.tags AS tags, t.priority AS priority, t.categoryId AS categoryId, " +
+           "t.isCompleted AS isCompleted, t.createdAt AS createdAt FROM Todo t WHERE t.id IN :ids " +
+           "AND (:search IS NULL OR t.title LIKE %:search% OR t.description LIKE %:search%)")
+    List<FacetRow> findFacetRowsByIdIn(@Param("ids") Collection<Long> ids, @Param("search") String search);
+
+    interface NextCandidate {
+        Long getId();
+        Todo.Priority getPriority();
+        LocalDate getDueDate();
+        Integer getProgress();
+    }
+
+    interface TagRow {
+        Long getId();
+        String getTags();
+        Todo.Priority getPriority();
+        Long getCategoryId();
+        Boolean getIsCompleted();
+    }
+
+    interface FacetRow {
+        Long getId();
+        String getTags();
+        Todo.Priority getPriority();
+        Long getCategoryId();
+        Boolean getIsCompleted();
+        LocalDateTime getCreatedAt();
+    }
+
+    interface CalendarRow {
+        Long getId();
+        String getTitle();
+        Todo.Priority getPriority();
+        Boolean getIsCompleted();
+        LocalDate getDueDate();
+        Long getCategoryId();
+        Long getDayTotal();
+        Long getDayCompleted();
+    }
+
+    interface SnapshotRow {
+        Long getId();
+        Long getUserId();
+        Long getParentId();
+        String getTitle();
+        String getDescription();
+        Boolean getIsCompleted();
+        Todo.Priority getPriority();
+        LocalDate getDueDate();
+        Long getCategoryId();
+        Integer getProgress();
+        Integer getDescendantCount();
+        Integer getDescendantsCompleted();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        LocalDateTime getCompletedAt();
+        String getRecurrence();
+    }
+
+    interface CategoryCount {
+        Long getCategoryId();
+        Long getTotal();
+        Long getCompleted();
+        Long getOverdue();
+    }
 }
@@ -1,14 +1,49 @@
 package com.todo.app.repository;
 
 import com.todo.app.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /**
+     * 逐行读取所有用户名 / 邮箱（构建可用性过滤器），需要在事务中使用并关闭 Stream；
+     * 只查两列、不创建实体。MySQL 驱动默认仍会把结果集整体读到客户端，
+     * 用户量大到需要游标时在连接串上加 useCursorFetch=true，fetch size 即生效
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<Identity> streamIdentities();
+
+    /**
+     * 单个用户的用户名 / 邮箱，不经过二级缓存（其他实例的修改刚提交，本地缓存的实体可能是旧的）
+     */
+    @Query("SELECT u.username AS username, u.email AS email FROM User u WHERE u.id = :id")
+    Optional<Identity> findIdentityById(@Param("id") Long id);
+
+    /**
+     * 按 ID 翻页遍历用户（后台任务逐个用户处理），每页从上一页最后一个 ID 之后开始
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    interface Identity {
+        String getUsername();
+        String getEmail();
+    }
 }
@@ -0,0 +1,61 @@
+package com.todo.app.security;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 分条带、有上限、按 LRU 淘汰的令牌桶表
+ *
+ * 每个条带是一个按访问顺序排列的 LinkedHashMap，查找 / 新建在条带锁内完成（临界区只有一次哈希查找和链表调整）。
+ * 条带满时新建桶会淘汰最久未访问的那个桶，O(1)，不在请求路径上扫描整个条带；
+ * 最久未访问的桶通常早已回满，和新桶等价，删掉不影响限流结果。
+ */
+class BucketMap<K> {
+
+    private static final int STRIPES = 16;
+
+    private final List<Stripe<K>> stripes;
+    private final Supplier<TokenBucket> factory;
+
+    private static final class Stripe<K> extends LinkedHashMap<K, TokenBucket> {
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, TokenBucket> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    BucketMap(int maxPerStripe, Supplier<TokenBucket> factory) {
+        this.stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new Stripe<>(Math.max(1, maxPerStripe)));
+        }
+        this.factory = factory;
+    }
+
+    TokenBucket get(K key) {
+        Stripe<K> stripe = stripes.get((key.hashCode() & 0x7FFFFFFF) % STRIPES);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(key, k -> factory.get());
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<K> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
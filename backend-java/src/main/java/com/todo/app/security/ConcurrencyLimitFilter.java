@@ -0,0 +1,132 @@
+package com.todo.app.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应并发限制，排在 Security 过滤器链之前
+ *
+ * 作用：流量突增时不让请求在连接池前排队直到 connection-timeout，
+ * 超出当前并发上限的请求立即返回 503，已接受的请求保持正常延迟
+ *
+ * - 并发上限由 GradientLimit 按观测到的延迟调整
+ * - 请求按路径分为 CRITICAL / NORMAL / BULK，分别可以使用上限的 100% / normalShare / bulkShare，
+ *   接近上限时先拒绝统计、批量等低优先级请求，登录和完成状态切换最后才被拒绝
+ * - 只作用于 /api/**，actuator 健康检查不受影响
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    enum Priority { CRITICAL, NORMAL, BULK }
+
+    private final boolean enabled;
+    private final GradientLimit limit;
+    private final double[] shares = new double[Priority.values().length];
+    private final List<PathPattern> criticalPaths;
+    private final List<PathPattern> bulkPaths;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter[] rejected = new Counter[Priority.values().length];
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.limit = new GradientLimit(properties);
+        shares[Priority.CRITICAL.ordinal()] = 1.0;
+        shares[Priority.NORMAL.ordinal()] = properties.getNormalShare();
+        shares[Priority.BULK.ordinal()] = properties.getBulkShare();
+
+        PathPatternParser parser = new PathPatternParser();
+        this.criticalPaths = properties.getCriticalPaths().stream().map(parser::parse).toList();
+        this.bulkPaths = properties.getBulkPaths().stream().map(parser::parse).toList();
+
+        for (Priority priority : Priority.values()) {
+            rejected[priority.ordinal()] = Counter.builder("todo.concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT)).register(meterRegistry);
+        }
+        Gauge.builder("todo.concurrency.limit", limit, GradientLimit::limit).register(meterRegistry);
+        Gauge.builder("todo.concurrency.inflight", inflight, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("todo.concurrency.rtt", limit, GradientLimit::longRttMillis)
+                .tag("window", "long").baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("todo.concurrency.rtt", limit, GradientLimit::shortRttMillis)
+                .tag("window", "short").baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled || !request.getRequestURI().startsWith("/api/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Priority priority = classify(request);
+        int current = tryAcquire(priority);
+        if (current < 0) {
+            rejected[priority.ordinal()].increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inflight.decrementAndGet();
+            long now = System.nanoTime();
+            limit.onSample(now, now - start, current);
+        }
+    }
+
+    /**
+     * 占用一个并发名额，返回占用后的并发数；超过该优先级的份额时返回 -1
+     */
+    private int tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit.limit() * shares[priority.ordinal()]));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private Priority classify(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : criticalPaths) {
+            if (pattern.matches(path)) {
+                return Priority.CRITICAL;
+            }
+        }
+        for (PathPattern pattern : bulkPaths) {
+            if (pattern.matches(path)) {
+                return Priority.BULK;
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"statusCode\":503,\"message\":\"Server is busy, please retry\"}");
+    }
+}
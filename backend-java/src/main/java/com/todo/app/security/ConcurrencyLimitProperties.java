@@ -0,0 +1,94 @@
+package com.todo.app.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自适应并发限制配置（app.concurrency-limit.*）
+ *
+ * 并发上限由 GradientLimit 根据观测到的延迟自动调整，这里只给出起点、上下界和调整参数。
+ */
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+    private int minLimit = 5;
+    private int maxLimit = 200;
+
+    /** 短期平均延迟超过长期基线的多少倍时开始收缩 */
+    private double rttTolerance = 1.5;
+
+    /** 每个窗口结束时新上限所占的权重 */
+    private double smoothing = 0.2;
+
+    /** 采样窗口：至少这么长、且至少有 windowMinSamples 个请求完成才更新一次上限 */
+    private Duration window = Duration.ofMillis(100);
+    private int windowMinSamples = 10;
+
+    /** 长期基线（指数移动平均）覆盖的窗口数 */
+    private int baselineWindows = 600;
+
+    /**
+     * 各优先级可用的并发比例：接近上限时先拒绝低优先级请求，CRITICAL 总是可以用满上限
+     */
+    private double normalShare = 0.9;
+    private double bulkShare = 0.5;
+
+    /** 高优先级路径（登录注册、完成状态切换） */
+    private List<String> criticalPaths = new ArrayList<>(List.of(
+            "/api/auth/**",
+            "/api/todos/{id}/toggle",
+            "/api/todos/subtasks/{id}/toggle"));
+
+    /** 低优先级路径（统计、批量操作、导出等重查询） */
+    private List<String> bulkPaths = new ArrayList<>(List.of(
+            "/api/todos/statistics/**",
+            "/api/todos/export/**",
+            "/api/todos/batch/**",
+            "/api/batch",
+            "/api/activity"));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public double getRttTolerance() { return rttTolerance; }
+    public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getWindowMinSamples() { return windowMinSamples; }
+    public void setWindowMinSamples(int windowMinSamples) { this.windowMinSamples = windowMinSamples; }
+
+    public int getBaselineWindows() { return baselineWindows; }
+    public void setBaselineWindows(int baselineWindows) { this.baselineWindows = baselineWindows; }
+
+    public double getNormalShare() { return normalShare; }
+    public void setNormalShare(double normalShare) { this.normalShare = normalShare; }
+
+    public double getBulkShare() { return bulkShare; }
+    public void setBulkShare(double bulkShare) { this.bulkShare = bulkShare; }
+
+    public List<String> getCriticalPaths() { return criticalPaths; }
+    public void setCriticalPaths(List<String> criticalPaths) { this.criticalPaths = criticalPaths; }
+
+    public List<String> getBulkPaths() { return bulkPaths; }
+    public void setBulkPaths(List<String> bulkPaths) { this.bulkPaths = bulkPaths; }
+}
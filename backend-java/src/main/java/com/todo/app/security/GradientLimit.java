@@ -0,0 +1,101 @@
+package com.todo.app.security;
+
+/**
+ * 基于延迟梯度的并发上限（参考 Netflix concurrency-limits 的 Gradient2）
+ *
+ * 每个采样窗口结束时：
+ * - shortRtt = 窗口内请求的平均耗时，longRtt = shortRtt 的指数移动平均（无排队时的基线）
+ * - gradient = clamp(tolerance × longRtt / shortRtt, 0.5, 1)：延迟没有明显上升时为 1，排队越严重越小
+ * - newLimit = limit × gradient + sqrt(limit)，sqrt(limit) 为允许的排队余量，让上限在空闲时缓慢增长
+ * - limit 向 newLimit 平滑移动，并限制在 [minLimit, maxLimit]
+ *
+ * 窗口内最大并发不到上限一半时不调整（流量本身就小，延迟说明不了容量）。
+ * 短期延迟降到基线一半以下时基线快速回落，避免一次高峰之后基线长期偏高。
+ *
+ * onSample 加锁，只做几次算术运算；limit 为 volatile，准入判断不加锁。
+ */
+final class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final int windowMinSamples;
+    private final double baselineAlpha;
+
+    private volatile double limit;
+
+    // 以下字段由 this 保护
+    private double longRtt;
+    private double lastShortRtt;
+    private long windowStart = System.nanoTime();
+    private int windowCount;
+    private long windowSum;
+    private int windowMaxInflight;
+
+    GradientLimit(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.tolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.windowMinSamples = properties.getWindowMinSamples();
+        this.baselineAlpha = 1.0 / Math.max(1, properties.getBaselineWindows());
+        this.limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    }
+
+    double limit() {
+        return limit;
+    }
+
+    synchronized double longRttMillis() {
+        return longRtt / 1_000_000;
+    }
+
+    synchronized double shortRttMillis() {
+        return lastShortRtt / 1_000_000;
+    }
+
+    /**
+     * 一个请求完成：rttNanos 为处理耗时，inflight 为它开始时的并发数（包括自己）
+     */
+    synchronized void onSample(long now, long rttNanos, int inflight) {
+        windowSum += rttNanos;
+        windowCount++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        if (windowCount < windowMinSamples || now - windowStart < windowNanos) {
+            return;
+        }
+
+        double shortRtt = (double) windowSum / windowCount;
+        int maxInflight = windowMaxInflight;
+        windowStart = now;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInflight = 0;
+        update(shortRtt, maxInflight);
+    }
+
+    private void update(double shortRtt, int maxInflight) {
+        lastShortRtt = shortRtt;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * baselineAlpha;
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+        }
+
+        double current = limit;
+        if (maxInflight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
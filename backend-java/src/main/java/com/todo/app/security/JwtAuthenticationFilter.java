@@ -1,5 +1,6 @@
 package com.todo.app.security;
 
+import com.todo.app.timing.RequestTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -68,6 +69,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // 2. 检查请求头是否存在，且以 "Bearer " 开头
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            long start = System.nanoTime();
+
             // 3. 提取 token（去掉 "Bearer " 前缀，共 7 个字符）
             String token = authHeader.substring(7);
 
@@ -95,6 +98,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
+
+            // 记入 Server-Timing 的 auth 阶段
+            RequestTiming.add(RequestTiming.Phase.AUTH, System.nanoTime() - start);
         }
 
         // 8. 继续执行过滤器链
@@ -0,0 +1,153 @@
+package com.todo.app.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 限流过滤器，排在 JwtAuthenticationFilter 之后
+ *
+ * 作用：防止单个客户端（比如前端的同步死循环）占满数据库连接池，影响其他用户
+ *
+ * 工作流程：
+ * 1. 按请求类型选择预算：读 / 写 / 批量接口 / 登录
+ * 2. 先检查该 IP 和（已登录时）该用户的令牌桶，两个都放行才扣令牌，
+ *    被用户预算拒绝的请求不消耗 IP 预算
+ * 3. 任一令牌桶为空时直接返回 429，并通过 Retry-After 告诉客户端多久后重试
+ *
+ * 热路径上每个桶一次条带内的哈希查找和一次 CAS，不分配对象。
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum Budget { READ, WRITE, BATCH, LOGIN }
+
+    private final boolean enabled;
+    private final List<BucketMap<String>> ipBuckets;
+    private final List<BucketMap<Long>> userBuckets;
+    private final Counter[] ipRejected;
+    private final Counter[] userRejected;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+
+        Budget[] budgets = Budget.values();
+        this.ipBuckets = new ArrayList<>(budgets.length);
+        this.userBuckets = new ArrayList<>(budgets.length);
+        this.ipRejected = new Counter[budgets.length];
+        this.userRejected = new Counter[budgets.length];
+
+        for (Budget budget : budgets) {
+            RateLimitProperties.Budget limits = limitsFor(properties, budget);
+            String name = budget.name().toLowerCase(Locale.ROOT);
+            int i = budget.ordinal();
+
+            ipBuckets.add(new BucketMap<>(properties.getMaxBucketsPerStripe(),
+                    () -> new TokenBucket(limits.getIpRate(), limits.getIpBurst())));
+            userBuckets.add(new BucketMap<>(properties.getMaxBucketsPerStripe(),
+                    () -> new TokenBucket(limits.getUserRate(), limits.getUserBurst())));
+
+            ipRejected[i] = Counter.builder("todo.ratelimit.rejected")
+                    .tag("budget", name).tag("scope", "ip").register(meterRegistry);
+            userRejected[i] = Counter.builder("todo.ratelimit.rejected")
+                    .tag("budget", name).tag("scope", "user").register(meterRegistry);
+
+            Gauge.builder("todo.ratelimit.buckets", ipBuckets.get(i), BucketMap::size)
+                    .tag("budget", name).tag("scope", "ip").register(meterRegistry);
+            Gauge.builder("todo.ratelimit.buckets", userBuckets.get(i), BucketMap::size)
+                    .tag("budget", name).tag("scope", "user").register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled || !request.getRequestURI().startsWith("/api/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int budget = classify(request).ordinal();
+        long now = System.nanoTime();
+
+        TokenBucket ip = ipBuckets.get(budget).get(request.getRemoteAddr());
+        Long userId = SecurityUtils.getCurrentUserId(SecurityContextHolder.getContext().getAuthentication());
+        TokenBucket user = userId != null ? userBuckets.get(budget).get(userId) : null;
+
+        // 先检查两个桶，任一拒绝时都不扣令牌
+        long wait = ip.check(now);
+        if (wait > 0) {
+            ipRejected[budget].increment();
+            reject(response, wait);
+            return;
+        }
+        if (user != null && (wait = user.check(now)) > 0) {
+            userRejected[budget].increment();
+            reject(response, wait);
+            return;
+        }
+
+        // 检查之后其他请求可能抢先取走了令牌：IP 取到而用户没取到时把 IP 的令牌退回
+        wait = ip.tryAcquire(now);
+        if (wait > 0) {
+            ipRejected[budget].increment();
+            reject(response, wait);
+            return;
+        }
+        if (user != null && (wait = user.tryAcquire(now)) > 0) {
+            ip.release(now);
+            userRejected[budget].increment();
+            reject(response, wait);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Budget classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        if ("POST".equals(method) && uri.equals("/api/auth/login")) {
+            return Budget.LOGIN;
+        }
+        if (uri.contains("/batch")) {
+            return Budget.BATCH;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return Budget.READ;
+        }
+        return Budget.WRITE;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"statusCode\":429,\"message\":\"Too many requests\"}");
+    }
+
+    private static RateLimitProperties.Budget limitsFor(RateLimitProperties properties, Budget budget) {
+        return switch (budget) {
+            case READ -> properties.getRead();
+            case WRITE -> properties.getWrite();
+            case BATCH -> properties.getBatch();
+            case LOGIN -> properties.getLogin();
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.todo.app.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 限流配置（app.rate-limit.*）
+ *
+ * 每类请求分别有按用户和按 IP 的预算：rate 为每秒补充的令牌数，burst 为桶容量。
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** 每个条带最多保留的桶数，超出时淘汰最久未访问的桶 */
+    private int maxBucketsPerStripe = 4096;
+
+    private Budget read = new Budget(20, 100, 50, 200);
+    private Budget write = new Budget(10, 40, 25, 100);
+    private Budget batch = new Budget(1, 5, 2, 10);
+    private Budget login = new Budget(0.2, 5, 1, 20);
+
+    public static class Budget {
+        private double userRate;
+        private int userBurst;
+        private double ipRate;
+        private int ipBurst;
+
+        public Budget() {
+        }
+
+        public Budget(double userRate, int userBurst, double ipRate, int ipBurst) {
+            this.userRate = userRate;
+            this.userBurst = userBurst;
+            this.ipRate = ipRate;
+            this.ipBurst = ipBurst;
+        }
+
+        public double getUserRate() { return userRate; }
+        public void setUserRate(double userRate) { this.userRate = userRate; }
+        public int getUserBurst() { return userBurst; }
+        public void setUserBurst(int userBurst) { this.userBurst = userBurst; }
+        public double getIpRate() { return ipRate; }
+        public void setIpRate(double ipRate) { this.ipRate = ipRate; }
+        public int getIpBurst() { return ipBurst; }
+        public void setIpBurst(int ipBurst) { this.ipBurst = ipBurst; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxBucketsPerStripe() { return maxBucketsPerStripe; }
+    public void setMaxBucketsPerStripe(int maxBucketsPerStripe) { this.maxBucketsPerStripe = maxBucketsPerStripe; }
+    public Budget getRead() { return read; }
+    public void setRead(Budget read) { this.read = read; }
+    public Budget getWrite() { return write; }
+    public void setWrite(Budget write) { this.write = write; }
+    public Budget getBatch() { return batch; }
+    public void setBatch(Budget batch) { this.batch = batch; }
+    public Budget getLogin() { return login; }
+    public void setLogin(Budget login) { this.login = login; }
+}
@@ -1,6 +1,9 @@
 package com.todo.app.security;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
 
 public class SecurityUtils {
 
@@ -10,4 +13,15 @@ public class SecurityUtils {
         }
         return null;
     }
+
+    /**
+     * 当前请求的登录用户，业务数据都归属于这个用户；未认证时返回 401
+     */
+    public static Long getCurrentUserId() {
+        Long userId = getCurrentUserId(SecurityContextHolder.getContext().getAuthentication());
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        return userId;
+    }
 }
@@ -0,0 +1,66 @@
+package com.todo.app.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶（GCRA 实现）
+ *
+ * 只保存一个 long：理论到达时间 TAT（纳秒）。每次请求把 TAT 向后推一个发放间隔，
+ * 推过之后如果 TAT 超出当前时间太多（超过 burst 个间隔）就拒绝。
+ * 与经典令牌桶等价，但只需要一次 CAS，不需要锁，也不需要后台补充令牌。
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @return 0 表示放行；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long wait = newTat - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 只检查、不取令牌
+     *
+     * @return 0 表示此刻取令牌会放行；否则为需要等待的纳秒数
+     */
+    public long check(long nowNanos) {
+        long newTat = Math.max(theoreticalArrival.get(), nowNanos) + emissionIntervalNanos;
+        return Math.max(0, newTat - nowNanos - burstToleranceNanos);
+    }
+
+    /**
+     * 退还一个已取到的令牌（另一个桶随后拒绝了同一个请求时使用）
+     */
+    public void release(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            if (tat <= nowNanos) {
+                return;
+            }
+            if (theoreticalArrival.compareAndSet(tat, Math.max(nowNanos, tat - emissionIntervalNanos))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.todo.app.service;
+
+import com.todo.app.audit.AuditLog;
+import com.todo.app.audit.AuditRecord;
+import com.todo.app.dto.ActivityLogDTO;
+import com.todo.app.security.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * 操作记录查询
+ *
+ * 记录由写入线程异步落库，刚提交的修改可能要稍后（通常几十毫秒内）才能查到。
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+
+    static final int MAX_LIMIT = 200;
+
+    private final AuditLog auditLog;
+
+    public List<ActivityLogDTO> getActivity(String entityType, Long entityId, int limit) {
+        if (entityId != null && entityType == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "entityId requires entityType");
+        }
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return auditLog.history(SecurityUtils.getCurrentUserId(), entityType, entityId, n).stream()
+                .map(ActivityService::toDTO)
+                .toList();
+    }
+
+    private static ActivityLogDTO toDTO(AuditRecord record) {
+        ActivityLogDTO dto = new ActivityLogDTO();
+        dto.setEntityType(record.entityType());
+        dto.setEntityId(record.entityId());
+        dto.setAction(record.action());
+        dto.setActorId(record.actorId());
+        dto.setBefore(record.before());
+        dto.setAfter(record.after());
+        dto.setCreatedAt(record.createdAt());
+        return dto;
+    }
+}
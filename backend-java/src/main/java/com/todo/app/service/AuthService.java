@@ -2,9 +2,11 @@ package com.todo.app.service;
 
 import com.todo.app.dto.*;
 import com.todo.app.entity.User;
+import com.todo.app.invalidation.InvalidationBus;
 import com.todo.app.repository.UserRepository;
 import com.todo.app.security.JwtUtil;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,22 +18,31 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final AvailabilityService availabilityService;
+    private final InvalidationBus invalidationBus;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       AvailabilityService availabilityService, InvalidationBus invalidationBus) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.availabilityService = availabilityService;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public AvailabilityDTO checkAvailability(String username, String email) {
+        return availabilityService.check(username, email);
     }
 
     @Transactional
     public UserResponseDTO register(RegisterDTO registerDTO) {
-        // 检查用户名是否已存在
-        if (userRepository.existsByUsername(registerDTO.getUsername())) {
+        // 检查用户名是否已存在（过滤器判定不存在时不查库）
+        if (availabilityService.usernameTaken(registerDTO.getUsername())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "用户名已存在");
         }
 
         // 检查邮箱是否已存在
-        if (userRepository.existsByEmail(registerDTO.getEmail())) {
+        if (availabilityService.emailTaken(registerDTO.getEmail())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "邮箱已被注册");
         }
 
@@ -41,7 +52,10 @@ public class AuthService {
         user.setEmail(registerDTO.getEmail());
         user.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
 
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUnique(user);
+        availabilityService.onRegistered(savedUser);
+        // 其他实例可能缓存了 findByEmail 的空结果
+        invalidationBus.publish(InvalidationBus.USER, savedUser.getId());
         return UserResponseDTO.fromEntity(savedUser);
     }
 
@@ -75,10 +89,12 @@ public class AuthService {
     public UserResponseDTO updateProfile(Long userId, RegisterDTO updateData) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "用户不存在"));
+        String oldUsername = user.getUsername();
+        String oldEmail = user.getEmail();
 
         // 如果要更新用户名，检查是否重复
         if (updateData.getUsername() != null && !updateData.getUsername().equals(user.getUsername())) {
-            if (userRepository.existsByUsername(updateData.getUsername())) {
+            if (availabilityService.usernameTaken(updateData.getUsername())) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "用户名已存在");
             }
             user.setUsername(updateData.getUsername());
@@ -86,7 +102,7 @@ public class AuthService {
 
         // 如果要更新邮箱，检查是否重复
         if (updateData.getEmail() != null && !updateData.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(updateData.getEmail())) {
+            if (availabilityService.emailTaken(updateData.getEmail())) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "邮箱已被使用");
             }
             user.setEmail(updateData.getEmail());
@@ -97,7 +113,20 @@ public class AuthService {
             user.setPassword(passwordEncoder.encode(updateData.getPassword()));
         }
 
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUnique(user);
+        availabilityService.onProfileChanged(oldUsername, savedUser.getUsername(), oldEmail, savedUser.getEmail());
+        invalidationBus.publish(InvalidationBus.USER, savedUser.getId());
         return UserResponseDTO.fromEntity(savedUser);
     }
+
+    /**
+     * 并发注册 / 修改时，检查通过后仍可能被唯一索引拒绝，按冲突返回
+     */
+    private User saveUnique(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "用户名或邮箱已被使用");
+        }
+    }
 }
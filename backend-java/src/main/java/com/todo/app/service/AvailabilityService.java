@@ -0,0 +1,317 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.AvailabilityDTO;
+import com.todo.app.entity.User;
+import com.todo.app.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 用户名 / 邮箱是否已被占用
+ *
+ * 启动时流式读取 users 表构建两个 CuckooFilter。过滤器判定不存在时直接返回"可用"，
+ * 只有可能存在（真的存在或误判）时才查库；注册、修改资料在事务提交后更新过滤器。
+ * 其他实例上的注册 / 修改通过 InvalidationBus 的 USER 消息得知：按用户 ID 查出当前的用户名和邮箱加入过滤器
+ * （旧值不知道，留在过滤器里只会多一次查库）。消息到达前的短暂窗口内可能误答"可用"，
+ * 注册时由唯一索引兜底（AuthService.saveUnique 返回 409）。
+ *
+ * 键先做大小写 / 重音归一化，与 MySQL 默认的 *_ai_ci 排序规则一致或更宽，
+ * 数据库认为相同的两个值在过滤器中一定相同（只会多出误判，不会漏判）。
+ *
+ * 过滤器尚未构建或正在重建时全部查库；重建期间的新增在替换前补进新过滤器，
+ * 删除则不补（新过滤器里可能留下旧值，只会多一次查库）。
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private CuckooFilter usernames;
+    private CuckooFilter emails;
+    /** 重建期间提交的新增 [username, email]（只改了其中一项时另一项为 null），null 表示没有在重建 */
+    private List<String[]> pendingAdds;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong filterNegatives = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public AvailabilityService(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public AvailabilityDTO check(String username, String email) {
+        AvailabilityDTO dto = new AvailabilityDTO();
+        if (username != null && !username.isBlank()) {
+            dto.setUsername(username);
+            dto.setUsernameAvailable(!usernameTaken(username));
+        }
+        if (email != null && !email.isBlank()) {
+            dto.setEmail(email);
+            dto.setEmailAvailable(!emailTaken(email));
+        }
+        return dto;
+    }
+
+    public boolean usernameTaken(String username) {
+        return taken(username, true);
+    }
+
+    public boolean emailTaken(String email) {
+        return taken(email, false);
+    }
+
+    public void onRegistered(User user) {
+        afterCommit(() -> add(key(user.getUsername()), key(user.getEmail())));
+    }
+
+    /**
+     * 其他实例注册或修改了该用户（InvalidationBus 的 USER 消息）
+     */
+    public void onRemoteUserChanged(Long userId) {
+        userRepository.findIdentityById(userId)
+                .ifPresent(identity -> add(key(identity.getUsername()), key(identity.getEmail())));
+    }
+
+    /**
+     * 修改资料后：去掉旧值、加入新值（未修改的字段传相同的值）
+     */
+    public void onProfileChanged(String oldUsername, String newUsername, String oldEmail, String newEmail) {
+        afterCommit(() -> {
+            if (!oldUsername.equals(newUsername)) {
+                replace(true, key(oldUsername), key(newUsername));
+            }
+            if (!oldEmail.equals(newEmail)) {
+                replace(false, key(oldEmail), key(newEmail));
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                pendingAdds = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long start = System.currentTimeMillis();
+            long expected = Math.max(userRepository.count(), size()) * 2;
+            CuckooFilter newUsernames = new CuckooFilter(expected);
+            CuckooFilter newEmails = new CuckooFilter(expected);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserRepository.Identity> identities = userRepository.streamIdentities()) {
+                    identities.forEach(identity -> {
+                        newUsernames.add(key(identity.getUsername()));
+                        newEmails.add(key(identity.getEmail()));
+                    });
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                for (String[] add : pendingAdds) {
+                    if (add[0] != null) {
+                        newUsernames.add(add[0]);
+                    }
+                    if (add[1] != null) {
+                        newEmails.add(add[1]);
+                    }
+                }
+                usernames = newUsernames;
+                emails = newEmails;
+                pendingAdds = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilds.incrementAndGet();
+            log.info("Built availability filters for {} users in {} ms", newUsernames.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingAdds = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to build availability filters, falling back to database checks", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 过滤器容量、装载率、理论误判率和实际观测到的误判率（查库后发现不存在 / 查库次数）
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", usernames != null);
+            stats.put("usernames", filterStats(usernames));
+            stats.put("emails", filterStats(emails));
+        } finally {
+            lock.readLock().unlock();
+        }
+        long db = databaseChecks.get();
+        stats.put("checks", checks.get());
+        stats.put("answeredByFilter", filterNegatives.get());
+        stats.put("databaseChecks", db);
+        stats.put("falsePositives", falsePositives.get());
+        stats.put("observedFalsePositiveRate", db > 0 ? (double) falsePositives.get() / db : 0.0);
+        stats.put("rebuilds", rebuilds.get());
+        return stats;
+    }
+
+    private boolean taken(String value, boolean username) {
+        checks.incrementAndGet();
+        String key = key(value);
+        boolean filtered = false;
+        lock.readLock().lock();
+        try {
+            CuckooFilter filter = username ? usernames : emails;
+            if (filter != null) {
+                if (!filter.mightContain(key)) {
+                    filterNegatives.incrementAndGet();
+                    return false;
+                }
+                filtered = true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        databaseChecks.incrementAndGet();
+        boolean exists = username ? userRepository.existsByUsername(value) : userRepository.existsByEmail(value);
+        if (filtered && !exists) {
+            falsePositives.incrementAndGet();
+        }
+        return exists;
+    }
+
+    private void add(String username, String email) {
+        boolean grow;
+        lock.writeLock().lock();
+        try {
+            if (pendingAdds != null) {
+                pendingAdds.add(new String[]{username, email});
+            }
+            if (usernames == null) {
+                return;
+            }
+            usernames.add(username);
+            emails.add(email);
+            grow = needsRebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (grow) {
+            rebuildAsync();
+        }
+    }
+
+    private void replace(boolean username, String oldKey, String newKey) {
+        boolean grow;
+        lock.writeLock().lock();
+        try {
+            if (pendingAdds != null) {
+                pendingAdds.add(username ? new String[]{newKey, null} : new String[]{null, newKey});
+            }
+            CuckooFilter filter = username ? usernames : emails;
+            if (filter == null) {
+                return;
+            }
+            filter.remove(oldKey);
+            filter.add(newKey);
+            grow = needsRebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (grow) {
+            rebuildAsync();
+        }
+    }
+
+    private boolean needsRebuild() {
+        return usernames.isSaturated() || emails.isSaturated()
+                || usernames.load() > CuckooFilter.MAX_LOAD || emails.load() > CuckooFilter.MAX_LOAD;
+    }
+
+    private void rebuildAsync() {
+        if (!rebuilding.get()) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    private long size() {
+        lock.readLock().lock();
+        try {
+            return usernames != null ? usernames.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Object> filterStats(CuckooFilter filter) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (filter != null) {
+            stats.put("entries", filter.size());
+            stats.put("capacity", filter.capacity());
+            stats.put("load", filter.load());
+            stats.put("saturated", filter.isSaturated());
+            stats.put("expectedFalsePositiveRate", filter.expectedFalsePositiveRate());
+        }
+        return stats;
+    }
+
+    /**
+     * 用户名 / 邮箱的比较键：去掉尾部空格（MySQL PAD SPACE）后做大小写、重音归一化
+     */
+    private static String key(String value) {
+        return SuggestionText.normalize(value.stripTrailing());
+    }
+
+    private static void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
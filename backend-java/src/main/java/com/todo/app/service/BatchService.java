@@ -0,0 +1,238 @@
+package com.todo.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.todo.app.dto.*;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 批量变更：按顺序执行一组 Todo / 子任务 / 分类操作，整批共用一个事务
+ *
+ * 各操作复用 TodoService / CategoryService 的单个接口逻辑（统计、树、缓存维护保持一致），
+ * 它们的 @Transactional 加入本事务。任一操作失败则整批回滚，后续操作不再执行。
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchService {
+
+    private static final String REF_PREFIX = "$";
+
+    /** body 中允许引用临时 ID 的字段 */
+    private static final List<String> REF_FIELDS = List.of("categoryId", "parentId", "todoId");
+
+    private final TodoService todoService;
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${app.batch.max-operations:200}")
+    private int maxOperations;
+
+    @Transactional
+    public BatchResponseDTO execute(List<BatchOperationDTO> operations) {
+        if (operations.size() > maxOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Too many operations: " + operations.size() + " (max " + maxOperations + ")");
+        }
+
+        Map<String, Long> refs = new HashMap<>();
+        List<BatchResultDTO> results = new ArrayList<>(operations.size());
+        boolean failed = false;
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDTO operation = operations.get(i);
+            if (failed) {
+                BatchResultDTO skipped = BatchResultDTO.of(i, operation, HttpStatus.FAILED_DEPENDENCY.value());
+                skipped.setError("Not executed: an earlier operation failed");
+                results.add(skipped);
+                continue;
+            }
+
+            try {
+                results.add(apply(i, operation, refs));
+            } catch (RuntimeException e) {
+                BatchResultDTO result = BatchResultDTO.of(i, operation, statusOf(e).value());
+                result.setError(messageOf(e));
+                results.add(result);
+                failed = true;
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
+        }
+
+        BatchResponseDTO response = new BatchResponseDTO();
+        response.setCommitted(!failed);
+        response.setResults(results);
+        return response;
+    }
+
+    private BatchResultDTO apply(int index, BatchOperationDTO operation, Map<String, Long> refs) {
+        if (operation.getRef() != null) {
+            if (!operation.getRef().startsWith(REF_PREFIX)) {
+                throw badRequest("ref must start with '" + REF_PREFIX + "'");
+            }
+            if (refs.containsKey(operation.getRef())) {
+                throw badRequest("Duplicate ref: " + operation.getRef());
+            }
+        }
+
+        BatchResultDTO result = BatchResultDTO.of(index, operation, HttpStatus.OK.value());
+        switch (operation.getOp()) {
+            case "todo.create" -> {
+                Todo todo = todoService.createTodo(body(operation, refs, TodoCreateDTO.class));
+                created(result, operation, refs, todo.getId(), todo);
+            }
+            case "todo.update" -> succeeded(result,
+                    todoService.updateTodo(id(operation, refs), body(operation, refs, TodoUpdateDTO.class)));
+            case "todo.toggle" -> succeeded(result, todoService.toggleTodo(id(operation, refs)));
+            case "todo.move" -> {
+                JsonNode parentId = resolveBody(operation, refs).get("parentId");
+                Long parent = parentId == null || parentId.isNull() ? null : parentId.asLong();
+                succeeded(result, todoService.moveTodo(id(operation, refs), parent));
+            }
+            case "todo.delete" -> {
+                todoService.deleteTodo(id(operation, refs));
+                deleted(result, operation, refs);
+            }
+            case "subtask.create" -> {
+                Long todoId = resolve(operation.getTodoId(), refs, "todoId");
+                SubTask subTask = todoService.createSubTask(todoId, body(operation, refs, SubTaskCreateDTO.class));
+                created(result, operation, refs, subTask.getId(), subTask);
+            }
+            case "subtask.toggle" -> succeeded(result, todoService.toggleSubTask(id(operation, refs)));
+            case "subtask.delete" -> {
+                todoService.deleteSubTask(id(operation, refs));
+                deleted(result, operation, refs);
+            }
+            case "category.create" -> {
+                Category category = categoryService.createCategory(body(operation, refs, CategoryCreateDTO.class));
+                created(result, operation, refs, category.getId(), category);
+            }
+            case "category.update" -> succeeded(result,
+                    categoryService.updateCategory(id(operation, refs), body(operation, refs, CategoryUpdateDTO.class)));
+            case "category.delete" -> {
+                categoryService.deleteCategory(id(operation, refs));
+                deleted(result, operation, refs);
+            }
+            default -> throw badRequest("Unknown op: " + operation.getOp());
+        }
+        return result;
+    }
+
+    private void created(BatchResultDTO result, BatchOperationDTO operation, Map<String, Long> refs,
+                         Long id, Object data) {
+        if (operation.getRef() != null) {
+            refs.put(operation.getRef(), id);
+        }
+        result.setStatus(HttpStatus.CREATED.value());
+        result.setId(id);
+        result.setData(data);
+    }
+
+    private void succeeded(BatchResultDTO result, Object data) {
+        result.setData(data);
+    }
+
+    private void deleted(BatchResultDTO result, BatchOperationDTO operation, Map<String, Long> refs) {
+        result.setStatus(HttpStatus.NO_CONTENT.value());
+        result.setId(id(operation, refs));
+    }
+
+    private Long id(BatchOperationDTO operation, Map<String, Long> refs) {
+        return resolve(operation.getId(), refs, "id");
+    }
+
+    /**
+     * 把数字或临时 ID 解析为实际 ID；引用必须指向本批次中前面已成功的 create 操作
+     */
+    private Long resolve(String value, Map<String, Long> refs, String field) {
+        if (value == null || value.isBlank()) {
+            throw badRequest(field + " is required");
+        }
+        if (value.startsWith(REF_PREFIX)) {
+            Long id = refs.get(value);
+            if (id == null) {
+                throw badRequest("Unknown ref in " + field + ": " + value);
+            }
+            return id;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw badRequest("Invalid " + field + ": " + value);
+        }
+    }
+
+    private ObjectNode resolveBody(BatchOperationDTO operation, Map<String, Long> refs) {
+        ObjectNode body = operation.getBody() != null ? operation.getBody().deepCopy() : objectMapper.createObjectNode();
+        for (String field : REF_FIELDS) {
+            JsonNode value = body.get(field);
+            if (value != null && value.isTextual() && value.asText().startsWith(REF_PREFIX)) {
+                body.put(field, resolve(value.asText(), refs, field));
+            }
+        }
+        return body;
+    }
+
+    private <T> T body(BatchOperationDTO operation, Map<String, Long> refs, Class<T> type) {
+        T dto;
+        try {
+            dto = objectMapper.treeToValue(resolveBody(operation, refs), type);
+        } catch (JsonProcessingException e) {
+            throw badRequest("Invalid body: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw badRequest(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+        return dto;
+    }
+
+    private static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    private static HttpStatus statusOf(RuntimeException e) {
+        if (e instanceof ResponseStatusException rse) {
+            HttpStatus status = HttpStatus.resolve(rse.getStatusCode().value());
+            return status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        if (e instanceof EntityNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static String messageOf(RuntimeException e) {
+        if (e instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        return e.getMessage();
+    }
+}
@@ -1,46 +1,128 @@
 package com.todo.app.service;
 
+import com.todo.app.audit.AuditLog;
+import com.todo.app.audit.AuditSnapshots;
 import com.todo.app.dto.CategoryCreateDTO;
 import com.todo.app.dto.CategoryUpdateDTO;
+import com.todo.app.dto.CategoryWithCountsDTO;
 import com.todo.app.entity.Category;
+import com.todo.app.invalidation.InvalidationBus;
 import com.todo.app.repository.CategoryRepository;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.security.SecurityUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final TodoRepository todoRepository;
+    private final SuggestService suggestService;
+    private final TagIndexService tagIndexService;
+    private final StatisticsRollupService rollupService;
+    private final AuditLog auditLog;
+    private final InvalidationBus invalidationBus;
 
-    private static final Long DEFAULT_USER_ID = 1L;
+    static final int MAX_CACHED_USERS = 10_000;
+
+    /**
+     * 每个用户的分类 Todo 计数缓存：categoryId -> [total, completed, overdue]，最多 MAX_CACHED_USERS 个用户，按 LRU 淘汰
+     * 逾期数与日期相关，缓存跨天后自动失效；version 为加载前 InvalidationBus 中该用户的版本号。
+     */
+    private final UserCache<CachedCounts> todoCounts = new UserCache<>(MAX_CACHED_USERS);
+
+    private record CachedCounts(LocalDate day, long version, Map<Long, long[]> counts) {
+    }
 
     public Category createCategory(CategoryCreateDTO dto) {
         Category category = new Category();
         category.setName(dto.getName());
         category.setColor(dto.getColor() != null ? dto.getColor() : "#3B82F6");
         category.setIcon(dto.getIcon() != null ? dto.getIcon() : "");
-        category.setUserId(DEFAULT_USER_ID);
+        category.setUserId(SecurityUtils.getCurrentUserId());
         category.setCreatedAt(LocalDateTime.now());
 
-        return categoryRepository.save(category);
+        category = categoryRepository.save(category);
+        suggestService.onCategorySaved(category);
+        invalidationBus.publish(InvalidationBus.CATEGORY, category.getId());
+        auditLog.created(AuditLog.CATEGORY, category.getId(), category.getUserId(), AuditSnapshots.of(category));
+        return category;
     }
 
     public List<Category> getAllCategories() {
-        return categoryRepository.findByUserIdOrderByCreatedAtDesc(DEFAULT_USER_ID);
+        return categoryRepository.findByUserIdOrderByCreatedAtDesc(SecurityUtils.getCurrentUserId());
+    }
+
+    public List<CategoryWithCountsDTO> getAllCategoriesWithCounts() {
+        Map<Long, long[]> counts = getTodoCounts(SecurityUtils.getCurrentUserId());
+        return getAllCategories().stream()
+                .map(category -> CategoryWithCountsDTO.fromEntity(category, counts.get(category.getId())))
+                .toList();
+    }
+
+    /**
+     * Todo 或分类发生变化时清除该用户的计数缓存，并通知其他实例
+     *
+     * 立即清除一次；事务提交后 InvalidationBus 提升该用户的版本号，
+     * 提交前被并发读取放回缓存的旧数据因版本号落后不再使用。
+     */
+    public void evictTodoCounts(Long userId) {
+        todoCounts.remove(userId);
+        invalidationBus.publish(InvalidationBus.TODO_COUNTS, userId);
+    }
+
+    /**
+     * 其他实例广播的失效，只清除本地缓存
+     */
+    public void evictLocalTodoCounts(Long userId) {
+        todoCounts.remove(userId);
     }
 
+    private Map<Long, long[]> getTodoCounts(Long userId) {
+        LocalDate today = LocalDate.now();
+        CachedCounts cached = todoCounts.get(userId);
+        if (cached != null && cached.day().equals(today)
+                && invalidationBus.isCurrent(InvalidationBus.TODO_COUNTS, userId, cached.version())) {
+            return cached.counts();
+        }
+
+        long version = invalidationBus.version(InvalidationBus.TODO_COUNTS, userId);
+
+        Map<Long, long[]> counts = new HashMap<>();
+        for (TodoRepository.CategoryCount row : todoRepository.countByCategory(userId, today)) {
+            counts.put(row.getCategoryId(), new long[]{
+                    row.getTotal(),
+                    row.getCompleted() != null ? row.getCompleted() : 0,
+                    row.getOverdue() != null ? row.getOverdue() : 0
+            });
+        }
+        todoCounts.put(userId, new CachedCounts(today, version, counts));
+        return counts;
+    }
+
+    /**
+     * 只返回当前用户的分类，别人的分类和不存在一样返回 404
+     */
     public Category getCategoryById(Long id) {
+        Long userId = SecurityUtils.getCurrentUserId();
         return categoryRepository.findById(id)
+                .filter(category -> userId.equals(category.getUserId()))
                 .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
     }
 
     public Category updateCategory(Long id, CategoryUpdateDTO dto) {
         Category category = getCategoryById(id);
+        Map<String, Object> audited = AuditSnapshots.of(category);
 
         if (dto.getName() != null) {
             category.setName(dto.getName());
@@ -52,11 +134,34 @@ public class CategoryService {
             category.setIcon(dto.getIcon());
         }
 
-        return categoryRepository.save(category);
+        category = categoryRepository.save(category);
+        suggestService.onCategorySaved(category);
+        invalidationBus.publish(InvalidationBus.CATEGORY, category.getId());
+        auditLog.updated(AuditLog.CATEGORY, category.getId(), category.getUserId(), audited, AuditSnapshots.of(category));
+        return category;
     }
 
+    /**
+     * 集合语句删除：先把该分类下的 Todo 改为未分类，再按 (id, userId) 删除分类，
+     * 不加载 Category.todos；删除 0 行表示分类不属于当前用户。
+     * 改为未分类之前取这些 Todo 的快照，统计表里它们的贡献在同一事务里挪到未分类。
+     */
+    @Transactional
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
-        categoryRepository.delete(category);
+        Map<String, Object> audited = AuditSnapshots.of(category);
+        List<Long> todoIds = todoRepository.findIdsByCategory(id, category.getUserId());
+        if (!todoIds.isEmpty()) {
+            rollupService.recordCategoryCleared(category.getUserId(), todoRepository.findSnapshotRows(todoIds));
+        }
+        todoRepository.clearCategory(id, category.getUserId());
+        if (categoryRepository.deleteOwned(id, category.getUserId()) == 0) {
+            throw new EntityNotFoundException("Category not found with id: " + id);
+        }
+        evictTodoCounts(category.getUserId());
+        suggestService.onCategoryDeleted(category.getUserId(), id);
+        tagIndexService.onCategoryCleared(category.getUserId(), id);
+        invalidationBus.publish(InvalidationBus.CATEGORY, id);
+        auditLog.deleted(AuditLog.CATEGORY, id, category.getUserId(), audited);
     }
 }
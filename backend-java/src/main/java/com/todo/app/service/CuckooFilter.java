@@ -0,0 +1,181 @@
+package com.todo.app.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 字符串集合的 Cuckoo 过滤器：mightContain 为 false 时一定不在集合中，为 true 时可能误判
+ *
+ * - 每个桶 4 个 16 位指纹，两个候选桶 i2 = i1 ^ hash(fingerprint)，桶数为 2 的幂
+ * - 与 Bloom 过滤器相比支持删除（修改用户名 / 邮箱时去掉旧值）
+ * - 只能删除确实插入过的值，否则可能删掉其他值的指纹造成漏判
+ * - 插入时踢出次数超过 MAX_KICKS 视为已满：之后 mightContain 一律返回 true，由调用方重建更大的过滤器
+ *
+ * 非线程安全，由 AvailabilityService 加锁。
+ */
+final class CuckooFilter {
+
+    private static final int SLOTS = 4;
+    private static final int MAX_KICKS = 500;
+    private static final int MIN_BUCKETS = 1024;
+
+    /** 目标装载率，超过后应重建 */
+    static final double MAX_LOAD = 0.9;
+
+    private final short[] fingerprints;
+    private final int mask;
+    private int size;
+    private boolean saturated;
+
+    /**
+     * 按预期元素数分配，装载率留出余量
+     */
+    CuckooFilter(long expected) {
+        long buckets = Long.highestOneBit(Math.max(MIN_BUCKETS, (long) Math.ceil(expected / (SLOTS * 0.5))) * 2 - 1);
+        if (buckets * SLOTS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Cuckoo filter too large for " + expected + " elements");
+        }
+        this.fingerprints = new short[(int) buckets * SLOTS];
+        this.mask = (int) buckets - 1;
+    }
+
+    boolean add(String key) {
+        if (saturated) {
+            return false;
+        }
+        long hash = hash(key);
+        short fp = fingerprint(hash);
+        int i1 = (int) hash & mask;
+        int i2 = alternate(i1, fp);
+        if (insertInto(i1, fp) || insertInto(i2, fp)) {
+            size++;
+            return true;
+        }
+
+        int bucket = ThreadLocalRandom.current().nextBoolean() ? i1 : i2;
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int slot = bucket * SLOTS + ThreadLocalRandom.current().nextInt(SLOTS);
+            short evicted = fingerprints[slot];
+            fingerprints[slot] = fp;
+            fp = evicted;
+            bucket = alternate(bucket, fp);
+            if (insertInto(bucket, fp)) {
+                size++;
+                return true;
+            }
+        }
+        // 被踢出的指纹已无处可放，过滤器不再可靠
+        saturated = true;
+        return false;
+    }
+
+    boolean mightContain(String key) {
+        if (saturated) {
+            return true;
+        }
+        long hash = hash(key);
+        short fp = fingerprint(hash);
+        int i1 = (int) hash & mask;
+        return bucketContains(i1, fp) || bucketContains(alternate(i1, fp), fp);
+    }
+
+    /**
+     * 删除一个插入过的值（同一指纹插入多次时只删除一份）
+     */
+    boolean remove(String key) {
+        if (saturated) {
+            return false;
+        }
+        long hash = hash(key);
+        short fp = fingerprint(hash);
+        int i1 = (int) hash & mask;
+        if (removeFrom(i1, fp) || removeFrom(alternate(i1, fp), fp)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return fingerprints.length;
+    }
+
+    boolean isSaturated() {
+        return saturated;
+    }
+
+    double load() {
+        return (double) size / fingerprints.length;
+    }
+
+    /**
+     * 当前装载率下的理论误判率：一次查询比较 2 × SLOTS 个指纹，每个以 1 / 2^16 的概率相同
+     */
+    double expectedFalsePositiveRate() {
+        if (saturated) {
+            return 1.0;
+        }
+        return 1 - Math.pow(1 - 1.0 / 65535, 2.0 * SLOTS * load());
+    }
+
+    private boolean insertInto(int bucket, short fp) {
+        int base = bucket * SLOTS;
+        for (int i = base; i < base + SLOTS; i++) {
+            if (fingerprints[i] == 0) {
+                fingerprints[i] = fp;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean bucketContains(int bucket, short fp) {
+        int base = bucket * SLOTS;
+        for (int i = base; i < base + SLOTS; i++) {
+            if (fingerprints[i] == fp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean removeFrom(int bucket, short fp) {
+        int base = bucket * SLOTS;
+        for (int i = base; i < base + SLOTS; i++) {
+            if (fingerprints[i] == fp) {
+                fingerprints[i] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int alternate(int bucket, short fp) {
+        return (bucket ^ (int) mix(fp)) & mask;
+    }
+
+    /** 指纹取哈希高 16 位，0 保留为空槽 */
+    private static short fingerprint(long hash) {
+        short fp = (short) (hash >>> 48);
+        return fp == 0 ? 1 : fp;
+    }
+
+    /** FNV-1a 后再做一次 splitmix64 混合 */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
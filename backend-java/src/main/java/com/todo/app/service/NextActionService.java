@@ -0,0 +1,167 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.NextActionDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "下一步做什么"：按得分取未完成 Todo 的前 K 个，GET /api/todos/next
+ *
+ * 得分 = 优先级（HIGH 30 / MEDIUM 20 / LOW 10）
+ *      + 截止日期（逾期 41~50，逾期越久越高，10 天封顶；当天 35；之后 14 天内每天减 2；更远或没有为 0）
+ *      + 进度（progress / 10，0~10，快完成的排前面）
+ * 同分时截止日期早的在前，再按 ID。
+ *
+ * 不做全量排序：每个优先级拆成两条有序的候选流（有截止日期按日期升序、没有的按进度降序），
+ * 都直接按 idx_todos_user_next 索引顺序分页读取。每条流已读到的位置给出其余行得分的上界，
+ * 每次只从上界最高的流再取一页放入大小为 K 的小顶堆，堆顶得分不低于所有流的上界时结束。
+ * 通常每条相关的流只读一两页（每页 K 行），最后只按 ID 加载选中的 K 个 Todo。
+ */
+@Service
+@RequiredArgsConstructor
+public class NextActionService {
+
+    static final int MAX_K = 100;
+
+    private static final int MAX_DUE_POINTS = 50;
+    private static final int MAX_PROGRESS_POINTS = 10;
+
+    private final TodoRepository todoRepository;
+
+    private record Scored(Long id, int score, LocalDate dueDate) {
+    }
+
+    /** 排名靠前的在前 */
+    private static final Comparator<Scored> RANK = Comparator
+            .comparingInt(Scored::score).reversed()
+            .thenComparing(Scored::dueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Scored::id);
+
+    /**
+     * 一条候选流：某个优先级下有 / 没有截止日期的未完成 Todo
+     */
+    private final class Stream {
+        private final Todo.Priority priority;
+        private final boolean dated;
+        private int page;
+        private int bound;
+        private boolean exhausted;
+
+        private Stream(Todo.Priority priority, boolean dated) {
+            this.priority = priority;
+            this.dated = dated;
+            this.bound = priorityPoints(priority) + (dated ? MAX_DUE_POINTS : 0) + MAX_PROGRESS_POINTS;
+        }
+
+        private List<TodoRepository.NextCandidate> next(Long userId, int size, LocalDate today) {
+            PageRequest request = PageRequest.of(page++, size);
+            List<TodoRepository.NextCandidate> rows = dated
+                    ? todoRepository.findNextDated(userId, priority, request)
+                    : todoRepository.findNextUndated(userId, priority, request);
+            if (rows.size() < size) {
+                exhausted = true;
+            } else {
+                // 后面的行截止日期不早于 / 进度不高于本页最后一行
+                TodoRepository.NextCandidate last = rows.get(rows.size() - 1);
+                bound = priorityPoints(priority) + (dated
+                        ? duePoints(last.getDueDate(), today) + MAX_PROGRESS_POINTS
+                        : progressPoints(last.getProgress()));
+            }
+            return rows;
+        }
+    }
+
+    public List<NextActionDTO> next(Long userId, int k) {
+        LocalDate today = LocalDate.now();
+        List<Stream> streams = new ArrayList<>();
+        for (Todo.Priority priority : Todo.Priority.values()) {
+            streams.add(new Stream(priority, true));
+            streams.add(new Stream(priority, false));
+        }
+
+        // 小顶堆：堆顶是当前第 K 名
+        PriorityQueue<Scored> heap = new PriorityQueue<>(k + 1, RANK.reversed());
+        while (true) {
+            Stream stream = streams.stream()
+                    .filter(s -> !s.exhausted)
+                    .max(Comparator.comparingInt(s -> s.bound))
+                    .orElse(null);
+            // 剩余行的得分都不超过堆顶；与第 K 名同分的并列项按已读到的为准，不为此扫完整条流
+            if (stream == null || (heap.size() == k && heap.peek().score() >= stream.bound)) {
+                break;
+            }
+            for (TodoRepository.NextCandidate row : stream.next(userId, k, today)) {
+                heap.offer(new Scored(row.getId(), score(row, today), row.getDueDate()));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(heap);
+        ranked.sort(RANK);
+        Map<Long, Todo> todos = todoRepository.findWithSubtasksByIdIn(ranked.stream().map(Scored::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+
+        List<NextActionDTO> result = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            Todo todo = todos.get(scored.id());
+            if (todo == null) {
+                continue;
+            }
+            NextActionDTO dto = new NextActionDTO();
+            dto.setTodo(todo);
+            dto.setScore(scored.score());
+            dto.setDueInDays(scored.dueDate() != null ? (int) ChronoUnit.DAYS.between(today, scored.dueDate()) : null);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    static int score(TodoRepository.NextCandidate row, LocalDate today) {
+        return priorityPoints(row.getPriority())
+                + (row.getDueDate() != null ? duePoints(row.getDueDate(), today) : 0)
+                + progressPoints(row.getProgress());
+    }
+
+    private static int priorityPoints(Todo.Priority priority) {
+        return switch (priority) {
+            case HIGH -> 30;
+            case MEDIUM -> 20;
+            case LOW -> 10;
+        };
+    }
+
+    /**
+     * 随截止日期单调不增，候选流才能用最后一行的日期算上界
+     */
+    private static int duePoints(LocalDate dueDate, LocalDate today) {
+        long days = ChronoUnit.DAYS.between(today, dueDate);
+        if (days < 0) {
+            return 40 + (int) Math.min(-days, 10);
+        }
+        if (days == 0) {
+            return 35;
+        }
+        return (int) Math.max(0, 30 - 2 * days);
+    }
+
+    private static int progressPoints(Integer progress) {
+        int value = progress != null ? Math.max(0, Math.min(progress, 100)) : 0;
+        return value / 10;
+    }
+}
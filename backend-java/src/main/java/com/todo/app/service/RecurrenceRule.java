@@ -0,0 +1,362 @@
+package com.todo.app.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 重复规则，iCalendar RRULE 的一个子集：
+ *
+ * - FREQ=DAILY / WEEKLY / MONTHLY / YEARLY，INTERVAL（默认 1）
+ * - BYDAY=MO,WE,...（仅 WEEKLY，默认为起始日的星期），BYMONTHDAY=1,15,-1（仅 MONTHLY，负数从月末倒数）
+ * - COUNT 或 UNTIL（yyyyMMdd / yyyy-MM-dd）二选一，都没有时不结束
+ * - 可以带 "RRULE:" 前缀，也可以只写 DAILY / WEEKLY / MONTHLY / YEARLY
+ *
+ * 按周期展开：第 p 个周期从起始日所在的天 / 周（周一开始）/ 月 / 年向后 p × INTERVAL 个单位，
+ * 不存在的日期（2 月 30 日、平年 2 月 29 日）跳过，早于起始日的日期不算。
+ * 任意窗口都直接算出窗口所在的第一个周期，展开开销只与窗口长度有关，与序列已经重复了多少次无关。
+ */
+final class RecurrenceRule {
+
+    enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    /** COUNT 在写入时展开一次换算成结束日期，这里限制它的规模 */
+    static final int MAX_COUNT = 1000;
+    private static final int MAX_INTERVAL = 999;
+    /** 找下一次时最多向后看的周期数（BYMONTHDAY=31 每年有 5 个月没有，平年 2 月 29 日 8 年内必有一次） */
+    private static final int MAX_EMPTY_PERIODS = 12;
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Set<DayOfWeek> byDay;
+    private final TreeSet<Integer> byMonthDay;
+    private final Integer count;
+    private final LocalDate until;
+
+    private RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay, TreeSet<Integer> byMonthDay,
+                           Integer count, LocalDate until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.byMonthDay = byMonthDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * 解析规则文本，格式不对时抛出 IllegalArgumentException（消息可以直接返回给客户端）
+     */
+    static RecurrenceRule parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule is empty");
+        }
+        String rule = text.trim().toUpperCase(Locale.ROOT);
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring("RRULE:".length());
+        }
+        if (!rule.contains("=")) {
+            rule = "FREQ=" + rule;
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        TreeSet<Integer> byMonthDay = new TreeSet<>();
+        Integer count = null;
+        LocalDate until = null;
+        for (String part : rule.split(";")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq <= 0 || eq == part.length() - 1) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+            String key = part.substring(0, eq);
+            String value = part.substring(eq + 1);
+            switch (key) {
+                case "FREQ" -> frequency = parseFrequency(value);
+                case "INTERVAL" -> interval = parseNumber(key, value, 1, MAX_INTERVAL);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        byDay.add(parseDay(day));
+                    }
+                }
+                case "BYMONTHDAY" -> {
+                    for (String day : value.split(",")) {
+                        int monthDay = parseNumber(key, day, -31, 31);
+                        if (monthDay == 0) {
+                            throw new IllegalArgumentException("BYMONTHDAY must not be 0");
+                        }
+                        byMonthDay.add(monthDay);
+                    }
+                }
+                case "COUNT" -> count = parseNumber(key, value, 1, MAX_COUNT);
+                case "UNTIL" -> until = parseUntil(value);
+                default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + key);
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule requires FREQ");
+        }
+        if (count != null && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL must not be used together");
+        }
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (!byMonthDay.isEmpty() && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        return new RecurrenceRule(frequency, interval, byDay, byMonthDay, count, until);
+    }
+
+    /**
+     * 规范化的规则文本，保存到 todos.recurrence
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            sb.append(";INTERVAL=").append(interval);
+        }
+        if (!byDay.isEmpty()) {
+            sb.append(";BYDAY=");
+            byDay.forEach(day -> sb.append(day.name(), 0, 2).append(','));
+            sb.setLength(sb.length() - 1);
+        }
+        if (!byMonthDay.isEmpty()) {
+            sb.append(";BYMONTHDAY=");
+            byMonthDay.forEach(day -> sb.append(day).append(','));
+            sb.setLength(sb.length() - 1);
+        }
+        if (count != null) {
+            sb.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            sb.append(";UNTIL=").append(until.format(UNTIL_FORMAT));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 从 start 开始的序列的最后一天，不结束时为空。
+     * COUNT 需要逐次数出第 COUNT 次，只在保存规则时调用一次，结果存到 todos.recurrenceUntil
+     */
+    LocalDate lastDate(LocalDate start) {
+        if (until != null) {
+            LocalDate last = nextAfter(start, until, until, true);
+            return last != null ? last : until;
+        }
+        if (count == null) {
+            return null;
+        }
+        LocalDate current = start.minusDays(1);
+        for (int i = 0; i < count; i++) {
+            LocalDate next = nextAfter(start, null, current);
+            if (next == null) {
+                break;
+            }
+            current = next;
+        }
+        return current.isBefore(start) ? start : current;
+    }
+
+    /**
+     * [from, to] 内的全部日期（升序），end 为序列最后一天（可以为空）
+     */
+    List<LocalDate> between(LocalDate start, LocalDate end, LocalDate from, LocalDate to) {
+        LocalDate first = from.isBefore(start) ? start : from;
+        LocalDate last = end != null && end.isBefore(to) ? end : to;
+        List<LocalDate> dates = new ArrayList<>();
+        if (first.isAfter(last)) {
+            return dates;
+        }
+        for (long p = periodOf(start, first); !periodStart(start, p).isAfter(last); p++) {
+            for (LocalDate date : datesIn(start, p)) {
+                if (!date.isBefore(first) && !date.isAfter(last)) {
+                    dates.add(date);
+                }
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * after 之后的第一次（不含 after），序列已经结束时为空
+     */
+    LocalDate nextAfter(LocalDate start, LocalDate end, LocalDate after) {
+        return nextAfter(start, end, after, false);
+    }
+
+    /**
+     * date 是否为序列中的一次
+     */
+    boolean matches(LocalDate start, LocalDate end, LocalDate date) {
+        return date.equals(nextAfter(start, end, date.minusDays(1)));
+    }
+
+    /**
+     * backwards 为 true 时返回不晚于 after 的最后一次（用于把 UNTIL 收紧到真正的最后一次）
+     */
+    private LocalDate nextAfter(LocalDate start, LocalDate end, LocalDate after, boolean backwards) {
+        if (backwards) {
+            if (after.isBefore(start)) {
+                return null;
+            }
+            long p = periodOf(start, after);
+            for (int empty = 0; p >= 0 && empty <= MAX_EMPTY_PERIODS; p--, empty++) {
+                List<LocalDate> dates = datesIn(start, p);
+                for (int i = dates.size() - 1; i >= 0; i--) {
+                    LocalDate date = dates.get(i);
+                    if (!date.isAfter(after) && !date.isBefore(start)) {
+                        return date;
+                    }
+                }
+            }
+            return null;
+        }
+
+        LocalDate from = after.isBefore(start) ? start : after.plusDays(1);
+        long p = periodOf(start, from);
+        for (int empty = 0; empty <= MAX_EMPTY_PERIODS; p++, empty++) {
+            if (end != null && periodStart(start, p).isAfter(end)) {
+                return null;
+            }
+            for (LocalDate date : datesIn(start, p)) {
+                if (!date.isBefore(from)) {
+                    return end != null && date.isAfter(end) ? null : date;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * date 所在的周期序号（start 所在的周期为 0）
+     */
+    private long periodOf(LocalDate start, LocalDate date) {
+        long units = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(start, date);
+            case WEEKLY -> ChronoUnit.WEEKS.between(weekOf(start), weekOf(date));
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(date));
+            case YEARLY -> date.getYear() - start.getYear();
+        };
+        return Math.floorDiv(units, interval);
+    }
+
+    private LocalDate periodStart(LocalDate start, long period) {
+        long units = period * interval;
+        return switch (frequency) {
+            case DAILY -> start.plusDays(units);
+            case WEEKLY -> weekOf(start).plusWeeks(units);
+            case MONTHLY -> start.withDayOfMonth(1).plusMonths(units);
+            case YEARLY -> start.withDayOfYear(1).plusYears(units);
+        };
+    }
+
+    /**
+     * 第 period 个周期内按规则生成的日期（升序，未按 start 过滤）
+     */
+    private List<LocalDate> datesIn(LocalDate start, long period) {
+        LocalDate periodStart = periodStart(start, period);
+        List<LocalDate> dates = new ArrayList<>();
+        switch (frequency) {
+            case DAILY -> dates.add(periodStart);
+            case WEEKLY -> {
+                if (byDay.isEmpty()) {
+                    dates.add(periodStart.with(TemporalAdjusters.nextOrSame(start.getDayOfWeek())));
+                } else {
+                    for (DayOfWeek day : byDay) {
+                        dates.add(periodStart.with(TemporalAdjusters.nextOrSame(day)));
+                    }
+                }
+            }
+            case MONTHLY -> {
+                YearMonth month = YearMonth.from(periodStart);
+                if (byMonthDay.isEmpty()) {
+                    addMonthDay(dates, month, start.getDayOfMonth());
+                } else {
+                    TreeSet<LocalDate> resolved = new TreeSet<>();
+                    for (int day : byMonthDay) {
+                        int dayOfMonth = day > 0 ? day : month.lengthOfMonth() + day + 1;
+                        if (dayOfMonth >= 1 && dayOfMonth <= month.lengthOfMonth()) {
+                            resolved.add(month.atDay(dayOfMonth));
+                        }
+                    }
+                    dates.addAll(resolved);
+                }
+            }
+            case YEARLY -> {
+                YearMonth month = YearMonth.of(periodStart.getYear(), start.getMonth());
+                addMonthDay(dates, month, start.getDayOfMonth());
+            }
+        }
+        return dates;
+    }
+
+    private static void addMonthDay(List<LocalDate> dates, YearMonth month, int dayOfMonth) {
+        if (dayOfMonth <= month.lengthOfMonth()) {
+            dates.add(month.atDay(dayOfMonth));
+        }
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static Frequency parseFrequency(String value) {
+        try {
+            return Frequency.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported FREQ: " + value);
+        }
+    }
+
+    private static DayOfWeek parseDay(String value) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(value) && value.length() == 2) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported BYDAY value: " + value);
+    }
+
+    private static int parseNumber(String key, String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new IllegalArgumentException(key + " must be between " + min + " and " + max);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    private static LocalDate parseUntil(String value) {
+        // 只用到日期部分，yyyyMMddTHHmmssZ 的时间部分忽略
+        String date = value.replace("-", "");
+        if (date.length() > 8 && date.charAt(8) == 'T') {
+            date = date.substring(0, 8);
+        }
+        try {
+            return LocalDate.parse(date, UNTIL_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid UNTIL: " + value);
+        }
+    }
+}
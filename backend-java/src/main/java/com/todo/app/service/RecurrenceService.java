@@ -0,0 +1,370 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.OccurrenceUpdateDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoOccurrence;
+import com.todo.app.repository.TodoOccurrenceRepository;
+import com.todo.app.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 重复 Todo 的展开与例外记录
+ *
+ * 重复的 Todo 在 todos 里只有一行（规则、起始日、结束日），各次出现不落库：
+ * 列表、日历、统计需要时按窗口用 RecurrenceRule 展开，再用窗口内的 todo_occurrences 覆盖完成 / 修改 / 取消过的那几次。
+ * 展开的开销只与窗口长度和窗口内的例外行数有关，与序列已经重复了多少次无关。
+ *
+ * 这一行的 dueDate 始终是最早一次未完成（也未取消）的日期，所以"下一步"排行、分类计数等只看 todos 的查询不用改；
+ * 早于 dueDate 的各次都已完成或取消，晚于它的只有提前完成的那几次有例外记录。
+ */
+@Service
+@RequiredArgsConstructor
+public class RecurrenceService {
+
+    private final TodoRepository todoRepository;
+    private final TodoOccurrenceRepository occurrenceRepository;
+    private final StatisticsRollupService rollupService;
+
+    /**
+     * 展开出的一次：所属 Todo、日期和例外记录（没有完成 / 修改过时为空）
+     */
+    public record Occurrence(Todo series, LocalDate date, TodoOccurrence exception) {
+
+        public String title() {
+            return exception != null && exception.getTitle() != null ? exception.getTitle() : series.getTitle();
+        }
+
+        public Todo.Priority priority() {
+            return exception != null && exception.getPriority() != null ? exception.getPriority() : series.getPriority();
+        }
+
+        public boolean completed() {
+            return exception != null && Boolean.TRUE.equals(exception.getIsCompleted());
+        }
+    }
+
+    /**
+     * 设置或清除重复规则（recurrence 为空串时清除），从 start 开始重复，dueDate 移到第一次未完成的日期。
+     * COUNT 在这里换算成结束日期，之后的展开不再需要从头数
+     */
+    @Transactional
+    public void applyRule(Todo todo, String recurrence, LocalDate start) {
+        if (recurrence.isBlank()) {
+            if (todo.getRecurrence() != null && todo.getId() != null) {
+                occurrenceRepository.deleteByTodoIdIn(List.of(todo.getId()));
+            }
+            todo.setRecurrence(null);
+            todo.setRecurrenceStart(null);
+            todo.setRecurrenceUntil(null);
+            return;
+        }
+
+        RecurrenceRule rule = parse(recurrence);
+        LocalDate until = rule.lastDate(start);
+        LocalDate first = rule.nextAfter(start, until, start.minusDays(1));
+        if (first == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Recurrence rule has no occurrences");
+        }
+        todo.setRecurrence(rule.toString());
+        todo.setRecurrenceStart(start);
+        todo.setRecurrenceUntil(until);
+        todo.setDueDate(first);
+        if (todo.getId() != null) {
+            // 已有的例外记录保留：新规则下仍然出现的日期沿用原来的完成状态
+            todo.setIsCompleted(false);
+            todo.setCompletedAt(null);
+            moveToNextOpen(todo, start.minusDays(1));
+        }
+    }
+
+    /**
+     * 完成当前这一次（dueDate），dueDate 移到下一次未完成的；没有下一次时整个序列完成
+     */
+    @Transactional
+    public void completeCurrent(Todo todo) {
+        if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+            return;
+        }
+        LocalDate date = todo.getDueDate();
+        TodoOccurrence occurrence = occurrenceRepository.findByTodoIdAndOccurrenceDate(todo.getId(), date)
+                .orElseGet(() -> newOccurrence(todo, date));
+        occurrence.setIsCompleted(true);
+        occurrence.setCompletedAt(LocalDateTime.now());
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        occurrenceRepository.save(occurrence);
+        rollupService.recordOccurrence(todo, occurrence, 1);
+        moveToNextOpen(todo, date);
+    }
+
+    /**
+     * 整个序列已完成时重新打开最后完成的那一次
+     */
+    @Transactional
+    public void reopenLast(Todo todo) {
+        if (!Boolean.TRUE.equals(todo.getIsCompleted())) {
+            return;
+        }
+        todo.setIsCompleted(false);
+        todo.setCompletedAt(null);
+        occurrenceRepository.findFirstByTodoIdAndIsCompletedTrueOrderByOccurrenceDateDesc(todo.getId())
+                .ifPresent(occurrence -> {
+                    reopen(todo, occurrence);
+                    todo.setDueDate(occurrence.getOccurrenceDate());
+                });
+    }
+
+    /**
+     * 修改某一次：只在这一次上存例外记录，已取消的那次修改后恢复出现
+     */
+    @Transactional
+    public Occurrence updateOccurrence(Todo todo, LocalDate date, OccurrenceUpdateDTO dto) {
+        requireOccurrence(todo, date);
+        TodoOccurrence occurrence = occurrenceRepository.findByTodoIdAndOccurrenceDate(todo.getId(), date)
+                .orElseGet(() -> newOccurrence(todo, date));
+
+        if (dto.getTitle() != null) {
+            occurrence.setTitle(dto.getTitle().isBlank() ? null : dto.getTitle());
+        }
+        if (dto.getPriority() != null) {
+            occurrence.setPriority(dto.getPriority() == todo.getPriority() ? null : dto.getPriority());
+        }
+        occurrence.setCancelled(false);
+        if (dto.getIsCompleted() != null && dto.getIsCompleted() != Boolean.TRUE.equals(occurrence.getIsCompleted())) {
+            if (dto.getIsCompleted()) {
+                occurrence.setIsCompleted(true);
+                occurrence.setCompletedAt(LocalDateTime.now());
+                rollupService.recordOccurrence(todo, occurrence, 1);
+            } else {
+                rollupService.recordOccurrence(todo, occurrence, -1);
+                occurrence.setIsCompleted(false);
+                occurrence.setCompletedAt(null);
+            }
+        }
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        occurrence = saveOrDrop(occurrence);
+
+        reconcile(todo, date, occurrence != null && Boolean.TRUE.equals(occurrence.getIsCompleted()));
+        return new Occurrence(todo, date, occurrence);
+    }
+
+    /**
+     * 取消（跳过）某一次，已完成的同时撤销完成
+     */
+    @Transactional
+    public void cancelOccurrence(Todo todo, LocalDate date) {
+        requireOccurrence(todo, date);
+        TodoOccurrence occurrence = occurrenceRepository.findByTodoIdAndOccurrenceDate(todo.getId(), date)
+                .orElseGet(() -> newOccurrence(todo, date));
+        if (Boolean.TRUE.equals(occurrence.getIsCompleted())) {
+            rollupService.recordOccurrence(todo, occurrence, -1);
+            occurrence.setIsCompleted(false);
+            occurrence.setCompletedAt(null);
+        }
+        occurrence.setCancelled(true);
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        occurrenceRepository.save(occurrence);
+        reconcile(todo, date, true);
+    }
+
+    /**
+     * 在 [from, to] 内展开（已取消的不返回），按 Todo、日期排列
+     */
+    public List<Occurrence> expand(Collection<Todo> series, LocalDate from, LocalDate to) {
+        return expand(series, from, to, todo -> from);
+    }
+
+    /**
+     * 用户在 [from, to] 内逾期的各次：仍未完成、早于今天，并且晚于所属 Todo 的 dueDate
+     * （dueDate 那一次就是 todos 里的那一行，已经按普通 Todo 计入）
+     */
+    public List<Occurrence> overdueBetween(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = to.isBefore(LocalDate.now()) ? to : LocalDate.now().minusDays(1);
+        if (from.isAfter(end)) {
+            return List.of();
+        }
+        List<Todo> open = new ArrayList<>();
+        for (Todo todo : todoRepository.findSeriesBetween(userId, from, end)) {
+            if (!Boolean.TRUE.equals(todo.getIsCompleted()) && todo.getDueDate() != null
+                    && todo.getDueDate().isBefore(end)) {
+                open.add(todo);
+            }
+        }
+        List<Occurrence> overdue = new ArrayList<>();
+        for (Occurrence occurrence : expand(open, from, end, todo -> max(from, todo.getDueDate().plusDays(1)))) {
+            if (!occurrence.completed()) {
+                overdue.add(occurrence);
+            }
+        }
+        return overdue;
+    }
+
+    /**
+     * 展开出的一次转成只读的 Todo 副本（id 为所属 Todo 的 ID，occurrenceDate 为这一次的日期）
+     */
+    public Todo toTodo(Occurrence occurrence) {
+        Todo series = occurrence.series();
+        TodoOccurrence exception = occurrence.exception();
+        Todo todo = new Todo();
+        todo.setId(series.getId());
+        todo.setTitle(occurrence.title());
+        todo.setDescription(series.getDescription());
+        todo.setIsCompleted(occurrence.completed());
+        todo.setPriority(occurrence.priority());
+        todo.setDueDate(occurrence.date());
+        todo.setHasReminder(series.getHasReminder());
+        todo.setUserId(series.getUserId());
+        todo.setCategoryId(series.getCategoryId());
+        todo.setCategory(series.getCategory());
+        todo.setParentId(series.getParentId());
+        todo.setSubtasks(series.getSubtasks());
+        todo.setProgress(series.getProgress());
+        todo.setCreatedAt(series.getCreatedAt());
+        todo.setUpdatedAt(exception != null ? exception.getUpdatedAt() : series.getUpdatedAt());
+        todo.setCompletedAt(occurrence.completed() ? exception.getCompletedAt() : null);
+        todo.setTags(series.getTags());
+        todo.setRecurrence(series.getRecurrence());
+        todo.setRecurrenceStart(series.getRecurrenceStart());
+        todo.setRecurrenceUntil(series.getRecurrenceUntil());
+        todo.setOccurrenceDate(occurrence.date());
+        return todo;
+    }
+
+    static RecurrenceRule parse(String recurrence) {
+        try {
+            return RecurrenceRule.parse(recurrence);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * 每个 Todo 从 lowerBound 到 to 展开，例外记录按整个窗口一次查出
+     */
+    private List<Occurrence> expand(Collection<Todo> series, LocalDate from, LocalDate to,
+                                    Function<Todo, LocalDate> lowerBound) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        if (series.isEmpty()) {
+            return occurrences;
+        }
+        Map<Long, Map<LocalDate, TodoOccurrence>> exceptions = new HashMap<>();
+        List<Long> ids = series.stream().map(Todo::getId).toList();
+        for (TodoOccurrence exception : occurrenceRepository.findInWindow(ids, from, to)) {
+            exceptions.computeIfAbsent(exception.getTodoId(), k -> new HashMap<>())
+                    .put(exception.getOccurrenceDate(), exception);
+        }
+
+        for (Todo todo : series) {
+            if (todo.getRecurrence() == null) {
+                continue;
+            }
+            RecurrenceRule rule = RecurrenceRule.parse(todo.getRecurrence());
+            Map<LocalDate, TodoOccurrence> own = exceptions.getOrDefault(todo.getId(), Map.of());
+            for (LocalDate date : rule.between(todo.getRecurrenceStart(), todo.getRecurrenceUntil(),
+                    lowerBound.apply(todo), to)) {
+                TodoOccurrence exception = own.get(date);
+                if (exception == null || !Boolean.TRUE.equals(exception.getCancelled())) {
+                    occurrences.add(new Occurrence(todo, date, exception));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * 某一次完成 / 取消（closed）或重新打开后，维护 dueDate 为最早一次未完成的日期
+     */
+    private void reconcile(Todo todo, LocalDate date, boolean closed) {
+        if (closed) {
+            if (!Boolean.TRUE.equals(todo.getIsCompleted()) && date.equals(todo.getDueDate())) {
+                moveToNextOpen(todo, date);
+            }
+        } else if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+            todo.setIsCompleted(false);
+            todo.setCompletedAt(null);
+            todo.setDueDate(date);
+        } else if (todo.getDueDate() == null || date.isBefore(todo.getDueDate())) {
+            todo.setDueDate(date);
+        }
+    }
+
+    /**
+     * dueDate 移到 after 之后第一次未完成的；只需跳过提前完成 / 取消的那几次
+     */
+    private void moveToNextOpen(Todo todo, LocalDate after) {
+        RecurrenceRule rule = RecurrenceRule.parse(todo.getRecurrence());
+        Set<LocalDate> closed = new HashSet<>(occurrenceRepository.findClosedDatesAfter(todo.getId(), after));
+        LocalDate next = after;
+        do {
+            next = rule.nextAfter(todo.getRecurrenceStart(), todo.getRecurrenceUntil(), next);
+        } while (next != null && closed.contains(next));
+
+        if (next != null) {
+            todo.setDueDate(next);
+        } else {
+            todo.setIsCompleted(true);
+            todo.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private void reopen(Todo todo, TodoOccurrence occurrence) {
+        rollupService.recordOccurrence(todo, occurrence, -1);
+        occurrence.setIsCompleted(false);
+        occurrence.setCompletedAt(null);
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        saveOrDrop(occurrence);
+    }
+
+    /**
+     * 只有完成、修改过或取消的那一次才需要例外记录，恢复成默认状态后删除
+     */
+    private TodoOccurrence saveOrDrop(TodoOccurrence occurrence) {
+        boolean plain = !Boolean.TRUE.equals(occurrence.getIsCompleted()) && !Boolean.TRUE.equals(occurrence.getCancelled())
+                && occurrence.getTitle() == null && occurrence.getPriority() == null;
+        if (!plain) {
+            return occurrenceRepository.save(occurrence);
+        }
+        if (occurrence.getId() != null) {
+            occurrenceRepository.delete(occurrence);
+        }
+        return null;
+    }
+
+    private void requireOccurrence(Todo todo, LocalDate date) {
+        if (todo.getRecurrence() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Todo " + todo.getId() + " is not recurring");
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(todo.getRecurrence());
+        if (!rule.matches(todo.getRecurrenceStart(), todo.getRecurrenceUntil(), date)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    date + " is not an occurrence of todo " + todo.getId());
+        }
+    }
+
+    private static TodoOccurrence newOccurrence(Todo todo, LocalDate date) {
+        TodoOccurrence occurrence = new TodoOccurrence();
+        occurrence.setTodoId(todo.getId());
+        occurrence.setUserId(todo.getUserId());
+        occurrence.setOccurrenceDate(date);
+        occurrence.setCreatedAt(LocalDateTime.now());
+        return occurrence;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
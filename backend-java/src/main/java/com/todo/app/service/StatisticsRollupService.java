@@ -0,0 +1,394 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.TimeSeriesDTO;
+import com.todo.app.dto.TimeSeriesPointDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoDailyStat;
+import com.todo.app.entity.TodoOccurrence;
+import com.todo.app.repository.TodoDailyStatRepository;
+import com.todo.app.repository.TodoOccurrenceRepository;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.sharding.ShardContext;
+import com.todo.app.sharding.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 维护 todo_daily_stats 预聚合表，并基于它生成趋势数据
+ *
+ * 每个 Todo 对统计表的贡献只由它当前的状态决定（创建日、完成日、截止日、分类、优先级），
+ * 修改时计算修改前后两份贡献的差值写回，一次修改最多更新几行。
+ *
+ * 重复的 Todo：创建计一次；截止日贡献跟随当前最早一次未完成的日期（dueDate）；
+ * 完成数按每一次的完成单独记录（recordOccurrence），整个序列结束时不再重复计入。
+ */
+@Service
+public class StatisticsRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsRollupService.class);
+
+    private static final long MAX_RANGE_DAYS = 366 * 5;
+    /** 统计表重建时每页读取的 Todo / 完成记录数 */
+    private static final int BACKFILL_CHUNK = 1000;
+    private static final long BACKFILL_MARKER_USER = 0L;
+
+    private final TodoDailyStatRepository statRepository;
+    private final TodoRepository todoRepository;
+    private final TodoOccurrenceRepository occurrenceRepository;
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+    private final TransactionTemplate transaction;
+
+    public StatisticsRollupService(TodoDailyStatRepository statRepository, TodoRepository todoRepository,
+                                   TodoOccurrenceRepository occurrenceRepository,
+                                   ObjectProvider<ShardDirectory> shardDirectory,
+                                   PlatformTransactionManager transactionManager) {
+        this.statRepository = statRepository;
+        this.todoRepository = todoRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.shardDirectory = shardDirectory;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 统计相关字段的快照，在修改前后各取一次
+     */
+    public record Snapshot(Long userId, LocalDate createdOn, LocalDate completedOn, LocalDate dueDate,
+                           boolean completed, Long categoryId, Todo.Priority priority, boolean recurring) {
+
+        public static Snapshot of(Todo todo) {
+            return new Snapshot(
+                    todo.getUserId(),
+                    todo.getCreatedAt() != null ? todo.getCreatedAt().toLocalDate() : LocalDate.now(),
+                    completedOn(todo),
+                    todo.getDueDate(),
+                    Boolean.TRUE.equals(todo.getIsCompleted()),
+                    todo.getCategoryId() != null ? todo.getCategoryId() : TodoDailyStat.NO_CATEGORY,
+                    todo.getPriority() != null ? todo.getPriority() : Todo.Priority.MEDIUM,
+                    todo.getRecurrence() != null);
+        }
+
+        /**
+         * 集合语句修改 / 删除前用投影查到的行，规则与 {@link #of(Todo)} 相同
+         */
+        public static Snapshot of(TodoRepository.SnapshotRow row) {
+            boolean completed = Boolean.TRUE.equals(row.getIsCompleted());
+            return new Snapshot(
+                    row.getUserId(),
+                    row.getCreatedAt() != null ? row.getCreatedAt().toLocalDate() : LocalDate.now(),
+                    completed ? completedOn(row.getCompletedAt(), row.getUpdatedAt()) : null,
+                    row.getDueDate(),
+                    completed,
+                    row.getCategoryId() != null ? row.getCategoryId() : TodoDailyStat.NO_CATEGORY,
+                    row.getPriority() != null ? row.getPriority() : Todo.Priority.MEDIUM,
+                    row.getRecurrence() != null);
+        }
+
+        Snapshot withCategory(Long categoryId) {
+            return new Snapshot(userId, createdOn, completedOn, dueDate, completed, categoryId, priority, recurring);
+        }
+
+        private static LocalDate completedOn(Todo todo) {
+            if (!Boolean.TRUE.equals(todo.getIsCompleted())) {
+                return null;
+            }
+            return completedOn(todo.getCompletedAt(), todo.getUpdatedAt());
+        }
+
+        private static LocalDate completedOn(LocalDateTime completedAt, LocalDateTime updatedAt) {
+            LocalDateTime at = completedAt != null ? completedAt : updatedAt;
+            return at != null ? at.toLocalDate() : LocalDate.now();
+        }
+    }
+
+    private record Key(LocalDate day, Long categoryId, Todo.Priority priority) {
+    }
+
+    @Transactional
+    public void recordCreated(Todo todo) {
+        record(null, Snapshot.of(todo));
+    }
+
+    /**
+     * 删除不会抹掉历史上的"创建"和"完成"事件，只撤销仍未完成的截止日计数
+     */
+    @Transactional
+    public void recordDeleted(Snapshot snapshot) {
+        Map<Key, int[]> deltas = new HashMap<>();
+        if (!snapshot.completed() && snapshot.dueDate() != null) {
+            add(deltas, snapshot.dueDate(), snapshot, 2, -1);
+        }
+        flush(snapshot.userId(), deltas);
+    }
+
+    /**
+     * 重复 Todo 的某一次完成（sign = 1）或撤销完成（sign = -1），记在这一次的完成日上
+     */
+    @Transactional
+    public void recordOccurrence(Todo series, TodoOccurrence occurrence, int sign) {
+        Map<Key, int[]> deltas = new HashMap<>();
+        LocalDateTime at = occurrence.getCompletedAt() != null ? occurrence.getCompletedAt() : LocalDateTime.now();
+        Snapshot snapshot = occurrenceSnapshot(Snapshot.of(series), occurrence.getOccurrenceDate(),
+                occurrence.getPriority());
+        add(deltas, at.toLocalDate(), snapshot, 1, sign);
+        flush(series.getUserId(), deltas);
+    }
+
+    @Transactional
+    public void record(Snapshot before, Snapshot after) {
+        Map<Key, int[]> deltas = new HashMap<>();
+        if (before != null) {
+            contribute(deltas, before, -1);
+        }
+        contribute(deltas, after, 1);
+        flush(after.userId(), deltas);
+    }
+
+    /**
+     * 删除分类时其下的 Todo 由集合语句改为未分类：按每行修改前的快照把贡献从原分类挪到未分类，合并后一次写回
+     */
+    @Transactional
+    public void recordCategoryCleared(Long userId, List<TodoRepository.SnapshotRow> rows) {
+        Map<Key, int[]> deltas = new HashMap<>();
+        for (TodoRepository.SnapshotRow row : rows) {
+            Snapshot before = Snapshot.of(row);
+            contribute(deltas, before, -1);
+            contribute(deltas, before.withCategory(TodoDailyStat.NO_CATEGORY), 1);
+        }
+        flush(userId, deltas);
+    }
+
+    public TimeSeriesDTO getTimeSeries(Long userId, LocalDate from, LocalDate to, String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) > MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+        String unit = granularity != null ? granularity.toLowerCase() : "day";
+        if (!unit.equals("day") && !unit.equals("week") && !unit.equals("month")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be day, week or month");
+        }
+
+        // 先按桶建立连续的时间轴，没有数据的桶也返回 0
+        Map<LocalDate, TimeSeriesPointDTO> buckets = new LinkedHashMap<>();
+        for (LocalDate bucket = bucketStart(start, unit); !bucket.isAfter(end); bucket = nextBucket(bucket, unit)) {
+            TimeSeriesPointDTO point = new TimeSeriesPointDTO();
+            point.setStart(bucket);
+            point.setEnd(min(nextBucket(bucket, unit).minusDays(1), end));
+            buckets.put(bucket, point);
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstBucket = bucketStart(start, unit);
+        for (TodoDailyStat stat : statRepository.findByUserIdAndStatDateBetween(userId, firstBucket, end)) {
+            TimeSeriesPointDTO point = buckets.get(bucketStart(stat.getStatDate(), unit));
+            String priority = stat.getPriority().name().toLowerCase();
+            String category = stat.getCategoryId() == TodoDailyStat.NO_CATEGORY ? "none" : stat.getCategoryId().toString();
+
+            point.setCreated(point.getCreated() + stat.getCreated());
+            point.setCompleted(point.getCompleted() + stat.getCompleted());
+            if (stat.getStatDate().isBefore(today)) {
+                point.setOverdue(point.getOverdue() + stat.getDueOpen());
+            }
+            mergeNonZero(point.getCreatedByPriority(), priority, stat.getCreated());
+            mergeNonZero(point.getCompletedByPriority(), priority, stat.getCompleted());
+            mergeNonZero(point.getCreatedByCategory(), category, stat.getCreated());
+            mergeNonZero(point.getCompletedByCategory(), category, stat.getCompleted());
+        }
+
+        TimeSeriesDTO result = new TimeSeriesDTO();
+        result.setFrom(start);
+        result.setTo(end);
+        result.setGranularity(unit);
+        result.setPoints(new ArrayList<>(buckets.values()));
+        return result;
+    }
+
+    /**
+     * 统计表为空时（新上线或手动清空后）从 todos 全量重建一次
+     *
+     * - 分片部署时逐个分片处理（ShardContext.bindShard），每个分片一个事务，只读写该分片上的行
+     * - 先插入锁行（userId = 0，唯一键固定）：同时启动的其他实例插入同一行时等待本事务结束，随后唯一键冲突而放弃；
+     *   提交后锁行留在表里，之后启动时表不为空直接跳过。中途失败整个事务回滚，下次启动重来
+     * - todos 和各次的完成记录按 ID 键集分页读取投影，每页的增量合并后写回
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            backfill("database");
+            return;
+        }
+        for (String shard : directory.getShards()) {
+            ShardContext.bindShard(shard);
+            try {
+                backfill("shard " + shard);
+            } catch (RuntimeException e) {
+                log.warn("Backfilling daily statistics on shard {} failed, continuing with the next shard", shard, e);
+            } finally {
+                ShardContext.clear();
+            }
+        }
+    }
+
+    private void backfill(String target) {
+        long start = System.currentTimeMillis();
+        Integer todos;
+        try {
+            todos = transaction.execute(status -> {
+                if (statRepository.count() > 0) {
+                    return null;
+                }
+                statRepository.saveAndFlush(backfillMarker());
+                return backfillRows();
+            });
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            log.info("Daily statistics on {} are being backfilled by another instance", target);
+            return;
+        }
+        if (todos != null && todos > 0) {
+            log.info("Backfilled daily statistics on {} from {} todos in {} ms",
+                    target, todos, System.currentTimeMillis() - start);
+        }
+    }
+
+    private int backfillRows() {
+        int todos = 0;
+        long afterId = 0;
+        List<TodoRepository.SnapshotRow> rows;
+        do {
+            rows = todoRepository.findSnapshotRowsAfter(afterId, PageRequest.of(0, BACKFILL_CHUNK));
+            Map<Long, Map<Key, int[]>> deltas = new HashMap<>();
+            for (TodoRepository.SnapshotRow row : rows) {
+                Snapshot snapshot = Snapshot.of(row);
+                contribute(deltas.computeIfAbsent(snapshot.userId(), k -> new HashMap<>()), snapshot, 1);
+                afterId = row.getId();
+            }
+            deltas.forEach(this::flush);
+            todos += rows.size();
+        } while (rows.size() == BACKFILL_CHUNK);
+
+        afterId = 0;
+        List<TodoOccurrenceRepository.CompletedRow> occurrences;
+        do {
+            occurrences = occurrenceRepository.findCompletedAfter(afterId, PageRequest.of(0, BACKFILL_CHUNK));
+            List<Long> seriesIds = occurrences.stream()
+                    .map(TodoOccurrenceRepository.CompletedRow::getTodoId).distinct().toList();
+            Map<Long, Snapshot> series = new HashMap<>();
+            if (!seriesIds.isEmpty()) {
+                for (TodoRepository.SnapshotRow row : todoRepository.findSnapshotRows(seriesIds)) {
+                    if (row.getRecurrence() != null) {
+                        series.put(row.getId(), Snapshot.of(row));
+                    }
+                }
+            }
+            Map<Long, Map<Key, int[]>> deltas = new HashMap<>();
+            for (TodoOccurrenceRepository.CompletedRow occurrence : occurrences) {
+                Snapshot snapshot = series.get(occurrence.getTodoId());
+                if (snapshot != null) {
+                    LocalDateTime at = occurrence.getCompletedAt() != null
+                            ? occurrence.getCompletedAt() : LocalDateTime.now();
+                    add(deltas.computeIfAbsent(snapshot.userId(), k -> new HashMap<>()), at.toLocalDate(),
+                            occurrenceSnapshot(snapshot, occurrence.getOccurrenceDate(), occurrence.getPriority()),
+                            1, 1);
+                }
+                afterId = occurrence.getId();
+            }
+            deltas.forEach(this::flush);
+        } while (occurrences.size() == BACKFILL_CHUNK);
+        return todos;
+    }
+
+    /**
+     * 重建用的锁行：userId = 0 不属于任何用户，趋势查询按用户读取，不会读到它
+     */
+    private static TodoDailyStat backfillMarker() {
+        TodoDailyStat marker = new TodoDailyStat();
+        marker.setUserId(BACKFILL_MARKER_USER);
+        marker.setStatDate(LocalDate.EPOCH);
+        marker.setCategoryId(TodoDailyStat.NO_CATEGORY);
+        marker.setPriority(Todo.Priority.LOW);
+        return marker;
+    }
+
+    private void contribute(Map<Key, int[]> deltas, Snapshot snapshot, int sign) {
+        add(deltas, snapshot.createdOn(), snapshot, 0, sign);
+        if (snapshot.completed()) {
+            // 重复 Todo 的完成已按每一次记录
+            if (!snapshot.recurring()) {
+                add(deltas, snapshot.completedOn(), snapshot, 1, sign);
+            }
+        } else if (snapshot.dueDate() != null) {
+            add(deltas, snapshot.dueDate(), snapshot, 2, sign);
+        }
+    }
+
+    /**
+     * 某一次的分类取所属 Todo 的，优先级可以被这一次覆盖
+     */
+    private static Snapshot occurrenceSnapshot(Snapshot series, LocalDate occurrenceDate, Todo.Priority override) {
+        Todo.Priority priority = override != null ? override : series.priority();
+        return new Snapshot(series.userId(), series.createdOn(), null, occurrenceDate,
+                true, series.categoryId(), priority, true);
+    }
+
+    private void add(Map<Key, int[]> deltas, LocalDate day, Snapshot snapshot, int column, int delta) {
+        deltas.computeIfAbsent(new Key(day, snapshot.categoryId(), snapshot.priority()), k -> new int[3])[column] += delta;
+    }
+
+    private void flush(Long userId, Map<Key, int[]> deltas) {
+        deltas.forEach((key, d) -> {
+            if (d[0] != 0 || d[1] != 0 || d[2] != 0) {
+                statRepository.increment(userId, key.day(), key.categoryId(), key.priority().name(), d[0], d[1], d[2]);
+            }
+        });
+    }
+
+    private static void mergeNonZero(Map<String, Integer> counts, String key, int value) {
+        if (value != 0) {
+            counts.merge(key, value, Integer::sum);
+        }
+    }
+
+    private static LocalDate bucketStart(LocalDate day, String unit) {
+        return switch (unit) {
+            case "week" -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> day.withDayOfMonth(1);
+            default -> day;
+        };
+    }
+
+    private static LocalDate nextBucket(LocalDate bucket, String unit) {
+        return switch (unit) {
+            case "week" -> bucket.plusWeeks(1);
+            case "month" -> bucket.plusMonths(1);
+            default -> bucket.plusDays(1);
+        };
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,213 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.SuggestionDTO;
+import com.todo.app.dto.SuggestionsDTO;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.Todo;
+import com.todo.app.invalidation.InvalidationBus;
+import com.todo.app.repository.CategoryRepository;
+import com.todo.app.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 标题 / 分类名前缀补全：GET /api/todos/suggest
+ *
+ * 每个用户一对 SuggestionTrie（Todo 标题、分类名），第一次查询时从库中加载，
+ * 之后由 TodoService / CategoryService 在事务提交后增量维护，查询不再访问数据库。
+ * 最多缓存 MAX_CACHED_USERS 个用户的索引，按 LRU 淘汰。
+ *
+ * 排序得分 = 最近修改时间（秒）+ 优先级加成（HIGH 3 天、MEDIUM 1 天）- 已完成减 30 天，
+ * 即高优先级相当于"更新"几天，已完成的排在未完成之后。
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+    static final int MAX_LIMIT = SuggestionTrie.TOP_K;
+
+    private static final long DAY_SECONDS = 24 * 60 * 60;
+
+    static final int MAX_CACHED_USERS = 2_000;
+
+    private final TodoRepository todoRepository;
+    private final CategoryRepository categoryRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final UserCache<UserIndex> indexes = new UserCache<>(MAX_CACHED_USERS);
+
+    /**
+     * 每个用户的写入计数，用来发现加载期间发生的写入（此时加载结果可能已过期，不放入缓存）；
+     * 计数器被淘汰后重新创建的是另一个对象，加载结束时按对象比较，同样视为有写入
+     */
+    private final UserCache<AtomicLong> writeVersions = new UserCache<>(MAX_CACHED_USERS * 4);
+
+    private static final class UserIndex {
+        private final SuggestionTrie todos = new SuggestionTrie();
+        private final SuggestionTrie categories = new SuggestionTrie();
+    }
+
+    public SuggestionsDTO suggest(Long userId, String prefix, int limit) {
+        SuggestionsDTO result = new SuggestionsDTO();
+        result.setPrefix(prefix);
+        List<String> tokens = SuggestionText.tokens(prefix);
+        if (tokens.isEmpty()) {
+            return result;
+        }
+
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        UserIndex index = index(userId);
+        synchronized (index) {
+            result.setTodos(search(index.todos, tokens, n).stream().map(SuggestService::toTodoDTO).toList());
+            result.setCategories(search(index.categories, tokens, n).stream().map(SuggestService::toCategoryDTO).toList());
+        }
+        return result;
+    }
+
+    public void onTodoSaved(Todo todo) {
+        SuggestionTrie.Entry entry = new SuggestionTrie.Entry(todo.getId(), todo.getTitle(), score(todo),
+                todo.getPriority(), todo.getIsCompleted());
+        afterCommit(todo.getUserId(), index -> index.todos.put(entry));
+    }
+
+    public void onTodoDeleted(Long userId, Long todoId) {
+        afterCommit(userId, index -> index.todos.remove(todoId));
+    }
+
+    public void onCategorySaved(Category category) {
+        SuggestionTrie.Entry entry = new SuggestionTrie.Entry(category.getId(), category.getName(),
+                category.getCreatedAt().toEpochSecond(ZoneOffset.UTC), null, null);
+        afterCommit(category.getUserId(), index -> index.categories.put(entry));
+    }
+
+    public void onCategoryDeleted(Long userId, Long categoryId) {
+        afterCommit(userId, index -> index.categories.remove(categoryId));
+    }
+
+    /**
+     * 其他实例修改了该用户的 Todo / 分类：丢弃本地索引，下次查询时重新加载
+     */
+    public void evictLocalIndex(Long userId) {
+        writeVersion(userId).incrementAndGet();
+        indexes.remove(userId);
+    }
+
+    /**
+     * 单个词直接读节点上缓存的 top-K；多个词时取第一个词的子树作为候选，
+     * 再要求其余词也出现在标题中，按得分排序
+     */
+    private static List<SuggestionTrie.Entry> search(SuggestionTrie trie, List<String> tokens, int limit) {
+        String first = SuggestionText.indexedPrefix(tokens.get(0));
+        if (tokens.size() == 1 && first.length() == tokens.get(0).length()) {
+            return trie.top(first, limit);
+        }
+        return trie.all(first).stream()
+                .filter(entry -> SuggestionText.matchesAll(SuggestionText.normalize(entry.text()), tokens))
+                .sorted(Comparator.comparingLong(SuggestionTrie.Entry::score).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private UserIndex index(Long userId) {
+        UserIndex index = indexes.get(userId);
+        if (index != null) {
+            return index;
+        }
+
+        AtomicLong counter = writeVersion(userId);
+        long version = counter.get();
+        long start = System.currentTimeMillis();
+        UserIndex loaded = new UserIndex();
+        for (Todo todo : todoRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            loaded.todos.put(new SuggestionTrie.Entry(todo.getId(), todo.getTitle(), score(todo),
+                    todo.getPriority(), todo.getIsCompleted()));
+        }
+        for (Category category : categoryRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            loaded.categories.put(new SuggestionTrie.Entry(category.getId(), category.getName(),
+                    category.getCreatedAt().toEpochSecond(ZoneOffset.UTC), null, null));
+        }
+        log.debug("Built suggestion index for user {} ({} todos, {} categories) in {} ms",
+                userId, loaded.todos.size(), loaded.categories.size(), System.currentTimeMillis() - start);
+
+        // 加载期间有写入提交时不缓存，本次查询照常使用加载结果
+        if (writeVersions.get(userId) == counter && counter.get() == version) {
+            UserIndex existing = indexes.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * 事务提交后再更新索引，回滚的修改不会出现在补全结果里；
+     * 尚未加载索引的用户只记录写入次数，等第一次查询时从库中加载；其他实例整体丢弃该用户的索引
+     */
+    private void afterCommit(Long userId, Consumer<UserIndex> change) {
+        invalidationBus.publish(InvalidationBus.SUGGEST, userId);
+        Runnable apply = () -> {
+            writeVersion(userId).incrementAndGet();
+            UserIndex index = indexes.get(userId);
+            if (index != null) {
+                synchronized (index) {
+                    change.accept(index);
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private AtomicLong writeVersion(Long userId) {
+        return writeVersions.computeIfAbsent(userId, k -> new AtomicLong());
+    }
+
+    private static long score(Todo todo) {
+        LocalDateTime touched = todo.getUpdatedAt() != null ? todo.getUpdatedAt() : todo.getCreatedAt();
+        long score = touched != null ? touched.toEpochSecond(ZoneOffset.UTC) : 0;
+        if (todo.getPriority() == Todo.Priority.HIGH) {
+            score += 3 * DAY_SECONDS;
+        } else if (todo.getPriority() == Todo.Priority.MEDIUM) {
+            score += DAY_SECONDS;
+        }
+        if (Boolean.TRUE.equals(todo.getIsCompleted())) {
+            score -= 30 * DAY_SECONDS;
+        }
+        return score;
+    }
+
+    private static SuggestionDTO toTodoDTO(SuggestionTrie.Entry entry) {
+        SuggestionDTO dto = new SuggestionDTO();
+        dto.setId(entry.id());
+        dto.setText(entry.text());
+        dto.setPriority(entry.priority());
+        dto.setIsCompleted(entry.completed());
+        return dto;
+    }
+
+    private static SuggestionDTO toCategoryDTO(SuggestionTrie.Entry entry) {
+        SuggestionDTO dto = new SuggestionDTO();
+        dto.setId(entry.id());
+        dto.setText(entry.text());
+        return dto;
+    }
+}
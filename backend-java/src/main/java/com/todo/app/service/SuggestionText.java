@@ -0,0 +1,137 @@
+package com.todo.app.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 补全用的文本规范化与分词
+ *
+ * 规范化：NFKD 分解后去掉附加符号（é -> e）、全角转半角、转小写。
+ * 分词：字母数字按词切分；中日韩文字没有空格，从每个字开始取一段（最长 CJK_TERM_LENGTH 个字）
+ * 作为词项，这样输入标题中间的词也能命中。
+ */
+final class SuggestionText {
+
+    static final int MAX_TERM_LENGTH = 24;
+    static final int CJK_TERM_LENGTH = 8;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private SuggestionText() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引用的词项（去重）
+     */
+    static Set<String> terms(String text) {
+        String s = normalize(text);
+        Set<String> terms = new LinkedHashSet<>();
+        int i = 0;
+        while (i < s.length()) {
+            int end = runEnd(s, i);
+            if (end == i) {
+                i++;
+                continue;
+            }
+            if (isCjk(s.charAt(i))) {
+                for (int start = i; start < end; start++) {
+                    terms.add(s.substring(start, Math.min(end, start + CJK_TERM_LENGTH)));
+                }
+            } else {
+                terms.add(s.substring(i, Math.min(end, i + MAX_TERM_LENGTH)));
+            }
+            i = end;
+        }
+        return terms;
+    }
+
+    /**
+     * 查询用的词：连续的字母数字或连续的 CJK 文字各算一个（CJK 不再拆成后缀）
+     */
+    static List<String> tokens(String text) {
+        String s = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < s.length()) {
+            int end = runEnd(s, i);
+            if (end == i) {
+                i++;
+                continue;
+            }
+            tokens.add(s.substring(i, end));
+            i = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * 字典树中实际保存的是截断后的词项，查询前缀也要按同样的长度截断
+     */
+    static String indexedPrefix(String token) {
+        int max = isCjk(token.charAt(0)) ? CJK_TERM_LENGTH : MAX_TERM_LENGTH;
+        return token.length() > max ? token.substring(0, max) : token;
+    }
+
+    /**
+     * 规范化后的文本是否包含全部查询词：字母数字词须出现在词首，CJK 词可出现在任意位置
+     */
+    static boolean matchesAll(String normalizedText, List<String> tokens) {
+        for (String token : tokens) {
+            if (!matches(normalizedText, token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String text, String token) {
+        boolean cjk = isCjk(token.charAt(0));
+        int from = 0;
+        while (true) {
+            int at = text.indexOf(token, from);
+            if (at < 0) {
+                return false;
+            }
+            if (cjk || at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return true;
+            }
+            from = at + 1;
+        }
+    }
+
+    /**
+     * 从 start 开始的同类字符（字母数字 / CJK）连续段的结束位置
+     */
+    private static int runEnd(String s, int start) {
+        char first = s.charAt(start);
+        if (!Character.isLetterOrDigit(first)) {
+            return start;
+        }
+        boolean cjk = isCjk(first);
+        int end = start + 1;
+        while (end < s.length() && Character.isLetterOrDigit(s.charAt(end)) && isCjk(s.charAt(end)) == cjk) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,309 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.Todo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 前缀补全用的字典树（单个用户、单一类型的条目）
+ *
+ * - 每个条目按 SuggestionText.terms 拆成若干词项插入，词项结尾节点保存条目 ID（倒排表）
+ * - 子节点用有序 char[] + Node[] 保存，二分查找，不为每个字符建 HashMap
+ * - 每个节点缓存子树内得分最高的条目（最多 CACHED 个，是 TOP_K 的两倍）：插入、删除、改分时
+ *   沿旧路径和新路径就地调整。被截断过的缓存在删除后不足 TOP_K 个时才置空，下次查询到该节点时
+ *   再从子树重新计算；多缓存的一倍让连续删除 TOP_K 次以内都不需要重算
+ *
+ * 非线程安全，由 SuggestService 按用户加锁。
+ */
+final class SuggestionTrie {
+
+    static final int TOP_K = 20;
+
+    private static final int CACHED = 2 * TOP_K;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    /** priority / completed 只对 Todo 条目有值 */
+    record Entry(long id, String text, long score, Todo.Priority priority, Boolean completed) {
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private long[] postings = NO_IDS;
+        private int postingCount;
+        /** 子树内得分最高的条目（降序），null 表示需要重新计算 */
+        private long[] top = NO_IDS;
+        /** top 是否包含子树内的全部条目（从没有被截断过） */
+        private boolean complete = true;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = c;
+            newChildren[at] = node;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void addPosting(long id) {
+            if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, Math.max(2, postingCount * 2));
+            }
+            postings[postingCount++] = id;
+        }
+
+        private void removePosting(long id) {
+            for (int i = 0; i < postingCount; i++) {
+                if (postings[i] == id) {
+                    postings[i] = postings[--postingCount];
+                    if (postingCount == 0) {
+                        postings = NO_IDS;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return postingCount == 0 && keys.length == 0;
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, String[]> termsById = new HashMap<>();
+
+    int size() {
+        return entries.size();
+    }
+
+    Entry get(long id) {
+        return entries.get(id);
+    }
+
+    /**
+     * 插入或替换条目：旧路径上的节点移出该条目，新路径上的节点按新得分放入（两条路径共用的节点就地调整位置）
+     */
+    void put(Entry entry) {
+        Set<Node> oldPath = removePostings(entry.id());
+        String[] terms = SuggestionText.terms(entry.text()).toArray(String[]::new);
+        entries.put(entry.id(), entry);
+        termsById.put(entry.id(), terms);
+
+        Set<Node> newPath = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String term : terms) {
+            Node node = root;
+            newPath.add(node);
+            for (int i = 0; i < term.length(); i++) {
+                node = node.addChild(term.charAt(i));
+                newPath.add(node);
+            }
+            node.addPosting(entry.id());
+        }
+        for (Node node : oldPath) {
+            if (!newPath.contains(node)) {
+                updateTop(node, entry.id(), null);
+            }
+        }
+        for (Node node : newPath) {
+            updateTop(node, entry.id(), entry);
+        }
+    }
+
+    void remove(long id) {
+        for (Node node : removePostings(id)) {
+            updateTop(node, id, null);
+        }
+    }
+
+    /**
+     * 从倒排表中删除条目并剪掉空分支，返回它原来所在路径上的全部节点（top 缓存由调用方调整）
+     */
+    private Set<Node> removePostings(long id) {
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (entries.remove(id) == null) {
+            return visited;
+        }
+        for (String term : termsById.remove(id)) {
+            Node[] path = new Node[term.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < term.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].child(term.charAt(i));
+            }
+            Node last = path[term.length()];
+            if (last == null) {
+                continue;
+            }
+            last.removePosting(id);
+
+            for (int i = term.length(); i >= 0; i--) {
+                Node node = path[i];
+                visited.add(node);
+                // 剪掉没有条目、也没有子节点的分支
+                if (i > 0 && node.isEmpty()) {
+                    path[i - 1].removeChild(term.charAt(i - 1));
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 以 prefix 开头的词项所属条目中得分最高的 limit 个（limit 不超过 TOP_K）
+     */
+    List<Entry> top(String prefix, int limit) {
+        Node node = find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        if (node.top == null) {
+            node.top = computeTop(node);
+        }
+        List<Entry> result = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && result.size() < limit; i++) {
+            result.add(entries.get(node.top[i]));
+        }
+        return result;
+    }
+
+    /**
+     * prefix 子树内的全部条目（多词查询时作为候选集，由调用方再过滤、排序）
+     */
+    List<Entry> all(String prefix) {
+        Node node = find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        collect(node, ids);
+        List<Entry> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(entries.get(id));
+        }
+        return result;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private long[] computeTop(Node node) {
+        Set<Long> ids = new LinkedHashSet<>();
+        collect(node, ids);
+        node.complete = ids.size() <= CACHED;
+        return ids.stream()
+                .map(entries::get)
+                .sorted(Comparator.comparingLong(Entry::score).reversed())
+                .limit(CACHED)
+                .mapToLong(Entry::id)
+                .toArray();
+    }
+
+    /**
+     * 显式栈遍历子树，收集倒排表
+     */
+    private static void collect(Node start, Set<Long> ids) {
+        List<Node> stack = new ArrayList<>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            for (int i = 0; i < node.postingCount; i++) {
+                ids.add(node.postings[i]);
+            }
+            stack.addAll(Arrays.asList(node.children));
+        }
+    }
+
+    /**
+     * 调整节点的 top 缓存：先移出 id，entry 不为 null 时再按得分放回。
+     * 被截断过的缓存只收得分不低于末位的条目（更低的可能排在未缓存的条目之后），
+     * 剩余不足 TOP_K 个时置空，等查询时重算；缓存已失效（null）的节点保持失效
+     */
+    private void updateTop(Node node, long id, Entry entry) {
+        long[] top = node.top;
+        if (top == null) {
+            return;
+        }
+        int index = indexOf(top, id);
+        if (index >= 0) {
+            long[] shorter = new long[top.length - 1];
+            System.arraycopy(top, 0, shorter, 0, index);
+            System.arraycopy(top, index + 1, shorter, index, top.length - index - 1);
+            top = shorter;
+        }
+        if (entry != null) {
+            int at = top.length;
+            while (at > 0 && entries.get(top[at - 1]).score() < entry.score()) {
+                at--;
+            }
+            if (at < top.length || node.complete) {
+                long[] longer = new long[top.length + 1];
+                System.arraycopy(top, 0, longer, 0, at);
+                longer[at] = entry.id();
+                System.arraycopy(top, at, longer, at + 1, top.length - at);
+                top = longer;
+            }
+            if (top.length > CACHED) {
+                top = Arrays.copyOf(top, CACHED);
+                node.complete = false;
+            }
+        }
+        node.top = !node.complete && top.length < TOP_K ? null : top;
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
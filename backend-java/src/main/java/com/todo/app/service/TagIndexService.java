@@ -0,0 +1,407 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.TagCountDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.invalidation.InvalidationBus;
+import com.todo.app.repository.TodoRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 按标签（全部包含 / 任一包含 / 排除）组合过滤 Todo 列表
+ *
+ * 每个用户一组 RoaringBitmap：标签 -> Todo 序号，外加优先级、完成状态、分类各一组位图。
+ * 序号是 Todo ID 在该用户升序 ID 数组里的下标（稠密、从 0 开始），位图不受 ID 大小（分片的 ID 序列）影响。
+ * 过滤条件先在位图上做交 / 并 / 差得到序号集合，换回 ID 后按 ID 取行，不在 SQL 里匹配标签。
+ * 与 SuggestService 一样，第一次查询时用窄投影从库中加载，之后由 TodoService 在事务提交后增量维护；
+ * 最多缓存 MAX_CACHED_USERS 个用户的索引，按 LRU 淘汰。
+ */
+@Service
+@RequiredArgsConstructor
+public class TagIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagIndexService.class);
+
+    static final int MAX_TAGS = 20;
+    static final int MAX_TAG_LENGTH = 30;
+
+    /** 分类位图里没有分类的 Todo 用这个键 */
+    private static final long NO_CATEGORY = 0L;
+
+    static final int MAX_CACHED_USERS = 2_000;
+
+    private final TodoRepository todoRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final UserCache<UserBitmaps> indexes = new UserCache<>(MAX_CACHED_USERS);
+
+    /**
+     * 每个用户的写入计数，用来发现加载期间发生的写入（此时加载结果可能已过期，不放入缓存）；
+     * 计数器被淘汰后重新创建的是另一个对象，加载结束时按对象比较，同样视为有写入
+     */
+    private final UserCache<AtomicLong> writeVersions = new UserCache<>(MAX_CACHED_USERS * 4);
+
+    /**
+     * 过滤条件，集合为空 / 字段为 null 表示不限制；标签已规范化
+     */
+    public record Filter(Set<String> allTags, Set<String> anyTags, Set<String> noneTags,
+                         Todo.Priority priority, Long categoryId, Boolean completed) {
+
+        public boolean hasTags() {
+            return !allTags.isEmpty() || !anyTags.isEmpty() || !noneTags.isEmpty();
+        }
+
+        /**
+         * 索引在事务提交后才更新（其他实例要等失效消息），取出的行按行上的值再判断一次
+         */
+        public boolean matches(Todo todo) {
+            return matchesTags(todo.getTags())
+                    && (priority == null || priority == todo.getPriority())
+                    && (categoryId == null || categoryId.equals(todo.getCategoryId()))
+                    && (completed == null || completed.equals(todo.getIsCompleted()));
+        }
+
+        /**
+         * 不在索引里的行（归档的 Todo）按同样的标签条件逐行判断
+         */
+        public boolean matchesTags(String tags) {
+            List<String> own = split(tags);
+            return own.containsAll(allTags)
+                    && (anyTags.isEmpty() || anyTags.stream().anyMatch(own::contains))
+                    && noneTags.stream().noneMatch(own::contains);
+        }
+    }
+
+    /**
+     * 一个用户的位图。ids 是升序的 Todo ID，下标即序号；删除的 ID 留在数组里（位图中已移除），重新加载时才压缩。
+     * 不保存每行的取值：更新 / 删除时在各个位图里查找并移除该序号（一个用户的标签和分类数量有限）
+     */
+    private static final class UserBitmaps {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final RoaringBitmap completed = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> tags = new HashMap<>();
+        private final Map<Todo.Priority, RoaringBitmap> priorities = new EnumMap<>(Todo.Priority.class);
+        private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+        private long[] ids = new long[16];
+        private int size;
+
+        /**
+         * 新 ID 比已有的都大时追加；已有的 ID 返回原序号；比末尾小的新 ID 无法保持升序，返回 false
+         */
+        private boolean put(long id, List<String> tagList, Todo.Priority priority, Long categoryId, boolean done) {
+            int ordinal = ordinal(id);
+            if (ordinal < 0) {
+                if (size > 0 && id < ids[size - 1]) {
+                    return false;
+                }
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ordinal = size;
+                ids[size++] = id;
+            } else {
+                removeOrdinal(ordinal);
+            }
+            all.add(ordinal);
+            if (done) {
+                completed.add(ordinal);
+            }
+            for (String tag : tagList) {
+                tags.computeIfAbsent(tag, k -> new RoaringBitmap()).add(ordinal);
+            }
+            priorities.computeIfAbsent(priority, k -> new RoaringBitmap()).add(ordinal);
+            categories.computeIfAbsent(categoryKey(categoryId), k -> new RoaringBitmap()).add(ordinal);
+            return true;
+        }
+
+        private void remove(long id) {
+            int ordinal = ordinal(id);
+            if (ordinal >= 0) {
+                removeOrdinal(ordinal);
+            }
+        }
+
+        private void removeOrdinal(int ordinal) {
+            if (!all.contains(ordinal)) {
+                return;
+            }
+            all.remove(ordinal);
+            completed.remove(ordinal);
+            removeFromAll(tags, ordinal);
+            removeFromAll(priorities, ordinal);
+            removeFromAll(categories, ordinal);
+        }
+
+        private int ordinal(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return i >= 0 ? i : -1;
+        }
+
+        private static void removeFromAll(Map<?, RoaringBitmap> bitmaps, int ordinal) {
+            Iterator<RoaringBitmap> it = bitmaps.values().iterator();
+            while (it.hasNext()) {
+                RoaringBitmap bitmap = it.next();
+                if (bitmap.contains(ordinal)) {
+                    bitmap.remove(ordinal);
+                    if (bitmap.isEmpty()) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+
+        private RoaringBitmap get(Map<?, RoaringBitmap> bitmaps, Object key) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            return bitmap != null ? bitmap : new RoaringBitmap();
+        }
+    }
+
+    /**
+     * 满足条件的 Todo ID，升序
+     */
+    public List<Long> filter(Long userId, Filter filter) {
+        UserBitmaps index = index(userId);
+        // 结果可能就是索引里的某个位图，在锁内取出并换回 ID（序号升序即 ID 升序）
+        synchronized (index) {
+            int[] matched = evaluate(index, filter).toArray();
+            List<Long> ids = new ArrayList<>(matched.length);
+            for (int ordinal : matched) {
+                ids.add(index.ids[ordinal]);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * 该用户用过的标签及各自的 Todo 数，按数量降序
+     */
+    public List<TagCountDTO> tagCounts(Long userId) {
+        UserBitmaps index = index(userId);
+        List<TagCountDTO> counts = new ArrayList<>();
+        synchronized (index) {
+            index.tags.forEach((tag, bitmap) -> {
+                TagCountDTO dto = new TagCountDTO();
+                dto.setTag(tag);
+                dto.setCount(bitmap.cardinality());
+                counts.add(dto);
+            });
+        }
+        counts.sort(Comparator.comparingLong(TagCountDTO::getCount).reversed().thenComparing(TagCountDTO::getTag));
+        return counts;
+    }
+
+    public void onTodoSaved(Todo todo) {
+        long id = todo.getId();
+        List<String> tags = split(todo.getTags());
+        Todo.Priority priority = todo.getPriority();
+        Long categoryId = todo.getCategoryId();
+        boolean completed = Boolean.TRUE.equals(todo.getIsCompleted());
+        Long userId = todo.getUserId();
+        afterCommit(userId, index -> {
+            // 比已有 ID 小的新行（例如从归档恢复）：丢弃索引，下次查询重新按升序加载
+            if (!index.put(id, tags, priority, categoryId, completed)) {
+                indexes.remove(userId, index);
+            }
+        });
+    }
+
+    public void onTodoDeleted(Long userId, Long todoId) {
+        long id = todoId;
+        afterCommit(userId, index -> index.remove(id));
+    }
+
+    /**
+     * 删除分类时 Todo 的分类是批量置空的，这里把该分类的位图整体并入"无分类"
+     */
+    public void onCategoryCleared(Long userId, Long categoryId) {
+        afterCommit(userId, index -> {
+            RoaringBitmap moved = index.categories.remove(categoryId);
+            if (moved == null) {
+                return;
+            }
+            index.categories.merge(NO_CATEGORY, moved, RoaringBitmap::or);
+        });
+    }
+
+    /**
+     * 其他实例修改了该用户的 Todo：丢弃本地索引，下次查询时重新加载
+     */
+    public void evictLocalIndex(Long userId) {
+        writeVersion(userId).incrementAndGet();
+        indexes.remove(userId);
+    }
+
+    /**
+     * 规范化请求里的标签：去掉首尾空白、转小写、去重（保持顺序），逗号分隔存库；没有标签时为 null
+     */
+    public static String normalize(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String value = tag != null ? tag.trim().toLowerCase(Locale.ROOT) : "";
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (value.length() > MAX_TAG_LENGTH || value.contains(",")) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Tags must be at most " + MAX_TAG_LENGTH + " characters and must not contain commas");
+            }
+            normalized.add(value);
+        }
+        if (normalized.size() > MAX_TAGS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_TAGS + " tags per todo");
+        }
+        return normalized.isEmpty() ? null : String.join(",", normalized);
+    }
+
+    /**
+     * 查询参数里的标签（逗号分隔）规范化为集合
+     */
+    public static Set<String> parse(String tags) {
+        if (tags == null) {
+            return Set.of();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String tag : tags.split(",")) {
+            String value = tag.trim().toLowerCase(Locale.ROOT);
+            if (!value.isEmpty()) {
+                parsed.add(value);
+            }
+        }
+        return parsed;
+    }
+
+    static List<String> split(String tags) {
+        return tags == null || tags.isEmpty() ? List.of() : List.of(tags.split(","));
+    }
+
+    /**
+     * 先取候选：全部包含时从最小的标签位图开始逐个求交，否则是任一包含的并集，都没有时是全部；
+     * 再与任一包含的并集、优先级 / 分类位图求交，减去排除的标签和完成状态不符的
+     */
+    private static RoaringBitmap evaluate(UserBitmaps index, Filter filter) {
+        RoaringBitmap result = null;
+        if (!filter.allTags().isEmpty()) {
+            List<RoaringBitmap> required = new ArrayList<>();
+            for (String tag : filter.allTags()) {
+                required.add(index.get(index.tags, tag));
+            }
+            required.sort(Comparator.comparingLong(RoaringBitmap::cardinality));
+            result = required.get(0);
+            for (int i = 1; i < required.size() && !result.isEmpty(); i++) {
+                result = result.and(required.get(i));
+            }
+        }
+        if (!filter.anyTags().isEmpty()) {
+            RoaringBitmap any = new RoaringBitmap();
+            for (String tag : filter.anyTags()) {
+                any = any.or(index.get(index.tags, tag));
+            }
+            result = result != null ? result.and(any) : any;
+        }
+        if (result == null) {
+            result = index.all;
+        }
+        for (String tag : filter.noneTags()) {
+            RoaringBitmap excluded = index.tags.get(tag);
+            if (excluded != null) {
+                result = result.andNot(excluded);
+            }
+        }
+        if (filter.priority() != null) {
+            result = result.and(index.get(index.priorities, filter.priority()));
+        }
+        if (filter.categoryId() != null) {
+            result = result.and(index.get(index.categories, filter.categoryId()));
+        }
+        if (filter.completed() != null) {
+            result = filter.completed() ? result.and(index.completed) : result.andNot(index.completed);
+        }
+        return result;
+    }
+
+    private UserBitmaps index(Long userId) {
+        UserBitmaps index = indexes.get(userId);
+        if (index != null) {
+            return index;
+        }
+
+        AtomicLong counter = writeVersion(userId);
+        long version = counter.get();
+        long start = System.currentTimeMillis();
+        UserBitmaps loaded = new UserBitmaps();
+        List<TodoRepository.TagRow> rows = new ArrayList<>(todoRepository.findTagRows(userId));
+        rows.sort(Comparator.comparing(TodoRepository.TagRow::getId));
+        for (TodoRepository.TagRow row : rows) {
+            loaded.put(row.getId(), split(row.getTags()), row.getPriority(), row.getCategoryId(),
+                    Boolean.TRUE.equals(row.getIsCompleted()));
+        }
+        log.debug("Built tag index for user {} ({} todos, {} tags) in {} ms",
+                userId, loaded.size, loaded.tags.size(), System.currentTimeMillis() - start);
+
+        // 加载期间有写入提交时不缓存，本次查询照常使用加载结果
+        if (writeVersions.get(userId) == counter && counter.get() == version) {
+            UserBitmaps existing = indexes.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * 事务提交后再更新索引，回滚的修改不会影响过滤结果；
+     * 尚未加载索引的用户只记录写入次数，等第一次查询时从库中加载；其他实例整体丢弃该用户的索引
+     */
+    private void afterCommit(Long userId, Consumer<UserBitmaps> change) {
+        invalidationBus.publish(InvalidationBus.TAGS, userId);
+        Runnable apply = () -> {
+            writeVersion(userId).incrementAndGet();
+            UserBitmaps index = indexes.get(userId);
+            if (index != null) {
+                synchronized (index) {
+                    change.accept(index);
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private AtomicLong writeVersion(Long userId) {
+        return writeVersions.computeIfAbsent(userId, k -> new AtomicLong());
+    }
+
+    private static long categoryKey(Long categoryId) {
+        return categoryId != null ? categoryId : NO_CATEGORY;
+    }
+}
@@ -1,20 +1,44 @@
 package com.todo.app.service;
 
+import com.todo.app.audit.AuditLog;
+import com.todo.app.audit.AuditSnapshots;
 import com.todo.app.dto.*;
+import com.todo.app.entity.ArchivedSubTask;
+import com.todo.app.entity.ArchivedTodo;
+import com.todo.app.entity.Category;
 import com.todo.app.entity.SubTask;
 import com.todo.app.entity.Todo;
+import com.todo.app.repository.ArchivedSubTaskRepository;
+import com.todo.app.repository.ArchivedTodoRepository;
+import com.todo.app.repository.CategoryRepository;
 import com.todo.app.repository.SubTaskRepository;
+import com.todo.app.repository.TodoOccurrenceRepository;
 import com.todo.app.repository.TodoRepository;
+import com.todo.app.security.SecurityUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,8 +46,34 @@ public class TodoService {
 
     private final TodoRepository todoRepository;
     private final SubTaskRepository subTaskRepository;
-
-    private static final Long DEFAULT_USER_ID = 1L;
+    private final StatisticsRollupService rollupService;
+    private final CategoryService categoryService;
+    private final TodoTreeService todoTreeService;
+    private final SuggestService suggestService;
+    private final TagIndexService tagIndexService;
+    private final AuditLog auditLog;
+    private final ArchivedTodoRepository archivedTodoRepository;
+    private final ArchivedSubTaskRepository archivedSubTaskRepository;
+    private final CategoryRepository categoryRepository;
+    private final NextActionService nextActionService;
+    private final RecurrenceService recurrenceService;
+    private final TodoOccurrenceRepository occurrenceRepository;
+
+    /** 日历窗口最长天数（月视图前后补齐也不超过 6 周） */
+    private static final long MAX_CALENDAR_DAYS = 92;
+    private static final int MAX_CALENDAR_PER_DAY = 50;
+    /** 按标签过滤时每次按 ID 取行的数量 */
+    private static final int TAGGED_FETCH_CHUNK = 1000;
+    /** 分面模式一页最多的条数 */
+    private static final int MAX_FACET_PAGE_SIZE = 200;
+    /** 单个重复 Todo 一次最多展开的天数 */
+    private static final long MAX_OCCURRENCE_DAYS = 366;
+
+    /** 与 TodoRepository.findCalendar 的 ROW_NUMBER 排序一致：未完成在前，再按优先级、ID */
+    private static final Comparator<CalendarTodoDTO> CALENDAR_ORDER = Comparator
+            .comparing((CalendarTodoDTO todo) -> Boolean.TRUE.equals(todo.getIsCompleted()))
+            .thenComparing(CalendarTodoDTO::getPriority, Comparator.comparingInt(p -> -p.ordinal()))
+            .thenComparing(CalendarTodoDTO::getId);
 
     @Transactional
     public Todo createTodo(TodoCreateDTO dto) {
@@ -33,11 +83,20 @@ public class TodoService {
         todo.setPriority(dto.getPriority() != null ? dto.getPriority() : Todo.Priority.MEDIUM);
         todo.setDueDate(dto.getDueDate());
         todo.setCategoryId(dto.getCategoryId());
-        todo.setUserId(DEFAULT_USER_ID);
+        todo.setUserId(SecurityUtils.getCurrentUserId());
+        Category category = findCategory(dto.getCategoryId(), todo.getUserId());
+        todoTreeService.validateParent(dto.getParentId(), todo.getUserId());
+        todo.setParentId(dto.getParentId());
+        todo.setTags(TagIndexService.normalize(dto.getTags()));
+        if (dto.getRecurrence() != null && !dto.getRecurrence().isBlank()) {
+            recurrenceService.applyRule(todo, dto.getRecurrence(),
+                    dto.getDueDate() != null ? dto.getDueDate() : LocalDate.now());
+        }
         todo.setCreatedAt(LocalDateTime.now());
         todo.setUpdatedAt(LocalDateTime.now());
 
         todo = todoRepository.save(todo);
+        todoTreeService.onCreated(todo);
 
         if (dto.getSubtasks() != null && !dto.getSubtasks().isEmpty()) {
             for (SubTaskCreateDTO subTaskDto : dto.getSubtasks()) {
@@ -45,35 +104,265 @@ public class TodoService {
                 subTask.setTitle(subTaskDto.getTitle());
                 subTask.setTodoId(todo.getId());
                 subTask.setCreatedAt(LocalDateTime.now());
-                subTaskRepository.save(subTask);
+                subTask = subTaskRepository.save(subTask);
+                todo.getSubtasks().add(subTask);
+                auditLog.created(AuditLog.SUBTASK, subTask.getId(), todo.getUserId(), AuditSnapshots.of(subTask));
             }
 
             todo.setProgress(calculateProgress(todo.getId()));
             todo = todoRepository.save(todo);
         }
 
-        return todoRepository.findByIdWithRelations(todo.getId());
+        rollupService.recordCreated(todo);
+        categoryService.evictTodoCounts(todo.getUserId());
+        suggestService.onTodoSaved(todo);
+        tagIndexService.onTodoSaved(todo);
+        auditLog.created(AuditLog.TODO, todo.getId(), todo.getUserId(), AuditSnapshots.of(todo));
+        // 新建的实体就是持久化上下文里的那一个，再查一次也拿不到分类和子任务，直接补上
+        todo.setCategory(category);
+        return todo;
     }
 
-    public List<Todo> getAllTodos(String search, String priority, Long categoryId, Boolean isCompleted) {
+    /**
+     * includeArchived 时再用相同条件查一次归档表，合并后仍按创建时间倒序
+     *
+     * 给出 from / to 时重复的 Todo 按窗口展开：原来的一行换成窗口内的各次（按日期排列），
+     * 完成状态、优先级按每一次过滤，窗口内没有出现的重复 Todo 不返回
+     *
+     * 带标签条件（tags 全部包含、anyTags 任一包含、excludeTags 排除，均为逗号分隔）时
+     * 不走 findAllWithFilters，由 TagIndexService 的位图先算出 ID 集合再取行
+     */
+    public List<Todo> getAllTodos(String search, String priority, Long categoryId, Boolean isCompleted,
+                                  String tags, String anyTags, String excludeTags,
+                                  boolean includeArchived, LocalDate from, LocalDate to) {
         Todo.Priority priorityEnum = null;
         if (priority != null) {
             priorityEnum = Todo.Priority.valueOf(priority.toUpperCase());
         }
 
-        return todoRepository.findAllWithFilters(
-                DEFAULT_USER_ID, search, priorityEnum, categoryId, isCompleted
-        );
+        Long userId = SecurityUtils.getCurrentUserId();
+        boolean expand = from != null || to != null;
+        TagIndexService.Filter filter = new TagIndexService.Filter(TagIndexService.parse(tags),
+                TagIndexService.parse(anyTags), TagIndexService.parse(excludeTags),
+                expand ? null : priorityEnum, categoryId, expand ? null : isCompleted);
+        List<Todo> todos = filter.hasTags()
+                ? findTagged(userId, filter, search)
+                : todoRepository.findAllWithFilters(
+                        userId, search, expand ? null : priorityEnum, categoryId, expand ? null : isCompleted);
+        if (expand) {
+            todos = expandOccurrences(todos, from, to, priorityEnum, isCompleted);
+        }
+        if (!includeArchived) {
+            return todos;
+        }
+
+        List<ArchivedTodo> archived = archivedTodoRepository.findAllWithFilters(
+                userId, search, priorityEnum, categoryId, isCompleted);
+        if (filter.hasTags()) {
+            archived = archived.stream().filter(row -> filter.matchesTags(row.getTags())).toList();
+        }
+        if (archived.isEmpty()) {
+            return todos;
+        }
+        List<Todo> merged = new ArrayList<>(todos.size() + archived.size());
+        merged.addAll(todos);
+        merged.addAll(fromArchive(archived));
+        merged.sort(Comparator.comparing(Todo::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+        return merged;
+    }
+
+    /**
+     * 分面模式：去掉优先级 / 分类 / 完成状态三个条件取一次基础结果（搜索词、标签、归档照常），
+     * 遍历一遍同时得到满足全部条件的结果和三组分面计数，每组分面只检查另外两组条件。
+     * 基础结果只取窄投影（ID、标签、三个分面列、创建时间），排序截取后只按 ID 取出当前这一页的实体；
+     * 不用 Pageable 直接分页：WITH_SUBTASKS 带集合抓取，Hibernate 会取出全部行后在内存里分页。
+     * 给出 from / to 时各次出现由重复规则在内存中展开，仍按 getAllTodos 展开后的列表计数、截取
+     */
+    public FacetedTodosDTO getFacetedTodos(String search, String priority, Long categoryId, Boolean isCompleted,
+                                           String tags, String anyTags, String excludeTags,
+                                           boolean includeArchived, LocalDate from, LocalDate to,
+                                           int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_FACET_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must be >= 0 and size between 1 and " + MAX_FACET_PAGE_SIZE);
+        }
+        Todo.Priority priorityEnum = null;
+        if (priority != null) {
+            priorityEnum = Todo.Priority.valueOf(priority.toUpperCase());
+        }
+
+        boolean expand = from != null || to != null;
+        List<FacetEntry> base;
+        if (expand) {
+            base = getAllTodos(search, null, null, null, tags, anyTags, excludeTags, includeArchived, from, to)
+                    .stream().map(FacetEntry::of).toList();
+        } else {
+            base = facetEntries(SecurityUtils.getCurrentUserId(), search, tags, anyTags, excludeTags, includeArchived);
+        }
+
+        Map<String, Long> priorityCounts = new LinkedHashMap<>();
+        for (Todo.Priority level : Todo.Priority.values()) {
+            priorityCounts.put(level.name().toLowerCase(), 0L);
+        }
+        Map<String, Long> categoryCounts = new HashMap<>();
+        long completed = 0;
+        long pending = 0;
+        List<FacetEntry> matched = new ArrayList<>();
+        for (FacetEntry entry : base) {
+            boolean done = entry.completed();
+            boolean priorityMatches = priorityEnum == null || entry.priority() == priorityEnum;
+            boolean categoryMatches = categoryId == null || categoryId.equals(entry.categoryId());
+            boolean completedMatches = isCompleted == null || isCompleted == done;
+            if (categoryMatches && completedMatches) {
+                priorityCounts.merge(entry.priority().name().toLowerCase(), 1L, Long::sum);
+            }
+            if (priorityMatches && completedMatches) {
+                categoryCounts.merge(entry.categoryId() != null ? entry.categoryId().toString() : "none",
+                        1L, Long::sum);
+            }
+            if (priorityMatches && categoryMatches) {
+                if (done) {
+                    completed++;
+                } else {
+                    pending++;
+                }
+                if (completedMatches) {
+                    matched.add(entry);
+                }
+            }
+        }
+
+        TodoFacetsDTO facets = new TodoFacetsDTO();
+        facets.setPriority(priorityCounts);
+        facets.setCategories(categoryCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+        facets.setCompleted(completed);
+        facets.setPending(pending);
+
+        if (!expand) {
+            // 展开模式的列表已经是 getAllTodos 的顺序（各次按日期排列）
+            matched.sort(FacetEntry.NEWEST_FIRST);
+        }
+        int start = (int) Math.min((long) page * size, matched.size());
+        FacetedTodosDTO result = new FacetedTodosDTO();
+        result.setTodos(loadPage(matched.subList(start, Math.min(start + size, matched.size()))));
+        result.setTotal(matched.size());
+        result.setPage(page);
+        result.setSize(size);
+        result.setFacets(facets);
+        return result;
+    }
+
+    /**
+     * 分面计数用的一行：投影来的行 todo 为 null，按页取出时再加载；展开模式下直接带着已经取出的 Todo
+     */
+    private record FacetEntry(Long id, Todo.Priority priority, Long categoryId, boolean completed,
+                              LocalDateTime createdAt, boolean archived, Todo todo) {
+
+        /** 与列表接口一致按创建时间倒序，相同时按 ID 倒序，保证翻页稳定 */
+        static final Comparator<FacetEntry> NEWEST_FIRST = Comparator
+                .comparing(FacetEntry::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(FacetEntry::id, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .reversed();
+
+        static FacetEntry of(TodoRepository.FacetRow row, boolean archived) {
+            return new FacetEntry(row.getId(), row.getPriority(), row.getCategoryId(),
+                    Boolean.TRUE.equals(row.getIsCompleted()), row.getCreatedAt(), archived, null);
+        }
+
+        static FacetEntry of(Todo todo) {
+            return new FacetEntry(todo.getId(), todo.getPriority(), todo.getCategoryId(),
+                    Boolean.TRUE.equals(todo.getIsCompleted()), todo.getCreatedAt(), todo.isArchived(), todo);
+        }
+    }
+
+    /**
+     * 分面模式的基础结果（窄投影）：带标签条件时先由位图算出候选 ID，再分批取投影并按行上的标签复核；
+     * 归档表不在索引里，逐行按标签条件判断
+     */
+    private List<FacetEntry> facetEntries(Long userId, String search, String tags, String anyTags,
+                                          String excludeTags, boolean includeArchived) {
+        TagIndexService.Filter filter = new TagIndexService.Filter(TagIndexService.parse(tags),
+                TagIndexService.parse(anyTags), TagIndexService.parse(excludeTags), null, null, null);
+        List<FacetEntry> entries = new ArrayList<>();
+        if (filter.hasTags()) {
+            List<Long> ids = tagIndexService.filter(userId, filter);
+            for (int i = 0; i < ids.size(); i += TAGGED_FETCH_CHUNK) {
+                List<Long> chunk = ids.subList(i, Math.min(i + TAGGED_FETCH_CHUNK, ids.size()));
+                for (TodoRepository.FacetRow row : todoRepository.findFacetRowsByIdIn(chunk, search)) {
+                    if (filter.matchesTags(row.getTags())) {
+                        entries.add(FacetEntry.of(row, false));
+                    }
+                }
+            }
+        } else {
+            for (TodoRepository.FacetRow row : todoRepository.findFacetRows(userId, search)) {
+                entries.add(FacetEntry.of(row, false));
+            }
+        }
+        if (includeArchived) {
+            for (TodoRepository.FacetRow row : archivedTodoRepository.findFacetRows(userId, search)) {
+                if (!filter.hasTags() || filter.matchesTags(row.getTags())) {
+                    entries.add(FacetEntry.of(row, true));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 按顺序取出一页的实体：未归档的用 WITH_SUBTASKS 一次取出，归档的按 fromArchive 补上分类和子任务。
+     * 投影之后被删除的行不再返回
+     */
+    private List<Todo> loadPage(List<FacetEntry> entries) {
+        List<Long> liveIds = new ArrayList<>();
+        List<Long> archivedIds = new ArrayList<>();
+        for (FacetEntry entry : entries) {
+            if (entry.todo() == null) {
+                (entry.archived() ? archivedIds : liveIds).add(entry.id());
+            }
+        }
+        Map<Long, Todo> live = liveIds.isEmpty() ? Map.of() : todoRepository.findWithSubtasksByIdIn(liveIds)
+                .stream().collect(Collectors.toMap(Todo::getId, Function.identity()));
+        Map<Long, Todo> archived = archivedIds.isEmpty() ? Map.of()
+                : fromArchive(archivedTodoRepository.findAllById(archivedIds)).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+
+        List<Todo> todos = new ArrayList<>(entries.size());
+        for (FacetEntry entry : entries) {
+            Todo todo = entry.todo() != null ? entry.todo()
+                    : (entry.archived() ? archived : live).get(entry.id());
+            if (todo != null) {
+                todos.add(todo);
+            }
+        }
+        return todos;
+    }
+
+    /**
+     * 该用户的标签及各自的 Todo 数
+     */
+    public List<TagCountDTO> getTags() {
+        return tagIndexService.tagCounts(SecurityUtils.getCurrentUserId());
     }
 
+    /**
+     * 按 Todo.WITH_SUBTASKS 取出，详情接口和各个修改接口的响应都直接序列化这个实体；
+     * 别的用户的 Todo 和不存在一样返回 404
+     */
     public Todo getTodoById(Long id) {
-        return todoRepository.findById(id)
+        Long userId = SecurityUtils.getCurrentUserId();
+        return todoRepository.findWithSubtasksById(id)
+                .filter(todo -> userId.equals(todo.getUserId()))
                 .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + id));
     }
 
     @Transactional
     public Todo updateTodo(Long id, TodoUpdateDTO dto) {
         Todo todo = getTodoById(id);
+        StatisticsRollupService.Snapshot before = StatisticsRollupService.Snapshot.of(todo);
+        Map<String, Object> audited = AuditSnapshots.of(todo);
 
         if (dto.getTitle() != null) {
             todo.setTitle(dto.getTitle());
@@ -81,71 +370,138 @@ public class TodoService {
         if (dto.getDescription() != null) {
             todo.setDescription(dto.getDescription());
         }
-        if (dto.getIsCompleted() != null) {
-            todo.setIsCompleted(dto.getIsCompleted());
-        }
         if (dto.getPriority() != null) {
             todo.setPriority(dto.getPriority());
         }
-        if (dto.getDueDate() != null) {
+        // tags 为空数组表示清除全部标签
+        if (dto.getTags() != null) {
+            todo.setTags(TagIndexService.normalize(dto.getTags()));
+        }
+        // 重复的 Todo 修改 dueDate 相当于从新的日期重新开始重复
+        if (dto.getRecurrence() != null || (dto.getDueDate() != null && todo.getRecurrence() != null)) {
+            String recurrence = dto.getRecurrence() != null ? dto.getRecurrence() : todo.getRecurrence();
+            LocalDate start = dto.getDueDate() != null ? dto.getDueDate()
+                    : todo.getDueDate() != null ? todo.getDueDate() : LocalDate.now();
+            recurrenceService.applyRule(todo, recurrence, start);
+        }
+        if (dto.getDueDate() != null && todo.getRecurrence() == null) {
             todo.setDueDate(dto.getDueDate());
         }
+        if (dto.getIsCompleted() != null) {
+            applyCompleted(todo, dto.getIsCompleted());
+        }
         if (dto.getCategoryId() != null) {
             todo.setCategoryId(dto.getCategoryId());
+            todo.setCategory(findCategory(dto.getCategoryId(), todo.getUserId()));
         }
         if (dto.getProgress() != null) {
             todo.setProgress(dto.getProgress());
         }
 
         todo.setUpdatedAt(LocalDateTime.now());
-        return todoRepository.save(todo);
+        todo = todoRepository.save(todo);
+        rollupService.record(before, StatisticsRollupService.Snapshot.of(todo));
+        todoTreeService.onCompletionChanged(todo, before.completed());
+        categoryService.evictTodoCounts(todo.getUserId());
+        suggestService.onTodoSaved(todo);
+        tagIndexService.onTodoSaved(todo);
+        auditLog.updated(AuditLog.TODO, todo.getId(), todo.getUserId(), audited, AuditSnapshots.of(todo));
+        return todo;
     }
 
     @Transactional
     public Todo toggleTodo(Long id) {
         Todo todo = getTodoById(id);
-        todo.setIsCompleted(!todo.getIsCompleted());
+        StatisticsRollupService.Snapshot before = StatisticsRollupService.Snapshot.of(todo);
+        Map<String, Object> audited = AuditSnapshots.of(todo);
+        applyCompleted(todo, !todo.getIsCompleted());
         todo.setUpdatedAt(LocalDateTime.now());
-        return todoRepository.save(todo);
+        todo = todoRepository.save(todo);
+        rollupService.record(before, StatisticsRollupService.Snapshot.of(todo));
+        todoTreeService.onCompletionChanged(todo, before.completed());
+        categoryService.evictTodoCounts(todo.getUserId());
+        suggestService.onTodoSaved(todo);
+        tagIndexService.onTodoSaved(todo);
+        auditLog.updated(AuditLog.TODO, todo.getId(), todo.getUserId(), audited, AuditSnapshots.of(todo));
+        return todo;
     }
 
     @Transactional
     public void deleteTodo(Long id) {
-        Todo todo = getTodoById(id);
-        todoRepository.delete(todo);
+        if (deleteSubtrees(List.of(id)) == 0) {
+            throw new EntityNotFoundException("Todo not found with id: " + id);
+        }
     }
 
     @Transactional
     public void batchDeleteTodos(List<Long> ids) {
-        List<Todo> todos = todoRepository.findAllById(ids);
-        todoRepository.deleteAll(todos);
+        deleteSubtrees(ids);
+    }
+
+    @Transactional
+    public Todo moveTodo(Long id, Long parentId) {
+        Todo todo = getTodoById(id);
+        Map<String, Object> audited = AuditSnapshots.of(todo);
+        Todo moved = todoTreeService.move(todo, parentId);
+        auditLog.updated(AuditLog.TODO, moved.getId(), moved.getUserId(), audited, AuditSnapshots.of(moved));
+        return moved;
+    }
+
+    public TodoTreeDTO getTodoTree(Long id) {
+        return todoTreeService.getTree(id, SecurityUtils.getCurrentUserId());
     }
 
     @Transactional
     public List<Todo> batchUpdateTodos(List<Long> ids, Boolean isCompleted) {
-        List<Todo> todos = todoRepository.findAllById(ids);
+        Long userId = SecurityUtils.getCurrentUserId();
+        // 不属于当前用户的 ID 忽略
+        List<Todo> todos = todoRepository.findWithSubtasksByIdIn(ids).stream()
+                .filter(todo -> userId.equals(todo.getUserId()))
+                .toList();
         if (isCompleted != null) {
             for (Todo todo : todos) {
-                todo.setIsCompleted(isCompleted);
+                StatisticsRollupService.Snapshot before = StatisticsRollupService.Snapshot.of(todo);
+                Map<String, Object> audited = AuditSnapshots.of(todo);
+                applyCompleted(todo, isCompleted);
                 todo.setUpdatedAt(LocalDateTime.now());
+                rollupService.record(before, StatisticsRollupService.Snapshot.of(todo));
+                todoTreeService.onCompletionChanged(todo, before.completed());
+                suggestService.onTodoSaved(todo);
+                tagIndexService.onTodoSaved(todo);
+                auditLog.updated(AuditLog.TODO, todo.getId(), todo.getUserId(), audited, AuditSnapshots.of(todo));
             }
+            categoryService.evictTodoCounts(userId);
         }
         return todoRepository.saveAll(todos);
     }
 
     public StatisticsDTO getStatistics() {
-        List<Todo> todos = todoRepository.findByUserIdOrderByCreatedAtDesc(DEFAULT_USER_ID);
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<Todo> todos = todoRepository.findByUserIdOrderByCreatedAtDesc(userId);
+
+        // 归档的 Todo 都已完成，计入总数、完成数和优先级分布，不影响逾期数
+        int archived = 0;
+        int archivedCompleted = 0;
+        Map<Todo.Priority, Integer> archivedByPriority = new HashMap<>();
+        for (ArchivedTodoRepository.PriorityCount count : archivedTodoRepository.countByPriority(userId)) {
+            archived += count.getTotal().intValue();
+            archivedCompleted += count.getCompleted().intValue();
+            archivedByPriority.merge(count.getPriority(), count.getTotal().intValue(), Integer::sum);
+        }
 
         StatisticsDTO stats = new StatisticsDTO();
-        stats.setTotal(todos.size());
-        stats.setCompleted((int) todos.stream().filter(Todo::getIsCompleted).count());
-        stats.setPending(todos.size() - stats.getCompleted());
-        stats.setCompletionRate(todos.size() > 0 ? (stats.getCompleted() * 100 / todos.size()) : 0);
+        int total = todos.size() + archived;
+        stats.setTotal(total);
+        stats.setCompleted((int) todos.stream().filter(Todo::getIsCompleted).count() + archivedCompleted);
+        stats.setPending(total - stats.getCompleted());
+        stats.setCompletionRate(total > 0 ? (stats.getCompleted() * 100 / total) : 0);
+        stats.setArchived(archived);
 
         Map<String, Integer> priorityStats = new HashMap<>();
-        priorityStats.put("high", (int) todos.stream().filter(t -> t.getPriority() == Todo.Priority.HIGH).count());
-        priorityStats.put("medium", (int) todos.stream().filter(t -> t.getPriority() == Todo.Priority.MEDIUM).count());
-        priorityStats.put("low", (int) todos.stream().filter(t -> t.getPriority() == Todo.Priority.LOW).count());
+        for (Todo.Priority level : Todo.Priority.values()) {
+            int active = (int) todos.stream().filter(t -> t.getPriority() == level).count();
+            priorityStats.put(level.name().toLowerCase(), active + archivedByPriority.getOrDefault(level, 0));
+        }
         stats.setPriorityStats(priorityStats);
 
         LocalDate today = LocalDate.now();
@@ -153,11 +509,140 @@ public class TodoService {
                 .filter(t -> !t.getIsCompleted())
                 .filter(t -> t.getDueDate() != null && t.getDueDate().isBefore(today))
                 .count();
+        // 重复的 Todo 在 dueDate 之后、今天之前还没完成的各次也算逾期
+        LocalDate earliest = todos.stream()
+                .filter(t -> t.getRecurrence() != null && !t.getIsCompleted())
+                .map(Todo::getDueDate)
+                .filter(due -> due != null && due.isBefore(today))
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        if (earliest != null) {
+            overdueCount += recurrenceService.overdueBetween(userId, earliest.plusDays(1), today).size();
+        }
         stats.setOverdueCount((int) overdueCount);
 
         return stats;
     }
 
+    /**
+     * 按截止日期分组的日历视图，默认当月；重复的 Todo 按窗口展开后并入各天
+     */
+    public CalendarDTO getCalendar(LocalDate from, LocalDate to, int perDay) {
+        LocalDate start = from != null ? from : LocalDate.now().withDayOfMonth(1);
+        LocalDate end = to != null ? to : start.withDayOfMonth(start.lengthOfMonth());
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_CALENDAR_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid date range (at most " + MAX_CALENDAR_DAYS + " days)");
+        }
+        if (perDay < 0 || perDay > MAX_CALENDAR_PER_DAY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "perDay must be between 0 and " + MAX_CALENDAR_PER_DAY);
+        }
+
+        // perDay = 0 时仍取每天的第一行，只为拿到当天的计数
+        Long userId = SecurityUtils.getCurrentUserId();
+        Map<LocalDate, CalendarDayDTO> days = new TreeMap<>();
+        for (TodoRepository.CalendarRow row : todoRepository.findCalendar(userId, start, end, Math.max(perDay, 1))) {
+            CalendarDayDTO day = days.computeIfAbsent(row.getDueDate(), date -> {
+                CalendarDayDTO dto = new CalendarDayDTO();
+                dto.setDate(date);
+                dto.setTotal(row.getDayTotal().intValue());
+                dto.setCompleted(row.getDayCompleted() != null ? row.getDayCompleted().intValue() : 0);
+                return dto;
+            });
+            if (day.getTodos().size() < perDay) {
+                CalendarTodoDTO todo = new CalendarTodoDTO();
+                todo.setId(row.getId());
+                todo.setTitle(row.getTitle());
+                todo.setPriority(row.getPriority());
+                todo.setIsCompleted(row.getIsCompleted());
+                todo.setCategoryId(row.getCategoryId());
+                day.getTodos().add(todo);
+            }
+        }
+        mergeOccurrences(days, userId, start, end, perDay);
+        days.values().forEach(day -> day.setMore(day.getTotal() - day.getTodos().size()));
+
+        CalendarDTO calendar = new CalendarDTO();
+        calendar.setFrom(start);
+        calendar.setTo(end);
+        calendar.setPerDay(perDay);
+        calendar.setDays(new ArrayList<>(days.values()));
+        return calendar;
+    }
+
+    /**
+     * 按优先级、截止日期、进度排出的前 k 个未完成 Todo
+     */
+    public List<NextActionDTO> getNextActions(int k) {
+        if (k < 1 || k > NextActionService.MAX_K) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "k must be between 1 and " + NextActionService.MAX_K);
+        }
+        return nextActionService.next(SecurityUtils.getCurrentUserId(), k);
+    }
+
+    public SuggestionsDTO suggest(String prefix, int limit) {
+        return suggestService.suggest(SecurityUtils.getCurrentUserId(), prefix, limit);
+    }
+
+    /**
+     * 统计表里重复的 Todo 只有 dueDate 那一次的逾期计数，之后还没完成的各次在这里按窗口补上
+     */
+    public TimeSeriesDTO getStatisticsTimeSeries(LocalDate from, LocalDate to, String granularity) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        TimeSeriesDTO series = rollupService.getTimeSeries(userId, from, to, granularity);
+        if (series.getPoints().isEmpty()) {
+            return series;
+        }
+        TreeMap<LocalDate, TimeSeriesPointDTO> buckets = new TreeMap<>();
+        series.getPoints().forEach(point -> buckets.put(point.getStart(), point));
+        for (RecurrenceService.Occurrence occurrence
+                : recurrenceService.overdueBetween(userId, buckets.firstKey(), series.getTo())) {
+            TimeSeriesPointDTO point = buckets.floorEntry(occurrence.date()).getValue();
+            point.setOverdue(point.getOverdue() + 1);
+        }
+        return series;
+    }
+
+    /**
+     * 重复 Todo 在 [from, to] 内的各次（默认从当前这一次开始 30 天），包括已完成的，不包括取消的
+     */
+    public List<Todo> getOccurrences(Long id, LocalDate from, LocalDate to) {
+        Todo todo = getRecurringTodo(id);
+        LocalDate start = from != null ? from : todo.getDueDate() != null ? todo.getDueDate() : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(30);
+        checkOccurrenceWindow(start, end, MAX_OCCURRENCE_DAYS);
+        return recurrenceService.expand(List.of(todo), start, end).stream()
+                .map(recurrenceService::toTodo)
+                .toList();
+    }
+
+    /**
+     * 修改重复 Todo 的某一次（标题、优先级、完成状态），返回修改后的这一次
+     */
+    @Transactional
+    public Todo updateOccurrence(Long id, LocalDate date, OccurrenceUpdateDTO dto) {
+        Todo todo = getRecurringTodo(id);
+        StatisticsRollupService.Snapshot before = StatisticsRollupService.Snapshot.of(todo);
+        Map<String, Object> audited = AuditSnapshots.of(todo);
+        RecurrenceService.Occurrence occurrence = recurrenceService.updateOccurrence(todo, date, dto);
+        saveSeries(todo, before, audited);
+        return recurrenceService.toTodo(occurrence);
+    }
+
+    /**
+     * 取消（跳过）重复 Todo 的某一次
+     */
+    @Transactional
+    public void cancelOccurrence(Long id, LocalDate date) {
+        Todo todo = getRecurringTodo(id);
+        StatisticsRollupService.Snapshot before = StatisticsRollupService.Snapshot.of(todo);
+        Map<String, Object> audited = AuditSnapshots.of(todo);
+        recurrenceService.cancelOccurrence(todo, date);
+        saveSeries(todo, before, audited);
+    }
+
     @Transactional
     public SubTask createSubTask(Long todoId, SubTaskCreateDTO dto) {
         Todo todo = getTodoById(todoId);
@@ -173,14 +658,15 @@ public class TodoService {
         todo.setProgress(calculateProgress(todoId));
         todoRepository.save(todo);
 
+        auditLog.created(AuditLog.SUBTASK, subTask.getId(), todo.getUserId(), AuditSnapshots.of(subTask));
         return subTask;
     }
 
     @Transactional
     public SubTask toggleSubTask(Long subTaskId) {
-        SubTask subTask = subTaskRepository.findById(subTaskId)
-                .orElseThrow(() -> new EntityNotFoundException("SubTask not found with id: " + subTaskId));
+        SubTask subTask = findOwnedSubTask(subTaskId);
 
+        Map<String, Object> audited = AuditSnapshots.of(subTask);
         subTask.setIsCompleted(!subTask.getIsCompleted());
         subTask = subTaskRepository.save(subTask);
 
@@ -188,6 +674,7 @@ public class TodoService {
         if (todo != null) {
             todo.setProgress(calculateProgress(subTask.getTodoId()));
             todoRepository.save(todo);
+            auditLog.updated(AuditLog.SUBTASK, subTask.getId(), todo.getUserId(), audited, AuditSnapshots.of(subTask));
         }
 
         return subTask;
@@ -195,17 +682,307 @@ public class TodoService {
 
     @Transactional
     public void deleteSubTask(Long subTaskId) {
-        SubTask subTask = subTaskRepository.findById(subTaskId)
-                .orElseThrow(() -> new EntityNotFoundException("SubTask not found with id: " + subTaskId));
+        SubTask subTask = findOwnedSubTask(subTaskId);
 
         Long todoId = subTask.getTodoId();
+        Map<String, Object> audited = AuditSnapshots.of(subTask);
         subTaskRepository.delete(subTask);
 
         Todo todo = todoRepository.findById(todoId).orElse(null);
         if (todo != null) {
             todo.setProgress(calculateProgress(todoId));
             todoRepository.save(todo);
+            auditLog.deleted(AuditLog.SUBTASK, subTaskId, todo.getUserId(), audited);
+        }
+    }
+
+    /**
+     * 删除若干 Todo 及其所有子 Todo、子任务，返回删除的 Todo 数（不存在或不属于当前用户的 ID 忽略）
+     *
+     * 只读取 ID 和删除前快照需要的列，不加载实体和子任务集合；删除本身是集合语句：
+     * 单个 Todo 无论有多少子任务都只有两条 DELETE（子任务、Todo），子树再多一条断开父子关系的 UPDATE。
+     */
+    private int deleteSubtrees(List<Long> rootIds) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long rootId : rootIds) {
+            // 已经随某个祖先节点一起收集
+            if (!ids.contains(rootId)) {
+                ids.addAll(todoRepository.findSubtreeIds(rootId, userId));
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
         }
+
+        List<Long> idList = new ArrayList<>(ids);
+        List<TodoRepository.SnapshotRow> rows = todoRepository.findSnapshotRows(idList);
+        // 子任务随 Todo 一起用集合语句删除，审计快照要在删除前取
+        List<SubTaskRepository.AuditRow> subtasks = subTaskRepository.findAuditRowsByTodoIdIn(idList);
+        boolean nested = false;
+        for (TodoRepository.SnapshotRow row : rows) {
+            if (row.getParentId() == null || !ids.contains(row.getParentId())) {
+                // 本次删除的各棵子树的根：用聚合计数一次扣除整棵子树
+                int completed = (Boolean.TRUE.equals(row.getIsCompleted()) ? 1 : 0) + row.getDescendantsCompleted();
+                todoTreeService.onSubtreeDeleted(row.getParentId(), 1 + row.getDescendantCount(), completed);
+            } else {
+                nested = true;
+            }
+        }
+
+        subTaskRepository.deleteByTodoIdIn(idList);
+        occurrenceRepository.deleteByTodoIdIn(idList);
+        if (nested) {
+            todoRepository.detachFromParents(idList);
+        }
+        todoRepository.deleteOwned(idList, userId);
+
+        for (SubTaskRepository.AuditRow subTask : subtasks) {
+            auditLog.deleted(AuditLog.SUBTASK, subTask.getId(), userId,
+                    AuditSnapshots.subTask(subTask.getTitle(), subTask.getIsCompleted(), subTask.getTodoId()));
+        }
+        for (TodoRepository.SnapshotRow row : rows) {
+            Todo todo = fromSnapshot(row);
+            rollupService.recordDeleted(StatisticsRollupService.Snapshot.of(todo));
+            suggestService.onTodoDeleted(todo.getUserId(), todo.getId());
+            tagIndexService.onTodoDeleted(todo.getUserId(), todo.getId());
+            auditLog.deleted(AuditLog.TODO, todo.getId(), todo.getUserId(), AuditSnapshots.of(todo));
+        }
+        categoryService.evictTodoCounts(userId);
+        return rows.size();
+    }
+
+    /**
+     * 位图给出的 ID 按批取行（带分类和子任务），搜索词在内存里匹配标题 / 描述（不区分大小写），
+     * 最后与 findAllWithFilters 一样按创建时间倒序
+     */
+    private List<Todo> findTagged(Long userId, TagIndexService.Filter filter, String search) {
+        List<Long> ids = tagIndexService.filter(userId, filter);
+        String needle = search != null && !search.isEmpty() ? search.toLowerCase(Locale.ROOT) : null;
+        List<Todo> todos = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += TAGGED_FETCH_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(i + TAGGED_FETCH_CHUNK, ids.size()));
+            for (Todo todo : todoRepository.findWithSubtasksByIdIn(chunk)) {
+                if (filter.matches(todo) && (needle == null || containsIgnoreCase(todo.getTitle(), needle)
+                        || containsIgnoreCase(todo.getDescription(), needle))) {
+                    todos.add(todo);
+                }
+            }
+        }
+        todos.sort(Comparator.comparing(Todo::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+        return todos;
+    }
+
+    private static boolean containsIgnoreCase(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static Todo fromSnapshot(TodoRepository.SnapshotRow row) {
+        Todo todo = new Todo();
+        todo.setId(row.getId());
+        todo.setUserId(row.getUserId());
+        todo.setParentId(row.getParentId());
+        todo.setTitle(row.getTitle());
+        todo.setDescription(row.getDescription());
+        todo.setIsCompleted(row.getIsCompleted());
+        todo.setPriority(row.getPriority());
+        todo.setDueDate(row.getDueDate());
+        todo.setCategoryId(row.getCategoryId());
+        todo.setProgress(row.getProgress());
+        todo.setCreatedAt(row.getCreatedAt());
+        todo.setUpdatedAt(row.getUpdatedAt());
+        todo.setCompletedAt(row.getCompletedAt());
+        todo.setRecurrence(row.getRecurrence());
+        return todo;
+    }
+
+    /**
+     * 归档行转成只读的 Todo（archived = true），补上分类和归档的子任务，供列表接口统一序列化
+     */
+    private List<Todo> fromArchive(List<ArchivedTodo> rows) {
+        List<Long> ids = rows.stream().map(ArchivedTodo::getId).toList();
+        Map<Long, List<SubTask>> subtasks = new HashMap<>();
+        for (ArchivedSubTask row : archivedSubTaskRepository.findByTodoIdIn(ids)) {
+            SubTask subTask = new SubTask();
+            subTask.setId(row.getId());
+            subTask.setTitle(row.getTitle());
+            subTask.setIsCompleted(row.getIsCompleted());
+            subTask.setTodoId(row.getTodoId());
+            subTask.setCreatedAt(row.getCreatedAt());
+            subtasks.computeIfAbsent(row.getTodoId(), k -> new ArrayList<>()).add(subTask);
+        }
+        Set<Long> categoryIds = rows.stream().map(ArchivedTodo::getCategoryId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<Todo> todos = new ArrayList<>(rows.size());
+        for (ArchivedTodo row : rows) {
+            Todo todo = new Todo();
+            todo.setId(row.getId());
+            todo.setTitle(row.getTitle());
+            todo.setDescription(row.getDescription());
+            todo.setIsCompleted(row.getIsCompleted());
+            todo.setPriority(row.getPriority());
+            todo.setDueDate(row.getDueDate());
+            todo.setHasReminder(row.getHasReminder());
+            todo.setUserId(row.getUserId());
+            todo.setCategoryId(row.getCategoryId());
+            todo.setCategory(categories.get(row.getCategoryId()));
+            todo.setParentId(row.getParentId());
+            todo.setSubtasks(subtasks.getOrDefault(row.getId(), new ArrayList<>()));
+            todo.setProgress(row.getProgress());
+            todo.setCreatedAt(row.getCreatedAt());
+            todo.setUpdatedAt(row.getUpdatedAt());
+            todo.setCompletedAt(row.getCompletedAt());
+            todo.setTags(row.getTags());
+            todo.setArchived(true);
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    /**
+     * 重复的 Todo：完成是完成当前这一次并移到下一次，取消完成是重新打开整个序列最后完成的那一次
+     */
+    private void applyCompleted(Todo todo, boolean completed) {
+        if (todo.getRecurrence() == null) {
+            setCompleted(todo, completed);
+        } else if (completed) {
+            recurrenceService.completeCurrent(todo);
+        } else {
+            recurrenceService.reopenLast(todo);
+        }
+    }
+
+    /**
+     * 某一次的修改可能移动 dueDate 或结束 / 重新打开整个序列，保存后按普通修改维护统计、计数和审计
+     */
+    private void saveSeries(Todo todo, StatisticsRollupService.Snapshot before, Map<String, Object> audited) {
+        todo.setUpdatedAt(LocalDateTime.now());
+        todo = todoRepository.save(todo);
+        rollupService.record(before, StatisticsRollupService.Snapshot.of(todo));
+        todoTreeService.onCompletionChanged(todo, before.completed());
+        categoryService.evictTodoCounts(todo.getUserId());
+        suggestService.onTodoSaved(todo);
+        tagIndexService.onTodoSaved(todo);
+        auditLog.updated(AuditLog.TODO, todo.getId(), todo.getUserId(), audited, AuditSnapshots.of(todo));
+    }
+
+    private Todo getRecurringTodo(Long id) {
+        Todo todo = getTodoById(id);
+        if (todo.getRecurrence() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Todo " + id + " is not recurring");
+        }
+        return todo;
+    }
+
+    private static void checkOccurrenceWindow(LocalDate from, LocalDate to, long maxDays) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid date range (at most " + maxDays + " days)");
+        }
+    }
+
+    /**
+     * 列表接口的展开：非重复的 Todo 原样保留（按完成状态、优先级过滤），重复的换成窗口内的各次
+     */
+    private List<Todo> expandOccurrences(List<Todo> todos, LocalDate from, LocalDate to,
+                                         Todo.Priority priority, Boolean isCompleted) {
+        LocalDate start = from != null ? from : to.minusDays(30);
+        LocalDate end = to != null ? to : start.plusDays(30);
+        checkOccurrenceWindow(start, end, MAX_CALENDAR_DAYS);
+
+        List<Todo> series = todos.stream().filter(todo -> todo.getRecurrence() != null).toList();
+        Map<Long, List<Todo>> occurrences = new HashMap<>();
+        for (RecurrenceService.Occurrence occurrence : recurrenceService.expand(series, start, end)) {
+            occurrences.computeIfAbsent(occurrence.series().getId(), k -> new ArrayList<>())
+                    .add(recurrenceService.toTodo(occurrence));
+        }
+
+        List<Todo> result = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            List<Todo> expanded = todo.getRecurrence() != null
+                    ? occurrences.getOrDefault(todo.getId(), List.of())
+                    : List.of(todo);
+            for (Todo row : expanded) {
+                if ((priority == null || row.getPriority() == priority)
+                        && (isCompleted == null || isCompleted.equals(row.getIsCompleted()))) {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 日历窗口内展开重复的 Todo，计入各天的总数 / 完成数，再和原来的前 perDay 条一起排序截断
+     */
+    private void mergeOccurrences(Map<LocalDate, CalendarDayDTO> days, Long userId, LocalDate from, LocalDate to,
+                                  int perDay) {
+        List<Todo> series = todoRepository.findSeriesBetween(userId, from, to);
+        Set<CalendarDayDTO> touched = new HashSet<>();
+        for (RecurrenceService.Occurrence occurrence : recurrenceService.expand(series, from, to)) {
+            CalendarDayDTO day = days.computeIfAbsent(occurrence.date(), date -> {
+                CalendarDayDTO dto = new CalendarDayDTO();
+                dto.setDate(date);
+                return dto;
+            });
+            day.setTotal(day.getTotal() + 1);
+            if (occurrence.completed()) {
+                day.setCompleted(day.getCompleted() + 1);
+            }
+            CalendarTodoDTO todo = new CalendarTodoDTO();
+            todo.setId(occurrence.series().getId());
+            todo.setTitle(occurrence.title());
+            todo.setPriority(occurrence.priority());
+            todo.setIsCompleted(occurrence.completed());
+            todo.setCategoryId(occurrence.series().getCategoryId());
+            todo.setRecurring(true);
+            day.getTodos().add(todo);
+            touched.add(day);
+        }
+        for (CalendarDayDTO day : touched) {
+            day.getTodos().sort(CALENDAR_ORDER);
+            if (day.getTodos().size() > perDay) {
+                day.setTodos(new ArrayList<>(day.getTodos().subList(0, perDay)));
+            }
+        }
+    }
+
+    /**
+     * 修改完成状态时同步维护完成时间（趋势统计按完成时间归档）
+     */
+    private void setCompleted(Todo todo, boolean completed) {
+        if (Boolean.TRUE.equals(todo.getIsCompleted()) != completed) {
+            todo.setCompletedAt(completed ? LocalDateTime.now() : null);
+        }
+        todo.setIsCompleted(completed);
+    }
+
+    /**
+     * category 关联是只读映射（insertable = false），修改 categoryId 后由这里补上响应里的分类对象（走二级缓存）；
+     * 同时校验分类属于该用户，不能把 Todo 挂到别人的分类下
+     */
+    private Category findCategory(Long categoryId, Long userId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryRepository.findById(categoryId)
+                .filter(category -> userId.equals(category.getUserId()))
+                .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + categoryId));
+    }
+
+    /**
+     * 子任务的归属看所属的 Todo，别的用户的子任务和不存在一样返回 404
+     */
+    private SubTask findOwnedSubTask(Long subTaskId) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return subTaskRepository.findById(subTaskId)
+                .filter(subTask -> todoRepository.findById(subTask.getTodoId())
+                        .map(todo -> userId.equals(todo.getUserId()))
+                        .orElse(false))
+                .orElseThrow(() -> new EntityNotFoundException("SubTask not found with id: " + subTaskId));
     }
 
     private Integer calculateProgress(Long todoId) {
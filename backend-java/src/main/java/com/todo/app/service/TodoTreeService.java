@@ -0,0 +1,138 @@
+package com.todo.app.service;
+
+import com.todo.app.dto.TodoTreeDTO;
+import com.todo.app.dto.TodoTreeNodeDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.TodoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 层级 Todo（通过 parentId 组成的树）
+ *
+ * 每个节点保存 descendantCount / descendantsCompleted 两个子树聚合值。
+ * 新建、完成状态变化、删除、移动时只更新从父节点到根的祖先链（O(depth) 行，一条 UPDATE），
+ * 读取子树时用一次递归 CTE 查询，进度直接由聚合值算出，不需要再遍历子树。
+ */
+@Service
+@RequiredArgsConstructor
+public class TodoTreeService {
+
+    private final TodoRepository todoRepository;
+
+    public TodoTreeDTO getTree(Long rootId, Long userId) {
+        List<Todo> rows = todoRepository.findSubtree(rootId, userId);
+
+        Todo root = null;
+        Map<Long, List<Todo>> children = new HashMap<>();
+        for (Todo todo : rows) {
+            if (todo.getId().equals(rootId)) {
+                root = todo;
+            } else {
+                children.computeIfAbsent(todo.getParentId(), k -> new ArrayList<>()).add(todo);
+            }
+        }
+        if (root == null) {
+            throw new EntityNotFoundException("Todo not found with id: " + rootId);
+        }
+
+        // 显式栈做先序遍历，树再深也不会栈溢出
+        List<TodoTreeNodeDTO> nodes = new ArrayList<>(rows.size());
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{root, 0});
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            Todo todo = (Todo) entry[0];
+            int depth = (Integer) entry[1];
+            nodes.add(TodoTreeNodeDTO.fromEntity(todo, depth));
+
+            List<Todo> kids = children.get(todo.getId());
+            if (kids != null) {
+                kids.sort(Comparator.comparing(Todo::getId).reversed());
+                for (Todo kid : kids) {
+                    stack.push(new Object[]{kid, depth + 1});
+                }
+            }
+        }
+
+        TodoTreeDTO tree = new TodoTreeDTO();
+        tree.setRootId(rootId);
+        tree.setSize(nodes.size());
+        tree.setNodes(nodes);
+        return tree;
+    }
+
+    public void validateParent(Long parentId, Long userId) {
+        if (parentId == null) {
+            return;
+        }
+        Todo parent = todoRepository.findById(parentId)
+                .orElseThrow(() -> new EntityNotFoundException("Todo not found with id: " + parentId));
+        if (!parent.getUserId().equals(userId)) {
+            throw new EntityNotFoundException("Todo not found with id: " + parentId);
+        }
+    }
+
+    public void onCreated(Todo todo) {
+        adjustAncestors(todo.getParentId(), 1, Boolean.TRUE.equals(todo.getIsCompleted()) ? 1 : 0);
+    }
+
+    public void onCompletionChanged(Todo todo, boolean wasCompleted) {
+        boolean completed = Boolean.TRUE.equals(todo.getIsCompleted());
+        if (completed != wasCompleted) {
+            adjustAncestors(todo.getParentId(), 0, completed ? 1 : -1);
+        }
+    }
+
+    /**
+     * 整棵子树被删除：从祖先链上扣除子树大小（1 + descendantCount）和其中的已完成数
+     */
+    public void onSubtreeDeleted(Long parentId, int count, int completed) {
+        adjustAncestors(parentId, -count, -completed);
+    }
+
+    /**
+     * 移动节点：从旧祖先链扣除整棵子树，再加到新祖先链上
+     */
+    @Transactional
+    public Todo move(Todo todo, Long newParentId) {
+        Long oldParentId = todo.getParentId();
+        if (newParentId == null ? oldParentId == null : newParentId.equals(oldParentId)) {
+            return todo;
+        }
+
+        if (newParentId != null) {
+            validateParent(newParentId, todo.getUserId());
+            if (todoRepository.findAncestorIds(newParentId).contains(todo.getId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot move a todo under its own subtree");
+            }
+        }
+
+        int size = 1 + todo.getDescendantCount();
+        int completed = (Boolean.TRUE.equals(todo.getIsCompleted()) ? 1 : 0) + todo.getDescendantsCompleted();
+        adjustAncestors(oldParentId, -size, -completed);
+        adjustAncestors(newParentId, size, completed);
+
+        todo.setParentId(newParentId);
+        return todoRepository.save(todo);
+    }
+
+    private void adjustAncestors(Long parentId, int count, int completed) {
+        if (parentId == null || (count == 0 && completed == 0)) {
+            return;
+        }
+        todoRepository.adjustDescendantCounts(todoRepository.findAncestorIds(parentId), count, completed);
+    }
+}
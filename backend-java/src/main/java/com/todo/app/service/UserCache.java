@@ -0,0 +1,104 @@
+package com.todo.app.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 按用户缓存的本地索引 / 计数：分条带、有上限、按 LRU 淘汰（与 BucketMap 的做法相同）
+ *
+ * 每个条带是一个按访问顺序排列的 LinkedHashMap，操作在条带锁内完成；
+ * 条带满时淘汰最久未访问的用户，被淘汰的用户下次访问时从库中重新加载。
+ */
+final class UserCache<V> {
+
+    private static final int STRIPES = 16;
+
+    private final List<Stripe<V>> stripes;
+
+    private static final class Stripe<V> extends LinkedHashMap<Long, V> {
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    UserCache(int maxUsers) {
+        int perStripe = Math.max(1, (maxUsers + STRIPES - 1) / STRIPES);
+        this.stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new Stripe<>(perStripe));
+        }
+    }
+
+    V get(Long userId) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            return stripe.get(userId);
+        }
+    }
+
+    V computeIfAbsent(Long userId, Function<Long, V> factory) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(userId, factory);
+        }
+    }
+
+    /**
+     * 已有值时返回已有值，否则放入 value 并返回 null
+     */
+    V putIfAbsent(Long userId, V value) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            return stripe.putIfAbsent(userId, value);
+        }
+    }
+
+    void put(Long userId, V value) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            stripe.put(userId, value);
+        }
+    }
+
+    void remove(Long userId) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            stripe.remove(userId);
+        }
+    }
+
+    /**
+     * 只在当前值仍是 value 时删除（替换过的新值不受影响）
+     */
+    void remove(Long userId, V value) {
+        Stripe<V> stripe = stripe(userId);
+        synchronized (stripe) {
+            stripe.remove(userId, value);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<V> stripe(Long userId) {
+        return stripes.get((userId.hashCode() & 0x7FFFFFFF) % STRIPES);
+    }
+}
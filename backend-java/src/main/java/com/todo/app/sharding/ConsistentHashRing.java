@@ -0,0 +1,70 @@
+package com.todo.app.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ *
+ * 每个分片在环上放置 virtualNodes 个虚拟节点；用户 ID 哈希后顺时针找到的
+ * 第一个虚拟节点所属的分片就是该用户的分片。增加一个分片时只有约 1/N 的用户需要迁移。
+ *
+ * 环构建后不可变，可以被多个线程无锁读取。
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final List<String> shards;
+
+    public ConsistentHashRing(Collection<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shardNames);
+        for (String shard : shardNames) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hashKey(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String shardFor(long userId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(userId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 虚拟节点位置用 MD5 前 8 字节，保证不同 JVM / 不同版本间结果稳定
+     */
+    private static long hashKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 用户 ID 是连续自增的，用 SplitMix64 的终结函数打散
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,59 @@
+package com.todo.app.sharding;
+
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * 二级缓存的键带上分片名
+ *
+ * 各分片按 app.sharding.id-increment / id-offset 分配互不相交的自增序列（同一步长下余数不同），
+ * 但启用步长之前写入的旧行在不同分片上可能有相同的 ID，
+ * 只按 ID 做键会让一个分片的 Category 被另一个分片上同 ID 的请求读到。
+ * 分片名放在 Hibernate 缓存键的 tenantIdentifier 位置（应用不使用多租户，这个位置总是空的），
+ * 取分片的规则与 ShardRoutingDataSource 一致，所以缓存键和实际读写的数据源总是对应。
+ */
+public class ShardCacheKeysFactory implements CacheKeysFactory {
+
+    private final ShardDirectory directory;
+
+    public ShardCacheKeysFactory(ShardDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Object createCollectionKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory,
+                                      String tenantIdentifier) {
+        return DefaultCacheKeysFactory.staticCreateCollectionKey(id, persister, factory, directory.currentShard());
+    }
+
+    @Override
+    public Object createEntityKey(Object id, EntityPersister persister, SessionFactoryImplementor factory,
+                                  String tenantIdentifier) {
+        return DefaultCacheKeysFactory.staticCreateEntityKey(id, persister, factory, directory.currentShard());
+    }
+
+    @Override
+    public Object createNaturalIdKey(Object naturalIdValues, EntityPersister persister,
+                                     SharedSessionContractImplementor session) {
+        return DefaultCacheKeysFactory.staticCreateNaturalIdKey(naturalIdValues, persister, session);
+    }
+
+    @Override
+    public Object getEntityId(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetEntityId(cacheKey);
+    }
+
+    @Override
+    public Object getCollectionId(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetCollectionId(cacheKey);
+    }
+
+    @Override
+    public Object getNaturalIdValues(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetNaturalIdValues(cacheKey);
+    }
+}
@@ -0,0 +1,38 @@
+package com.todo.app.sharding;
+
+/**
+ * 当前线程正在处理的用户 ID，供 {@link ShardRoutingDataSource} 选择数据源
+ *
+ * 由 {@link ShardRoutingFilter} 在请求开始时绑定、结束时清除。
+ * 没有绑定用户时路由到默认分片。逐个分片执行、不针对某个用户的后台任务用 bindShard 直接指定分片，
+ * 优先于绑定的用户。
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static void bind(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static Long currentUserId() {
+        return CURRENT_USER.get();
+    }
+
+    public static void bindShard(String shard) {
+        CURRENT_SHARD.set(shard);
+    }
+
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void clear() {
+        CURRENT_USER.remove();
+        CURRENT_SHARD.remove();
+    }
+}
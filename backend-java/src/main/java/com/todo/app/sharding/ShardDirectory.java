@@ -0,0 +1,135 @@
+package com.todo.app.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 分片目录：决定某个用户的数据在哪个分片
+ *
+ * 默认由一致性哈希环计算；迁移过的用户会在 shard_directory 表（位于默认分片）
+ * 中记录一条覆盖项，启动时全部加载到内存，之后的查询不访问数据库。
+ */
+public class ShardDirectory {
+
+    private final ConsistentHashRing ring;
+    private final String defaultShard;
+    private final JdbcTemplate directoryJdbc;
+
+    private final Map<Long, String> overrides = new ConcurrentHashMap<>();
+    private final Set<Long> migrating = ConcurrentHashMap.newKeySet();
+
+    /** 按用户 ID 分条的在途写请求计数，迁移开始前要等待对应条带归零 */
+    private final AtomicIntegerArray inflightWrites = new AtomicIntegerArray(1024);
+
+    public ShardDirectory(ConsistentHashRing ring, String defaultShard, JdbcTemplate directoryJdbc) {
+        this.ring = ring;
+        this.defaultShard = defaultShard;
+        this.directoryJdbc = directoryJdbc;
+    }
+
+    public void load() {
+        directoryJdbc.execute("CREATE TABLE IF NOT EXISTS shard_directory (" +
+                "user_id BIGINT NOT NULL PRIMARY KEY, " +
+                "shard VARCHAR(64) NOT NULL)");
+        directoryJdbc.query("SELECT user_id, shard FROM shard_directory",
+                rs -> { overrides.put(rs.getLong(1), rs.getString(2)); });
+    }
+
+    public String shardFor(long userId) {
+        String pinned = overrides.get(userId);
+        return pinned != null ? pinned : ring.shardFor(userId);
+    }
+
+    public String ringShardFor(long userId) {
+        return ring.shardFor(userId);
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public List<String> getShards() {
+        return ring.getShards();
+    }
+
+    /**
+     * 当前线程绑定的分片或用户（ShardContext）所在的分片，都未绑定时为默认分片
+     */
+    public String currentShard() {
+        String shard = ShardContext.currentShard();
+        if (shard != null) {
+            return shard;
+        }
+        Long userId = ShardContext.currentUserId();
+        return userId != null ? shardFor(userId) : defaultShard;
+    }
+
+    /**
+     * 把用户固定到指定分片。先写目录表再更新内存，保证重启后仍然生效。
+     */
+    public void pin(long userId, String shard) {
+        if (shard.equals(ring.shardFor(userId))) {
+            directoryJdbc.update("DELETE FROM shard_directory WHERE user_id = ?", userId);
+            overrides.remove(userId);
+        } else {
+            directoryJdbc.update("INSERT INTO shard_directory (user_id, shard) VALUES (?, ?) " +
+                    "ON DUPLICATE KEY UPDATE shard = VALUES(shard)", userId, shard);
+            overrides.put(userId, shard);
+        }
+    }
+
+    public boolean isMigrating(long userId) {
+        return migrating.contains(userId);
+    }
+
+    /**
+     * 登记一个写请求。先计数再检查迁移标记，与 {@link #awaitNoWrites} 配合保证
+     * 迁移开始后不会再有新的写请求落到源分片。
+     */
+    public boolean tryEnterWrite(long userId) {
+        int stripe = stripe(userId);
+        inflightWrites.incrementAndGet(stripe);
+        if (migrating.contains(userId)) {
+            inflightWrites.decrementAndGet(stripe);
+            return false;
+        }
+        return true;
+    }
+
+    public void exitWrite(long userId) {
+        inflightWrites.decrementAndGet(stripe(userId));
+    }
+
+    public boolean awaitNoWrites(long userId, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        int stripe = stripe(userId);
+        while (inflightWrites.get(stripe) > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public boolean beginMigration(long userId) {
+        return migrating.add(userId);
+    }
+
+    public void endMigration(long userId) {
+        migrating.remove(userId);
+    }
+
+    public int pinnedCount() {
+        return overrides.size();
+    }
+
+    private int stripe(long userId) {
+        return (int) (userId & (inflightWrites.length() - 1));
+    }
+}
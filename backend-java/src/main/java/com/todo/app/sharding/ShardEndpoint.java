@@ -0,0 +1,57 @@
+package com.todo.app.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分片运维端点：/actuator/shards
+ *
+ * 默认不对外暴露，需要在 management.endpoints.web.exposure.include 中加入 shards。
+ * - GET  /actuator/shards            查看分片和目录状态
+ * - POST /actuator/shards            把所有用户迁回哈希环指定的分片
+ * - POST /actuator/shards/{userId}   把单个用户迁移到 body 中指定的 shard
+ */
+@Endpoint(id = "shards")
+public class ShardEndpoint {
+
+    private final ShardingProperties properties;
+    private final ShardDirectory directory;
+    private final ShardMigrationService migrationService;
+
+    public ShardEndpoint(ShardingProperties properties, ShardDirectory directory,
+                         ShardMigrationService migrationService) {
+        this.properties = properties;
+        this.directory = directory;
+        this.migrationService = migrationService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("shards", properties.getShards().keySet());
+        response.put("defaultShard", directory.getDefaultShard());
+        response.put("pinnedUsers", directory.pinnedCount());
+        return response;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebalance() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("moved", migrationService.rebalance());
+        return response;
+    }
+
+    @WriteOperation
+    public Map<String, Object> migrate(@Selector Long userId, String shard) {
+        migrationService.migrateUser(userId, shard);
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("shard", directory.shardFor(userId));
+        return response;
+    }
+}
@@ -0,0 +1,238 @@
+package com.todo.app.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * 在线迁移用户数据的工具
+ *
+ * 迁移一个用户的流程：
+ * 1. 标记用户为迁移中，新的写请求返回 503，等待在途写请求结束（读请求不受影响）
+ * 2. 在目标分片的事务中复制该用户的所有行（保留原主键，外键检查保持开启）
+ * 3. 更新分片目录，之后的请求都路由到目标分片
+ * 4. 删除源分片上的旧数据，解除迁移标记
+ *
+ * 任何一步失败都不会修改目录，用户仍然留在源分片，可以直接重试。
+ *
+ * 主键保留原值的前提是 ID 在所有分片间不重复：每个分片的连接按 app.sharding.id-increment / id-offset
+ * 设置自增步长和偏移，各分片只分配自己那一组余数的 ID，迁入的行抬高了自增值也不会改变余数。
+ * 复制前再逐批检查目标分片上是否已有同 ID 的行，有冲突（例如启用步长之前写入的旧数据）时放弃迁移。
+ */
+public class ShardMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMigrationService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long WRITE_DRAIN_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * 按用户划分的表，按外键依赖顺序排列：复制时正序，删除时倒序
+     */
+    private static final List<ShardedTable> TABLES = List.of(
+            new ShardedTable("categories",
+                    "SELECT * FROM categories WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM categories WHERE user_id = ?"),
+            new ShardedTable("todos",
+                    "SELECT * FROM todos WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM todos WHERE user_id = ?"),
+            new ShardedTable("subtasks",
+                    "SELECT s.* FROM subtasks s JOIN todos t ON s.todo_id = t.id WHERE t.user_id = ? ORDER BY s.id",
+                    "DELETE FROM subtasks WHERE todo_id IN (SELECT id FROM todos WHERE user_id = ?)"),
+            new ShardedTable("todo_occurrences",
+                    "SELECT * FROM todo_occurrences WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM todo_occurrences WHERE user_id = ?"),
+            new ShardedTable("todo_daily_stats",
+                    "SELECT * FROM todo_daily_stats WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM todo_daily_stats WHERE user_id = ?"),
+            new ShardedTable("activity_log",
+                    "SELECT * FROM activity_log WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM activity_log WHERE user_id = ?"),
+            new ShardedTable("todos_archive",
+                    "SELECT * FROM todos_archive WHERE user_id = ? ORDER BY id",
+                    "DELETE FROM todos_archive WHERE user_id = ?"),
+            new ShardedTable("subtasks_archive",
+                    "SELECT s.* FROM subtasks_archive s JOIN todos_archive t ON s.todo_id = t.id WHERE t.user_id = ? ORDER BY s.id",
+                    "DELETE FROM subtasks_archive WHERE todo_id IN (SELECT id FROM todos_archive WHERE user_id = ?)")
+    );
+
+    private final Map<String, DataSource> shards;
+    private final ShardDirectory directory;
+
+    public ShardMigrationService(Map<String, DataSource> shards, ShardDirectory directory) {
+        this.shards = shards;
+        this.directory = directory;
+    }
+
+    /**
+     * 扫描每个分片上实际存在的用户；数据不在哈希环指定分片上的用户先固定到数据所在分片，
+     * 保证修改分片配置后路由仍然正确。返回需要调用 {@link #rebalance()} 移动的用户数。
+     */
+    public int reconcile() {
+        int misplaced = 0;
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            for (Long userId : usersOn(shard.getValue())) {
+                if (!shard.getKey().equals(directory.shardFor(userId))) {
+                    directory.pin(userId, shard.getKey());
+                }
+                if (!shard.getKey().equals(directory.ringShardFor(userId))) {
+                    misplaced++;
+                }
+            }
+        }
+        return misplaced;
+    }
+
+    /**
+     * 把所有被固定在非哈希环分片上的用户迁回哈希环指定的分片
+     */
+    public int rebalance() {
+        int moved = 0;
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            for (Long userId : usersOn(shard.getValue())) {
+                String target = directory.ringShardFor(userId);
+                if (!shard.getKey().equals(target)) {
+                    migrateUser(userId, target);
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    public void migrateUser(long userId, String targetShard) {
+        DataSource target = shards.get(targetShard);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+        String sourceShard = directory.shardFor(userId);
+        if (sourceShard.equals(targetShard)) {
+            return;
+        }
+        if (!directory.beginMigration(userId)) {
+            throw new IllegalStateException("User " + userId + " is already being migrated");
+        }
+
+        try {
+            if (!directory.awaitNoWrites(userId, WRITE_DRAIN_TIMEOUT_MILLIS)) {
+                throw new IllegalStateException("Timed out waiting for in-flight writes of user " + userId);
+            }
+
+            JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(sourceShard));
+            long start = System.currentTimeMillis();
+
+            inTransaction(target, targetJdbc -> {
+                deleteRows(targetJdbc, userId);
+                for (ShardedTable table : TABLES) {
+                    copyRows(sourceJdbc, targetJdbc, table, userId);
+                }
+            });
+
+            directory.pin(userId, targetShard);
+
+            inTransaction(shards.get(sourceShard), sourceTx -> deleteRows(sourceTx, userId));
+
+            log.info("Migrated user {} from shard {} to {} in {} ms",
+                    userId, sourceShard, targetShard, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration of user " + userId + " interrupted", e);
+        } finally {
+            directory.endMigration(userId);
+        }
+    }
+
+    private void copyRows(JdbcTemplate source, JdbcTemplate target, ShardedTable table, long userId) {
+        List<Map<String, Object>> rows = source.queryForList(table.selectSql(), userId);
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (table.name().equals("todos")) {
+            rows = parentsFirst(rows);
+        }
+
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table.name() + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Map<String, Object>> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            checkNoCollision(target, table, chunk);
+            List<Object[]> batch = chunk.stream()
+                    .map(row -> columns.stream().map(row::get).toArray())
+                    .toList();
+            target.batchUpdate(sql, batch);
+        }
+    }
+
+    /**
+     * 目标分片上该用户的旧行已经删掉，剩下的同 ID 行一定属于别的用户，覆盖或跳过都会丢数据，只能放弃迁移
+     */
+    private void checkNoCollision(JdbcTemplate target, ShardedTable table, List<Map<String, Object>> chunk) {
+        List<Object> ids = chunk.stream().map(row -> row.get("id")).toList();
+        String sql = "SELECT id FROM " + table.name() + " WHERE id IN ("
+                + String.join(", ", ids.stream().map(id -> "?").toList()) + ")";
+        List<Long> existing = target.queryForList(sql, Long.class, ids.toArray());
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("Id collision in " + table.name() + " on target shard: " + existing);
+        }
+    }
+
+    /**
+     * todos.parent_id 是自引用外键，外键检查开启时父节点必须先插入：按层从根节点往下排
+     */
+    private static List<Map<String, Object>> parentsFirst(List<Map<String, Object>> rows) {
+        Map<Object, List<Map<String, Object>>> children = new HashMap<>();
+        Set<Object> ids = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            ids.add(row.get("id"));
+        }
+        List<Map<String, Object>> ordered = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Object parentId = row.get("parent_id");
+            if (parentId == null || !ids.contains(parentId)) {
+                ordered.add(row);
+            } else {
+                children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(row);
+            }
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.addAll(children.getOrDefault(ordered.get(i).get("id"), List.of()));
+        }
+        return ordered;
+    }
+
+    private void deleteRows(JdbcTemplate jdbc, long userId) {
+        // 先断开父子关系，否则自引用外键会拒绝在子节点之前删除父节点
+        jdbc.update("UPDATE todos SET parent_id = NULL WHERE user_id = ? AND parent_id IS NOT NULL", userId);
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            jdbc.update(TABLES.get(i).deleteSql(), userId);
+        }
+    }
+
+    private void inTransaction(DataSource dataSource, Consumer<JdbcTemplate> work) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+                .executeWithoutResult(status -> work.accept(jdbc));
+    }
+
+    private Set<Long> usersOn(DataSource dataSource) {
+        return new TreeSet<>(new JdbcTemplate(dataSource).queryForList(
+                "SELECT user_id FROM todos UNION SELECT user_id FROM categories", Long.class));
+    }
+
+    private record ShardedTable(String name, String selectSql, String deleteSql) {
+    }
+}
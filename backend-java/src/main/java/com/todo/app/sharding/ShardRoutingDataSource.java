@@ -0,0 +1,23 @@
+package com.todo.app.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 按当前用户路由到对应分片的数据源
+ *
+ * 路由发生在获取连接时（事务开始或第一次查询），所以一个事务内的所有语句
+ * 都落在同一个分片上。
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardDirectory directory;
+
+    public ShardRoutingDataSource(ShardDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return directory.currentShard();
+    }
+}
@@ -0,0 +1,59 @@
+package com.todo.app.sharding;
+
+import com.todo.app.security.SecurityUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 分片路由过滤器，排在 JwtAuthenticationFilter 之后
+ *
+ * 1. 从 Security 上下文中取出已认证的用户 ID，绑定到 {@link ShardContext}
+ * 2. /api/auth/** 不绑定用户：users 表只存在于默认分片
+ *    /actuator/** 也不绑定：运维端点（归档、分片迁移等）自己按用户或分片选择数据源，与调用者无关
+ * 3. 用户正在迁移时，拒绝写请求（503 + Retry-After），读请求照常走源分片
+ */
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    private final ShardDirectory directory;
+
+    public ShardRoutingFilter(ShardDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Long userId = SecurityUtils.getCurrentUserId(SecurityContextHolder.getContext().getAuthentication());
+
+        if (userId == null || request.getRequestURI().startsWith("/api/auth/")
+                || request.getRequestURI().startsWith("/actuator/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean write = !"GET".equals(request.getMethod());
+        if (write && !directory.tryEnterWrite(userId)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "5");
+            return;
+        }
+
+        ShardContext.bind(userId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+            if (write) {
+                directory.exitWrite(userId);
+            }
+        }
+    }
+}
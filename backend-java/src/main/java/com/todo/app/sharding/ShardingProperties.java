@@ -0,0 +1,65 @@
+package com.todo.app.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分片配置（app.sharding.*）
+ *
+ * 每个分片是一个独立的 MySQL 数据源。defaultShard 存放 users 表和分片目录，
+ * 未登录的请求（注册、登录）也会落在这个分片上。
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /** 每个物理分片在哈希环上的虚拟节点数，越大分布越均匀 */
+    private int virtualNodes = 160;
+
+    private String defaultShard;
+
+    /**
+     * 自增步长（MySQL auto_increment_increment），也是分片数的上限。
+     * 迁移用户时保留原主键，各分片必须分配互不相交的 ID。
+     */
+    private int idIncrement = 16;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        /**
+         * 自增偏移（1 到 idIncrement），该分片只分配 ID % idIncrement == idOffset % idIncrement 的 ID。
+         * 不配置时按分片在配置中的顺序编号，所以调整顺序或在中间插入分片之前要先把已有分片的偏移写死。
+         */
+        private Integer idOffset;
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+        public Integer getIdOffset() { return idOffset; }
+        public void setIdOffset(Integer idOffset) { this.idOffset = idOffset; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getVirtualNodes() { return virtualNodes; }
+    public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+    public int getIdIncrement() { return idIncrement; }
+    public void setIdIncrement(int idIncrement) { this.idIncrement = idIncrement; }
+    public String getDefaultShard() { return defaultShard; }
+    public void setDefaultShard(String defaultShard) { this.defaultShard = defaultShard; }
+    public Map<String, Shard> getShards() { return shards; }
+    public void setShards(Map<String, Shard> shards) { this.shards = shards; }
+}
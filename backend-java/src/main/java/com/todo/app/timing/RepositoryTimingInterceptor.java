@@ -0,0 +1,33 @@
+package com.todo.app.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 仓库方法耗时扣除其中的 SQL / 等待连接，剩余部分记为 hydrate（Hibernate 组装实体、读取结果集）
+ */
+public class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null || !timing.enterRepository()) {
+            try {
+                return invocation.proceed();
+            } finally {
+                if (timing != null) {
+                    timing.exitRepository();
+                }
+            }
+        }
+        long start = System.nanoTime();
+        long databaseStart = timing.databaseNanos();
+        try {
+            return invocation.proceed();
+        } finally {
+            timing.exitRepository();
+            long elapsed = System.nanoTime() - start - (timing.databaseNanos() - databaseStart);
+            RequestTiming.add(RequestTiming.Phase.HYDRATE, Math.max(0, elapsed));
+        }
+    }
+}
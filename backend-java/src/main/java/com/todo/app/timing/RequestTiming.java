@@ -0,0 +1,160 @@
+package com.todo.app.timing;
+
+import java.util.Locale;
+
+/**
+ * 单个请求的分阶段耗时，绑定在处理请求的线程上
+ *
+ * 各埋点通过静态方法累加耗时，没有绑定（计时关闭、后台线程）时什么也不做，
+ * 开销只有一次 ThreadLocal 读取和两次 System.nanoTime()。
+ *
+ * hydrate 与 serialize 是扣除期间 SQL / 等待连接之后的净耗时：
+ * 仓库方法内的 SQL 记在 sql 上，剩下的才是 Hibernate 组装实体的时间；
+ * 序列化中触发的懒加载同理。
+ */
+public final class RequestTiming {
+
+    public enum Phase {
+        AUTH("auth", "JWT verification"),
+        DB_WAIT("db-wait", "Connection pool wait"),
+        SQL("sql", "SQL execution"),
+        HYDRATE("hydrate", "Hibernate hydration"),
+        SERIALIZE("serialize", "Response serialization");
+
+        private final String metric;
+        private final String description;
+
+        Phase(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[PHASES.length];
+    private int statements;
+
+    /** 持有数据库连接的总时间，与各阶段重叠，不计入 app 的扣除 */
+    private long holdNanos;
+
+    /** 仓库方法嵌套深度，只统计最外层调用 */
+    private int repositoryDepth;
+
+    private long serializeStart;
+    private long serializeDatabaseStart;
+
+    static RequestTiming bind() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void add(Phase phase, long elapsedNanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.nanos[phase.ordinal()] += elapsedNanos;
+        }
+    }
+
+    static void statementExecuted() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.statements++;
+        }
+    }
+
+    static void connectionHeld(long elapsedNanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.holdNanos += elapsedNanos;
+        }
+    }
+
+    boolean enterRepository() {
+        return repositoryDepth++ == 0;
+    }
+
+    void exitRepository() {
+        repositoryDepth--;
+    }
+
+    /** 已记录的 SQL + 等待连接耗时，用于扣除嵌套在其他阶段中的数据库时间 */
+    long databaseNanos() {
+        return nanos[Phase.SQL.ordinal()] + nanos[Phase.DB_WAIT.ordinal()];
+    }
+
+    void beginSerialize() {
+        if (serializeStart == 0) {
+            serializeStart = System.nanoTime();
+            serializeDatabaseStart = databaseNanos();
+        }
+    }
+
+    /**
+     * 请求处理结束：结算序列化阶段，返回总耗时
+     */
+    long finish() {
+        long end = System.nanoTime();
+        if (serializeStart != 0) {
+            long elapsed = end - serializeStart - (databaseNanos() - serializeDatabaseStart);
+            nanos[Phase.SERIALIZE.ordinal()] += Math.max(0, elapsed);
+            serializeStart = 0;
+        }
+        return end - startNanos;
+    }
+
+    /**
+     * Server-Timing 头：各阶段 + app（其余时间）+ total，单位毫秒
+     */
+    String header(long totalNanos) {
+        StringBuilder header = new StringBuilder();
+        long accounted = 0;
+        for (Phase phase : PHASES) {
+            long value = nanos[phase.ordinal()];
+            accounted += value;
+            header.append(phase.metric).append(";dur=").append(millis(value))
+                    .append(";desc=\"").append(phase.description);
+            if (phase == Phase.SQL) {
+                header.append(" (").append(statements).append(statements == 1 ? " statement)" : " statements)");
+            }
+            header.append("\", ");
+        }
+        header.append("db-hold;dur=").append(millis(holdNanos)).append(";desc=\"Connection held\", ");
+        header.append("app;dur=").append(millis(Math.max(0, totalNanos - accounted)))
+                .append(", total;dur=").append(millis(totalNanos));
+        return header.toString();
+    }
+
+    /**
+     * 慢请求日志中的一行摘要
+     */
+    String summary(long totalNanos) {
+        StringBuilder summary = new StringBuilder();
+        long accounted = 0;
+        for (Phase phase : PHASES) {
+            long value = nanos[phase.ordinal()];
+            accounted += value;
+            summary.append(phase.metric).append('=').append(millis(value)).append("ms ");
+        }
+        summary.append("db-hold=").append(millis(holdNanos)).append("ms ");
+        summary.append("app=").append(millis(Math.max(0, totalNanos - accounted))).append("ms")
+                .append(" statements=").append(statements);
+        return summary.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
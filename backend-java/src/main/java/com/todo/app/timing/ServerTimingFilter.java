@@ -0,0 +1,75 @@
+package com.todo.app.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最外层过滤器：为请求绑定 RequestTiming，结束时输出 Server-Timing 头和慢请求日志
+ *
+ * 响应头必须在响应体之前发出，而序列化本身是被计时的阶段之一，
+ * 所以返回 Server-Timing 时先把响应体缓存在内存中，计时结束后再写出。
+ * 不返回头的请求（expose=never 或未带请求头）不做缓存。
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private static final Logger slowLog = LoggerFactory.getLogger("com.todo.app.timing.SlowRequests");
+
+    private final TimingProperties properties;
+
+    public ServerTimingFilter(TimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.bind();
+        ContentCachingResponseWrapper buffered = expose(request) ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            long total = timing.finish();
+            RequestTiming.unbind();
+            if (buffered != null) {
+                if (!request.isAsyncStarted()) {
+                    buffered.setHeader(HEADER, timing.header(total));
+                }
+                buffered.copyBodyToResponse();
+            }
+            logIfSlow(request, response, timing, total);
+        }
+    }
+
+    private boolean expose(HttpServletRequest request) {
+        return switch (properties.getExpose()) {
+            case ALWAYS -> true;
+            case HEADER -> request.getHeader(properties.getRequestHeader()) != null;
+            case NEVER -> false;
+        };
+    }
+
+    private void logIfSlow(HttpServletRequest request, HttpServletResponse response, RequestTiming timing, long total) {
+        if (total < properties.getSlowThreshold().toNanos() || !slowLog.isWarnEnabled()) {
+            return;
+        }
+        double rate = properties.getSlowSampleRate();
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        String query = request.getQueryString();
+        slowLog.warn("Slow request {} {}{} -> {} in {} ms: {}",
+                request.getMethod(), request.getRequestURI(), query != null ? "?" + query : "",
+                response.getStatus(), total / 1_000_000, timing.summary(total));
+    }
+}
@@ -0,0 +1,47 @@
+package com.todo.app.timing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 请求阶段计时配置（app.timing.*）
+ */
+@ConfigurationProperties(prefix = "app.timing")
+public class TimingProperties {
+
+    /**
+     * 何时在响应中返回 Server-Timing 头
+     * - ALWAYS：所有请求（本地开发）
+     * - HEADER：请求带有 requestHeader 时
+     * - NEVER：只计时、只写慢请求日志
+     */
+    public enum Expose { ALWAYS, HEADER, NEVER }
+
+    private boolean enabled = true;
+
+    private Expose expose = Expose.HEADER;
+
+    private String requestHeader = "X-Server-Timing";
+
+    /** 超过该耗时的请求写入慢请求日志（logger: com.todo.app.timing.SlowRequests） */
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    /** 慢请求中实际写日志的比例，0 ~ 1 */
+    private double slowSampleRate = 1.0;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Expose getExpose() { return expose; }
+    public void setExpose(Expose expose) { this.expose = expose; }
+
+    public String getRequestHeader() { return requestHeader; }
+    public void setRequestHeader(String requestHeader) { this.requestHeader = requestHeader; }
+
+    public Duration getSlowThreshold() { return slowThreshold; }
+    public void setSlowThreshold(Duration slowThreshold) { this.slowThreshold = slowThreshold; }
+
+    public double getSlowSampleRate() { return slowSampleRate; }
+    public void setSlowSampleRate(double slowSampleRate) { this.slowSampleRate = slowSampleRate; }
+}
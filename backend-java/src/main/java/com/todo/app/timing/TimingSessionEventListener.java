@@ -0,0 +1,70 @@
+package com.todo.app.timing;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate 会话事件：等待连接的时间记为 db-wait，准备 / 执行语句和批处理记为 sql，
+ * 从拿到连接到归还连接记为 db-hold（与其他阶段重叠，单独展示）
+ *
+ * 通过 hibernate.session.events.auto 为每个 Session 创建一个实例，
+ * 回调发生在执行请求的线程上。
+ */
+public class TimingSessionEventListener extends BaseSessionEventListener {
+
+    private long connectionStart;
+    private long holdStart;
+    private long prepareStart;
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        holdStart = System.nanoTime();
+        RequestTiming.add(RequestTiming.Phase.DB_WAIT, holdStart - connectionStart);
+    }
+
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        if (holdStart != 0) {
+            RequestTiming.connectionHeld(System.nanoTime() - holdStart);
+            holdStart = 0;
+        }
+    }
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        prepareStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        RequestTiming.add(RequestTiming.Phase.SQL, System.nanoTime() - prepareStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTiming.add(RequestTiming.Phase.SQL, System.nanoTime() - executeStart);
+        RequestTiming.statementExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTiming.add(RequestTiming.Phase.SQL, System.nanoTime() - batchStart);
+        RequestTiming.statementExecuted();
+    }
+}
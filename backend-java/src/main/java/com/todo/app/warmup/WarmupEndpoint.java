@@ -0,0 +1,26 @@
+package com.todo.app.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * 启动预热结果：GET /actuator/warmup
+ *
+ * warmupMillis 为预热耗时，latency 为预热后每种操作的 p50 / p99 / max（微秒）。
+ */
+@Endpoint(id = "warmup")
+public class WarmupEndpoint {
+
+    private final WarmupRunner runner;
+
+    public WarmupEndpoint(WarmupRunner runner) {
+        this.runner = runner;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return runner.stats();
+    }
+}
@@ -0,0 +1,40 @@
+package com.todo.app.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 启动预热配置（app.warmup.*）
+ *
+ * 预热在 readiness 变为 ACCEPTING_TRAFFIC 之前运行，达到 iterations 或 duration 任一上限即结束；
+ * iterations = 0 表示只按 duration 计。
+ */
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = false;
+
+    /** 预热轮数（每轮一组完整的请求组合），0 表示不限 */
+    private int iterations = 2000;
+
+    /** 预热最长时间，超过后即使轮数不够也结束，不无限期推迟就绪 */
+    private Duration duration = Duration.ofSeconds(30);
+
+    /** 并发预热的线程数 */
+    private int threads = 2;
+
+    /** 预热结束后单线程测量延迟的轮数，0 表示不测量 */
+    private int measureIterations = 200;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getIterations() { return iterations; }
+    public void setIterations(int iterations) { this.iterations = iterations; }
+    public Duration getDuration() { return duration; }
+    public void setDuration(Duration duration) { this.duration = duration; }
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public int getMeasureIterations() { return measureIterations; }
+    public void setMeasureIterations(int measureIterations) { this.measureIterations = measureIterations; }
+}
@@ -0,0 +1,318 @@
+package com.todo.app.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.controller.TodoController;
+import com.todo.app.dto.TodoCreateDTO;
+import com.todo.app.dto.TodoUpdateDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import com.todo.app.repository.UserRepository;
+import com.todo.app.security.JwtUtil;
+import com.todo.app.service.CategoryService;
+import com.todo.app.service.SuggestService;
+import com.todo.app.service.TagIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 启动预热：在 readiness 变为 ACCEPTING_TRAFFIC 之前，把一组合成请求反复交给真实的
+ * TodoController、JwtUtil 和 Jackson（TodoJsonSerializers），让热点路径在接流量之前完成 C1 / C2 编译
+ *
+ * - 作为 ApplicationRunner 在主线程上同步运行：Spring Boot 在所有 runner 结束后才发布 ReadinessState.ACCEPTING_TRAFFIC，
+ *   预热期间 /actuator/health/readiness 为 OUT_OF_SERVICE，liveness 已经是 CORRECT
+ * - 每轮一个事务：先插入一个临时用户（todos.user_id 的外键要求用户存在），以它的身份
+ *   创建 -> 查询 -> 修改 -> 删除一个带子任务和标签的 Todo，事务最后回滚，用户和 Todo 都不留下；
+ *   提交后才执行的钩子（审计、补全 / 标签索引、失效广播）也不会触发
+ * - 不绑定 ShardContext：users 表只在默认分片上，临时用户和它的 Todo 都走默认分片
+ * - 每一轮都失败时（例如库结构与预期不符）记 WARN，状态为 failed，不做延迟测量
+ * - 预热期间在事务内加载的补全索引、标签索引和分类计数可能包含回滚掉的行，结束后丢弃本地副本
+ * - 达到 iterations 或 duration 任一上限即结束，之后单线程再跑 measureIterations 轮，记录每种操作的延迟分位数
+ *
+ * 回滚的插入仍会消耗自增 ID（MySQL），每轮留下几个 ID 空洞。
+ */
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String MARKER = "warmup-";
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    static final List<String> OPERATIONS = List.of("jwt", "create", "get", "list", "listByTag", "facets",
+            "update", "toggle", "statistics", "next", "suggest", "delete");
+
+    private final WarmupProperties properties;
+    private final TodoController todoController;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final SuggestService suggestService;
+    private final TagIndexService tagIndexService;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transaction;
+
+    private volatile String state = "pending";
+    private volatile LocalDateTime startedAt;
+    private volatile long warmupMillis;
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile String lastError;
+    private volatile Map<String, Map<String, Long>> latency = Map.of();
+    /** 各轮临时用户的 ID（都已回滚），结束后按这些 ID 丢弃本地缓存 */
+    private final Queue<Long> userIds = new ConcurrentLinkedQueue<>();
+
+    public WarmupRunner(WarmupProperties properties, TodoController todoController, UserRepository userRepository,
+                        JwtUtil jwtUtil, ObjectMapper objectMapper, SuggestService suggestService,
+                        TagIndexService tagIndexService, CategoryService categoryService,
+                        PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.todoController = todoController;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.suggestService = suggestService;
+        this.tagIndexService = tagIndexService;
+        this.categoryService = categoryService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        state = "running";
+        startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + properties.getDuration().toNanos();
+        long limit = properties.getIterations() > 0 ? properties.getIterations() : Long.MAX_VALUE;
+        log.info("JIT warm-up started (iterations={}, duration={}, threads={})",
+                properties.getIterations(), properties.getDuration(), properties.getThreads());
+
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "warmup-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong claimed = new AtomicLong();
+        for (int i = 0; i < Math.max(1, properties.getThreads()); i++) {
+            pool.execute(() -> {
+                long n;
+                while (System.nanoTime() < deadline && (n = claimed.getAndIncrement()) < limit) {
+                    iterate(n, null);
+                    iterations.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        // 单轮卡住（等锁等）时不无限期推迟就绪，超出 duration 后再给一点收尾时间
+        if (!pool.awaitTermination(properties.getDuration().toMillis() + 10_000, TimeUnit.MILLISECONDS)) {
+            pool.shutdownNow();
+            log.warn("JIT warm-up threads did not finish in time, continuing startup");
+        }
+        warmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        if (iterations.get() > 0 && errors.get() >= iterations.get()) {
+            discardCaches();
+            state = "failed";
+            log.warn("JIT warm-up failed: all {} iterations failed in {} ms, hot paths were not exercised; last error: {}",
+                    iterations.get(), warmupMillis, lastError);
+            return;
+        }
+
+        state = "measuring";
+        latency = measure();
+        discardCaches();
+        state = "done";
+        log.info("JIT warm-up finished: {} iterations in {} ms ({} errors); post-warm-up latency (us): {}",
+                iterations.get(), warmupMillis, errors.get(), latency);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("startedAt", startedAt);
+        stats.put("warmupMillis", warmupMillis);
+        stats.put("iterations", iterations.get());
+        stats.put("errors", errors.get());
+        stats.put("lastError", lastError);
+        stats.put("latency", latency);
+        return stats;
+    }
+
+    /**
+     * 预热后的延迟：单线程逐轮记录每种操作的耗时，取 p50 / p99 / max
+     */
+    private Map<String, Map<String, Long>> measure() {
+        int rounds = properties.getMeasureIterations();
+        if (rounds <= 0) {
+            return Map.of();
+        }
+        long[][] samples = new long[OPERATIONS.size()][rounds];
+        for (int i = 0; i < rounds; i++) {
+            long[] timings = new long[OPERATIONS.size()];
+            iterate(Long.MAX_VALUE - i, timings);
+            for (int op = 0; op < timings.length; op++) {
+                samples[op][i] = timings[op];
+            }
+        }
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (int op = 0; op < OPERATIONS.size(); op++) {
+            long[] sorted = samples[op];
+            Arrays.sort(sorted);
+            Map<String, Long> percentiles = new LinkedHashMap<>();
+            percentiles.put("p50", micros(sorted[(rounds - 1) / 2]));
+            percentiles.put("p99", micros(sorted[(int) Math.ceil(rounds * 0.99) - 1]));
+            percentiles.put("max", micros(sorted[rounds - 1]));
+            result.put(OPERATIONS.get(op), percentiles);
+        }
+        return result;
+    }
+
+    /**
+     * 一轮请求组合，在回滚的事务里执行；timings 不为空时按 OPERATIONS 的顺序记录每步耗时（纳秒）
+     */
+    private void iterate(long n, long[] timings) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                User user = createUser();
+                userIds.add(user.getId());
+                // 与 JwtAuthenticationFilter 认证后的请求一样，服务层从 SecurityContext 取当前用户
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(user.getId(), null, List.of()));
+                mix(n, timings, user);
+            });
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            lastError = e.toString();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * 本轮的临时用户，随事务一起回滚；密码不是合法的 BCrypt 串，即使残留也无法登录
+     */
+    private User createUser() {
+        String name = MARKER + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@warmup.invalid");
+        user.setPassword("!");
+        return userRepository.save(user);
+    }
+
+    private void mix(long n, long[] timings, User user) {
+        int op = 0;
+        long t = System.nanoTime();
+
+        // JwtAuthenticationFilter 的路径：签发 -> 校验 -> 取用户 ID
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getUsername());
+        if (!jwtUtil.validateToken(token) || jwtUtil.getUserIdFromToken(token) == null) {
+            throw new IllegalStateException("Warm-up token rejected");
+        }
+        t = lap(timings, op++, t);
+
+        String title = MARKER + n;
+        TodoCreateDTO create = read("{\"title\":\"" + title + "\",\"description\":\"synthetic warm-up todo\","
+                + "\"priority\":\"" + PRIORITIES[(int) (n % 3)] + "\",\"tags\":[\"" + MARKER + "tag\",\"t" + (n % 8) + "\"],"
+                + "\"subtasks\":[{\"title\":\"step 1\"},{\"title\":\"step 2\"}]}", TodoCreateDTO.class);
+        Todo todo = write(todoController.createTodo(create));
+        Long id = todo.getId();
+        t = lap(timings, op++, t);
+
+        write(todoController.getTodoById(id));
+        t = lap(timings, op++, t);
+
+        write(todoController.getAllTodos(title, null, null, null, null, null, null, false, null, null));
+        t = lap(timings, op++, t);
+
+        write(todoController.getAllTodos(null, null, null, false, MARKER + "tag", null, null, false, null, null));
+        t = lap(timings, op++, t);
+
+        write(todoController.getFacetedTodos(MARKER, null, null, null, null, null, null, false, null, null, 0, 20));
+        t = lap(timings, op++, t);
+
+        TodoUpdateDTO update = read("{\"title\":\"" + title + " (edited)\",\"priority\":\"HIGH\",\"progress\":50}",
+                TodoUpdateDTO.class);
+        write(todoController.updateTodo(id, update));
+        t = lap(timings, op++, t);
+
+        write(todoController.toggleTodo(id));
+        t = lap(timings, op++, t);
+
+        write(todoController.getStatistics());
+        t = lap(timings, op++, t);
+
+        write(todoController.getNextActions(10));
+        t = lap(timings, op++, t);
+
+        write(todoController.suggest(MARKER, 10));
+        t = lap(timings, op++, t);
+
+        todoController.deleteTodo(id);
+        lap(timings, op, t);
+    }
+
+    /**
+     * 与 HTTP 响应一样由应用的 ObjectMapper 序列化整个响应体
+     */
+    private <T> T write(ResponseEntity<T> response) {
+        try {
+            objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return response.getBody();
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long lap(long[] timings, int op, long since) {
+        long now = System.nanoTime();
+        if (timings != null) {
+            timings[op] = now - since;
+        }
+        return now;
+    }
+
+    private void discardCaches() {
+        for (Long userId : userIds) {
+            suggestService.evictLocalIndex(userId);
+            tagIndexService.evictLocalIndex(userId);
+            categoryService.evictLocalTodoCounts(userId);
+        }
+        userIds.clear();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
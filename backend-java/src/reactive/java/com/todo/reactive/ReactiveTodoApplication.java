@@ -0,0 +1,35 @@
+package com.todo.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+
+/**
+ * WebFlux + R2DBC 版本的入口（仅在 -Preactive 构建时编译）
+ *
+ * 与 servlet 版本共用一个 jar 的依赖，因此显式排除 JDBC / JPA 自动配置，
+ * 并使用独立的配置文件 reactive.yml，不读取 application.yml。
+ *
+ * 独立部署，不与 servlet 版本共用数据库：这里只实现 Todo / 子任务 / 分类 / 认证的 CRUD，
+ * 不维护 todo_daily_stats、补全 / 标签索引、审计日志和缓存失效广播，
+ * 同一个库上两个版本同时写入会让 servlet 版本的统计和索引与数据不一致。
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class
+})
+public class ReactiveTodoApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveTodoApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+}
@@ -0,0 +1,17 @@
+package com.todo.reactive.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReactiveWebConfig {
+
+    /**
+     * classpath 上同时有 Tomcat（servlet 版本的依赖），显式选择 Netty 作为 WebFlux 服务器
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
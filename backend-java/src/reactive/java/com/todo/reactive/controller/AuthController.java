@@ -0,0 +1,47 @@
+package com.todo.reactive.controller;
+
+import com.todo.app.dto.LoginDTO;
+import com.todo.app.dto.RegisterDTO;
+import com.todo.app.dto.TokenDTO;
+import com.todo.app.dto.UserResponseDTO;
+import com.todo.reactive.service.AuthService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final AuthService authService;
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<UserResponseDTO>> register(@Valid @RequestBody RegisterDTO registerDTO) {
+        return authService.register(registerDTO)
+                .map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<TokenDTO>> login(@Valid @RequestBody LoginDTO loginDTO) {
+        return authService.login(loginDTO).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/profile")
+    public Mono<ResponseEntity<UserResponseDTO>> getProfile(Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return authService.getProfile(userId).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/profile")
+    public Mono<ResponseEntity<UserResponseDTO>> updateProfile(
+            Authentication authentication,
+            @RequestBody RegisterDTO updateData) {
+        Long userId = (Long) authentication.getPrincipal();
+        return authService.updateProfile(userId, updateData).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,50 @@
+package com.todo.reactive.controller;
+
+import com.todo.app.dto.CategoryCreateDTO;
+import com.todo.app.dto.CategoryUpdateDTO;
+import com.todo.reactive.entity.Category;
+import com.todo.reactive.service.CategoryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+public class CategoryController {
+
+    private final CategoryService categoryService;
+
+    @PostMapping
+    public Mono<ResponseEntity<Category>> createCategory(@Valid @RequestBody CategoryCreateDTO dto) {
+        return categoryService.createCategory(dto)
+                .map(category -> ResponseEntity.status(HttpStatus.CREATED).body(category));
+    }
+
+    @GetMapping
+    public Flux<?> getAllCategories(@RequestParam(defaultValue = "false") boolean includeCounts) {
+        return includeCounts ? categoryService.getAllCategoriesWithCounts() : categoryService.getAllCategories();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Category>> getCategoryById(@PathVariable Long id) {
+        return categoryService.getCategoryById(id).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Category>> updateCategory(
+            @PathVariable Long id,
+            @RequestBody CategoryUpdateDTO dto
+    ) {
+        return categoryService.updateCategory(id, dto).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCategory(@PathVariable Long id) {
+        return categoryService.deleteCategory(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
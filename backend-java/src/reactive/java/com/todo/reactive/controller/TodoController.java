@@ -0,0 +1,109 @@
+package com.todo.reactive.controller;
+
+import com.todo.app.dto.StatisticsDTO;
+import com.todo.app.dto.SubTaskCreateDTO;
+import com.todo.app.dto.TodoCreateDTO;
+import com.todo.app.dto.TodoUpdateDTO;
+import com.todo.reactive.entity.SubTask;
+import com.todo.reactive.entity.Todo;
+import com.todo.reactive.service.TodoService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 与 servlet 版本 TodoController 相同的接口
+ *
+ * 列表接口以 Flux 返回：application/json 按 JSON 数组流式写出，
+ * Accept: application/x-ndjson 时每行一个 Todo，客户端可以边收边渲染。
+ */
+@RestController
+@RequestMapping("/api/todos")
+@RequiredArgsConstructor
+public class TodoController {
+
+    private final TodoService todoService;
+
+    @PostMapping
+    public Mono<ResponseEntity<Todo>> createTodo(@Valid @RequestBody TodoCreateDTO dto) {
+        return todoService.createTodo(dto).map(todo -> ResponseEntity.status(HttpStatus.CREATED).body(todo));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Todo> getAllTodos(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean isCompleted
+    ) {
+        return todoService.getAllTodos(search, priority, categoryId, isCompleted);
+    }
+
+    @GetMapping("/statistics")
+    public Mono<ResponseEntity<StatisticsDTO>> getStatistics() {
+        return todoService.getStatistics().map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Todo>> getTodoById(@PathVariable Long id) {
+        return todoService.getTodoById(id).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Todo>> updateTodo(
+            @PathVariable Long id,
+            @RequestBody TodoUpdateDTO dto
+    ) {
+        return todoService.updateTodo(id, dto).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/{id}/toggle")
+    public Mono<ResponseEntity<Todo>> toggleTodo(@PathVariable Long id) {
+        return todoService.toggleTodo(id).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTodo(@PathVariable Long id) {
+        return todoService.deleteTodo(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @DeleteMapping("/batch")
+    public Mono<ResponseEntity<Void>> batchDeleteTodos(@RequestBody List<Long> ids) {
+        return todoService.batchDeleteTodos(ids).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @PatchMapping("/batch/update")
+    public Flux<Todo> batchUpdateTodos(
+            @RequestBody List<Long> ids,
+            @RequestParam(required = false) Boolean isCompleted
+    ) {
+        return todoService.batchUpdateTodos(ids, isCompleted);
+    }
+
+    // SubTask endpoints
+    @PostMapping("/{todoId}/subtasks")
+    public Mono<ResponseEntity<SubTask>> createSubTask(
+            @PathVariable Long todoId,
+            @Valid @RequestBody SubTaskCreateDTO dto
+    ) {
+        return todoService.createSubTask(todoId, dto)
+                .map(subTask -> ResponseEntity.status(HttpStatus.CREATED).body(subTask));
+    }
+
+    @PatchMapping("/subtasks/{subtaskId}/toggle")
+    public Mono<ResponseEntity<SubTask>> toggleSubTask(@PathVariable Long subtaskId) {
+        return todoService.toggleSubTask(subtaskId).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/subtasks/{subtaskId}")
+    public Mono<ResponseEntity<Void>> deleteSubTask(@PathVariable Long subtaskId) {
+        return todoService.deleteSubTask(subtaskId).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
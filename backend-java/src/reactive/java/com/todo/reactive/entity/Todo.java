@@ -0,0 +1,88 @@
+package com.todo.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * todos 表的 R2DBC 映射，列名与 JPA 实体一致（驼峰转下划线）
+ *
+ * R2DBC 不支持关联映射，category / subtasks 由 TodoService 批量查询后填充；
+ * 子树计数列只通过 TodoRepository.adjustDescendantCounts 更新，这里不映射。
+ */
+@Table("todos")
+public class Todo {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private Boolean isCompleted = false;
+
+    private com.todo.app.entity.Todo.Priority priority = com.todo.app.entity.Todo.Priority.MEDIUM;
+
+    private LocalDate dueDate;
+
+    private Boolean hasReminder = false;
+
+    private Long userId;
+
+    private Long categoryId;
+
+    private Long parentId;
+
+    private Integer progress = 0;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    private LocalDateTime completedAt;
+
+    @Transient
+    private Category category;
+
+    @Transient
+    private List<SubTask> subtasks = new ArrayList<>();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Boolean getIsCompleted() { return isCompleted; }
+    public void setIsCompleted(Boolean isCompleted) { this.isCompleted = isCompleted; }
+    public com.todo.app.entity.Todo.Priority getPriority() { return priority; }
+    public void setPriority(com.todo.app.entity.Todo.Priority priority) { this.priority = priority; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public Boolean getHasReminder() { return hasReminder; }
+    public void setHasReminder(Boolean hasReminder) { this.hasReminder = hasReminder; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public Category getCategory() { return category; }
+    public void setCategory(Category category) { this.category = category; }
+    public List<SubTask> getSubtasks() { return subtasks; }
+    public void setSubtasks(List<SubTask> subtasks) { this.subtasks = subtasks; }
+}
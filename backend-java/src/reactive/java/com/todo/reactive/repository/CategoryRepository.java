@@ -0,0 +1,34 @@
+package com.todo.reactive.repository;
+
+import com.todo.reactive.entity.Category;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface CategoryRepository extends R2dbcRepository<Category, Long> {
+
+    Flux<Category> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Mono<Category> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT category_id, COUNT(*) AS total, " +
+           "SUM(CASE WHEN is_completed = TRUE THEN 1 ELSE 0 END) AS completed, " +
+           "SUM(CASE WHEN is_completed = FALSE AND due_date < :today THEN 1 ELSE 0 END) AS overdue " +
+           "FROM todos WHERE user_id = :userId AND category_id IS NOT NULL GROUP BY category_id")
+    Flux<CategoryCount> countTodosByCategory(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    /**
+     * 删除分类前解除 Todo 对它的引用，避免外键约束失败
+     */
+    @Modifying
+    @Query("UPDATE todos SET category_id = NULL WHERE category_id = :categoryId")
+    Mono<Integer> detachTodos(@Param("categoryId") Long categoryId);
+
+    record CategoryCount(Long categoryId, Long total, Long completed, Long overdue) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.todo.reactive.repository;
+
+import com.todo.reactive.entity.SubTask;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface SubTaskRepository extends R2dbcRepository<SubTask, Long> {
+
+    Flux<SubTask> findByTodoId(Long todoId);
+
+    Flux<SubTask> findByTodoIdInOrderByIdAsc(Collection<Long> todoIds);
+
+    @Modifying
+    @Query("DELETE FROM subtasks WHERE todo_id IN (:todoIds)")
+    Mono<Integer> deleteByTodoIdIn(@Param("todoIds") Collection<Long> todoIds);
+}
@@ -0,0 +1,55 @@
+package com.todo.reactive.repository;
+
+import com.todo.reactive.entity.Todo;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface TodoRepository extends R2dbcRepository<Todo, Long> {
+
+    Flux<Todo> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Mono<Todo> findByIdAndUserId(Long id, Long userId);
+
+    Flux<Todo> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    /**
+     * 整棵子树的 ID（包括根节点），与 servlet 版本的 findSubtree 使用同一个递归 CTE
+     */
+    @Query("WITH RECURSIVE subtree (id) AS (" +
+           "  SELECT id FROM todos WHERE id = :id AND user_id = :userId" +
+           "  UNION ALL" +
+           "  SELECT t.id FROM todos t JOIN subtree s ON t.parent_id = s.id" +
+           ") SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ id FROM subtree")
+    Flux<Long> findSubtreeIds(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("WITH RECURSIVE ancestors (id, parent_id) AS (" +
+           "  SELECT id, parent_id FROM todos WHERE id = :id" +
+           "  UNION ALL" +
+           "  SELECT t.id, t.parent_id FROM todos t JOIN ancestors a ON t.id = a.parent_id" +
+           ") SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ id FROM ancestors")
+    Flux<Long> findAncestorIds(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE todos SET descendant_count = descendant_count + :count, " +
+           "descendants_completed = descendants_completed + :completed WHERE id IN (:ids)")
+    Mono<Integer> adjustDescendantCounts(@Param("ids") Collection<Long> ids,
+                                         @Param("count") int count,
+                                         @Param("completed") int completed);
+
+    @Modifying
+    @Query("UPDATE todos SET progress = :progress WHERE id = :id")
+    Mono<Integer> updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    /**
+     * 删除子树前先断开节点之间的 parent_id，避免同一条 DELETE 内的外键检查顺序问题
+     */
+    @Modifying
+    @Query("UPDATE todos SET parent_id = NULL WHERE id IN (:ids)")
+    Mono<Integer> clearParents(@Param("ids") Collection<Long> ids);
+}
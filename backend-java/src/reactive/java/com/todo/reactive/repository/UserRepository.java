@@ -0,0 +1,14 @@
+package com.todo.reactive.repository;
+
+import com.todo.reactive.entity.User;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+public interface UserRepository extends R2dbcRepository<User, Long> {
+
+    Mono<User> findByEmail(String email);
+
+    Mono<Boolean> existsByEmail(String email);
+
+    Mono<Boolean> existsByUsername(String username);
+}
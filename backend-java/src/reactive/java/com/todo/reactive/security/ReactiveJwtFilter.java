@@ -0,0 +1,53 @@
+package com.todo.reactive.security;
+
+import com.todo.app.security.JwtUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * JWT 认证过滤器（WebFlux 版本）
+ *
+ * 与 JwtAuthenticationFilter 使用同一个 JwtUtil，两个版本签发的 token 互通。
+ * 认证信息写入 Reactor Context，而不是 ThreadLocal 的 SecurityContextHolder。
+ * 只由 ReactiveSecurityConfig 加进安全过滤链；不要声明成 bean，否则 WebFlux 会把它再注册成全局 WebFilter，每个请求校验两次。
+ */
+public class ReactiveJwtFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+
+    public ReactiveJwtFilter(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        if (!jwtUtil.validateToken(token)) {
+            return chain.filter(exchange);
+        }
+
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        if (userId == null) {
+            return chain.filter(exchange);
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+}
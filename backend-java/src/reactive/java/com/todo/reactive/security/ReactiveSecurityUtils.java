@@ -0,0 +1,24 @@
+package com.todo.reactive.security;
+
+import com.todo.app.security.SecurityUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * SecurityUtils 的 WebFlux 版本：登录用户由 ReactiveJwtFilter 写入 Reactor Context
+ */
+public class ReactiveSecurityUtils {
+
+    /**
+     * 当前请求的登录用户，业务数据都归属于这个用户；未认证时返回 401
+     */
+    public static Mono<Long> currentUserId() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .mapNotNull(SecurityUtils::getCurrentUserId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated")));
+    }
+}
@@ -0,0 +1,129 @@
+package com.todo.reactive.service;
+
+import com.todo.app.dto.LoginDTO;
+import com.todo.app.dto.RegisterDTO;
+import com.todo.app.dto.TokenDTO;
+import com.todo.app.dto.UserResponseDTO;
+import com.todo.app.security.JwtUtil;
+import com.todo.reactive.entity.User;
+import com.todo.reactive.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * AuthService 的非阻塞版本
+ *
+ * BCrypt 计算是 CPU 密集型操作，放到 boundedElastic 线程池，避免占用事件循环线程。
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+
+    @Transactional
+    public Mono<UserResponseDTO> register(RegisterDTO registerDTO) {
+        return userRepository.existsByUsername(registerDTO.getUsername())
+                .flatMap(exists -> exists
+                        ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "用户名已存在"))
+                        : userRepository.existsByEmail(registerDTO.getEmail()))
+                .flatMap(exists -> exists
+                        ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "邮箱已被注册"))
+                        : encode(registerDTO.getPassword()))
+                .flatMap(encoded -> {
+                    User user = new User();
+                    user.setUsername(registerDTO.getUsername());
+                    user.setEmail(registerDTO.getEmail());
+                    user.setPassword(encoded);
+                    user.setCreatedAt(LocalDateTime.now());
+                    return userRepository.save(user);
+                })
+                .map(AuthService::toResponse);
+    }
+
+    public Mono<TokenDTO> login(LoginDTO loginDTO) {
+        return userRepository.findByEmail(loginDTO.getEmail())
+                .filterWhen(user -> Mono.fromCallable(() -> passwordEncoder.matches(loginDTO.getPassword(), user.getPassword()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "邮箱或密码错误")))
+                .map(user -> {
+                    TokenDTO tokenDTO = new TokenDTO();
+                    tokenDTO.setAccessToken(jwtUtil.generateToken(user.getId(), user.getEmail(), user.getUsername()));
+                    tokenDTO.setUser(toResponse(user));
+                    return tokenDTO;
+                });
+    }
+
+    public Mono<UserResponseDTO> getProfile(Long userId) {
+        return findUser(userId).map(AuthService::toResponse);
+    }
+
+    @Transactional
+    public Mono<UserResponseDTO> updateProfile(Long userId, RegisterDTO updateData) {
+        return findUser(userId)
+                .flatMap(user -> {
+                    // 如果要更新用户名，检查是否重复
+                    if (updateData.getUsername() == null || updateData.getUsername().equals(user.getUsername())) {
+                        return Mono.just(user);
+                    }
+                    return userRepository.existsByUsername(updateData.getUsername())
+                            .flatMap(exists -> exists
+                                    ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "用户名已存在"))
+                                    : Mono.just(user))
+                            .doOnNext(u -> u.setUsername(updateData.getUsername()));
+                })
+                .flatMap(user -> {
+                    // 如果要更新邮箱，检查是否重复
+                    if (updateData.getEmail() == null || updateData.getEmail().equals(user.getEmail())) {
+                        return Mono.just(user);
+                    }
+                    return userRepository.existsByEmail(updateData.getEmail())
+                            .flatMap(exists -> exists
+                                    ? Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "邮箱已被使用"))
+                                    : Mono.just(user))
+                            .doOnNext(u -> u.setEmail(updateData.getEmail()));
+                })
+                .flatMap(user -> {
+                    // 如果要更新密码
+                    if (updateData.getPassword() == null || updateData.getPassword().isEmpty()) {
+                        return Mono.just(user);
+                    }
+                    return encode(updateData.getPassword()).map(encoded -> {
+                        user.setPassword(encoded);
+                        return user;
+                    });
+                })
+                .flatMap(userRepository::save)
+                .map(AuthService::toResponse);
+    }
+
+    private Mono<User> findUser(Long userId) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "用户不存在")));
+    }
+
+    private Mono<String> encode(String password) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(password))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static UserResponseDTO toResponse(User user) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        dto.setAvatar(user.getAvatar());
+        dto.setCreatedAt(user.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,97 @@
+package com.todo.reactive.service;
+
+import com.todo.app.dto.CategoryCreateDTO;
+import com.todo.app.dto.CategoryUpdateDTO;
+import com.todo.app.dto.CategoryWithCountsDTO;
+import com.todo.reactive.entity.Category;
+import com.todo.reactive.repository.CategoryRepository;
+import com.todo.reactive.security.ReactiveSecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+
+    public Mono<Category> createCategory(CategoryCreateDTO dto) {
+        Category category = new Category();
+        category.setName(dto.getName());
+        category.setColor(dto.getColor() != null ? dto.getColor() : "#3B82F6");
+        category.setIcon(dto.getIcon() != null ? dto.getIcon() : "");
+        category.setCreatedAt(LocalDateTime.now());
+
+        return ReactiveSecurityUtils.currentUserId().flatMap(userId -> {
+            category.setUserId(userId);
+            return categoryRepository.save(category);
+        });
+    }
+
+    public Flux<Category> getAllCategories() {
+        return ReactiveSecurityUtils.currentUserId().flatMapMany(categoryRepository::findByUserIdOrderByCreatedAtDesc);
+    }
+
+    public Flux<CategoryWithCountsDTO> getAllCategoriesWithCounts() {
+        return ReactiveSecurityUtils.currentUserId().flatMapMany(userId -> categoryRepository
+                .countTodosByCategory(userId, LocalDate.now())
+                .collectMap(CategoryRepository.CategoryCount::categoryId)
+                .flatMapMany(counts -> categoryRepository.findByUserIdOrderByCreatedAtDesc(userId)
+                        .map(category -> toDTO(category, counts.get(category.getId())))));
+    }
+
+    /**
+     * 其他用户的分类与不存在的分类一样返回 404
+     */
+    public Mono<Category> getCategoryById(Long id) {
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMap(userId -> categoryRepository.findByIdAndUserId(id, userId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found with id: " + id)));
+    }
+
+    public Mono<Category> updateCategory(Long id, CategoryUpdateDTO dto) {
+        return getCategoryById(id).flatMap(category -> {
+            if (dto.getName() != null) {
+                category.setName(dto.getName());
+            }
+            if (dto.getColor() != null) {
+                category.setColor(dto.getColor());
+            }
+            if (dto.getIcon() != null) {
+                category.setIcon(dto.getIcon());
+            }
+            return categoryRepository.save(category);
+        });
+    }
+
+    @Transactional
+    public Mono<Void> deleteCategory(Long id) {
+        return getCategoryById(id)
+                .flatMap(category -> categoryRepository.detachTodos(category.getId())
+                        .then(categoryRepository.delete(category)));
+    }
+
+    private static CategoryWithCountsDTO toDTO(Category category, CategoryRepository.CategoryCount count) {
+        CategoryWithCountsDTO dto = new CategoryWithCountsDTO();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setColor(category.getColor());
+        dto.setIcon(category.getIcon());
+        dto.setUserId(category.getUserId());
+        dto.setCreatedAt(category.getCreatedAt());
+        if (count != null) {
+            dto.setTodoCount(count.total());
+            dto.setCompletedCount(count.completed() != null ? count.completed() : 0);
+            dto.setOverdueCount(count.overdue() != null ? count.overdue() : 0);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,378 @@
+package com.todo.reactive.service;
+
+import com.todo.app.dto.StatisticsDTO;
+import com.todo.app.dto.SubTaskCreateDTO;
+import com.todo.app.dto.TodoCreateDTO;
+import com.todo.app.dto.TodoUpdateDTO;
+import com.todo.reactive.entity.Category;
+import com.todo.reactive.entity.SubTask;
+import com.todo.reactive.entity.Todo;
+import com.todo.reactive.repository.CategoryRepository;
+import com.todo.reactive.repository.SubTaskRepository;
+import com.todo.reactive.repository.TodoRepository;
+import com.todo.reactive.security.ReactiveSecurityUtils;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * TodoService 的非阻塞版本，CRUD、子任务和祖先计数的行为与 com.todo.app.service.TodoService 一致；
+ * 不包含每日统计汇总、补全 / 标签索引和审计（见 ReactiveTodoApplication）
+ *
+ * 列表接口边查询边输出：每 ENRICH_BATCH_SIZE 条 Todo 用两次 IN 查询补全分类和子任务，
+ * 不会把整个列表先读入内存。
+ */
+@Service
+@RequiredArgsConstructor
+public class TodoService {
+
+    private final TodoRepository todoRepository;
+    private final SubTaskRepository subTaskRepository;
+    private final CategoryRepository categoryRepository;
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient databaseClient;
+
+    private static final int ENRICH_BATCH_SIZE = 256;
+
+    @Transactional
+    public Mono<Todo> createTodo(TodoCreateDTO dto) {
+        Todo todo = new Todo();
+        todo.setTitle(dto.getTitle());
+        todo.setDescription(dto.getDescription() != null ? dto.getDescription() : "");
+        todo.setPriority(dto.getPriority() != null ? dto.getPriority() : com.todo.app.entity.Todo.Priority.MEDIUM);
+        todo.setDueDate(dto.getDueDate());
+        todo.setCategoryId(dto.getCategoryId());
+        todo.setParentId(dto.getParentId());
+        todo.setCreatedAt(LocalDateTime.now());
+        todo.setUpdatedAt(LocalDateTime.now());
+
+        List<SubTaskCreateDTO> subtasks = dto.getSubtasks() != null ? dto.getSubtasks() : List.of();
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMap(userId -> {
+                    todo.setUserId(userId);
+                    return validateParent(dto.getParentId(), userId)
+                            .then(validateCategory(dto.getCategoryId(), userId))
+                            .then(todoRepository.save(todo));
+                })
+                .flatMap(saved -> adjustAncestors(saved.getParentId(), 1, 0).thenReturn(saved))
+                .flatMap(saved -> Flux.fromIterable(subtasks)
+                        .map(subTaskDto -> newSubTask(saved.getId(), subTaskDto.getTitle()))
+                        .as(subTaskRepository::saveAll)
+                        .then(subtasks.isEmpty() ? Mono.empty() : recalculateProgress(saved.getId()))
+                        .then(getTodoById(saved.getId())));
+    }
+
+    public Flux<Todo> getAllTodos(String search, String priority, Long categoryId, Boolean isCompleted) {
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMapMany(userId -> findAll(userId, search, priority, categoryId, isCompleted));
+    }
+
+    private Flux<Todo> findAll(Long userId, String search, String priority, Long categoryId, Boolean isCompleted) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (search != null) {
+            String pattern = "%" + search + "%";
+            criteria = criteria.and(Criteria.where("title").like(pattern).or("description").like(pattern));
+        }
+        if (priority != null) {
+            criteria = criteria.and("priority").is(com.todo.app.entity.Todo.Priority.valueOf(priority.toUpperCase()).name());
+        }
+        if (categoryId != null) {
+            criteria = criteria.and("categoryId").is(categoryId);
+        }
+        if (isCompleted != null) {
+            criteria = criteria.and("isCompleted").is(isCompleted);
+        }
+
+        return template.select(Todo.class)
+                .matching(Query.query(criteria).sort(Sort.by(Sort.Direction.DESC, "createdAt")))
+                .all()
+                .buffer(ENRICH_BATCH_SIZE)
+                .concatMap(this::enrich);
+    }
+
+    public Mono<Todo> getTodoById(Long id) {
+        return findTodo(id).flatMap(todo -> enrich(List.of(todo)).next());
+    }
+
+    @Transactional
+    public Mono<Todo> updateTodo(Long id, TodoUpdateDTO dto) {
+        return findTodo(id).flatMap(todo -> {
+            boolean wasCompleted = Boolean.TRUE.equals(todo.getIsCompleted());
+            if (dto.getTitle() != null) {
+                todo.setTitle(dto.getTitle());
+            }
+            if (dto.getDescription() != null) {
+                todo.setDescription(dto.getDescription());
+            }
+            if (dto.getIsCompleted() != null) {
+                setCompleted(todo, dto.getIsCompleted());
+            }
+            if (dto.getPriority() != null) {
+                todo.setPriority(dto.getPriority());
+            }
+            if (dto.getDueDate() != null) {
+                todo.setDueDate(dto.getDueDate());
+            }
+            if (dto.getCategoryId() != null) {
+                todo.setCategoryId(dto.getCategoryId());
+            }
+            if (dto.getProgress() != null) {
+                todo.setProgress(dto.getProgress());
+            }
+            todo.setUpdatedAt(LocalDateTime.now());
+            return validateCategory(dto.getCategoryId(), todo.getUserId())
+                    .then(Mono.defer(() -> saveWithCompletion(todo, wasCompleted)));
+        }).flatMap(todo -> getTodoById(todo.getId()));
+    }
+
+    @Transactional
+    public Mono<Todo> toggleTodo(Long id) {
+        return findTodo(id).flatMap(todo -> {
+            boolean wasCompleted = Boolean.TRUE.equals(todo.getIsCompleted());
+            setCompleted(todo, !wasCompleted);
+            todo.setUpdatedAt(LocalDateTime.now());
+            return saveWithCompletion(todo, wasCompleted);
+        }).flatMap(todo -> getTodoById(todo.getId()));
+    }
+
+    @Transactional
+    public Mono<Void> deleteTodo(Long id) {
+        return findTodo(id).flatMap(this::deleteSubtree);
+    }
+
+    @Transactional
+    public Mono<Void> batchDeleteTodos(List<Long> ids) {
+        // 逐个删除：已随祖先节点删除的 Todo 查不到，直接跳过
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMapMany(userId -> Flux.fromIterable(ids)
+                        .concatMap(id -> todoRepository.findByIdAndUserId(id, userId).flatMap(this::deleteSubtree)))
+                .then();
+    }
+
+    @Transactional
+    public Flux<Todo> batchUpdateTodos(List<Long> ids, Boolean isCompleted) {
+        // 其他用户的 ID 直接忽略
+        Flux<Todo> todos = ReactiveSecurityUtils.currentUserId()
+                .flatMapMany(userId -> todoRepository.findByIdInAndUserId(ids, userId));
+        if (isCompleted != null) {
+            todos = todos.concatMap(todo -> {
+                boolean wasCompleted = Boolean.TRUE.equals(todo.getIsCompleted());
+                setCompleted(todo, isCompleted);
+                todo.setUpdatedAt(LocalDateTime.now());
+                return saveWithCompletion(todo, wasCompleted);
+            });
+        }
+        return todos.buffer(ENRICH_BATCH_SIZE).concatMap(this::enrich);
+    }
+
+    /**
+     * 一次聚合查询算出全部统计值（servlet 版本在内存中遍历全部 Todo）
+     */
+    public Mono<StatisticsDTO> getStatistics() {
+        return ReactiveSecurityUtils.currentUserId().flatMap(userId -> databaseClient.sql("SELECT COUNT(*) AS total, " +
+                        "SUM(CASE WHEN is_completed = TRUE THEN 1 ELSE 0 END) AS completed, " +
+                        "SUM(CASE WHEN priority = 'HIGH' THEN 1 ELSE 0 END) AS high, " +
+                        "SUM(CASE WHEN priority = 'MEDIUM' THEN 1 ELSE 0 END) AS medium, " +
+                        "SUM(CASE WHEN priority = 'LOW' THEN 1 ELSE 0 END) AS low, " +
+                        "SUM(CASE WHEN is_completed = FALSE AND due_date < :today THEN 1 ELSE 0 END) AS overdue " +
+                        "FROM todos WHERE user_id = :userId")
+                .bind("today", LocalDate.now())
+                .bind("userId", userId)
+                .map((row, metadata) -> {
+                    int total = intOf(row, "total");
+                    int completed = intOf(row, "completed");
+
+                    StatisticsDTO stats = new StatisticsDTO();
+                    stats.setTotal(total);
+                    stats.setCompleted(completed);
+                    stats.setPending(total - completed);
+                    stats.setCompletionRate(total > 0 ? (completed * 100 / total) : 0);
+
+                    Map<String, Integer> priorityStats = new HashMap<>();
+                    priorityStats.put("high", intOf(row, "high"));
+                    priorityStats.put("medium", intOf(row, "medium"));
+                    priorityStats.put("low", intOf(row, "low"));
+                    stats.setPriorityStats(priorityStats);
+                    stats.setOverdueCount(intOf(row, "overdue"));
+                    return stats;
+                })
+                .one());
+    }
+
+    @Transactional
+    public Mono<SubTask> createSubTask(Long todoId, SubTaskCreateDTO dto) {
+        return findTodo(todoId)
+                .flatMap(todo -> subTaskRepository.save(newSubTask(todoId, dto.getTitle())))
+                .flatMap(subTask -> recalculateProgress(todoId).thenReturn(subTask));
+    }
+
+    @Transactional
+    public Mono<SubTask> toggleSubTask(Long subTaskId) {
+        return findSubTask(subTaskId)
+                .flatMap(subTask -> {
+                    subTask.setIsCompleted(!subTask.getIsCompleted());
+                    return subTaskRepository.save(subTask);
+                })
+                .flatMap(subTask -> recalculateProgress(subTask.getTodoId()).thenReturn(subTask));
+    }
+
+    @Transactional
+    public Mono<Void> deleteSubTask(Long subTaskId) {
+        return findSubTask(subTaskId)
+                .flatMap(subTask -> subTaskRepository.delete(subTask)
+                        .then(recalculateProgress(subTask.getTodoId())));
+    }
+
+    /**
+     * 按 ID 查找当前用户的 Todo；其他用户的 Todo 与不存在的一样返回 404
+     */
+    private Mono<Todo> findTodo(Long id) {
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMap(userId -> todoRepository.findByIdAndUserId(id, userId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found with id: " + id)));
+    }
+
+    /**
+     * 子任务通过所属 Todo 判断归属
+     */
+    private Mono<SubTask> findSubTask(Long id) {
+        return ReactiveSecurityUtils.currentUserId()
+                .flatMap(userId -> subTaskRepository.findById(id)
+                        .filterWhen(subTask -> todoRepository.findByIdAndUserId(subTask.getTodoId(), userId).hasElement()))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "SubTask not found with id: " + id)));
+    }
+
+    /**
+     * 为一批 Todo 填充分类和子任务，保持输入顺序
+     */
+    private Flux<Todo> enrich(List<Todo> todos) {
+        Set<Long> todoIds = todos.stream().map(Todo::getId).collect(Collectors.toSet());
+        Set<Long> categoryIds = todos.stream()
+                .map(Todo::getCategoryId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+
+        Mono<Map<Long, Category>> categories = categoryIds.isEmpty()
+                ? Mono.just(Map.of())
+                : categoryRepository.findAllById(categoryIds).collectMap(Category::getId);
+        Mono<Map<Long, Collection<SubTask>>> subtasks = subTaskRepository.findByTodoIdInOrderByIdAsc(todoIds)
+                .collectMultimap(SubTask::getTodoId);
+
+        return Mono.zip(categories, subtasks).flatMapMany(tuple -> {
+            for (Todo todo : todos) {
+                todo.setCategory(todo.getCategoryId() != null ? tuple.getT1().get(todo.getCategoryId()) : null);
+                Collection<SubTask> children = tuple.getT2().get(todo.getId());
+                todo.setSubtasks(children != null ? List.copyOf(children) : List.of());
+            }
+            return Flux.fromIterable(todos);
+        });
+    }
+
+    private Mono<Todo> saveWithCompletion(Todo todo, boolean wasCompleted) {
+        boolean completed = Boolean.TRUE.equals(todo.getIsCompleted());
+        return todoRepository.save(todo)
+                .flatMap(saved -> completed == wasCompleted
+                        ? Mono.just(saved)
+                        : adjustAncestors(saved.getParentId(), 0, completed ? 1 : -1).thenReturn(saved));
+    }
+
+    /**
+     * 删除 Todo 及其所有子 Todo，并从祖先节点的子树计数中扣除
+     */
+    private Mono<Void> deleteSubtree(Todo root) {
+        return todoRepository.findSubtreeIds(root.getId(), root.getUserId())
+                .collectList()
+                .flatMap(ids -> todoRepository.findAllById(ids)
+                        .filter(todo -> Boolean.TRUE.equals(todo.getIsCompleted()))
+                        .count()
+                        .flatMap(completed -> adjustAncestors(root.getParentId(), -ids.size(), -completed.intValue()))
+                        .then(subTaskRepository.deleteByTodoIdIn(ids))
+                        .then(todoRepository.clearParents(ids))
+                        .then(todoRepository.deleteAllById(ids)));
+    }
+
+    private Mono<Void> validateParent(Long parentId, Long userId) {
+        if (parentId == null) {
+            return Mono.empty();
+        }
+        return todoRepository.findByIdAndUserId(parentId, userId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parent todo not found: " + parentId)))
+                .then();
+    }
+
+    /**
+     * Todo 只能放进当前用户自己的分类
+     */
+    private Mono<Void> validateCategory(Long categoryId, Long userId) {
+        if (categoryId == null) {
+            return Mono.empty();
+        }
+        return categoryRepository.findByIdAndUserId(categoryId, userId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found with id: " + categoryId)))
+                .then();
+    }
+
+    private Mono<Void> adjustAncestors(Long parentId, int count, int completed) {
+        if (parentId == null || (count == 0 && completed == 0)) {
+            return Mono.empty();
+        }
+        return todoRepository.findAncestorIds(parentId)
+                .collectList()
+                .flatMap(ids -> todoRepository.adjustDescendantCounts(ids, count, completed))
+                .then();
+    }
+
+    private Mono<Void> recalculateProgress(Long todoId) {
+        return subTaskRepository.findByTodoId(todoId)
+                .collectList()
+                .flatMap(subtasks -> {
+                    long completed = subtasks.stream().filter(SubTask::getIsCompleted).count();
+                    int progress = subtasks.isEmpty() ? 0 : (int) ((completed * 100) / subtasks.size());
+                    return todoRepository.updateProgress(todoId, progress);
+                })
+                .then();
+    }
+
+    private static SubTask newSubTask(Long todoId, String title) {
+        SubTask subTask = new SubTask();
+        subTask.setTitle(title);
+        subTask.setTodoId(todoId);
+        subTask.setIsCompleted(false);
+        subTask.setCreatedAt(LocalDateTime.now());
+        return subTask;
+    }
+
+    /**
+     * 修改完成状态时同步维护完成时间
+     */
+    private static void setCompleted(Todo todo, boolean completed) {
+        if (Boolean.TRUE.equals(todo.getIsCompleted()) != completed) {
+            todo.setCompletedAt(completed ? LocalDateTime.now() : null);
+        }
+        todo.setIsCompleted(completed);
+    }
+
+    private static int intOf(Row row, String column) {
+        Number value = row.get(column, Number.class);
+        return value != null ? value.intValue() : 0;
+    }
+}
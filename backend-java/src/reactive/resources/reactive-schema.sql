@@ -0,0 +1,49 @@
+-- 进程内 R2DBC 数据库（H2）的表结构，与 JPA 实体生成的 MySQL 表一致
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    avatar VARCHAR(255),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    color VARCHAR(255) NOT NULL,
+    icon VARCHAR(255),
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS todos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(65535),
+    is_completed BOOLEAN NOT NULL DEFAULT FALSE,
+    priority VARCHAR(16) NOT NULL,
+    due_date DATE,
+    has_reminder BOOLEAN NOT NULL DEFAULT FALSE,
+    user_id BIGINT NOT NULL,
+    category_id BIGINT REFERENCES categories (id),
+    parent_id BIGINT REFERENCES todos (id),
+    progress INT NOT NULL DEFAULT 0,
+    descendant_count INT NOT NULL DEFAULT 0,
+    descendants_completed INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_todos_user_created ON todos (user_id, created_at);
+
+CREATE TABLE IF NOT EXISTS subtasks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    is_completed BOOLEAN NOT NULL DEFAULT FALSE,
+    todo_id BIGINT NOT NULL REFERENCES todos (id),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_subtasks_todo ON subtasks (todo_id);
@@ -0,0 +1,189 @@
+package com.todo.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.TodoBackendApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * servlet 版本与 WebFlux 版本的列表接口负载对比
+ *
+ * 同一个 JVM 里先后启动两个应用（各自使用进程内 H2），写入相同的数据，
+ * 然后用 CLIENTS 个并发客户端各请求 REQUESTS_PER_CLIENT 次 GET /api/todos，输出吞吐量和延迟分位数。
+ * 结果只打印不断言（取决于机器），默认跳过：mvn -Preactive test -Dtest=ReactiveLoadComparisonTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ReactiveLoadComparisonTest {
+
+    private static final int TODOS = Integer.getInteger("loadtest.todos", 500);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("loadtest.requests", 50);
+    private static final int WARMUP_REQUESTS = 200;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareListThroughput() throws Exception {
+        List<String> report = new ArrayList<>();
+        try (ConfigurableApplicationContext servlet = startServlet()) {
+            report.add(run("servlet", servlet));
+        }
+        try (ConfigurableApplicationContext reactive = startReactive()) {
+            report.add(run("reactive", reactive));
+        }
+        System.out.printf("GET /api/todos, %d todos, %d clients x %d requests%n", TODOS, CLIENTS, REQUESTS_PER_CLIENT);
+        report.forEach(System.out::println);
+    }
+
+    private ConfigurableApplicationContext startServlet() {
+        return new SpringApplicationBuilder(TodoBackendApplication.class)
+                .web(WebApplicationType.SERVLET)
+                // 命令行参数的优先级高于 application.yml
+                .run("--server.port=0",
+                        "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+                        "--spring.datasource.url=jdbc:h2:mem:load_servlet;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        // 只比较请求处理本身，关闭限流、自适应并发限制和分阶段计时
+                        "--app.rate-limit.enabled=false",
+                        "--app.concurrency-limit.enabled=false",
+                        "--app.archive.enabled=false",
+                        "--app.timing.enabled=false",
+                        "--app.audit.directory=target/load-audit");
+    }
+
+    private ConfigurableApplicationContext startReactive() {
+        return new SpringApplicationBuilder(ReactiveTodoApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///load_reactive;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+    }
+
+    private String run(String name, ConfigurableApplicationContext context) throws Exception {
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        String token = seed(base);
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            list(base, token);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Callable<long[]>> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.add(() -> {
+                    long[] latencies = new long[REQUESTS_PER_CLIENT];
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long start = System.nanoTime();
+                        list(base, token);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                });
+            }
+            long start = System.nanoTime();
+            List<Future<long[]>> results = pool.invokeAll(clients);
+            long elapsed = System.nanoTime() - start;
+
+            long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            int n = 0;
+            for (Future<long[]> result : results) {
+                for (long latency : result.get()) {
+                    all[n++] = latency;
+                }
+            }
+            Arrays.sort(all);
+            return String.format("%-8s %8.1f req/s  p50 %6.1f ms  p99 %6.1f ms  max %6.1f ms",
+                    name, all.length / (elapsed / 1e9),
+                    millis(all[(all.length - 1) / 2]), millis(all[(int) Math.ceil(all.length * 0.99) - 1]),
+                    millis(all[all.length - 1]));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 注册一个用户并写入 TODOS 条 Todo：三个分类轮流使用，每条 0 ~ 2 个子任务
+     */
+    private String seed(String base) throws IOException, InterruptedException {
+        send(base, "POST", "/api/auth/register", null,
+                Map.of("username", "loadtest", "email", "load@example.com", "password", "secret123"));
+        String token = send(base, "POST", "/api/auth/login", null,
+                Map.of("email", "load@example.com", "password", "secret123")).get("accessToken").asText();
+
+        List<Long> categories = new ArrayList<>();
+        for (String category : List.of("a", "b", "c")) {
+            categories.add(send(base, "POST", "/api/categories", token, Map.of("name", category)).get("id").asLong());
+        }
+        for (int i = 0; i < TODOS; i++) {
+            List<Map<String, String>> subtasks = new ArrayList<>();
+            for (int k = 0; k < i % 3; k++) {
+                subtasks.add(Map.of("title", "step " + k));
+            }
+            send(base, "POST", "/api/todos", token, Map.of(
+                    "title", "load " + i,
+                    "description", "load test todo " + i,
+                    "categoryId", categories.get(i % 3),
+                    "subtasks", subtasks));
+        }
+        assertThat(list(base, token)).isGreaterThanOrEqualTo(TODOS);
+        return token;
+    }
+
+    /**
+     * 请求一次完整列表，返回列表条数
+     */
+    private int list(String base, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/todos"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body()).size();
+    }
+
+    private JsonNode send(String base, String method, String path, String token, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).as(method + " " + path).isBetween(200, 299);
+        return objectMapper.readTree(response.body());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,284 @@
+package com.todo.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.todo.reactive.entity.Category;
+import com.todo.reactive.entity.SubTask;
+import com.todo.reactive.entity.Todo;
+import com.todo.reactive.security.ReactiveJwtFilter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.WebFilter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WebFlux 版本的接口测试：随机端口启动 ReactiveTodoApplication，使用进程内 R2DBC H2（reactive-schema.sql 建表）
+ *
+ * 运行：mvn -Preactive test
+ */
+@SpringBootTest(
+        classes = ReactiveTodoApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.config.name=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive_api_test;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE"
+        })
+@AutoConfigureWebTestClient(timeout = "60s")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveTodoApiTest {
+
+    /**
+     * 超过 TodoService.ENRICH_BATCH_SIZE（256）的两倍，列表至少分三批补全
+     */
+    private static final int BULK_TODOS = 600;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private String token;
+    private String otherToken;
+
+    @BeforeAll
+    void login() {
+        // 先注册一个不用的用户，alice 的 ID 不是 1
+        register("carol");
+        otherToken = register("bob");
+        token = register("alice");
+    }
+
+    @Test
+    void jwtFilterOnlyRunsInsideSecurityChain() {
+        assertThat(context.getBeansOfType(ReactiveJwtFilter.class)).isEmpty();
+        assertThat(context.getBeansOfType(WebFilter.class).values())
+                .noneMatch(filter -> filter instanceof ReactiveJwtFilter);
+
+        client.get().uri("/api/todos").exchange().expectStatus().isUnauthorized();
+        client.get().uri("/api/todos").header("Authorization", "Bearer not-a-token")
+                .exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void todoCrud() {
+        Category category = authed(client.post().uri("/api/categories"))
+                .bodyValue(Map.of("name", "Work", "color", "#FF0000"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Category.class).returnResult().getResponseBody();
+
+        Todo created = authed(client.post().uri("/api/todos"))
+                .bodyValue(Map.of(
+                        "title", "crud todo",
+                        "priority", "high",
+                        "categoryId", category.getId(),
+                        "subtasks", List.of(Map.of("title", "step 1"), Map.of("title", "step 2"))))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getCategory().getName()).isEqualTo("Work");
+        assertThat(created.getSubtasks()).extracting(SubTask::getTitle).containsExactly("step 1", "step 2");
+
+        Todo fetched = get(created.getId());
+        assertThat(fetched.getTitle()).isEqualTo("crud todo");
+        assertThat(fetched.getPriority()).isEqualTo(com.todo.app.entity.Todo.Priority.HIGH);
+
+        Todo updated = authed(client.patch().uri("/api/todos/{id}", created.getId()))
+                .bodyValue(Map.of("title", "crud todo (edited)", "progress", 40))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        assertThat(updated.getTitle()).isEqualTo("crud todo (edited)");
+        assertThat(updated.getSubtasks()).hasSize(2);
+
+        Todo toggled = authed(client.patch().uri("/api/todos/{id}/toggle", created.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        assertThat(toggled.getIsCompleted()).isTrue();
+        assertThat(toggled.getCompletedAt()).isNotNull();
+
+        SubTask added = authed(client.post().uri("/api/todos/{id}/subtasks", created.getId()))
+                .bodyValue(Map.of("title", "step 3"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(SubTask.class).returnResult().getResponseBody();
+        SubTask toggledSubTask = authed(client.patch().uri("/api/todos/subtasks/{id}/toggle", added.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(SubTask.class).returnResult().getResponseBody();
+        assertThat(toggledSubTask.getIsCompleted()).isTrue();
+        assertThat(get(created.getId()).getSubtasks()).extracting(SubTask::getTitle)
+                .containsExactly("step 1", "step 2", "step 3");
+
+        authed(client.delete().uri("/api/todos/subtasks/{id}", added.getId()))
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        assertThat(get(created.getId()).getSubtasks()).hasSize(2);
+
+        authed(client.delete().uri("/api/todos/{id}", created.getId()))
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        authed(client.get().uri("/api/todos/{id}", created.getId()))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void streamedListEnrichesEveryBatch() {
+        List<Category> categories = new ArrayList<>();
+        for (String name : List.of("bulk-a", "bulk-b", "bulk-c")) {
+            categories.add(authed(client.post().uri("/api/categories"))
+                    .bodyValue(Map.of("name", name))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(Category.class).returnResult().getResponseBody());
+        }
+
+        // 第 i 条：i % 4 == 0 时没有分类，否则轮流使用三个分类；子任务数为 i % 3
+        for (int i = 0; i < BULK_TODOS; i++) {
+            Map<String, Object> dto = new HashMap<>();
+            dto.put("title", "bulk-" + i);
+            if (i % 4 != 0) {
+                dto.put("categoryId", categories.get(i % 3).getId());
+            }
+            List<Map<String, String>> subtasks = new ArrayList<>();
+            for (int k = 0; k < i % 3; k++) {
+                subtasks.add(Map.of("title", "bulk-" + i + "-" + k));
+            }
+            dto.put("subtasks", subtasks);
+            authed(client.post().uri("/api/todos")).bodyValue(dto).exchange().expectStatus().isCreated();
+        }
+
+        for (MediaType mediaType : List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)) {
+            List<Todo> todos = authed(client.get().uri("/api/todos?search=bulk-"))
+                    .accept(mediaType)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .returnResult(Todo.class)
+                    .getResponseBody()
+                    .collectList()
+                    .block();
+
+            assertThat(todos).as(mediaType.toString()).hasSize(BULK_TODOS);
+            Map<String, Todo> byTitle = todos.stream().collect(Collectors.toMap(Todo::getTitle, todo -> todo));
+            for (int i = 0; i < BULK_TODOS; i++) {
+                Todo todo = byTitle.get("bulk-" + i);
+                assertThat(todo).as("bulk-" + i).isNotNull();
+                if (i % 4 == 0) {
+                    assertThat(todo.getCategory()).as("bulk-" + i).isNull();
+                } else {
+                    assertThat(todo.getCategory().getName()).as("bulk-" + i).isEqualTo(categories.get(i % 3).getName());
+                }
+                List<String> expected = new ArrayList<>();
+                for (int k = 0; k < i % 3; k++) {
+                    expected.add("bulk-" + i + "-" + k);
+                }
+                assertThat(todo.getSubtasks()).as("bulk-" + i).extracting(SubTask::getTitle)
+                        .containsExactlyElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    void otherUsersCannotSeeOrChangeTodos() {
+        Category category = authed(client.post().uri("/api/categories"))
+                .bodyValue(Map.of("name", "Private"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Category.class).returnResult().getResponseBody();
+        Todo todo = authed(client.post().uri("/api/todos"))
+                .bodyValue(Map.of("title", "alice only", "categoryId", category.getId(),
+                        "subtasks", List.of(Map.of("title", "secret step"))))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        Long subTaskId = todo.getSubtasks().get(0).getId();
+
+        List<Todo> bobsTodos = asOther(client.get().uri("/api/todos"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Todo.class).getResponseBody().collectList().block();
+        assertThat(bobsTodos).extracting(Todo::getId).doesNotContain(todo.getId());
+        List<Category> bobsCategories = asOther(client.get().uri("/api/categories"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Category.class).getResponseBody().collectList().block();
+        assertThat(bobsCategories).extracting(Category::getId).doesNotContain(category.getId());
+
+        asOther(client.get().uri("/api/todos/{id}", todo.getId())).exchange().expectStatus().isNotFound();
+        asOther(client.patch().uri("/api/todos/{id}", todo.getId()))
+                .bodyValue(Map.of("title", "hijacked"))
+                .exchange().expectStatus().isNotFound();
+        asOther(client.patch().uri("/api/todos/{id}/toggle", todo.getId())).exchange().expectStatus().isNotFound();
+        asOther(client.post().uri("/api/todos/{id}/subtasks", todo.getId()))
+                .bodyValue(Map.of("title", "injected"))
+                .exchange().expectStatus().isNotFound();
+        asOther(client.patch().uri("/api/todos/subtasks/{id}/toggle", subTaskId)).exchange().expectStatus().isNotFound();
+        asOther(client.delete().uri("/api/todos/subtasks/{id}", subTaskId)).exchange().expectStatus().isNotFound();
+        asOther(client.delete().uri("/api/todos/{id}", todo.getId())).exchange().expectStatus().isNotFound();
+        asOther(client.method(HttpMethod.DELETE).uri("/api/todos/batch"))
+                .bodyValue(List.of(todo.getId()))
+                .exchange().expectStatus().is2xxSuccessful();
+        asOther(client.get().uri("/api/categories/{id}", category.getId())).exchange().expectStatus().isNotFound();
+        asOther(client.delete().uri("/api/categories/{id}", category.getId())).exchange().expectStatus().isNotFound();
+        asOther(client.post().uri("/api/todos"))
+                .bodyValue(Map.of("title", "uses alice's category", "categoryId", category.getId()))
+                .exchange().expectStatus().isNotFound();
+
+        Todo unchanged = get(todo.getId());
+        assertThat(unchanged.getTitle()).isEqualTo("alice only");
+        assertThat(unchanged.getIsCompleted()).isFalse();
+        assertThat(unchanged.getCategory().getName()).isEqualTo("Private");
+        assertThat(unchanged.getSubtasks()).extracting(SubTask::getTitle).containsExactly("secret step");
+    }
+
+    private String register(String username) {
+        client.post().uri("/api/auth/register")
+                .bodyValue(Map.of("username", username, "email", username + "@example.com", "password", "secret123"))
+                .exchange()
+                .expectStatus().isCreated();
+        JsonNode body = client.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", username + "@example.com", "password", "secret123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+        return body.get("accessToken").asText();
+    }
+
+    private Todo get(Long id) {
+        return authed(client.get().uri("/api/todos/{id}", id))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+    }
+
+    private <S extends WebTestClient.RequestHeadersSpec<?>> S authed(S spec) {
+        spec.header("Authorization", "Bearer " + token);
+        return spec;
+    }
+
+    private <S extends WebTestClient.RequestHeadersSpec<?>> S asOther(S spec) {
+        spec.header("Authorization", "Bearer " + otherToken);
+        return spec;
+    }
+}
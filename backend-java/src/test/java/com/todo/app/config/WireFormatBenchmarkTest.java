@@ -0,0 +1,180 @@
+package com.todo.app.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.todo.app.entity.Category;
+import com.todo.app.entity.SubTask;
+import com.todo.app.entity.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /api/todos 列表在 JSON / Smile / CBOR 下的响应体大小（原始和 gzip 后）与序列化耗时
+ *
+ * ObjectMapper 的构建方式与 WebConfig 的转换器一致（Jackson2ObjectMapperBuilder + TodoJsonSerializers）。
+ * 大小对比每次构建都跑；耗时对比默认跳过：mvn test -Dtest=WireFormatBenchmarkTest -Dbenchmark=true
+ */
+class WireFormatBenchmarkTest {
+
+    private static final int TODOS = Integer.getInteger("benchmark.todos", 200);
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURE_ROUNDS = 2_000;
+
+    private static final String[] TITLES = {"Review pull request", "Write weekly report", "Book dentist appointment",
+            "Prepare sprint demo", "Renew passport", "Fix flaky login test", "Plan team offsite", "Update dependencies"};
+
+    private final List<Todo> todos = todos(TODOS);
+
+    @Test
+    void binaryFormatsCarryTheSameListInFewerBytes() throws IOException {
+        Map<String, ObjectMapper> mappers = mappers();
+        JsonNode expected = mappers.get("json").readTree(mappers.get("json").writeValueAsBytes(todos));
+        assertThat(expected.size()).isEqualTo(TODOS);
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+            byte[] body = format.getValue().writeValueAsBytes(todos);
+            assertThat(format.getValue().readTree(body)).as(format.getKey()).isEqualTo(expected);
+            sizes.put(format.getKey(), body.length);
+            System.out.printf("%-6s %8d bytes  gzip %7d bytes%n", format.getKey(), body.length, gzip(body).length);
+        }
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void serializationCost() throws IOException {
+        // 对照组放在最前面：不注册 TodoJsonSerializers，走 BeanSerializer 反射
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json (BeanSerializer)", new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        mappers.putAll(mappers());
+
+        System.out.printf("%d todos, %d rounds after %d warm-up rounds%n", TODOS, MEASURE_ROUNDS, WARMUP_ROUNDS);
+        for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] body = mapper.writeValueAsBytes(todos);
+            long sink = 0;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += mapper.writeValueAsBytes(todos).length;
+                sink += mapper.readTree(body).size();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                sink += mapper.writeValueAsBytes(todos).length;
+            }
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                sink += mapper.readTree(body).size();
+            }
+            long read = System.nanoTime() - start;
+
+            assertThat(sink).isPositive();
+            System.out.printf("%-22s write %7.1f us/op  read %7.1f us/op  %8d bytes%n", format.getKey(),
+                    write / 1e3 / MEASURE_ROUNDS, read / 1e3 / MEASURE_ROUNDS, body.length);
+        }
+    }
+
+    /**
+     * 与 WebConfig 一样：同一套 Jackson2ObjectMapperBuilder 配置，换不同的 JsonFactory
+     */
+    private static Map<String, ObjectMapper> mappers() {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", builder().factory(new JsonFactory()).build());
+        mappers.put("smile", builder().factory(new SmileFactory()).build());
+        mappers.put("cbor", builder().factory(new CBORFactory()).build());
+        return mappers;
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        // @JsonComponent 在应用里由 JsonComponentModule 注册，这里直接注册同样的序列化器；
+        // 日期格式与 Spring Boot 的默认配置一致（ISO 字符串）
+        return new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializerByType(Todo.class, new TodoJsonSerializers.TodoSerializer())
+                .serializerByType(SubTask.class, new TodoJsonSerializers.SubTaskSerializer());
+    }
+
+    /**
+     * 接近真实列表的数据：三个分类轮流使用（每 4 条有 1 条没有分类），每条 0 ~ 3 个子任务，部分带标签和截止日期
+     */
+    private static List<Todo> todos(int count) {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 9, 30);
+        List<Category> categories = new ArrayList<>();
+        String[][] names = {{"Work", "#3B82F6", "briefcase"}, {"Personal", "#10B981", "home"}, {"Errands", "#F59E0B", "cart"}};
+        for (int i = 0; i < names.length; i++) {
+            Category category = new Category();
+            category.setId(i + 1L);
+            category.setName(names[i][0]);
+            category.setColor(names[i][1]);
+            category.setIcon(names[i][2]);
+            category.setUserId(1L);
+            category.setCreatedAt(now.minusDays(30));
+            categories.add(category);
+        }
+
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Todo todo = new Todo();
+            todo.setId(1000L + i);
+            todo.setTitle(TITLES[i % TITLES.length] + " #" + i);
+            todo.setDescription(i % 2 == 0 ? "" : "Follow up with the team and capture the decisions in the shared doc.");
+            todo.setPriority(Todo.Priority.values()[i % Todo.Priority.values().length]);
+            todo.setIsCompleted(i % 5 == 0);
+            todo.setCompletedAt(i % 5 == 0 ? now.minusHours(i) : null);
+            todo.setDueDate(i % 3 == 0 ? LocalDate.of(2026, 10, 1).plusDays(i % 14) : null);
+            todo.setUserId(1L);
+            if (i % 4 != 0) {
+                Category category = categories.get(i % 3);
+                todo.setCategory(category);
+                todo.setCategoryId(category.getId());
+            }
+            todo.setTags(i % 3 == 1 ? "work,urgent" : null);
+            todo.setProgress(i % 5 == 0 ? 100 : (i * 7) % 100);
+            todo.setCreatedAt(now.minusMinutes(i * 37L));
+            todo.setUpdatedAt(now.minusMinutes(i * 11L));
+            List<SubTask> subtasks = new ArrayList<>();
+            for (int k = 0; k < i % 4; k++) {
+                SubTask subTask = new SubTask();
+                subTask.setId(5000L + i * 4L + k);
+                subTask.setTitle("Step " + (k + 1));
+                subTask.setIsCompleted(k == 0);
+                subTask.setTodoId(todo.getId());
+                subTask.setCreatedAt(now.minusMinutes(i * 37L - k));
+                subtasks.add(subTask);
+            }
+            todo.setSubtasks(subtasks);
+            todos.add(todo);
+        }
+        return todos;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+package com.todo.app.embedded;
+
+import com.todo.app.entity.Category;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EmbeddedStore 的事务语义：读已提交、行锁、只重放已提交的事务
+ *
+ * "崩溃"用不调用 stop() 的方式模拟：在同一个目录上再打开一个 EmbeddedStore，只能看到 WAL 和快照文件。
+ */
+class EmbeddedStoreTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final List<EmbeddedStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        opened.forEach(EmbeddedStore::stop);
+    }
+
+    @Test
+    void uncommittedWritesAreInvisibleToOthersAndDiscardedOnRecovery() throws Exception {
+        EmbeddedStore store = open(Duration.ofSeconds(5));
+        Table<Category> categories = store.table("categories");
+        Long committedId = inTransaction(store, () -> store.put(categories, category("committed")));
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> inTransaction(store, () -> {
+            store.put(categories, category("uncommitted"));
+            store.update(categories, committedId, row -> rename(row, "changed"));
+            assertThat(names(categories)).containsExactlyInAnyOrder("changed", "uncommitted");
+            written.countDown();
+            await(release);
+            return null;
+        }));
+        await(written);
+
+        // 其他请求只看到已提交的值，按索引查询也一样
+        assertThat(names(categories)).containsExactly("committed");
+        assertThat(categories.lookup("userId", 1L)).extracting(Category::getName).containsExactly("committed");
+        assertThat(categories.size()).isEqualTo(1);
+
+        EmbeddedStore recovered = open(Duration.ofSeconds(5));
+        assertThat(names(recovered.table("categories"))).containsExactly("committed");
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        assertThat(names(open(Duration.ofSeconds(5)).table("categories")))
+                .containsExactlyInAnyOrder("changed", "uncommitted");
+    }
+
+    @Test
+    void rollbackDoesNotOverwriteWritesCommittedByOthers() throws Exception {
+        EmbeddedStore store = open(Duration.ofSeconds(5));
+        Table<Category> categories = store.table("categories");
+        Long id = store.put(categories, category("original"));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> rolledBack = CompletableFuture.runAsync(() -> new TransactionTemplate(
+                new EmbeddedTransactionManager(store)).executeWithoutResult(status -> {
+            store.update(categories, id, row -> rename(row, "rolled back"));
+            locked.countDown();
+            await(release);
+            status.setRollbackOnly();
+        }));
+        await(locked);
+
+        // 另一个事务改同一行：等到前一个事务回滚后才写入，回滚不会把它覆盖掉
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> inTransaction(store,
+                () -> store.update(categories, id, row -> rename(row, "other"))));
+        Thread.sleep(100);
+        assertThat(other).isNotDone();
+
+        release.countDown();
+        rolledBack.get(5, TimeUnit.SECONDS);
+        other.get(5, TimeUnit.SECONDS);
+        assertThat(categories.get(id).getName()).isEqualTo("other");
+        assertThat(names(open(Duration.ofSeconds(5)).table("categories"))).containsExactly("other");
+    }
+
+    @Test
+    void waitingForALockedRowTimesOut() throws Exception {
+        EmbeddedStore store = open(Duration.ofMillis(100));
+        Table<Category> categories = store.table("categories");
+        Long id = store.put(categories, category("original"));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> inTransaction(store, () -> {
+            store.update(categories, id, row -> rename(row, "held"));
+            locked.countDown();
+            await(release);
+            return null;
+        }));
+        await(locked);
+
+        assertThatThrownBy(() -> store.delete(categories, id)).isInstanceOf(CannotAcquireLockException.class);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(categories.get(id).getName()).isEqualTo("held");
+    }
+
+    private EmbeddedStore open(Duration lockTimeout) throws Exception {
+        EmbeddedProperties properties = new EmbeddedProperties();
+        properties.setDataDir(dataDir.toString());
+        properties.setSegmentSizeMb(1);
+        properties.setLockTimeout(lockTimeout);
+        EmbeddedStore store = new EmbeddedStore(properties);
+        store.start();
+        opened.add(store);
+        return store;
+    }
+
+    private static <T> T inTransaction(EmbeddedStore store, Supplier<T> action) {
+        return new TransactionTemplate(new EmbeddedTransactionManager(store)).execute(status -> action.get());
+    }
+
+    private static List<String> names(Table<Category> categories) {
+        return categories.all().stream().map(Category::getName).toList();
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category.setUserId(1L);
+        category.setCreatedAt(LocalDateTime.of(2026, 10, 1, 9, 0));
+        return category;
+    }
+
+    private static Category rename(Category category, String name) {
+        category.setName(name);
+        return category;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
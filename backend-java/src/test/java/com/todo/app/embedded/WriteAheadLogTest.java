@@ -0,0 +1,131 @@
+package com.todo.app.embedded;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WriteAheadLog 的崩溃恢复：写到一半的尾部记录被丢弃，之后从最后一条完整记录继续追加
+ */
+class WriteAheadLogTest {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    private final List<WriteAheadLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeLogs() {
+        opened.forEach(WriteAheadLog::close);
+    }
+
+    @Test
+    void tornTailRecordIsDroppedAndOverwritten() throws IOException {
+        WriteAheadLog wal = open(new LinkedHashMap<>());
+        wal.append(bytes("first"));
+        wal.append(bytes("second"));
+        close(wal);
+
+        // 第三条只写了头部和一半内容：长度完整，校验和对不上
+        int tail = 2 * HEADER_SIZE + "first".length() + "second".length();
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(HEADER_SIZE + 4);
+            torn.putInt(8).putInt(0xCAFEBABE).putLong(3).put(bytes("thi"));
+            torn.flip();
+            channel.write(torn, tail);
+        }
+
+        Map<Long, String> replayed = new LinkedHashMap<>();
+        wal = open(replayed);
+        assertThat(replayed).containsExactly(Map.entry(1L, "first"), Map.entry(2L, "second"));
+        assertThat(wal.lastLsn()).isEqualTo(2);
+
+        // 新记录从被截断的位置写起，沿用下一个 LSN
+        assertThat(wal.append(bytes("third"))).isEqualTo(3);
+        close(wal);
+
+        replayed.clear();
+        wal = open(replayed);
+        assertThat(replayed).containsExactly(Map.entry(1L, "first"), Map.entry(2L, "second"), Map.entry(3L, "third"));
+        assertThat(wal.lastLsn()).isEqualTo(3);
+    }
+
+    @Test
+    void lengthRunningPastTheSegmentEndsTheLog() throws IOException {
+        WriteAheadLog wal = open(new LinkedHashMap<>());
+        wal.append(bytes("only"));
+        close(wal);
+
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(HEADER_SIZE);
+            torn.putInt(SEGMENT_SIZE).putInt(0).putLong(2);
+            torn.flip();
+            channel.write(torn, HEADER_SIZE + "only".length());
+        }
+
+        Map<Long, String> replayed = new LinkedHashMap<>();
+        wal = open(replayed);
+        assertThat(replayed).containsExactly(Map.entry(1L, "only"));
+        assertThat(wal.append(bytes("next"))).isEqualTo(2);
+    }
+
+    @Test
+    void replayStartsAfterTheSnapshotLsn() throws IOException {
+        WriteAheadLog wal = open(new LinkedHashMap<>());
+        for (int i = 1; i <= 5; i++) {
+            wal.append(bytes("record-" + i));
+        }
+        close(wal);
+
+        Map<Long, String> replayed = new LinkedHashMap<>();
+        WriteAheadLog reopened = new WriteAheadLog(dir, SEGMENT_SIZE, Duration.ZERO);
+        reopened.open(3, (lsn, payload) -> replayed.put(lsn, new String(payload, StandardCharsets.UTF_8)));
+        opened.add(reopened);
+
+        assertThat(replayed).containsExactly(Map.entry(4L, "record-4"), Map.entry(5L, "record-5"));
+        assertThat(reopened.append(bytes("record-6"))).isEqualTo(6);
+    }
+
+    private WriteAheadLog open(Map<Long, String> replayed) throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(dir, SEGMENT_SIZE, Duration.ZERO);
+        wal.open(0, (lsn, payload) -> replayed.put(lsn, new String(payload, StandardCharsets.UTF_8)));
+        opened.add(wal);
+        return wal;
+    }
+
+    private void close(WriteAheadLog wal) {
+        opened.remove(wal);
+        wal.close();
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,275 @@
+package com.todo.app.invalidation;
+
+import com.todo.app.dto.SuggestionDTO;
+import com.todo.app.entity.Todo;
+import com.todo.app.repository.CategoryRepository;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.UserRepository;
+import com.todo.app.service.AvailabilityService;
+import com.todo.app.service.SuggestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 同一台机器上的两个"实例"：各自一个 InvalidationBus 和进程内缓存，共用一个进程内传输层和一份数据
+ *
+ * 传输层按线上格式编码 / 解码（InvalidationBatch.encode / decode），同步投递给所有实例（包括发送方，由 bus 过滤）。
+ */
+class InvalidationBusTest {
+
+    private static final Long USER_ID = 7L;
+
+    /**
+     * 进程内的"网络"：send 把一批消息编码后投递给所有已 start 的实例
+     */
+    static final class LoopbackNetwork {
+        private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+        private final List<InvalidationBatch> sent = new CopyOnWriteArrayList<>();
+
+        InvalidationTransport transport() {
+            return new InvalidationTransport() {
+                @Override
+                public void start(Consumer<InvalidationBatch> receiver) {
+                    receivers.add(receiver);
+                }
+
+                @Override
+                public void send(InvalidationBatch batch) {
+                    sent.add(batch);
+                    byte[] data = batch.encode().getBytes(StandardCharsets.UTF_8);
+                    for (Consumer<InvalidationBatch> receiver : receivers) {
+                        receiver.accept(InvalidationBatch.decode(data, data.length));
+                    }
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public String name() {
+                    return "loopback";
+                }
+            };
+        }
+    }
+
+    private final LoopbackNetwork network = new LoopbackNetwork();
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final List<Todo> rows = new CopyOnWriteArrayList<>();
+
+    private InvalidationBus busA;
+    private InvalidationBus busB;
+    private SuggestService suggestA;
+    private SuggestService suggestB;
+
+    @BeforeEach
+    void startNodes() throws Exception {
+        when(todoRepository.findByUserIdOrderByCreatedAtDesc(anyLong())).thenAnswer(invocation -> new ArrayList<>(rows));
+        when(categoryRepository.findByUserIdOrderByCreatedAtDesc(anyLong())).thenReturn(List.of());
+
+        // 后台 flusher 间隔很长，测试里显式 flush()，批次内容是确定的；跨实例的用例单独用短间隔
+        busA = node("node-a", Duration.ofHours(1));
+        busB = node("node-b", Duration.ofHours(1));
+        suggestA = new SuggestService(todoRepository, categoryRepository, busA);
+        suggestB = new SuggestService(todoRepository, categoryRepository, busB);
+        // 与 InvalidationConfig 的订阅一致
+        busA.subscribe(InvalidationBus.SUGGEST, key -> suggestA.evictLocalIndex(Long.valueOf(key)));
+        busB.subscribe(InvalidationBus.SUGGEST, key -> suggestB.evictLocalIndex(Long.valueOf(key)));
+    }
+
+    @AfterEach
+    void stopNodes() {
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    void writeOnOneNodeEvictsTheOtherNodesSuggestIndex() throws Exception {
+        busA.close();
+        busA = node("node-a", Duration.ofMillis(10));
+        suggestA = new SuggestService(todoRepository, categoryRepository, busA);
+
+        rows.add(todo(1L, "alpha"));
+        assertThat(titles(suggestB)).containsExactly("alpha");
+        // 第二次查询命中 B 的本地索引，不再查库
+        assertThat(titles(suggestB)).containsExactly("alpha");
+        verify(todoRepository, times(1)).findByUserIdOrderByCreatedAtDesc(USER_ID);
+
+        // A 上新建一条 Todo（已提交，两个实例共用的库里已经有这一行），由 A 的 flusher 线程发出
+        Todo created = todo(2L, "alpha two");
+        rows.add(created);
+        suggestA.onTodoSaved(created);
+
+        awaitTrue(() -> busB.stats().get("invalidationsApplied").equals(1L));
+        assertThat(titles(suggestB)).containsExactlyInAnyOrder("alpha", "alpha two");
+        verify(todoRepository, times(2)).findByUserIdOrderByCreatedAtDesc(USER_ID);
+    }
+
+    @Test
+    void publishInsideTransactionIsSentOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            busA.publish(InvalidationBus.SUGGEST, USER_ID);
+            busA.flush();
+            assertThat(network.sent).isEmpty();
+
+            // 回滚：不广播
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        busA.flush();
+        assertThat(network.sent).isEmpty();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            busA.publish(InvalidationBus.SUGGEST, USER_ID);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        busA.flush();
+        assertThat(network.sent).hasSize(1);
+        assertThat(busB.stats().get("invalidationsApplied")).isEqualTo(1L);
+    }
+
+    @Test
+    void repeatedInvalidationsOfOneKeyAreCoalesced() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        busB.subscribe(InvalidationBus.TAGS, received::add);
+
+        for (int i = 0; i < 10; i++) {
+            busA.publish(InvalidationBus.TAGS, USER_ID);
+        }
+        busA.publish(InvalidationBus.TAGS, 8L);
+        busA.flush();
+
+        assertThat(network.sent).hasSize(1);
+        assertThat(network.sent.get(0).entries()).hasSize(2);
+        assertThat(received).containsExactly(String.valueOf(USER_ID), "8");
+        assertThat(busA.stats().get("coalesced")).isEqualTo(9L);
+    }
+
+    @Test
+    void staleAndDuplicateMessagesAreDropped() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        busB.subscribe(InvalidationBus.CATEGORY, received::add);
+
+        long before = busB.version(InvalidationBus.CATEGORY, 3L);
+        busB.receive(batch("node-a", 200));
+        assertThat(busB.isCurrent(InvalidationBus.CATEGORY, 3L, before)).isFalse();
+
+        long loaded = busB.version(InvalidationBus.CATEGORY, 3L);
+        // 重复和乱序到达的旧消息：不通知订阅者，也不让已加载的缓存项过期
+        busB.receive(batch("node-a", 200));
+        busB.receive(batch("node-a", 100));
+        assertThat(busB.isCurrent(InvalidationBus.CATEGORY, 3L, loaded)).isTrue();
+        // 版本号按发送实例各自比较
+        busB.receive(batch("node-c", 100));
+
+        assertThat(received).containsExactly("3", "3");
+        assertThat(busB.stats().get("staleDropped")).isEqualTo(2L);
+    }
+
+    @Test
+    void userRegisteredOnOneNodeIsNoLongerAvailableOnTheOther() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamIdentities()).thenReturn(Stream.empty());
+        AvailabilityService availabilityB = new AvailabilityService(userRepository, mock(PlatformTransactionManager.class));
+        availabilityB.rebuild();
+        // 与 InvalidationConfig 的订阅一致
+        busB.subscribe(InvalidationBus.USER, key -> availabilityB.onRemoteUserChanged(Long.valueOf(key)));
+
+        // 过滤器是空的：不查库直接回答"可用"
+        assertThat(availabilityB.usernameTaken("Carol")).isFalse();
+        verify(userRepository, times(0)).existsByUsername("Carol");
+
+        // A 上注册了 carol（已提交），A 广播 USER
+        when(userRepository.findIdentityById(42L)).thenReturn(Optional.of(identity("carol", "carol@example.com")));
+        when(userRepository.existsByUsername("Carol")).thenReturn(true);
+        when(userRepository.existsByEmail("CAROL@example.com")).thenReturn(true);
+        busA.publish(InvalidationBus.USER, 42L);
+        busA.flush();
+
+        assertThat(availabilityB.usernameTaken("Carol")).isTrue();
+        assertThat(availabilityB.emailTaken("CAROL@example.com")).isTrue();
+    }
+
+    private InvalidationBus node(String nodeId, Duration flushInterval) throws Exception {
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setNodeId(nodeId);
+        properties.setFlushInterval(flushInterval);
+        InvalidationBus bus = new InvalidationBus(properties, network.transport());
+        bus.start();
+        return bus;
+    }
+
+    private static InvalidationBatch batch(String origin, long version) {
+        return new InvalidationBatch(origin, List.of(new InvalidationBatch.Entry(InvalidationBus.CATEGORY, "3", version)));
+    }
+
+    private static List<String> titles(SuggestService suggestService) {
+        return suggestService.suggest(USER_ID, "alp", 10).getTodos().stream().map(SuggestionDTO::getText).toList();
+    }
+
+    private static UserRepository.Identity identity(String username, String email) {
+        return new UserRepository.Identity() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    private static Todo todo(Long id, String title) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setTitle(title);
+        todo.setUserId(USER_ID);
+        return todo;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for invalidation");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.todo.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CuckooFilter：插入过且未删除的值永远不会漏判，删除只去掉一份指纹
+ */
+class CuckooFilterTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void noFalseNegativesAcrossAddsAndRemoves() {
+        CuckooFilter filter = new CuckooFilter(KEYS);
+        List<String> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user" + i + "@example.com";
+            keys.add(key);
+            assertThat(filter.add(key)).as(key).isTrue();
+        }
+        assertThat(filter.isSaturated()).isFalse();
+        assertThat(filter.size()).isEqualTo(KEYS);
+        assertThat(keys).allMatch(filter::mightContain);
+
+        for (int i = 0; i < KEYS; i += 2) {
+            assertThat(filter.remove(keys.get(i))).as(keys.get(i)).isTrue();
+        }
+        assertThat(filter.size()).isEqualTo(KEYS / 2);
+        for (int i = 1; i < KEYS; i += 2) {
+            assertThat(filter.mightContain(keys.get(i))).as(keys.get(i)).isTrue();
+        }
+
+        // 删除后再插入（改名后又改回来）
+        for (int i = 0; i < KEYS; i += 2) {
+            filter.add(keys.get(i));
+        }
+        assertThat(keys).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void duplicateAddsNeedAsManyRemoves() {
+        CuckooFilter filter = new CuckooFilter(100);
+        filter.add("alice");
+        filter.add("alice");
+
+        assertThat(filter.remove("alice")).isTrue();
+        assertThat(filter.mightContain("alice")).isTrue();
+        assertThat(filter.remove("alice")).isTrue();
+        assertThat(filter.size()).isZero();
+    }
+
+    @Test
+    void falsePositivesStayNearTheTheoreticalRate() {
+        CuckooFilter filter = new CuckooFilter(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("member-" + i);
+        }
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 理论值约 0.01%，留出一个数量级的余量
+        assertThat((double) falsePositives / probes).isLessThan(filter.expectedFalsePositiveRate() * 10 + 0.0005);
+    }
+}
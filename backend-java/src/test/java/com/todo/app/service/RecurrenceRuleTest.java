@@ -0,0 +1,119 @@
+package com.todo.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RecurrenceRule 的展开结果与 RFC 5545 一致（不存在的日期跳过，周从周一开始）
+ */
+class RecurrenceRuleTest {
+
+    @Test
+    void yearlyFromLeapDayOnlyOccursInLeapYears() {
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:FREQ=YEARLY");
+        LocalDate start = date("2024-02-29");
+
+        assertThat(rule.between(start, null, date("2024-01-01"), date("2033-12-31")))
+                .containsExactly(date("2024-02-29"), date("2028-02-29"), date("2032-02-29"));
+        assertThat(rule.nextAfter(start, null, start)).isEqualTo(date("2028-02-29"));
+        assertThat(RecurrenceRule.parse("FREQ=YEARLY;COUNT=3").lastDate(start)).isEqualTo(date("2032-02-29"));
+    }
+
+    @Test
+    void monthlyOnTheThirtyFirstSkipsShortMonths() {
+        RecurrenceRule rule = RecurrenceRule.parse("MONTHLY");
+
+        assertThat(rule.between(date("2025-01-31"), null, date("2025-01-01"), date("2025-08-31")))
+                .containsExactly(date("2025-01-31"), date("2025-03-31"), date("2025-05-31"),
+                        date("2025-07-31"), date("2025-08-31"));
+    }
+
+    @Test
+    void negativeMonthDaysCountFromTheEndOfEachMonth() {
+        assertThat(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1")
+                .between(date("2024-01-15"), null, date("2024-01-01"), date("2024-04-30")))
+                .containsExactly(date("2024-01-31"), date("2024-02-29"), date("2024-03-31"), date("2024-04-30"));
+
+        assertThat(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1,1")
+                .between(date("2024-01-01"), null, date("2024-01-01"), date("2024-02-29")))
+                .containsExactly(date("2024-01-01"), date("2024-01-31"), date("2024-02-01"), date("2024-02-29"));
+
+        // -31 只在 31 天的月份存在，就是 1 号
+        assertThat(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-31")
+                .between(date("2024-01-01"), null, date("2024-01-01"), date("2024-05-31")))
+                .containsExactly(date("2024-01-01"), date("2024-03-01"), date("2024-05-01"));
+    }
+
+    @Test
+    void biweeklyDaysStayInTheWeekThatStartsOnMonday() {
+        // 起始日是周三：第一周的周一早于起始日不算，周日属于同一周
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,SU");
+        LocalDate start = date("2024-01-03");
+
+        assertThat(rule.between(start, null, date("2024-01-01"), date("2024-02-04")))
+                .containsExactly(date("2024-01-07"), date("2024-01-15"), date("2024-01-21"),
+                        date("2024-01-29"), date("2024-02-04"));
+        assertThat(rule.nextAfter(start, null, date("2024-01-07"))).isEqualTo(date("2024-01-15"));
+        assertThat(rule.matches(start, null, date("2024-01-08"))).isFalse();
+        assertThat(rule.matches(start, null, date("2024-01-14"))).isFalse();
+    }
+
+    @Test
+    void countIsResolvedToTheDateOfTheLastOccurrence() {
+        LocalDate start = date("2024-01-02");
+        RecurrenceRule weekly = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU,TH;COUNT=5");
+        LocalDate last = weekly.lastDate(start);
+
+        assertThat(last).isEqualTo(date("2024-01-16"));
+        assertThat(weekly.between(start, last, date("2024-01-01"), date("2024-12-31")))
+                .containsExactly(date("2024-01-02"), date("2024-01-04"), date("2024-01-09"),
+                        date("2024-01-11"), date("2024-01-16"));
+        assertThat(weekly.nextAfter(start, last, last)).isNull();
+
+        assertThat(RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3").lastDate(date("2025-01-31")))
+                .isEqualTo(date("2025-05-31"));
+        // UNTIL 收紧到不晚于它的最后一次
+        assertThat(RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20240120").lastDate(start)).isEqualTo(date("2024-01-16"));
+        assertThat(RecurrenceRule.parse("DAILY").lastDate(start)).isNull();
+    }
+
+    @Test
+    void windowEdgesAreInclusiveAndClampedToTheSeries() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3");
+        LocalDate start = date("2024-01-01");
+        LocalDate end = date("2024-01-13");
+
+        assertThat(rule.between(start, end, date("2024-01-04"), date("2024-01-10")))
+                .containsExactly(date("2024-01-04"), date("2024-01-07"), date("2024-01-10"));
+        assertThat(rule.between(start, end, date("2023-12-01"), date("2024-01-02")))
+                .containsExactly(date("2024-01-01"));
+        assertThat(rule.between(start, end, date("2024-01-12"), date("2024-02-01")))
+                .containsExactly(date("2024-01-13"));
+        assertThat(rule.between(start, end, date("2024-01-05"), date("2024-01-06"))).isEmpty();
+        assertThat(rule.between(start, end, date("2024-01-14"), date("2024-01-31"))).isEmpty();
+
+        assertThat(rule.nextAfter(start, end, date("2024-01-04"))).isEqualTo(date("2024-01-07"));
+        assertThat(rule.nextAfter(start, end, date("2023-12-31"))).isEqualTo(start);
+        assertThat(rule.nextAfter(start, end, end)).isNull();
+    }
+
+    @Test
+    void rejectsUnsupportedCombinations() {
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20240101"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(RecurrenceRule.parse("rrule:freq=weekly;byday=fr,mo;interval=1").toString())
+                .isEqualTo("FREQ=WEEKLY;BYDAY=MO,FR");
+    }
+
+    private static LocalDate date(String text) {
+        return LocalDate.parse(text);
+    }
+}
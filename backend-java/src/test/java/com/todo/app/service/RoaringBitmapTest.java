@@ -0,0 +1,134 @@
+package com.todo.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RoaringBitmap 的交 / 并 / 差与 BitSet 逐位对照，覆盖数组容器、位图容器以及两者混合的块
+ */
+class RoaringBitmapTest {
+
+    private static final int BLOCK = 1 << 16;
+
+    /** 每块的取值密度：数组容器（稀疏）、刚好跨过 4096 的位图容器、稠密的位图容器 */
+    private static final double[] DENSITIES = {0.001, 0.0626, 0.5};
+
+    @Test
+    void algebraMatchesBitSetAcrossContainerTypes() {
+        Random random = new Random(42);
+        for (double left : DENSITIES) {
+            for (double right : DENSITIES) {
+                BitSet a = new BitSet();
+                BitSet b = new BitSet();
+                // 块 0 两边都有，块 1 只有左边，块 3 只有右边，块 5 两边都有且密度交换
+                fill(a, random, 0, left);
+                fill(b, random, 0, right);
+                fill(a, random, 1, left);
+                fill(b, random, 3, right);
+                fill(a, random, 5, right);
+                fill(b, random, 5, left);
+
+                RoaringBitmap x = bitmap(a);
+                RoaringBitmap y = bitmap(b);
+                String pair = left + " / " + right;
+
+                assertThat(x.and(y).toArray()).as("and " + pair).isEqualTo(and(a, b).stream().toArray());
+                assertThat(x.or(y).toArray()).as("or " + pair).isEqualTo(or(a, b).stream().toArray());
+                assertThat(x.andNot(y).toArray()).as("andNot " + pair).isEqualTo(andNot(a, b).stream().toArray());
+                assertThat(y.andNot(x).toArray()).as("andNot " + pair).isEqualTo(andNot(b, a).stream().toArray());
+
+                // 运算返回新位图，参与运算的两个不变
+                assertThat(x.toArray()).isEqualTo(a.stream().toArray());
+                assertThat(y.toArray()).isEqualTo(b.stream().toArray());
+            }
+        }
+    }
+
+    @Test
+    void containersConvertBothWaysAtTheArrayLimit() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i <= 4096; i++) {
+            bitmap.add(BLOCK + i * 3);
+            expected.set(BLOCK + i * 3);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+
+        bitmap.remove(BLOCK);
+        expected.clear(BLOCK);
+        bitmap.add(BLOCK + 1);
+        expected.set(BLOCK + 1);
+        bitmap.remove(BLOCK + 3);
+        expected.clear(BLOCK + 3);
+
+        assertThat(bitmap.toArray()).isEqualTo(expected.stream().toArray());
+        assertThat(bitmap.contains(BLOCK + 1)).isTrue();
+        assertThat(bitmap.contains(BLOCK + 3)).isFalse();
+        assertThat(bitmap.contains(BLOCK + 2)).isFalse();
+
+        // 两个稠密位图的交集落回稀疏
+        RoaringBitmap evens = new RoaringBitmap();
+        RoaringBitmap odds = new RoaringBitmap();
+        for (int i = 0; i < BLOCK; i += 2) {
+            evens.add(i);
+            odds.add(i + 1);
+        }
+        odds.add(100);
+        assertThat(evens.and(odds).toArray()).containsExactly(100);
+        assertThat(evens.or(odds).cardinality()).isEqualTo(BLOCK);
+        assertThat(evens.andNot(odds).cardinality()).isEqualTo(BLOCK / 2 - 1);
+    }
+
+    @Test
+    void emptiedBlocksAreDropped() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(7);
+        bitmap.add(Integer.MAX_VALUE);
+        bitmap.remove(7);
+        bitmap.remove(8);
+        assertThat(bitmap.toArray()).containsExactly(Integer.MAX_VALUE);
+
+        bitmap.remove(Integer.MAX_VALUE);
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.and(bitmap).isEmpty()).isTrue();
+        assertThat(bitmap.contains(-1)).isFalse();
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void fill(BitSet set, Random random, int block, double density) {
+        for (int low = 0; low < BLOCK; low++) {
+            if (random.nextDouble() < density) {
+                set.set(block * BLOCK + low);
+            }
+        }
+    }
+
+    private static RoaringBitmap bitmap(BitSet set) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        set.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static BitSet and(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static BitSet or(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.or(b);
+        return result;
+    }
+
+    private static BitSet andNot(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.andNot(b);
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.todo.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 节点上的 top-K 缓存在插入、改分、改名、删除之后仍与逐条计算的结果一致
+ */
+class SuggestionTrieTest {
+
+    private static final String[] WORDS = {"alpha", "alpine", "alps", "beta", "better", "bet", "gamma", "game"};
+    private static final String[] PREFIXES = {"", "a", "al", "alp", "alph", "b", "be", "bet", "g", "gam", "x"};
+
+    @Test
+    void cachedTopListsMatchABruteForceRanking() {
+        Random random = new Random(42);
+        SuggestionTrie trie = new SuggestionTrie();
+        Map<Long, SuggestionTrie.Entry> expected = new HashMap<>();
+        long nextScore = 0;
+
+        for (int step = 0; step < 5_000; step++) {
+            long id = random.nextInt(120);
+            if (random.nextInt(4) == 0) {
+                trie.remove(id);
+                expected.remove(id);
+            } else {
+                // 得分互不相同，排名是确定的；改名会让条目换到另一条路径
+                String text = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                SuggestionTrie.Entry entry = new SuggestionTrie.Entry(id, text,
+                        random.nextBoolean() ? nextScore++ : -nextScore++, null, null);
+                trie.put(entry);
+                expected.put(id, entry);
+            }
+
+            String prefix = PREFIXES[random.nextInt(PREFIXES.length)];
+            assertThat(ids(trie.top(prefix, SuggestionTrie.TOP_K)))
+                    .as("step %d, prefix '%s'", step, prefix)
+                    .isEqualTo(bruteForce(expected, prefix));
+        }
+        assertThat(trie.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void rescoringAnEntryKeepsOtherCachedEntries() {
+        SuggestionTrie trie = new SuggestionTrie();
+        for (long id = 0; id < 3 * SuggestionTrie.TOP_K; id++) {
+            trie.put(new SuggestionTrie.Entry(id, "task " + id, id, null, null));
+        }
+        assertThat(ids(trie.top("task", 3))).containsExactly(59L, 58L, 57L);
+
+        trie.put(new SuggestionTrie.Entry(0, "task 0", 1_000, null, null));
+        trie.remove(59);
+        assertThat(ids(trie.top("task", 3))).containsExactly(0L, 58L, 57L);
+        assertThat(ids(trie.top("t", 1))).containsExactly(0L);
+    }
+
+    private static List<Long> bruteForce(Map<Long, SuggestionTrie.Entry> entries, String prefix) {
+        return entries.values().stream()
+                .filter(entry -> SuggestionText.terms(entry.text()).stream().anyMatch(term -> term.startsWith(prefix)))
+                .sorted(Comparator.comparingLong(SuggestionTrie.Entry::score).reversed())
+                .limit(SuggestionTrie.TOP_K)
+                .map(SuggestionTrie.Entry::id)
+                .toList();
+    }
+
+    private static List<Long> ids(List<SuggestionTrie.Entry> entries) {
+        List<Long> ids = new ArrayList<>(entries.size());
+        entries.forEach(entry -> ids.add(entry.id()));
+        return ids;
+    }
+}
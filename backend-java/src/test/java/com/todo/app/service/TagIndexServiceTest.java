@@ -0,0 +1,112 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.invalidation.InvalidationBus;
+import com.todo.app.invalidation.InvalidationProperties;
+import com.todo.app.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 位图按稠密序号索引：ID 超过 int 范围（分片的 ID 序列）时照常工作
+ */
+class TagIndexServiceTest {
+
+    private static final Long USER_ID = 3L;
+    /** 第 3 个分片、步长 16 的 ID 序列，已经超过 2^31 */
+    private static final long BASE = (1L << 32) + 3;
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final TagIndexService service = new TagIndexService(todoRepository,
+            new InvalidationBus(new InvalidationProperties(), null));
+
+    @Test
+    void filtersTodosWithIdsBeyondIntRange() {
+        List<TodoRepository.TagRow> rows = new ArrayList<>();
+        // 故意乱序返回，加载时按 ID 排序
+        rows.add(row(BASE + 32, "work", Todo.Priority.LOW, 7L, true));
+        rows.add(row(BASE, "work,urgent", Todo.Priority.HIGH, 7L, false));
+        rows.add(row(BASE + 16, "home", Todo.Priority.HIGH, null, false));
+        when(todoRepository.findTagRows(USER_ID)).thenReturn(rows);
+
+        assertThat(service.filter(USER_ID, filter(Set.of("work"), Set.of(), null)))
+                .containsExactly(BASE, BASE + 32);
+        assertThat(service.filter(USER_ID, filter(Set.of(), Set.of("urgent"), Todo.Priority.HIGH)))
+                .containsExactly(BASE + 16);
+
+        // 增量维护：新 ID 追加在末尾，已有 ID 原地更新，删除后不再出现
+        service.onTodoSaved(todo(BASE + 48, "work", Todo.Priority.HIGH));
+        service.onTodoSaved(todo(BASE + 16, "work", Todo.Priority.MEDIUM));
+        service.onTodoDeleted(USER_ID, BASE);
+        assertThat(service.filter(USER_ID, filter(Set.of("work"), Set.of(), null)))
+                .containsExactly(BASE + 16, BASE + 32, BASE + 48);
+        assertThat(service.tagCounts(USER_ID)).extracting(dto -> dto.getTag() + "=" + dto.getCount())
+                .containsExactly("work=3");
+        verify(todoRepository, times(1)).findTagRows(USER_ID);
+    }
+
+    @Test
+    void idSmallerThanTheIndexedOnesTriggersAReload() {
+        List<TodoRepository.TagRow> rows = new ArrayList<>(List.of(row(BASE + 16, "work", Todo.Priority.LOW, null, false)));
+        when(todoRepository.findTagRows(USER_ID)).thenAnswer(invocation -> new ArrayList<>(rows));
+        assertThat(service.filter(USER_ID, filter(Set.of("work"), Set.of(), null))).containsExactly(BASE + 16);
+
+        // 例如从归档恢复的旧 ID：无法保持升序，丢弃索引后重新加载
+        rows.add(row(BASE, "work", Todo.Priority.LOW, null, false));
+        service.onTodoSaved(todo(BASE, "work", Todo.Priority.LOW));
+        assertThat(service.filter(USER_ID, filter(Set.of("work"), Set.of(), null))).containsExactly(BASE, BASE + 16);
+        verify(todoRepository, times(2)).findTagRows(USER_ID);
+    }
+
+    private static TagIndexService.Filter filter(Set<String> all, Set<String> none, Todo.Priority priority) {
+        return new TagIndexService.Filter(all, Set.of(), none, priority, null, null);
+    }
+
+    private static Todo todo(long id, String tags, Todo.Priority priority) {
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setUserId(USER_ID);
+        todo.setTags(tags);
+        todo.setPriority(priority);
+        return todo;
+    }
+
+    private static TodoRepository.TagRow row(long id, String tags, Todo.Priority priority, Long categoryId,
+                                             boolean completed) {
+        return new TodoRepository.TagRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTags() {
+                return tags;
+            }
+
+            @Override
+            public Todo.Priority getPriority() {
+                return priority;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Boolean getIsCompleted() {
+                return completed;
+            }
+        };
+    }
+}